@@ -0,0 +1,92 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.ide.common.client.modeldriven;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.drools.guvnor.shared.api.PortableObject;
+
+/**
+ * What a SuggestionCompletionEngine knows about one fact type: its fields,
+ * methods, enumerations and annotations. A slim engine only has the names of
+ * the fact types, and is given their details as they are needed.
+ * 
+ * The maps are keyed like those of the engine, that is by "FactType.field".
+ */
+public class FactTypeDetails
+        implements
+        PortableObject {
+
+    private String                                 factType;
+    private ModelField[]                           fields               = new ModelField[0];
+    private List<MethodInfo>                       methodInfos;
+    private List<ModelAnnotation>                  annotations;
+    private Map<String, FieldAccessorsAndMutators> accessorsAndMutators = new HashMap<String, FieldAccessorsAndMutators>();
+    private Map<String, String>                    fieldParametersType  = new HashMap<String, String>();
+    private Map<String, String[]>                  dataEnumLists        = new HashMap<String, String[]>();
+
+    public FactTypeDetails() {
+    }
+
+    public FactTypeDetails(String factType) {
+        this.factType = factType;
+    }
+
+    public String getFactType() {
+        return factType;
+    }
+
+    public ModelField[] getFields() {
+        return fields;
+    }
+
+    public void setFields(ModelField[] fields) {
+        this.fields = fields;
+    }
+
+    public List<MethodInfo> getMethodInfos() {
+        return methodInfos;
+    }
+
+    public void setMethodInfos(List<MethodInfo> methodInfos) {
+        this.methodInfos = methodInfos == null ? null : new ArrayList<MethodInfo>( methodInfos );
+    }
+
+    public List<ModelAnnotation> getAnnotations() {
+        return annotations;
+    }
+
+    public void setAnnotations(List<ModelAnnotation> annotations) {
+        this.annotations = annotations == null ? null : new ArrayList<ModelAnnotation>( annotations );
+    }
+
+    public Map<String, FieldAccessorsAndMutators> getAccessorsAndMutators() {
+        return accessorsAndMutators;
+    }
+
+    public Map<String, String> getFieldParametersType() {
+        return fieldParametersType;
+    }
+
+    public Map<String, String[]> getDataEnumLists() {
+        return dataEnumLists;
+    }
+
+}
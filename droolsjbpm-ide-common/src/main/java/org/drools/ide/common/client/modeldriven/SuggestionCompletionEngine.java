@@ -19,6 +19,7 @@ package org.drools.ide.common.client.modeldriven;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -213,6 +214,18 @@ public class SuggestionCompletionEngine
     private FactTypeFilter                          factFilter               = null;
     private boolean                                 filteringFacts           = true;
 
+    /**
+     * Identifies the content of the engine, so that it does not need to be sent
+     * again to a client that already has it. Optional.
+     */
+    private String                                  contentHash;
+
+    /**
+     * The fact types whose details have been added to a slim engine (see
+     * createSlimCopy()), or null if this engine has the details of all of them.
+     */
+    private Set<String>                             loadedFactTypes          = null;
+
     public SuggestionCompletionEngine() {
 
     }
@@ -888,6 +901,140 @@ public class SuggestionCompletionEngine
         return false;
     }
 
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    /**
+     * Creates a copy of this engine with only the names of the fact types, the
+     * globals and the DSL sentences. The fields, methods, enumerations and
+     * annotations of a fact type are added later with addFactTypeDetails(), so
+     * that a client is only sent the details of the fact types it uses.
+     * 
+     * @return the slim copy
+     */
+    public SuggestionCompletionEngine createSlimCopy() {
+        SuggestionCompletionEngine slim = new SuggestionCompletionEngine();
+        slim.setFactTypes( this.modelFields.keySet().toArray( new String[this.modelFields.size()] ) );
+        slim.globalTypes = new HashMap<String, String>( this.globalTypes );
+        slim.globalCollections = this.globalCollections;
+        slim.conditionDSLSentences = this.conditionDSLSentences;
+        slim.actionDSLSentences = this.actionDSLSentences;
+        slim.keywordDSLItems = this.keywordDSLItems;
+        slim.anyScopeDSLItems = this.anyScopeDSLItems;
+        slim.filteringFacts = this.filteringFacts;
+        slim.contentHash = this.contentHash;
+        slim.loadedFactTypes = new HashSet<String>();
+
+        //enumerations of things that are not fact types are not sent with any details
+        for ( Map.Entry<String, String[]> entry : this.dataEnumLists.entrySet() ) {
+            if ( !isKeyOfFactType( entry.getKey() ) ) {
+                slim.dataEnumLists.put( entry.getKey(),
+                                        entry.getValue() );
+            }
+        }
+        return slim;
+    }
+
+    /**
+     * @return the details of a fact type, or null if there is no such fact type
+     */
+    public FactTypeDetails getFactTypeDetails(String factType) {
+        ModelField[] fields = this.modelFields.get( factType );
+        if ( fields == null ) {
+            return null;
+        }
+        FactTypeDetails details = new FactTypeDetails( factType );
+        details.setFields( fields );
+        details.setMethodInfos( this.methodInfos.get( factType ) );
+        details.setAnnotations( this.annotationsForTypes.get( factType ) );
+        putAllOfFactType( factType,
+                          this.accessorsAndMutators,
+                          details.getAccessorsAndMutators() );
+        putAllOfFactType( factType,
+                          this.fieldParametersType,
+                          details.getFieldParametersType() );
+        putAllOfFactType( factType,
+                          this.dataEnumLists,
+                          details.getDataEnumLists() );
+        return details;
+    }
+
+    /**
+     * Adds the details of fact types to a slim engine.
+     */
+    public void addFactTypeDetails(FactTypeDetails[] details) {
+        for ( FactTypeDetails detail : details ) {
+            String factType = detail.getFactType();
+            this.modelFields.put( factType,
+                                  detail.getFields() );
+            if ( detail.getMethodInfos() != null ) {
+                this.methodInfos.put( factType,
+                                      detail.getMethodInfos() );
+            }
+            if ( detail.getAnnotations() != null ) {
+                this.annotationsForTypes.put( factType,
+                                              detail.getAnnotations() );
+            }
+            this.accessorsAndMutators.putAll( detail.getAccessorsAndMutators() );
+            this.fieldParametersType.putAll( detail.getFieldParametersType() );
+            this.dataEnumLists.putAll( detail.getDataEnumLists() );
+            if ( this.loadedFactTypes != null ) {
+                this.loadedFactTypes.add( factType );
+            }
+        }
+        this.dataEnumLookupFields = null;
+        filterModelFields();
+    }
+
+    /**
+     * @return true if this engine only has the details of the fact types that
+     *         have been added to it.
+     */
+    public boolean isSlim() {
+        return this.loadedFactTypes != null;
+    }
+
+    public boolean isFactTypeLoaded(String factType) {
+        return this.loadedFactTypes == null || this.loadedFactTypes.contains( factType );
+    }
+
+    /**
+     * @return the fact types, of the given ones, whose details have not been
+     *         added yet. Fact types this engine does not have are left out.
+     */
+    public String[] getFactTypesNotLoaded(String[] factTypes) {
+        List<String> notLoaded = new ArrayList<String>();
+        for ( String factType : factTypes ) {
+            if ( this.modelFields.containsKey( factType ) && !isFactTypeLoaded( factType ) ) {
+                notLoaded.add( factType );
+            }
+        }
+        return notLoaded.toArray( new String[notLoaded.size()] );
+    }
+
+    private boolean isKeyOfFactType(String key) {
+        int ix = key.indexOf( '.' );
+        return ix > 0 && this.modelFields.containsKey( key.substring( 0,
+                                                                      ix ) );
+    }
+
+    private static <V> void putAllOfFactType(String factType,
+                                             Map<String, V> from,
+                                             Map<String, V> to) {
+        String prefix = factType + ".";
+        for ( Map.Entry<String, V> entry : from.entrySet() ) {
+            if ( entry.getKey().startsWith( prefix ) ) {
+                to.put( entry.getKey(),
+                        entry.getValue() );
+            }
+        }
+    }
+
     public boolean containsFactType(String modelClassName) {
         if ( modelClassName == null ) {
             return false;
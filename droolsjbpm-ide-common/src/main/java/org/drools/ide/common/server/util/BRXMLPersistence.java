@@ -57,9 +57,9 @@ import com.thoughtworks.xstream.XStream;
 import com.thoughtworks.xstream.converters.MarshallingContext;
 import com.thoughtworks.xstream.converters.UnmarshallingContext;
 import com.thoughtworks.xstream.converters.collections.CollectionConverter;
+import com.thoughtworks.xstream.io.HierarchicalStreamDriver;
 import com.thoughtworks.xstream.io.HierarchicalStreamReader;
 import com.thoughtworks.xstream.io.HierarchicalStreamWriter;
-import com.thoughtworks.xstream.io.xml.DomDriver;
 import com.thoughtworks.xstream.mapper.Mapper;
 
 /**
@@ -70,14 +70,18 @@ public class BRXMLPersistence
     implements
     BRLPersistence {
 
-    private XStream                              xt;
+    private final XStream                        xt;
     private static final RuleModelUpgradeHelper1 upgrader1 = new RuleModelUpgradeHelper1();
     private static final RuleModelUpgradeHelper2 upgrader2 = new RuleModelUpgradeHelper2();
     private static final RuleModelUpgradeHelper3 upgrader3 = new RuleModelUpgradeHelper3();
     private static final BRLPersistence          INSTANCE  = new BRXMLPersistence();
 
     protected BRXMLPersistence() {
-        this.xt = new XStream( new DomDriver() );
+        this( new StreamingXmlDriver() );
+    }
+
+    BRXMLPersistence(final HierarchicalStreamDriver driver) {
+        this.xt = new XStream( driver );
 
         this.xt.alias( "rule",
                        RuleModel.class );
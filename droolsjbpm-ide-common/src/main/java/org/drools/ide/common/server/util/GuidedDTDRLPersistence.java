@@ -16,6 +16,9 @@
 
 package org.drools.ide.common.server.util;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -79,13 +82,45 @@ public class GuidedDTDRLPersistence {
     }
 
     public String marshal(GuidedDecisionTable52 dt) {
+        StringWriter out = new StringWriter();
+        try {
+            marshal( dt,
+                     out );
+        } catch ( IOException e ) {
+            //A StringWriter does not throw
+            throw new IllegalStateException( e );
+        }
+        return out.toString();
+    }
+
+    /**
+     * Writes the DRL of a decision table one row at a time, so that only the
+     * model and the DRL of a single row are held in memory.
+     */
+    public void marshal(GuidedDecisionTable52 dt,
+                        Writer out) throws IOException {
+        marshal( dt,
+                 0,
+                 dt.getData().size(),
+                 out );
+    }
 
-        StringBuilder sb = new StringBuilder();
+    /**
+     * Writes the DRL of the rows of a decision table from fromRow (inclusive)
+     * to toRow (exclusive), so that a large table can be built in parts.
+     */
+    public void marshal(GuidedDecisionTable52 dt,
+                        int fromRow,
+                        int toRow,
+                        Writer out) throws IOException {
 
         List<List<DTCellValue52>> data = dt.getData();
         List<BaseColumn> allColumns = dt.getExpandedColumns();
 
-        for ( int i = 0; i < data.size(); i++ ) {
+        //One model, cleared for every row
+        BRLRuleModel rm = new BRLRuleModel( dt );
+
+        for ( int i = fromRow; i < toRow; i++ ) {
 
             List<DTCellValue52> row = data.get( i );
 
@@ -96,7 +131,7 @@ public class GuidedDTDRLPersistence {
             Integer num = (Integer) row.get( 0 ).getNumericValue();
             String desc = row.get( 1 ).getStringValue();
 
-            BRLRuleModel rm = new BRLRuleModel( dt );
+            clear( rm );
             rm.name = getName( dt.getTableName(),
                                num );
 
@@ -124,19 +159,26 @@ public class GuidedDTDRLPersistence {
                 rm.parentName = dt.getParentName();
             }
 
-            sb.append( "//from row number: " + (i + 1) + "\n" );
+            out.write( "//from row number: " + (i + 1) + "\n" );
             if ( desc != null && desc.length() > 0 ) {
-                sb.append( "//" + desc + "\n" );
+                out.write( "//" + desc + "\n" );
             }
 
             GuidedDTBRDRLPersistence drlMarshaller = new GuidedDTBRDRLPersistence( rowDataProvider );
-            String rule = drlMarshaller.marshal( rm );
-            sb.append( rule );
-            sb.append( "\n" );
+            out.write( drlMarshaller.marshal( rm ) );
+            out.write( "\n" );
         }
 
-        return sb.toString();
+    }
 
+    private void clear(RuleModel rm) {
+        rm.name = null;
+        rm.parentName = null;
+        rm.attributes = new RuleAttribute[0];
+        rm.metadataList = new RuleMetadata[0];
+        rm.lhs = new IPattern[0];
+        rm.rhs = new IAction[0];
+        rm.setNegated( false );
     }
 
     void doActions(List<BaseColumn> allColumns,
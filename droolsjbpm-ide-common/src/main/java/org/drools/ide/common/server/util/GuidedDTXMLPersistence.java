@@ -38,19 +38,23 @@ import org.drools.ide.common.server.util.upgrade.GuidedDecisionTableUpgradeHelpe
 import org.drools.ide.common.server.util.upgrade.GuidedDecisionTableUpgradeHelper3;
 
 import com.thoughtworks.xstream.XStream;
-import com.thoughtworks.xstream.io.xml.DomDriver;
+import com.thoughtworks.xstream.io.HierarchicalStreamDriver;
 
 @SuppressWarnings("deprecation")
 public class GuidedDTXMLPersistence {
 
-    private XStream                                        xt;
+    private final XStream                                  xt;
     private static final GuidedDecisionTableUpgradeHelper1 upgrader1 = new GuidedDecisionTableUpgradeHelper1();
     private static final GuidedDecisionTableUpgradeHelper2 upgrader2 = new GuidedDecisionTableUpgradeHelper2();
     private static final GuidedDecisionTableUpgradeHelper3 upgrader3 = new GuidedDecisionTableUpgradeHelper3();
     private static final GuidedDTXMLPersistence            INSTANCE  = new GuidedDTXMLPersistence();
 
     private GuidedDTXMLPersistence() {
-        xt = new XStream( new DomDriver() );
+        this( new StreamingXmlDriver() );
+    }
+
+    GuidedDTXMLPersistence(final HierarchicalStreamDriver driver) {
+        xt = new XStream( driver );
 
         //Legacy model
         xt.alias( "decision-table",
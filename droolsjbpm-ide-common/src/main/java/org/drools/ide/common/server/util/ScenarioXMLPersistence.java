@@ -17,7 +17,6 @@
 package org.drools.ide.common.server.util;
 
 import com.thoughtworks.xstream.XStream;
-import com.thoughtworks.xstream.io.xml.DomDriver;
 import org.drools.ide.common.client.modeldriven.testing.*;
 
 
@@ -26,11 +25,11 @@ import org.drools.ide.common.client.modeldriven.testing.*;
  */
 public class ScenarioXMLPersistence {
 
-    private XStream xt;
+    private final XStream xt;
     private static final ScenarioXMLPersistence INSTANCE = new ScenarioXMLPersistence();
 
     private ScenarioXMLPersistence() {
-        xt = new XStream(new DomDriver());
+        xt = new XStream(new StreamingXmlDriver());
         xt.alias("scenario", Scenario.class);
         xt.alias("execution-trace", ExecutionTrace.class);
         xt.alias("expectation", Expectation.class);
@@ -17,17 +17,16 @@
 package org.drools.ide.common.server.util;
 
 import com.thoughtworks.xstream.XStream;
-import com.thoughtworks.xstream.io.xml.DomDriver;
 import org.drools.ide.common.client.modeldriven.scorecards.ScorecardModel;
 
 import java.math.BigDecimal;
 
 public class ScorecardsXMLPersistence {
-    private XStream xt;
+    private final XStream xt;
     private static final ScorecardsXMLPersistence INSTANCE = new ScorecardsXMLPersistence();
 
     public ScorecardsXMLPersistence() {
-        xt = new XStream(new DomDriver());
+        xt = new XStream(new StreamingXmlDriver());
         //All numerical values are historically BigDecimal
         xt.alias("valueNumeric", Number.class, BigDecimal.class);
     }
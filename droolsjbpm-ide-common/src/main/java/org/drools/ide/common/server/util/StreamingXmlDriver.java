@@ -0,0 +1,56 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.ide.common.server.util;
+
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+
+import com.thoughtworks.xstream.io.HierarchicalStreamWriter;
+import com.thoughtworks.xstream.io.StreamException;
+import com.thoughtworks.xstream.io.xml.PrettyPrintWriter;
+import com.thoughtworks.xstream.io.xml.StaxDriver;
+
+/**
+ * An XStream driver that reads XML with a StAX pull parser, rather than first
+ * building a W3C DOM of the whole document as DomDriver does. XML is written
+ * with the same PrettyPrintWriter used by DomDriver, so persisted assets are
+ * unchanged.
+ * 
+ * A single instance, and the XStream configured with it, can be shared by
+ * concurrent threads.
+ */
+public class StreamingXmlDriver extends StaxDriver {
+
+    @Override
+    public HierarchicalStreamWriter createWriter(Writer out) {
+        return new PrettyPrintWriter( out,
+                                      getNameCoder() );
+    }
+
+    @Override
+    public HierarchicalStreamWriter createWriter(OutputStream out) {
+        try {
+            return createWriter( new OutputStreamWriter( out,
+                                                         "UTF-8" ) );
+        } catch ( UnsupportedEncodingException e ) {
+            throw new StreamException( e );
+        }
+    }
+
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.ide.common.client.modeldriven;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.jar.JarInputStream;
+
+import org.drools.ide.common.server.rules.SuggestionCompletionLoader;
+import org.drools.lang.dsl.DSLTokenizedMappingFile;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SuggestionCompletionEngineSlimCopyTest {
+
+    private SuggestionCompletionEngine engine;
+
+    @Before
+    public void setUp() {
+        String pkg = "package org.test\n";
+        pkg += "global java.util.List list\n";
+        pkg += "declare Person\n";
+        pkg += "age: Integer\n";
+        pkg += "name: String\n";
+        pkg += "end\n";
+        pkg += "declare Vehicle\n";
+        pkg += "make: String\n";
+        pkg += "end\n";
+
+        SuggestionCompletionLoader loader = new SuggestionCompletionLoader();
+        engine = loader.getSuggestionEngine( pkg,
+                                             new ArrayList<JarInputStream>(),
+                                             new ArrayList<DSLTokenizedMappingFile>(),
+                                             new ArrayList<String>() );
+        engine.putDataEnumList( "Person.name",
+                                new String[]{"bob", "mike"} );
+        engine.putDataEnumList( "Other.field",
+                                new String[]{"x"} );
+        engine.setContentHash( "hash" );
+    }
+
+    @Test
+    public void testSlimCopyOnlyHasNamesAndGlobals() {
+        SuggestionCompletionEngine slim = engine.createSlimCopy();
+
+        assertTrue( slim.isSlim() );
+        assertFalse( engine.isSlim() );
+        assertEquals( "hash",
+                      slim.getContentHash() );
+        assertArrayEquals( engine.getFactTypes(),
+                           slim.getFactTypes() );
+        assertArrayEquals( engine.getGlobalVariables(),
+                           slim.getGlobalVariables() );
+        assertEquals( 0,
+                      slim.getFieldCompletions( "Person" ).length );
+        assertNull( slim.getDataEnumList( "Person.name" ) );
+        assertArrayEquals( new String[]{"x"},
+                           slim.getDataEnumList( "Other.field" ) );
+        assertFalse( slim.isFactTypeLoaded( "Person" ) );
+        assertArrayEquals( new String[]{"Person", "Vehicle"},
+                           slim.getFactTypesNotLoaded( new String[]{"Person", "Vehicle"} ) );
+    }
+
+    @Test
+    public void testAddFactTypeDetails() {
+        SuggestionCompletionEngine slim = engine.createSlimCopy();
+        slim.addFactTypeDetails( new FactTypeDetails[]{engine.getFactTypeDetails( "Person" )} );
+
+        assertTrue( slim.isFactTypeLoaded( "Person" ) );
+        assertFalse( slim.isFactTypeLoaded( "Vehicle" ) );
+        assertArrayEquals( engine.getFieldCompletions( "Person" ),
+                           slim.getFieldCompletions( "Person" ) );
+        assertArrayEquals( engine.getFieldCompletions( FieldAccessorsAndMutators.MUTATOR,
+                                                       "Person" ),
+                           slim.getFieldCompletions( FieldAccessorsAndMutators.MUTATOR,
+                                                     "Person" ) );
+        assertEquals( engine.getFieldClassName( "Person",
+                                                "age" ),
+                      slim.getFieldClassName( "Person",
+                                              "age" ) );
+        assertArrayEquals( new String[]{"bob", "mike"},
+                           slim.getDataEnumList( "Person.name" ) );
+        assertEquals( 0,
+                      slim.getFieldCompletions( "Vehicle" ).length );
+    }
+
+    @Test
+    public void testUnknownFactTypeHasNoDetails() {
+        assertNull( engine.getFactTypeDetails( "Unknown" ) );
+    }
+
+}
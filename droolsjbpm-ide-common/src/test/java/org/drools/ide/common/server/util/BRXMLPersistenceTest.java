@@ -24,6 +24,8 @@ import org.drools.ide.common.client.modeldriven.brl.DSLVariableValue;
 import org.drools.ide.common.client.modeldriven.brl.RuleModel;
 import org.junit.Test;
 
+import com.thoughtworks.xstream.io.xml.DomDriver;
+
 public class BRXMLPersistenceTest {
 
     @Test
@@ -156,4 +158,12 @@ public class BRXMLPersistenceTest {
 
     }
 
+    @Test
+    public void testStreamingDriverMatchesDomDriver() throws Exception {
+        String xml = BRLPersistenceTest.loadResource( "existing_brl.xml" );
+        BRXMLPersistence dom = new BRXMLPersistence( new DomDriver() );
+        assertEquals( dom.marshal( dom.unmarshal( xml ) ),
+                      BRXMLPersistence.getInstance().marshal( BRXMLPersistence.getInstance().unmarshal( xml ) ) );
+    }
+
 }
@@ -23,6 +23,7 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -169,6 +170,65 @@ public class GuidedDTDRLPersistenceTest {
 
     }
 
+    @Test
+    public void testMarshalRowRanges() throws Exception {
+        GuidedDecisionTable52 dt = new GuidedDecisionTable52();
+        dt.setTableName( "ranges" );
+
+        AttributeCol52 attr = new AttributeCol52();
+        attr.setAttribute( "salience" );
+        dt.getAttributeCols().add( attr );
+
+        Pattern52 p1 = new Pattern52();
+        p1.setBoundName( "f1" );
+        p1.setFactType( "Driver" );
+
+        ConditionCol52 con = new ConditionCol52();
+        con.setConstraintValueType( BaseSingleFieldConstraint.TYPE_LITERAL );
+        con.setFactField( "age" );
+        con.setOperator( "==" );
+        p1.getChildColumns().add( con );
+        dt.getConditions().add( p1 );
+
+        ActionSetFieldCol52 set = new ActionSetFieldCol52();
+        set.setBoundName( "f1" );
+        set.setFactField( "name" );
+        set.setType( SuggestionCompletionEngine.TYPE_STRING );
+        dt.getActionCols().add( set );
+
+        dt.setData( upgrader.makeDataLists( new String[][]{
+                new String[]{"1", "desc", "10", "42", "michael"},
+                new String[]{"2", "", "", "43", "bob"},
+                new String[]{"3", "", "30", "44", ""}
+        } ) );
+
+        GuidedDTDRLPersistence p = GuidedDTDRLPersistence.getInstance();
+        String drl = p.marshal( dt );
+
+        StringWriter parts = new StringWriter();
+        p.marshal( dt,
+                   0,
+                   1,
+                   parts );
+        p.marshal( dt,
+                   1,
+                   3,
+                   parts );
+        assertEquals( drl,
+                      parts.toString() );
+
+        //Each row starts from an empty rule
+        StringWriter secondRow = new StringWriter();
+        p.marshal( dt,
+                   1,
+                   2,
+                   secondRow );
+        assertTrue( secondRow.toString().indexOf( "age == \"43\"" ) > 0 );
+        assertFalse( secondRow.toString().indexOf( "salience" ) > 0 );
+        assertFalse( secondRow.toString().indexOf( "age == \"42\"" ) > 0 );
+        assertTrue( drl.indexOf( "salience 30" ) > drl.indexOf( "f1.setName( \"bob\" )" ) );
+    }
+
     @Test
     public void testAttribs() {
         GuidedDTDRLPersistence p = new GuidedDTDRLPersistence();
@@ -20,10 +20,14 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.drools.ide.common.client.modeldriven.dt52.ActionInsertFactCol52;
 import org.drools.ide.common.client.modeldriven.dt52.ActionSetFieldCol52;
 import org.drools.ide.common.client.modeldriven.dt52.AttributeCol52;
 import org.drools.ide.common.client.modeldriven.dt52.ConditionCol52;
+import org.drools.ide.common.client.modeldriven.dt52.DTCellValue52;
 import org.drools.ide.common.client.modeldriven.dt52.GuidedDecisionTable52;
 import org.drools.ide.common.client.modeldriven.dt52.MetadataCol52;
 import org.drools.ide.common.client.modeldriven.dt52.Pattern52;
@@ -31,6 +35,8 @@ import org.drools.ide.common.server.util.upgrade.GuidedDecisionTableUpgradeHelpe
 import org.junit.Before;
 import org.junit.Test;
 
+import com.thoughtworks.xstream.io.xml.DomDriver;
+
 public class GuidedDTXMLPersistenceTest {
 
     private GuidedDecisionTableUpgradeHelper1 upgrader = new GuidedDecisionTableUpgradeHelper1();
@@ -115,4 +121,37 @@ public class GuidedDTXMLPersistenceTest {
                       asf.isUpdate() );
     }
 
+    @Test
+    public void testStreamingDriverMatchesDomDriver() throws Exception {
+        GuidedDecisionTable52 dt = new GuidedDecisionTable52();
+        Pattern52 p = new Pattern52();
+        p.setFactType( "Driver" );
+        p.setBoundName( "d" );
+        ConditionCol52 name = new ConditionCol52();
+        name.setFactField( "name" );
+        name.setOperator( "==" );
+        p.getChildColumns().add( name );
+        ConditionCol52 age = new ConditionCol52();
+        age.setFactField( "age" );
+        age.setOperator( ">" );
+        p.getChildColumns().add( age );
+        dt.getConditions().add( p );
+        for ( int iRow = 0; iRow < 10; iRow++ ) {
+            List<DTCellValue52> row = new ArrayList<DTCellValue52>();
+            row.add( new DTCellValue52( iRow + 1 ) );
+            row.add( new DTCellValue52( "" ) );
+            row.add( new DTCellValue52( "name" + iRow ) );
+            row.add( new DTCellValue52( iRow * 10 ) );
+            dt.getData().add( row );
+        }
+
+        String[] tables = new String[]{GuidedDTXMLPersistence.getInstance().marshal( dt ),
+                                       BRLPersistenceTest.loadResource( "ExistingDecisionTable.xml" )};
+        GuidedDTXMLPersistence dom = new GuidedDTXMLPersistence( new DomDriver() );
+        for ( String xml : tables ) {
+            assertEquals( dom.marshal( dom.unmarshal( xml ) ),
+                          GuidedDTXMLPersistence.getInstance().marshal( GuidedDTXMLPersistence.getInstance().unmarshal( xml ) ) );
+        }
+    }
+
 }
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.guvnor.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarInputStream;
+
+import org.drools.guvnor.benchmarks.data.ModelGenerator;
+import org.drools.guvnor.server.builder.ClassLoaderBuilder;
+import org.drools.rule.MapBackedClassLoader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Builds the class loader of a module from 2 POJO model jars, each with the given number of 2KB entries.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ClassLoaderBuilderBenchmark {
+
+    private static final int JARS = 2;
+
+    @Param({"10", "100", "1000"})
+    private int entries;
+
+    private byte[][] jars;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ModelGenerator modelGenerator = new ModelGenerator();
+        jars = new byte[JARS][];
+        for (int i = 0; i < JARS; i++) {
+            jars[i] = modelGenerator.jar(entries,
+                    2048);
+        }
+    }
+
+    @Benchmark
+    public MapBackedClassLoader buildClassLoader() throws IOException {
+        //The streams are read by the builder, so they are opened for every invocation
+        List<JarInputStream> jarInputStreams = new ArrayList<JarInputStream>(JARS);
+        for (byte[] jar : jars) {
+            jarInputStreams.add(new JarInputStream(new ByteArrayInputStream(jar),
+                    false));
+        }
+        return new ClassLoaderBuilder(jarInputStreams).buildClassLoader();
+    }
+
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.guvnor.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.drools.guvnor.benchmarks.data.RepositoryGenerator;
+import org.drools.guvnor.server.builder.PackageAssembler;
+import org.drools.repository.ModuleItem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Builds a module of DRL rules, guided rules and guided decision tables, as "Build package" does. The module has exactly
+ * {@code rules} rules: 30% are guided rules, 10% are rows of decision tables of up to 10 rows and the rest are DRL.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PackageAssemblerBenchmark {
+
+    private static final int TABLE_ROWS = 10;
+
+    @Param({"10", "100", "500"})
+    private int rules;
+
+    private RepositoryGenerator repositoryGenerator;
+    private ModuleItem module;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        int guidedRules = rules * 3 / 10;
+        int tableRows = Math.max(1,
+                Math.min(TABLE_ROWS,
+                        rules / 10));
+        int decisionTables = rules / 10 / tableRows;
+        int drlRules = rules - guidedRules - decisionTables * tableRows;
+
+        repositoryGenerator = RepositoryGenerator.start();
+        module = repositoryGenerator.createModule("compile" + rules,
+                drlRules,
+                guidedRules,
+                decisionTables,
+                tableRows);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        repositoryGenerator.shutdown();
+    }
+
+    @Benchmark
+    public byte[] compile() {
+        PackageAssembler assembler = new PackageAssembler();
+        assembler.init(module,
+                null);
+        assembler.compile();
+        if (assembler.hasErrors()) {
+            throw new IllegalStateException("The generated module does not build: " + assembler.getErrors());
+        }
+        return module.getCompiledBinaryBytes();
+    }
+
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.guvnor.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.drools.guvnor.benchmarks.data.ModelGenerator;
+import org.drools.ide.common.client.modeldriven.brl.RuleModel;
+import org.drools.ide.common.client.modeldriven.dt52.GuidedDecisionTable52;
+import org.drools.ide.common.server.util.BRDRLPersistence;
+import org.drools.ide.common.server.util.BRXMLPersistence;
+import org.drools.ide.common.server.util.GuidedDTDRLPersistence;
+import org.drools.ide.common.server.util.GuidedDTXMLPersistence;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Marshals guided rules and guided decision tables to and from the XML they are stored as, and to the DRL they are
+ * built from. Reading the XML is also measured on its own, as assets are read far more often than they are saved. The
+ * size is the number of constraints of a guided rule, and the number of rows of a decision table.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PersistenceBenchmark {
+
+    @Param({"4", "40", "400"})
+    private int size;
+
+    private RuleModel ruleModel;
+    private String ruleModelXml;
+    private GuidedDecisionTable52 decisionTable;
+    private String decisionTableXml;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ModelGenerator modelGenerator = new ModelGenerator();
+        ruleModel = modelGenerator.ruleModel(0,
+                size);
+        ruleModelXml = BRXMLPersistence.getInstance().marshal(ruleModel);
+        decisionTable = modelGenerator.decisionTable(0,
+                size);
+        decisionTableXml = GuidedDTXMLPersistence.getInstance().marshal(decisionTable);
+    }
+
+    @Benchmark
+    public String ruleModelXmlRoundTrip() {
+        RuleModel model = BRXMLPersistence.getInstance().unmarshal(ruleModelXml);
+        return BRXMLPersistence.getInstance().marshal(model);
+    }
+
+    @Benchmark
+    public RuleModel ruleModelFromXml() {
+        return BRXMLPersistence.getInstance().unmarshal(ruleModelXml);
+    }
+
+    @Benchmark
+    public String ruleModelToDrl() {
+        return BRDRLPersistence.getInstance().marshal(ruleModel);
+    }
+
+    @Benchmark
+    public String decisionTableXmlRoundTrip() {
+        GuidedDecisionTable52 dt = GuidedDTXMLPersistence.getInstance().unmarshal(decisionTableXml);
+        return GuidedDTXMLPersistence.getInstance().marshal(dt);
+    }
+
+    @Benchmark
+    public GuidedDecisionTable52 decisionTableFromXml() {
+        return GuidedDTXMLPersistence.getInstance().unmarshal(decisionTableXml);
+    }
+
+    @Benchmark
+    public String decisionTableToDrl() {
+        return GuidedDTDRLPersistence.getInstance().marshal(decisionTable);
+    }
+
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.guvnor.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.drools.guvnor.benchmarks.data.RepositoryGenerator;
+import org.drools.repository.AssetItem;
+import org.drools.repository.AssetItemIterator;
+import org.drools.repository.AssetItemPageResult;
+import org.drools.repository.RulesRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Searches an embedded Jackrabbit repository of 4 modules, with the given number of DRL assets in total. The assets
+ * are spread over 4 categories and 10 subjects, and every result is read, as the asset lists do.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RulesRepositoryQueryBenchmark {
+
+    private static final String[] CATEGORIES = {"Home", "Motor", "Life", "Travel"};
+    private static final int MODULES = 4;
+
+    @Param({"100", "1000"})
+    private int assets;
+
+    private RepositoryGenerator repositoryGenerator;
+    private RulesRepository rulesRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        repositoryGenerator = RepositoryGenerator.start();
+        for (String category : CATEGORIES) {
+            repositoryGenerator.createCategory(category);
+        }
+        for (int i = 0; i < MODULES; i++) {
+            repositoryGenerator.createModule("query" + i,
+                    assets / MODULES,
+                    0,
+                    0,
+                    0,
+                    CATEGORIES);
+        }
+        rulesRepository = repositoryGenerator.getRulesRepository();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        repositoryGenerator.shutdown();
+    }
+
+    @Benchmark
+    public int query() {
+        Map<String, String[]> params = new HashMap<String, String[]>();
+        params.put("drools:subject",
+                new String[]{"benchmark 3"});
+        params.put(AssetItem.TITLE_PROPERTY_NAME,
+                new String[]{"drl_*"});
+        return read(rulesRepository.query(params,
+                false,
+                null));
+    }
+
+    @Benchmark
+    public int queryFullText() {
+        return read(rulesRepository.queryFullText("drl_1*",
+                false));
+    }
+
+    @Benchmark
+    public int findAssetsByCategory() {
+        AssetItemPageResult result = rulesRepository.findAssetsByCategory(CATEGORIES[1],
+                0,
+                -1);
+        int size = 0;
+        for (AssetItem asset : result.assets) {
+            size += asset.getName().length();
+        }
+        return size;
+    }
+
+    private int read(AssetItemIterator iterator) {
+        int size = 0;
+        while (iterator.hasNext()) {
+            size += iterator.next().getName().length();
+        }
+        return size;
+    }
+
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.guvnor.benchmarks.data;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import org.drools.ide.common.client.modeldriven.SuggestionCompletionEngine;
+import org.drools.ide.common.client.modeldriven.brl.ActionFieldValue;
+import org.drools.ide.common.client.modeldriven.brl.ActionSetField;
+import org.drools.ide.common.client.modeldriven.brl.BaseSingleFieldConstraint;
+import org.drools.ide.common.client.modeldriven.brl.FactPattern;
+import org.drools.ide.common.client.modeldriven.brl.RuleAttribute;
+import org.drools.ide.common.client.modeldriven.brl.RuleModel;
+import org.drools.ide.common.client.modeldriven.brl.SingleFieldConstraint;
+import org.drools.ide.common.client.modeldriven.dt52.ActionSetFieldCol52;
+import org.drools.ide.common.client.modeldriven.dt52.ConditionCol52;
+import org.drools.ide.common.client.modeldriven.dt52.DTCellValue52;
+import org.drools.ide.common.client.modeldriven.dt52.GuidedDecisionTable52;
+import org.drools.ide.common.client.modeldriven.dt52.Pattern52;
+
+/**
+ * Generates the rules, models and jars used by the benchmarks. Everything is generated from a fixed seed, so every run
+ * measures the same content. The rules are all written against the fact model of {@link #factModel()}.
+ */
+public class ModelGenerator {
+
+    private static final String[] NAMES = {"Alice", "Bob", "Carol", "Dave", "Eve", "Frank", "Grace", "Heidi"};
+
+    private final Random random;
+
+    public ModelGenerator() {
+        this(42);
+    }
+
+    public ModelGenerator(long seed) {
+        this.random = new Random(seed);
+    }
+
+    /**
+     * @return the declared types the generated rules use
+     */
+    public String factModel() {
+        return "declare Driver\n"
+                + "    name: String\n"
+                + "    age: Integer\n"
+                + "    rating: Integer\n"
+                + "end\n"
+                + "declare Premium\n"
+                + "    driverName: String\n"
+                + "    amount: Integer\n"
+                + "end\n";
+    }
+
+    /**
+     * @return the DRL of one rule, without a package or imports
+     */
+    public String drlRule(int index) {
+        return "rule \"drl_" + index + "\"\n"
+                + "    dialect \"mvel\"\n"
+                + "    when\n"
+                + "        $d : Driver( age > " + age() + ", name == \"" + name() + "\" )\n"
+                + "    then\n"
+                + "        insert( new Premium( $d.getName(), " + random.nextInt(1000) + " ) );\n"
+                + "end\n";
+    }
+
+    /**
+     * @return a guided rule with the given number of field constraints
+     */
+    public RuleModel ruleModel(int index,
+                               int constraints) {
+        RuleModel model = new RuleModel();
+        model.name = "guided_" + index;
+        model.addAttribute(new RuleAttribute("salience",
+                String.valueOf(random.nextInt(100))));
+
+        FactPattern pattern = new FactPattern("Driver");
+        pattern.setBoundName("$d");
+        for (int i = 0; i < constraints; i++) {
+            SingleFieldConstraint constraint = new SingleFieldConstraint();
+            constraint.setFactType("Driver");
+            constraint.setConstraintValueType(BaseSingleFieldConstraint.TYPE_LITERAL);
+            if (i % 2 == 0) {
+                constraint.setFieldName("age");
+                constraint.setFieldType(SuggestionCompletionEngine.TYPE_NUMERIC_INTEGER);
+                constraint.setOperator(">");
+                constraint.setValue(String.valueOf(age()));
+            } else {
+                constraint.setFieldName("name");
+                constraint.setFieldType(SuggestionCompletionEngine.TYPE_STRING);
+                constraint.setOperator("!=");
+                constraint.setValue(name());
+            }
+            pattern.addConstraint(constraint);
+        }
+        model.addLhsItem(pattern);
+
+        ActionSetField action = new ActionSetField("$d");
+        action.addFieldValue(new ActionFieldValue("rating",
+                String.valueOf(random.nextInt(10)),
+                SuggestionCompletionEngine.TYPE_NUMERIC_INTEGER));
+        model.addRhsItem(action);
+        return model;
+    }
+
+    /**
+     * @return a guided decision table with the given number of rows, each of which is a rule
+     */
+    public GuidedDecisionTable52 decisionTable(int index,
+                                               int rows) {
+        GuidedDecisionTable52 dt = new GuidedDecisionTable52();
+        dt.setTableName("table_" + index);
+
+        Pattern52 pattern = new Pattern52();
+        pattern.setBoundName("$d");
+        pattern.setFactType("Driver");
+        pattern.getChildColumns().add(conditionColumn("age",
+                ">",
+                SuggestionCompletionEngine.TYPE_NUMERIC_INTEGER));
+        pattern.getChildColumns().add(conditionColumn("name",
+                "==",
+                SuggestionCompletionEngine.TYPE_STRING));
+        dt.getConditions().add(pattern);
+
+        ActionSetFieldCol52 action = new ActionSetFieldCol52();
+        action.setBoundName("$d");
+        action.setFactField("rating");
+        action.setType(SuggestionCompletionEngine.TYPE_NUMERIC_INTEGER);
+        action.setHeader("rating");
+        dt.getActionCols().add(action);
+
+        List<List<DTCellValue52>> data = new ArrayList<List<DTCellValue52>>(rows);
+        for (int i = 0; i < rows; i++) {
+            List<DTCellValue52> row = new ArrayList<DTCellValue52>();
+            row.add(new DTCellValue52(Integer.valueOf(i + 1)));
+            row.add(new DTCellValue52("row " + (i + 1)));
+            row.add(new DTCellValue52(Integer.valueOf(age())));
+            row.add(new DTCellValue52(name()));
+            row.add(new DTCellValue52(Integer.valueOf(random.nextInt(10))));
+            data.add(row);
+        }
+        dt.setData(data);
+        return dt;
+    }
+
+    /**
+     * @return the header of a module that imports the given number of JDK classes
+     */
+    public String header(int imports) {
+        String[] classes = {"java.util.Date", "java.util.ArrayList", "java.util.HashMap", "java.math.BigDecimal",
+                "java.math.BigInteger", "java.util.Calendar", "java.util.Locale", "java.util.TreeSet"};
+        StringBuilder header = new StringBuilder();
+        for (int i = 0; i < imports; i++) {
+            header.append("import ").append(classes[i % classes.length]).append("\n");
+        }
+        return header.toString();
+    }
+
+    /**
+     * @return a jar with the given number of entries of the given size. The entries are named like classes, but their
+     *         content is random, which is enough for loaders that only read them.
+     */
+    public byte[] jar(int entries,
+                      int entrySize) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            JarOutputStream jar = new JarOutputStream(bytes);
+            byte[] content = new byte[entrySize];
+            for (int i = 0; i < entries; i++) {
+                random.nextBytes(content);
+                jar.putNextEntry(new JarEntry("org/drools/guvnor/benchmarks/model/Type" + i + ".class"));
+                jar.write(content);
+                jar.closeEntry();
+            }
+            jar.close();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private ConditionCol52 conditionColumn(String field,
+                                           String operator,
+                                           String type) {
+        ConditionCol52 column = new ConditionCol52();
+        column.setConstraintValueType(BaseSingleFieldConstraint.TYPE_LITERAL);
+        column.setFactField(field);
+        column.setFieldType(type);
+        column.setOperator(operator);
+        column.setHeader(field);
+        return column;
+    }
+
+    private int age() {
+        return 17 + random.nextInt(60);
+    }
+
+    private String name() {
+        return NAMES[random.nextInt(NAMES.length)];
+    }
+
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.guvnor.benchmarks.data;
+
+import java.io.ByteArrayInputStream;
+
+import org.drools.guvnor.client.common.AssetFormats;
+import org.drools.guvnor.server.util.DroolsHeader;
+import org.drools.ide.common.server.util.BRXMLPersistence;
+import org.drools.ide.common.server.util.GuidedDTXMLPersistence;
+import org.drools.repository.AssetItem;
+import org.drools.repository.ModuleItem;
+import org.drools.repository.RepositorySessionUtil;
+import org.drools.repository.RulesRepository;
+
+/**
+ * Fills an embedded Jackrabbit repository with generated modules. The repository is created in the "repository"
+ * directory of the working directory, and anything in there is deleted first.
+ */
+public class RepositoryGenerator {
+
+    private final RulesRepository rulesRepository;
+    private final ModelGenerator modelGenerator = new ModelGenerator();
+
+    private RepositoryGenerator(RulesRepository rulesRepository) {
+        this.rulesRepository = rulesRepository;
+    }
+
+    /**
+     * Starts a new, empty repository. Call {@link #shutdown()} when done with it.
+     */
+    public static RepositoryGenerator start() {
+        return new RepositoryGenerator(RepositorySessionUtil.getRepository());
+    }
+
+    public RulesRepository getRulesRepository() {
+        return rulesRepository;
+    }
+
+    public void shutdown() {
+        rulesRepository.logout();
+        RepositorySessionUtil.shutdown();
+    }
+
+    /**
+     * Adds a category to the root of the category tree.
+     */
+    public void createCategory(String name) {
+        rulesRepository.loadCategory("/").addCategory(name,
+                "Generated for the benchmarks");
+        rulesRepository.save();
+    }
+
+    /**
+     * Creates a module with the fact model and the given number of each kind of rule. An equal share of the rules is
+     * put in each of the categories.
+     *
+     * @param tableRows the number of rows in each decision table
+     */
+    public ModuleItem createModule(String name,
+                                   int drlRules,
+                                   int guidedRules,
+                                   int decisionTables,
+                                   int tableRows,
+                                   String... categories) {
+        ModuleItem module = rulesRepository.createModule(name,
+                "Generated for the benchmarks");
+        DroolsHeader.updateDroolsHeader(modelGenerator.header(4),
+                module);
+
+        AssetItem model = module.addAsset("model",
+                "Fact model");
+        model.updateFormat(AssetFormats.DRL_MODEL);
+        model.updateContent(modelGenerator.factModel());
+        model.checkin("Generated");
+
+        int count = 0;
+        for (int i = 0; i < drlRules; i++) {
+            AssetItem asset = addAsset(module,
+                    "drl_" + i,
+                    AssetFormats.DRL,
+                    modelGenerator.drlRule(i),
+                    categories,
+                    count++);
+            asset.checkin("Generated");
+        }
+        for (int i = 0; i < guidedRules; i++) {
+            AssetItem asset = addAsset(module,
+                    "guided_" + i,
+                    AssetFormats.BUSINESS_RULE,
+                    BRXMLPersistence.getInstance().marshal(modelGenerator.ruleModel(i,
+                            4)),
+                    categories,
+                    count++);
+            asset.checkin("Generated");
+        }
+        for (int i = 0; i < decisionTables; i++) {
+            AssetItem asset = addAsset(module,
+                    "table_" + i,
+                    AssetFormats.DECISION_TABLE_GUIDED,
+                    GuidedDTXMLPersistence.getInstance().marshal(modelGenerator.decisionTable(i,
+                            tableRows)),
+                    categories,
+                    count++);
+            asset.checkin("Generated");
+        }
+
+        module.checkin("Generated");
+        rulesRepository.save();
+        return module;
+    }
+
+    /**
+     * Adds a jar of the given number of entries to the module, as a POJO model.
+     */
+    public AssetItem addJar(ModuleItem module,
+                            String name,
+                            int entries) {
+        AssetItem jar = module.addAsset(name,
+                "Generated jar");
+        jar.updateFormat(AssetFormats.MODEL);
+        jar.updateBinaryContentAttachment(new ByteArrayInputStream(modelGenerator.jar(entries,
+                2048)));
+        jar.updateBinaryContentAttachmentFileName(name + ".jar");
+        jar.checkin("Generated");
+        rulesRepository.save();
+        return jar;
+    }
+
+    private AssetItem addAsset(ModuleItem module,
+                               String name,
+                               String format,
+                               String content,
+                               String[] categories,
+                               int count) {
+        AssetItem asset = module.addAsset(name,
+                "Generated rule " + name);
+        asset.updateFormat(format);
+        asset.updateContent(content);
+        asset.updateSubject("benchmark " + (count % 10));
+        if (categories.length > 0) {
+            asset.addCategory(categories[count % categories.length]);
+        }
+        return asset;
+    }
+
+}
@@ -0,0 +1,248 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.guvnor.benchmarks.report;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares the results of a benchmark run with those of a baseline run, such as the previous Guvnor release. Both are
+ * the CSV files JMH writes with "-rf csv -rff file.csv". A benchmark has regressed if it got worse by more than the
+ * threshold, which is 10% unless it is given as a third argument.
+ * <p/>
+ * The exit status is 1 if any benchmark regressed, so the report can fail a build.
+ */
+public class BaselineReport {
+
+    private static final double DEFAULT_THRESHOLD = 10.0;
+
+    private final double threshold;
+    private final List<Comparison> comparisons = new ArrayList<Comparison>();
+
+    public BaselineReport(Map<String, Result> baseline,
+                          Map<String, Result> current,
+                          double threshold) {
+        this.threshold = threshold;
+        for (Map.Entry<String, Result> entry : current.entrySet()) {
+            comparisons.add(new Comparison(entry.getKey(),
+                    baseline.get(entry.getKey()),
+                    entry.getValue()));
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BaselineReport <baseline.csv> <current.csv> [threshold %]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD;
+        BaselineReport report = new BaselineReport(read(args[0]),
+                read(args[1]),
+                threshold);
+        report.write(System.out);
+        System.exit(report.hasRegressions() ? 1 : 0);
+    }
+
+    public List<Comparison> getComparisons() {
+        return comparisons;
+    }
+
+    public boolean hasRegressions() {
+        for (Comparison comparison : comparisons) {
+            if (comparison.isRegression(threshold)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void write(PrintStream out) {
+        out.println(String.format("%-70s %14s %14s %9s %-8s",
+                "Benchmark",
+                "Baseline",
+                "Current",
+                "Change",
+                "Unit"));
+        for (Comparison comparison : comparisons) {
+            String baseline = comparison.baseline == null ? "-" : String.format("%.3f",
+                    comparison.baseline.score);
+            String change = comparison.baseline == null ? "new" : String.format("%+.1f%%",
+                    comparison.getChange());
+            out.println(String.format("%-70s %14s %14.3f %9s %-8s%s",
+                    comparison.name,
+                    baseline,
+                    comparison.current.score,
+                    change,
+                    comparison.current.unit,
+                    comparison.isRegression(threshold) ? " REGRESSION" : ""));
+        }
+    }
+
+    /**
+     * @return the results of a JMH CSV file, by benchmark name and parameters
+     */
+    public static Map<String, Result> read(String fileName) throws IOException {
+        Reader reader = new InputStreamReader(new FileInputStream(fileName),
+                "UTF-8");
+        try {
+            return read(reader);
+        } finally {
+            reader.close();
+        }
+    }
+
+    public static Map<String, Result> read(Reader reader) throws IOException {
+        Map<String, Result> results = new LinkedHashMap<String, Result>();
+        BufferedReader lines = new BufferedReader(reader);
+        List<String> header = parseLine(lines.readLine());
+        int benchmark = header.indexOf("Benchmark");
+        int mode = header.indexOf("Mode");
+        int score = header.indexOf("Score");
+        int unit = header.indexOf("Unit");
+        if (benchmark < 0 || mode < 0 || score < 0 || unit < 0) {
+            throw new IOException("Not a JMH CSV result file, the header is " + header);
+        }
+
+        String line;
+        while ((line = lines.readLine()) != null) {
+            if (line.trim().length() == 0) {
+                continue;
+            }
+            List<String> values = parseLine(line);
+            StringBuilder name = new StringBuilder(values.get(benchmark));
+            for (int i = 0; i < header.size(); i++) {
+                if (header.get(i).startsWith("Param: ") && i < values.size() && values.get(i).length() > 0) {
+                    name.append(name.indexOf(":") < 0 ? ":" : ",")
+                            .append(header.get(i).substring("Param: ".length()))
+                            .append("=")
+                            .append(values.get(i));
+                }
+            }
+            results.put(name.toString(),
+                    new Result(values.get(mode),
+                            Double.parseDouble(values.get(score).replace(',',
+                                    '.')),
+                            values.get(unit)));
+        }
+        return results;
+    }
+
+    //Splits a CSV line, on the commas that are not quoted
+    private static List<String> parseLine(String line) throws IOException {
+        if (line == null) {
+            throw new IOException("The result file is empty");
+        }
+        List<String> values = new ArrayList<String>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                if (quoted && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append(c);
+                    i++;
+                } else {
+                    quoted = !quoted;
+                }
+            } else if (c == ',' && !quoted) {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        values.add(value.toString());
+        return values;
+    }
+
+    /**
+     * The score of one benchmark, with one set of parameters.
+     */
+    public static class Result {
+
+        private final String mode;
+        private final double score;
+        private final String unit;
+
+        public Result(String mode,
+                      double score,
+                      String unit) {
+            this.mode = mode;
+            this.score = score;
+            this.unit = unit;
+        }
+
+        /**
+         * @return true if higher scores are better, which they are for throughput and worse for times
+         */
+        public boolean isHigherBetter() {
+            return "thrpt".equals(mode);
+        }
+
+        public double getScore() {
+            return score;
+        }
+
+    }
+
+    public static class Comparison {
+
+        private final String name;
+        private final Result baseline;
+        private final Result current;
+
+        private Comparison(String name,
+                           Result baseline,
+                           Result current) {
+            this.name = name;
+            this.baseline = baseline;
+            this.current = current;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return the change of the score from the baseline, in %
+         */
+        public double getChange() {
+            return (current.score - baseline.score) / baseline.score * 100;
+        }
+
+        /**
+         * @return true if the score got worse by more than the threshold, in %
+         */
+        public boolean isRegression(double threshold) {
+            if (baseline == null || baseline.score == 0) {
+                return false;
+            }
+            double change = getChange();
+            return current.isHigherBetter() ? change < -threshold : change > threshold;
+        }
+
+    }
+
+}
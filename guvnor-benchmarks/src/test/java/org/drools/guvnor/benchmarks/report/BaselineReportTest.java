@@ -0,0 +1,75 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.guvnor.benchmarks.report;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.StringReader;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class BaselineReportTest {
+
+    private static final String HEADER = "\"Benchmark\",\"Mode\",\"Threads\",\"Samples\",\"Score\",\"Score Error (99.9%)\",\"Unit\",\"Param: rules\"\n";
+
+    @Test
+    public void testReadNamesResultsByParameters() throws Exception {
+        Map<String, BaselineReport.Result> results = BaselineReport.read(new StringReader(HEADER
+                + "\"org.drools.guvnor.benchmarks.PackageAssemblerBenchmark.compile\",\"avgt\",1,5,12.500000,0.300000,\"ms/op\",10\n"
+                + "\"org.drools.guvnor.benchmarks.PackageAssemblerBenchmark.compile\",\"avgt\",1,5,\"130,25\",4.100000,\"ms/op\",100\n"));
+
+        assertEquals(2,
+                results.size());
+        assertEquals(12.5,
+                results.get("org.drools.guvnor.benchmarks.PackageAssemblerBenchmark.compile:rules=10").getScore(),
+                0.0001);
+        assertEquals(130.25,
+                results.get("org.drools.guvnor.benchmarks.PackageAssemblerBenchmark.compile:rules=100").getScore(),
+                0.0001);
+    }
+
+    @Test
+    public void testSlowerTimeIsRegression() throws Exception {
+        BaselineReport report = new BaselineReport(BaselineReport.read(new StringReader(HEADER
+                + "\"compile\",\"avgt\",1,5,100.0,1.0,\"ms/op\",10\n")),
+                BaselineReport.read(new StringReader(HEADER
+                        + "\"compile\",\"avgt\",1,5,115.0,1.0,\"ms/op\",10\n")),
+                10);
+
+        assertEquals(15.0,
+                report.getComparisons().get(0).getChange(),
+                0.0001);
+        assertTrue(report.hasRegressions());
+    }
+
+    @Test
+    public void testHigherThroughputIsNotRegression() throws Exception {
+        BaselineReport report = new BaselineReport(BaselineReport.read(new StringReader(HEADER
+                + "\"query\",\"thrpt\",1,5,100.0,1.0,\"ops/s\",10\n")),
+                BaselineReport.read(new StringReader(HEADER
+                        + "\"query\",\"thrpt\",1,5,150.0,1.0,\"ops/s\",10\n"
+                        + "\"query\",\"thrpt\",1,5,10.0,1.0,\"ops/s\",100\n")),
+                10);
+
+        assertFalse(report.hasRegressions());
+        assertFalse(report.getComparisons().get(1).isRegression(10));
+    }
+
+}
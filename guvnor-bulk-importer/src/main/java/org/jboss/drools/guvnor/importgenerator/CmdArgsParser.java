@@ -44,7 +44,8 @@ public class CmdArgsParser {
         OPTIONS_BASE_DIR,
         OPTIONS_MODEL,
         OPTIONS_VERBOSE,
-        OPTIONS_VERY_VERBOSE
+        OPTIONS_VERY_VERBOSE,
+        OPTIONS_THREADS
     }
 
     public CmdArgsParser() {
@@ -63,6 +64,7 @@ public class CmdArgsParser {
         map.put("-m", Parameters.OPTIONS_MODEL);
         map.put("-v", Parameters.OPTIONS_VERBOSE);
         map.put("-vv", Parameters.OPTIONS_VERY_VERBOSE);
+        map.put("-t", Parameters.OPTIONS_THREADS);
     }
 
     public String getOption(Parameters parameterName) {
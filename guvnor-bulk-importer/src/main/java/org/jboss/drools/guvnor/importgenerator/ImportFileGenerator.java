@@ -16,18 +16,34 @@
 
 package org.jboss.drools.guvnor.importgenerator;
 
+import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.text.DecimalFormat;
 import java.text.MessageFormat;
 import java.text.NumberFormat;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
@@ -72,6 +88,17 @@ public class ImportFileGenerator implements Constants {
 
     public enum RuleObjectType {RULE, SNAPSHOT_RULE}
 
+    //marks where contents are written between the parts of a template
+    private static final String PH_CONTENTS = "\u0000CONTENTS\u0000";
+
+    public ImportFileGenerator() {
+    }
+
+    ImportFileGenerator(CmdArgsParser options) {
+        this.options = options;
+        this.BASE_DIR = options.getOption(Parameters.OPTIONS_BASE_DIR);
+    }
+
     /**
      * The main action method
      *
@@ -80,6 +107,21 @@ public class ImportFileGenerator implements Constants {
      * @throws IOException
      */
     public String generateImportFile(Map<String, PackageFile> packages) throws IOException {
+        StringWriter out = new StringWriter();
+        generateImportFile(packages, out);
+        return out.toString();
+    }
+
+    /**
+     * Writes the import file to <param>out</param> one package at a time. The packages are compiled in parallel, but
+     * only a few ahead of the package being written, and each compiled package is released once it has been written,
+     * so only a handful of packages are held in memory at any time.
+     *
+     * @param packages
+     * @param out
+     * @throws IOException
+     */
+    public void generateImportFile(Map<String, PackageFile> packages, Writer out) throws IOException {
         // go through each replacer definition creating drl template replacements
         //TODO: what is the org.kie.io.RuleSetReader ??? is this what Guvnor uses this to read the .drl file parts?
         String draftStateReferenceUUID = GeneratedData.generateUUID();
@@ -88,91 +130,126 @@ public class ImportFileGenerator implements Constants {
         //reporting only
         int cok = 0, cerror = 0, derror = 0, terror = 0, total = 0;
 
-        StringBuffer packageContents = new StringBuffer();
-        StringBuffer snapshotContents = new StringBuffer();
-        double i = 0;
-        for (Map.Entry<String, PackageFile> packagesEntry : packages.entrySet()) {
-            String packageName = packagesEntry.getKey();
-            double pct = (int) (++i / (double) packages.size() * 100);
-            logger.debug(new DecimalFormat("##0").format(pct) + "% - " + packageName);
-            PackageFile packageFile = packagesEntry.getValue();
+        //the parent is split around the package contents and the snapshot contents
+        String[] parentContents = splitTemplate(readTemplate(TEMPLATES_PARENT), new Object[]{
+                PH_CONTENTS
+                , categoryReferenceUUID
+                , draftStateReferenceUUID
+                , GeneratedData.getTimestamp()
+                , PH_CONTENTS
+        });
+        out.write(parentContents[0]);
 
-            Map<String, Object> context = new HashMap<String, Object>();
-            context.put("draftStateReferenceUUID", draftStateReferenceUUID);
-            context.put("categoryReferenceUUID", categoryReferenceUUID);
-            context.put("packageFile", packageFile);
+        //the snapshots belong in a later part of the file, so they are written to a temporary file until then
+        File snapshotFile = null;
+        Writer snapshotContents = null;
+        if (options.getOption(Parameters.OPTIONS_SNAPSHOT_NAME) != null) {
+            snapshotFile = File.createTempFile("guvnor-import-snapshots", ".xml");
+            snapshotFile.deleteOnExit();
+            snapshotContents = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(snapshotFile), FileIOHelper.FORMAT));
+        }
 
-            //extract the rule contents
-            StringBuffer ruleContents = new StringBuffer();
-            StringBuffer snapshotRuleContents = new StringBuffer();
-            Map<String, Rule> rules = packageFile.getRules();
-            packageFile.buildPackage();
+        int threads = getThreads();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Map.Entry<String, PackageFile>> packageEntries = new ArrayList<Map.Entry<String, PackageFile>>(packages.entrySet());
+            LinkedList<Future<PackageFile>> builds = new LinkedList<Future<PackageFile>>();
+            int nextBuild = 0;
+            for (int i = 0; i < packageEntries.size(); i++) {
+                //keep the workers busy without compiling every package up front
+                while (nextBuild < packageEntries.size() && nextBuild <= i + threads) {
+                    builds.add(executor.submit(new PackageBuild(packageEntries.get(nextBuild++).getValue())));
+                }
 
-            for (Map.Entry<String, Rule> rulesEntry : rules.entrySet()) {
-                String ruleName = rulesEntry.getKey();
-                Rule rule = (Rule) rulesEntry.getValue();
-                context.put("file", rule.getFile());
-                context.put("rule", rule);
-                String format = FilenameUtils.getExtension(rule.getFile().getName());
-                context.put("format", format);
-                //inject the rule values into the rule template
-                ruleContents.append(MessageFormat.format(readTemplate(MessageFormat.format(TEMPLATES_RULE, format)), getRuleObjects(context/*, RuleObjectType.RULE*/)));
-
-                //inject the snapshot rule values in the the snapshot rule template
-                snapshotRuleContents.append(MessageFormat.format(readTemplate(MessageFormat.format(TEMPLATES_SNAPSHOT_RULE, format)), getRuleObjects(context/*, RuleObjectType.SNAPSHOT_RULE*/)));
-            }
+                String packageName = packageEntries.get(i).getKey();
+                PackageFile packageFile = waitFor(builds.removeFirst());
+                double pct = (int) ((i + 1) / (double) packages.size() * 100);
+                logger.debug(new DecimalFormat("##0").format(pct) + "% - " + packageName);
+
+                Map<String, Object> context = new HashMap<String, Object>();
+                context.put("draftStateReferenceUUID", draftStateReferenceUUID);
+                context.put("categoryReferenceUUID", categoryReferenceUUID);
+                context.put("packageFile", packageFile);
+
+                //inject the rule(s) into the package, writing the package around them
+                String[] packageContents = splitTemplate(readTemplate(TEMPLATES_PACKAGE), getPackageObjects(context, PH_CONTENTS, PackageObjectType.PACKAGE));
+                out.write(packageContents[0]);
+
+                //extract the rule contents
+                StringBuffer snapshotRuleContents = new StringBuffer();
+                Map<String, Rule> rules = packageFile.getRules();
+                for (Map.Entry<String, Rule> rulesEntry : rules.entrySet()) {
+                    Rule rule = (Rule) rulesEntry.getValue();
+                    context.put("file", rule.getFile());
+                    context.put("rule", rule);
+                    String format = FilenameUtils.getExtension(rule.getFile().getName());
+                    context.put("format", format);
+                    //inject the rule values into the rule template
+                    out.write(MessageFormat.format(readTemplate(MessageFormat.format(TEMPLATES_RULE, format)), getRuleObjects(context/*, RuleObjectType.RULE*/)));
+
+                    //inject the snapshot rule values in the the snapshot rule template
+                    if (snapshotContents != null) {
+                        snapshotRuleContents.append(MessageFormat.format(readTemplate(MessageFormat.format(TEMPLATES_SNAPSHOT_RULE, format)), getRuleObjects(context/*, RuleObjectType.SNAPSHOT_RULE*/)));
+                    }
+                }
 
-            String modelTemplate = readTemplate(TEMPLATES_MODEL);
-            for (Model model : packageFile.getModelFiles()) {
-                context.put("model", model);
-                ruleContents.append(MessageFormat.format(modelTemplate, getPackageObjects(context, new StringBuffer(model.getContent()), PackageObjectType.MODEL)));
-            }
-            // If no models in directory but parameter specified then upload the parameterized model
-            if (packageFile.getModelFiles().size() <= 0 && options.getOption(Parameters.OPTIONS_MODEL) != null) {
-                File modelFile = new File(options.getOption(Parameters.OPTIONS_MODEL));
-                String modelFileContent = FileIOHelper.readAllAsBase64(modelFile);
-                context.put("model", new Model(modelFile, modelFileContent));
-                ruleContents.append(MessageFormat.format(modelTemplate, getPackageObjects(context, new StringBuffer(modelFileContent), PackageObjectType.MODEL)));
-            }
+                String modelTemplate = readTemplate(TEMPLATES_MODEL);
+                for (Model model : packageFile.getModelFiles()) {
+                    writeModel(out, modelTemplate, context, model);
+                }
+                // If no models in directory but parameter specified then upload the parameterized model
+                if (packageFile.getModelFiles().size() <= 0 && options.getOption(Parameters.OPTIONS_MODEL) != null) {
+                    writeModel(out, modelTemplate, context, new Model(new File(options.getOption(Parameters.OPTIONS_MODEL))));
+                }
+                out.write(packageContents[1]);
 
-            //inject the rule(s) into the package into the package contents
-            String packageTemplate = readTemplate(TEMPLATES_PACKAGE);// FileUtils.readAll(new FileInputStream(new File(TEMPLATES_FOLDER, TEMPLATES_PACKAGE)));
-            packageContents.append(MessageFormat.format(packageTemplate, getPackageObjects(context, ruleContents, PackageObjectType.PACKAGE)));
+                //inject the snapshot values into the snapshot contents
+                if (snapshotContents != null) {
+                    snapshotContents.write(MessageFormat.format(readTemplate(TEMPLATES_SNAPSHOT), getPackageObjects(context, snapshotRuleContents.toString(), PackageObjectType.PACKAGE_SNAPSHOT)));
+                }
+
+                //display status of each packageFile
+                total++;
+                if (packageFile.hasErrors()) {
+                    terror++;
+                    if (packageFile.hasCompilationErrors()) {
+                        cerror++;
+                        logger.debug(" - [COMPILATION/DEPENDENCY ERRORS]");
+                        logger.trace(packageFile.getCompilationErrors().trim());
+                        logger.trace(packageFile.getDependencyErrors().trim());
+                    } else if (packageFile.hasDependencyErrors()) {
+                        derror++;
+                        logger.debug(" - [DEPENDENCY ERRORS]");
+                        logger.trace(packageFile.getDependencyErrors().trim());
+                    }
+                } else {
+                    cok++; //increment the "total rules compiled successfully"
+                    logger.debug(" - [OK]");
+                }
 
-            //inject the snapshot values into the snapshot contents
-            if (options.getOption(Parameters.OPTIONS_SNAPSHOT_NAME) != null) {
-                snapshotContents.append(MessageFormat.format(readTemplate(TEMPLATES_SNAPSHOT), getPackageObjects(context, snapshotRuleContents, PackageObjectType.PACKAGE_SNAPSHOT)));
+                //the compiled package has been written, so it no longer needs to be held in memory
+                packageFile.setPkg(null);
             }
 
-            //display status of each packageFile
-            total++;
-            if (packageFile.hasErrors()) {
-                terror++;
-                if (packageFile.hasCompilationErrors()) {
-                    cerror++;
-                    logger.debug(" - [COMPILATION/DEPENDENCY ERRORS]");
-                    logger.trace(packageFile.getCompilationErrors().trim());
-                    logger.trace(packageFile.getDependencyErrors().trim());
-                } else if (packageFile.hasDependencyErrors()) {
-                    derror++;
-                    logger.debug(" - [DEPENDENCY ERRORS]");
-                    logger.trace(packageFile.getDependencyErrors().trim());
-                }
-            } else {
-                cok++; //increment the "total rules compiled successfully"
-                logger.debug(" - [OK]");
+            //replace the placemarkers with the package data
+            out.write(parentContents[1]);
+            if (snapshotContents != null) {
+                snapshotContents.close();
+                snapshotContents = null;
+                copy(snapshotFile, out);
+            }
+            out.write(parentContents[2]);
+            out.flush();
+        } finally {
+            executor.shutdownNow();
+            if (snapshotContents != null) {
+                snapshotContents.close();
+            }
+            if (snapshotFile != null) {
+                snapshotFile.delete();
             }
         }
 
-        //replace the placemarkers with the package data
-        String parentContents = MessageFormat.format(readTemplate(TEMPLATES_PARENT), new Object[]{
-                packageContents
-                , categoryReferenceUUID
-                , draftStateReferenceUUID
-                , GeneratedData.getTimestamp()
-                , getSnapshotContents(snapshotContents)
-        });
-
         //write a summary report
         logger.debug("==========================");
         logger.debug("===  PACKAGE SUMMARY   ===");
@@ -185,8 +262,86 @@ public class ImportFileGenerator implements Constants {
         logger.debug("                      ____");
         logger.debug(" Total:               " + NumberFormat.getInstance().format(total));
         logger.debug("==========================");
+    }
 
-        return parentContents;
+    /**
+     * writes the model node, streaming the base64 content of the model jar into it
+     */
+    private void writeModel(Writer out, String modelTemplate, Map<String, Object> context, Model model) throws IOException {
+        context.put("model", model);
+        String[] modelContents = splitTemplate(modelTemplate, getPackageObjects(context, PH_CONTENTS, PackageObjectType.MODEL));
+        out.write(modelContents[0]);
+        model.writeContent(out);
+        out.write(modelContents[1]);
+    }
+
+    /**
+     * formats the template and splits it where the <param>objects</param> have the {@link #PH_CONTENTS} place holder,
+     * so that contents too large to format can be written between the parts
+     */
+    private String[] splitTemplate(String template, Object[] objects) {
+        return MessageFormat.format(template, objects).split(Pattern.quote(PH_CONTENTS), -1);
+    }
+
+    private void copy(File file, Writer out) throws IOException {
+        Reader in = new InputStreamReader(new FileInputStream(file), FileIOHelper.FORMAT);
+        try {
+            char[] buffer = new char[8192];
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                out.write(buffer, 0, read);
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    private int getThreads() {
+        String threads = options.getOption(Parameters.OPTIONS_THREADS);
+        if (threads != null) {
+            try {
+                int result = Integer.parseInt(threads);
+                if (result > 0) {
+                    return result;
+                }
+            } catch (NumberFormatException e) {
+                // fall through to the exception below
+            }
+            throw new IllegalArgumentException("Invalid number of threads (" + threads + ").");
+        }
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    private PackageFile waitFor(Future<PackageFile> build) throws IOException {
+        try {
+            return build.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while compiling the packages.");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            } else if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Problem compiling a package.", e.getCause());
+        }
+    }
+
+    /**
+     * compiles a package on one of the worker threads
+     */
+    private static class PackageBuild implements Callable<PackageFile> {
+        private final PackageFile packageFile;
+
+        PackageBuild(PackageFile packageFile) {
+            this.packageFile = packageFile;
+        }
+
+        public PackageFile call() throws IOException {
+            packageFile.buildPackage();
+            return packageFile;
+        }
     }
 
     /**
@@ -212,14 +367,7 @@ public class ImportFileGenerator implements Constants {
     }
 
 
-    private StringBuffer getSnapshotContents(StringBuffer snapshotContents) {
-        if (options.getOption(Parameters.OPTIONS_SNAPSHOT_NAME) != null) {
-            return snapshotContents;
-        }
-        return new StringBuffer("");
-    }
-
-    private String readTemplate(String templateConst) {
+    String readTemplate(String templateConst) {
         String path = TEMPLATES_FOLDER + "/" + templateConst;
         try {
             InputStream in = getClass().getClassLoader().getResourceAsStream(path);
@@ -238,7 +386,7 @@ public class ImportFileGenerator implements Constants {
         }
     }
 
-    private Object[] getPackageObjects(Map<String, Object> context, StringBuffer contents, PackageObjectType type) throws IOException {
+    Object[] getPackageObjects(Map<String, Object> context, String contents, PackageObjectType type) throws IOException {
         List<String> objects = new LinkedList<String>();
         PackageFile packageFile = (PackageFile) context.get("packageFile");
         switch (type) {
@@ -246,7 +394,7 @@ public class ImportFileGenerator implements Constants {
                 Model model = (Model) context.get("model");
                 objects.add(model.getFile().getName().substring(0, model.getFile().getName().lastIndexOf(".")));//wrapper title
                 objects.add(getCreator());//creator
-                objects.add(contents.toString());// packageFile.getModelAsBase64());//content
+                objects.add(contents);// packageFile.getModelAsBase64());//content
                 objects.add(GeneratedData.generateUUID());//uuid
                 objects.add(model.getFile().getName());//filename
                 objects.add((String) context.get("draftStateReferenceUUID"));//state
@@ -258,7 +406,7 @@ public class ImportFileGenerator implements Constants {
                 objects.add(packageFile.getName());
                 objects.add(getCreator());
                 objects.add(packageFile.getImports());
-                objects.add(contents.toString());
+                objects.add(contents);
                 objects.add(GeneratedData.generateUUID());
                 objects.add(GeneratedData.generateUUID());
                 objects.add(GeneratedData.generateUUID());
@@ -271,7 +419,7 @@ public class ImportFileGenerator implements Constants {
                 objects.add(options.getOption(Parameters.OPTIONS_SNAPSHOT_NAME));
                 objects.add(getCreator()); //3
                 objects.add(packageFile.getImports()); //4
-                objects.add(contents.toString()); //5
+                objects.add(contents); //5
                 objects.add((String) context.get("draftStateReferenceUUID"));
                 objects.add(GeneratedData.getTimestamp()); //7
                 //objects.add(FileIOHelper.toBase64(DroolsHelper.compileRuletoPKG(packageFile))); //8
@@ -288,7 +436,7 @@ public class ImportFileGenerator implements Constants {
     }
 
 
-    private Object[] getRuleObjects(Map<String, Object> context/*, RuleObjectType type*/) {
+    Object[] getRuleObjects(Map<String, Object> context/*, RuleObjectType type*/) {
         List<String> objects = new LinkedList<String>();
         PackageFile packageFile = (PackageFile) context.get("packageFile");
         Rule rule = (Rule) context.get("rule");
@@ -334,11 +482,14 @@ public class ImportFileGenerator implements Constants {
             logger.debug("Scanning directories...");
             Map<String, PackageFile> details = PackageFile.buildPackages(options);
 
-            logger.debug("Generating 'Guvnor import data'...");
-            String guvnorImport = generateImportFile(details);
             File guvnorImportFile = getFile(options.getOption(Parameters.OPTIONS_OUTPUT_FILE));
-            logger.debug("Writing 'Guvnor import data to disk' (" + guvnorImportFile.getAbsolutePath() + ")");
-            FileIOHelper.write(guvnorImport, guvnorImportFile);
+            logger.debug("Generating 'Guvnor import data' and writing it to disk (" + guvnorImportFile.getAbsolutePath() + ")...");
+            Writer guvnorImport = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(guvnorImportFile), FileIOHelper.FORMAT));
+            try {
+                generateImportFile(details, guvnorImport);
+            } finally {
+                guvnorImport.close();
+            }
 
             if (options.getOption(Parameters.OPTIONS_KAGENT_CHANGE_SET_FILE) != null) {
                 logger.debug("Generating 'Knowledge agent changeset' data...");
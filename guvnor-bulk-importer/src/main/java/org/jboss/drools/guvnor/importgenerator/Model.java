@@ -17,11 +17,22 @@
 package org.jboss.drools.guvnor.importgenerator;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+
+import org.jboss.drools.guvnor.importgenerator.utils.FileIOHelper;
 
 public class Model {
     public File file;
     public String content;
 
+    /**
+     * the content is encoded from the file when it is written, so it is never held in memory
+     */
+    public Model(File file) {
+        this.file = file;
+    }
+
     public Model(File file, String content) {
         this.file = file;
         this.content = content;
@@ -43,4 +54,15 @@ public class Model {
         this.content = content;
     }
 
+    /**
+     * writes the base64 content of the model, streaming it from the file if it has not been set
+     */
+    public void writeContent(Writer out) throws IOException {
+        if (content != null) {
+            out.write(content);
+        } else {
+            FileIOHelper.writeBase64(file, out);
+        }
+    }
+
 }
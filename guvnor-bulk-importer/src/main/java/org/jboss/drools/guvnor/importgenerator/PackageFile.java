@@ -70,7 +70,6 @@ public class PackageFile implements Comparator<Integer> {
     private Map<String, Rule> rules = new HashMap<String, Rule>();
     private Map<String, File> ruleFiles = new HashMap<String, File>();
     private String name;
-    private String modelContent;
     private List<Model> modelFiles = new ArrayList<Model>();
 
 
@@ -93,8 +92,7 @@ public class PackageFile implements Comparator<Integer> {
             if (!modelFile.exists()) {
                 throw new RuntimeException("model file does not exist [" + modelFile.getAbsolutePath() + "]");
             }
-            modelContent = FileIOHelper.readAllAsBase64(modelFile);
-            modelFiles.add(new Model(modelFile, modelContent));
+            modelFiles.add(new Model(modelFile));
         }
     }
 
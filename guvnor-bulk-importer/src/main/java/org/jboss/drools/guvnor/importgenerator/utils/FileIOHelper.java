@@ -26,6 +26,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.UnsupportedEncodingException;
+import java.io.Writer;
 
 import org.apache.commons.codec.binary.Base64;
 import org.apache.commons.io.FileUtils;
@@ -36,6 +37,8 @@ import org.apache.commons.io.FilenameUtils;
  */
 public class FileIOHelper {
     public static final String FORMAT = "utf-8";
+    // a multiple of 3 bytes, so the chunks are encoded without padding and can be concatenated
+    private static final int BASE64_CHUNK_SIZE = 3 * 16 * 1024;
 
     public static void write(String data, File destination) throws IOException {
 //    if (!destination.getParentFile().exists()){
@@ -60,6 +63,39 @@ public class FileIOHelper {
         return base64String;
     }
 
+    /**
+     * writes the file as base64 one chunk at a time, rather than reading it all into memory
+     */
+    public static void writeBase64(File file, Writer out) throws IOException {
+        InputStream in = new FileInputStream(file);
+        try {
+            byte[] chunk = new byte[BASE64_CHUNK_SIZE];
+            int length;
+            while ((length = readChunk(in, chunk)) > 0) {
+                byte[] bytes = chunk;
+                if (length < chunk.length) {
+                    bytes = new byte[length];
+                    System.arraycopy(chunk, 0, bytes, 0, length);
+                }
+                out.write(new String(Base64.encodeBase64(bytes), FORMAT));
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    private static int readChunk(InputStream in, byte[] chunk) throws IOException {
+        int length = 0;
+        while (length < chunk.length) {
+            int read = in.read(chunk, length, chunk.length - length);
+            if (read < 0) {
+                break;
+            }
+            length += read;
+        }
+        return length;
+    }
+
     public static String toBase64(byte[] b) throws UnsupportedEncodingException {
         byte[] b64 = Base64.encodeBase64(b);
         return new String(b64, "utf-8");
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jboss.drools.guvnor.importgenerator;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.text.MessageFormat;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.commons.io.FilenameUtils;
+import org.jboss.drools.guvnor.importgenerator.CmdArgsParser.Parameters;
+import org.jboss.drools.guvnor.importgenerator.utils.FileIOHelper;
+import org.junit.Test;
+
+public class ImportFileGeneratorTest implements Constants {
+
+    private static final String UUID = "[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}";
+    private static final String TIMESTAMP = "[0-9]{4}-[0-9]{2}-[0-9]{2}T[0-9]{2}:[0-9]{2}:[0-9]{2}\\.[0-9]{3}[+-][0-9]{2}:[0-9]{2}";
+
+    @Test
+    public void testStreamedImportFileMatchesImportFileBuiltInMemory() throws Exception {
+        String baseDir = System.getProperty("user.dir");
+        CmdArgsParser options = new CmdArgsParser();
+        options.parse(new String[]{
+                "-p", new File(baseDir, "my_rules").getPath(),
+                "-s", "my_rules",
+                "-e", "[0-9|.]*[.|-]+[SNAPSHOT]+[.|-]*[09|.]*",
+                "-r", "true",
+                "-u", "admin",
+                "-f", "drl,xls",
+                "-c", "functions.drl",
+                "-b", baseDir,
+                "-t", "2"});
+        Map<String, PackageFile> packages = PackageFile.buildPackages(options);
+        ImportFileGenerator generator = new ImportFileGenerator(options);
+
+        StringWriter streamed = new StringWriter();
+        generator.generateImportFile(packages, streamed);
+
+        assertEquals(normalise(generateInMemory(generator, packages)),
+                normalise(streamed.toString()));
+    }
+
+    /**
+     * builds the import file the way it was built before it was streamed: each template is formatted with the
+     * whole of its contents
+     */
+    private String generateInMemory(ImportFileGenerator generator, Map<String, PackageFile> packages) throws IOException {
+        String draftStateReferenceUUID = GeneratedData.generateUUID();
+        String categoryReferenceUUID = GeneratedData.generateUUID();
+
+        StringBuilder packageContents = new StringBuilder();
+        for (PackageFile packageFile : packages.values()) {
+            Map<String, Object> context = new HashMap<String, Object>();
+            context.put("draftStateReferenceUUID", draftStateReferenceUUID);
+            context.put("categoryReferenceUUID", categoryReferenceUUID);
+            context.put("packageFile", packageFile);
+
+            StringBuilder ruleContents = new StringBuilder();
+            for (Rule rule : packageFile.getRules().values()) {
+                String format = FilenameUtils.getExtension(rule.getFile().getName());
+                context.put("file", rule.getFile());
+                context.put("rule", rule);
+                context.put("format", format);
+                ruleContents.append(MessageFormat.format(generator.readTemplate(MessageFormat.format(TEMPLATES_RULE, format)),
+                        generator.getRuleObjects(context)));
+            }
+            for (Model model : packageFile.getModelFiles()) {
+                context.put("model", model);
+                ruleContents.append(MessageFormat.format(generator.readTemplate(TEMPLATES_MODEL),
+                        generator.getPackageObjects(context, FileIOHelper.readAllAsBase64(model.getFile()), ImportFileGenerator.PackageObjectType.MODEL)));
+            }
+            packageContents.append(MessageFormat.format(generator.readTemplate(TEMPLATES_PACKAGE),
+                    generator.getPackageObjects(context, ruleContents.toString(), ImportFileGenerator.PackageObjectType.PACKAGE)));
+        }
+
+        return MessageFormat.format(generator.readTemplate(TEMPLATES_PARENT), new Object[]{
+                packageContents.toString()
+                , categoryReferenceUUID
+                , draftStateReferenceUUID
+                , GeneratedData.getTimestamp()
+                , ""
+        });
+    }
+
+    private String normalise(String importFile) {
+        return importFile.replaceAll(UUID, "UUID").replaceAll(TIMESTAMP, "TIMESTAMP");
+    }
+
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jboss.drools.guvnor.importgenerator.utils;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Random;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+
+public class FileIOHelperTest {
+
+    private static final int CHUNK_SIZE = 3 * 16 * 1024;
+
+    @Test
+    public void testWriteBase64MatchesReadAllAsBase64() throws Exception {
+        int[] sizes = new int[]{0, 1, 2, 3, CHUNK_SIZE - 1, CHUNK_SIZE, CHUNK_SIZE + 1, CHUNK_SIZE * 3 + 2};
+        for (int size : sizes) {
+            File file = createFile(size);
+            try {
+                StringWriter out = new StringWriter();
+                FileIOHelper.writeBase64(file, out);
+                assertEquals("file of " + size + " bytes", FileIOHelper.readAllAsBase64(file), out.toString());
+            } finally {
+                file.delete();
+            }
+        }
+    }
+
+    private File createFile(int size) throws IOException {
+        byte[] bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        File file = File.createTempFile("guvnor-import-base64", ".bin");
+        FileUtils.writeByteArrayToFile(file, bytes);
+        return file;
+    }
+
+}
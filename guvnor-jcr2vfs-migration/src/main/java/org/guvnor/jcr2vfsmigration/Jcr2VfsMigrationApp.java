@@ -17,6 +17,7 @@
 package org.guvnor.jcr2vfsmigration;
 
 import org.guvnor.jcr2vfsmigration.config.MigrationConfig;
+import org.guvnor.jcr2vfsmigration.migrater.MigrationEngine;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -24,11 +25,11 @@ public class Jcr2VfsMigrationApp {
 
     protected static final Logger logger = LoggerFactory.getLogger(Jcr2VfsMigrationApp.class);
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws InterruptedException {
         logger.info("Migration started");
         MigrationConfig migrationConfig = new MigrationConfig();
         migrationConfig.parseArgs(args);
-        // TODO
+        new MigrationEngine(migrationConfig).migrate();
         logger.info("Migration ended");
     }
 
@@ -24,11 +24,14 @@ import org.apache.commons.cli.BasicParser;
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.Options;
 import org.apache.commons.cli.ParseException;
+import org.guvnor.jcr2vfsmigration.migrater.MigrationCheckpoint;
 
 public class MigrationConfig {
 
     private File inputJcrRepository;
     private File outputVfsRepository;
+    private int threadCount;
+    private int batchSize;
 
     public File getInputJcrRepository() {
         return inputJcrRepository;
@@ -38,6 +41,20 @@ public class MigrationConfig {
         return outputVfsRepository;
     }
 
+    /**
+     * @return the number of modules migrated at the same time, each with its own JCR session
+     */
+    public int getThreadCount() {
+        return threadCount;
+    }
+
+    /**
+     * @return the number of files the VFS writer buffers before it writes them out
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
     // ************************************************************************
     // Configuration methods
     // ************************************************************************
@@ -46,6 +63,8 @@ public class MigrationConfig {
         Options options = new Options();
         options.addOption("i", "inputJcrRepository", true, "The Guvnor 5 JCR repository");
         options.addOption("o", "outputVfsRepository", true, "The Guvnor 6 VFS repository");
+        options.addOption("t", "threadCount", true, "The number of modules to migrate in parallel");
+        options.addOption("b", "batchSize", true, "The number of files to write to the VFS repository at once");
         CommandLine commandLine;
         try {
             commandLine = new BasicParser().parse(options, args);
@@ -58,6 +77,9 @@ public class MigrationConfig {
         }
         parseArgInputJcrRepository(commandLine);
         parseArgOutputVfsRepository(commandLine);
+        threadCount = parseArgPositiveInt(commandLine, "t", "threadCount",
+                Runtime.getRuntime().availableProcessors());
+        batchSize = parseArgPositiveInt(commandLine, "b", "batchSize", 100);
     }
 
     private void parseArgInputJcrRepository(CommandLine commandLine) {
@@ -78,8 +100,11 @@ public class MigrationConfig {
         outputVfsRepository = commandLine.hasOption("o")
                 ? new File(commandLine.getOptionValue("o"))
                 : new File("vfs"); // TODO is this a good default or should we fail fast?
-        if (outputVfsRepository.exists()) {
-            throw new IllegalArgumentException("The outputVfsRepository (" + outputVfsRepository + ") already exists.");
+        // An interrupted migration leaves a checkpoint behind and is resumed
+        if (outputVfsRepository.exists()
+                && !new File(outputVfsRepository, MigrationCheckpoint.CHECKPOINT_FILE_NAME).exists()) {
+            throw new IllegalArgumentException("The outputVfsRepository (" + outputVfsRepository
+                    + ") already exists and is not an interrupted migration.");
         }
         try {
             outputVfsRepository = outputVfsRepository.getCanonicalFile();
@@ -89,4 +114,21 @@ public class MigrationConfig {
         outputVfsRepository.mkdirs();
     }
 
+    private int parseArgPositiveInt(CommandLine commandLine, String opt, String name, int defaultValue) {
+        if (!commandLine.hasOption(opt)) {
+            return defaultValue;
+        }
+        String value = commandLine.getOptionValue(opt);
+        int parsed;
+        try {
+            parsed = Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("The " + name + " (" + value + ") is not a number.", e);
+        }
+        if (parsed < 1) {
+            throw new IllegalArgumentException("The " + name + " (" + value + ") must be at least 1.");
+        }
+        return parsed;
+    }
+
 }
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.guvnor.jcr2vfsmigration.jcr;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+
+import org.drools.repository.JCRRepositoryConfigurator;
+import org.drools.repository.RulesRepository;
+import org.drools.repository.RulesRepositoryConfigurator;
+import org.drools.repository.RulesRepositoryException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A fixed number of sessions on the Guvnor 5 JCR repository, shared by the migration threads.
+ * A JCR session must not be used by 2 threads at the same time, so each thread borrows one for a whole module.
+ * <p/>
+ * The migration only reads through these sessions. A returned session drops any transient state,
+ * so what one module loaded is not kept around for the next.
+ */
+public class JcrSessionPool {
+
+    protected static final Logger logger = LoggerFactory.getLogger(JcrSessionPool.class);
+
+    public static final String DEFAULT_CONFIGURATOR_CLASS
+            = "org.drools.repository.jackrabbit.JackrabbitRepositoryConfigurator";
+    private static final String MIGRATION_USER = "jcr2vfs-migration";
+
+    private final RulesRepositoryConfigurator configurator;
+    private final List<RulesRepository> allRepositories;
+    private final BlockingQueue<RulesRepository> idleRepositories;
+
+    public JcrSessionPool(File inputJcrRepository, int size) {
+        Properties properties = new Properties();
+        properties.setProperty(RulesRepositoryConfigurator.CONFIGURATOR_CLASS, DEFAULT_CONFIGURATOR_CLASS);
+        properties.setProperty(JCRRepositoryConfigurator.REPOSITORY_ROOT_DIRECTORY, inputJcrRepository.getPath());
+        configurator = RulesRepositoryConfigurator.getInstance(properties);
+        allRepositories = new ArrayList<RulesRepository>(size);
+        idleRepositories = new ArrayBlockingQueue<RulesRepository>(size);
+        try {
+            for (int i = 0; i < size; i++) {
+                RulesRepository repository = new RulesRepository(configurator.login(MIGRATION_USER));
+                allRepositories.add(repository);
+                idleRepositories.add(repository);
+            }
+        } catch (RepositoryException e) {
+            close();
+            throw new RulesRepositoryException("Could not open the inputJcrRepository (" + inputJcrRepository + ").", e);
+        }
+        logger.info("Opened {} JCR sessions on {}.", size, inputJcrRepository);
+    }
+
+    /**
+     * Waits until a session is idle.
+     * @return never null, give it back with {@link #release(RulesRepository)}
+     */
+    public RulesRepository acquire() throws InterruptedException {
+        return idleRepositories.take();
+    }
+
+    public void release(RulesRepository repository) {
+        try {
+            repository.getSession().refresh(false);
+        } catch (RepositoryException e) {
+            logger.warn("Could not refresh a JCR session.", e);
+        }
+        idleRepositories.add(repository);
+    }
+
+    public void close() {
+        for (RulesRepository repository : allRepositories) {
+            Session session = repository.getSession();
+            if (session.isLive()) {
+                session.logout();
+            }
+        }
+        allRepositories.clear();
+        idleRepositories.clear();
+        configurator.shutdown();
+    }
+
+}
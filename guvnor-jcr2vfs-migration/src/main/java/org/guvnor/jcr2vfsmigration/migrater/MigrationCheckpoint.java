@@ -0,0 +1,137 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.guvnor.jcr2vfsmigration.migrater;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.io.Reader;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Remembers which modules are completely migrated, in a file in the output VFS repository,
+ * so a migration that crashed or was stopped resumes instead of starting over.
+ * <p/>
+ * A module is only recorded once all its files are written. A module that was half way when the migration
+ * was interrupted is migrated again, overwriting the files it already wrote.
+ */
+public class MigrationCheckpoint {
+
+    protected static final Logger logger = LoggerFactory.getLogger(MigrationCheckpoint.class);
+
+    public static final String CHECKPOINT_FILE_NAME = ".jcr2vfs-migration-checkpoint";
+
+    private static final String ENCODING = "UTF-8";
+
+    private final File checkpointFile;
+    private final Set<String> migratedModuleUuids = new HashSet<String>();
+
+    public MigrationCheckpoint(File outputVfsRepository) {
+        checkpointFile = new File(outputVfsRepository, CHECKPOINT_FILE_NAME);
+        if (checkpointFile.exists()) {
+            load();
+            logger.info("Resuming the migration: {} modules were already migrated.", migratedModuleUuids.size());
+        } else {
+            try {
+                if (!checkpointFile.createNewFile()) {
+                    throw new IllegalStateException("The checkpoint file (" + checkpointFile + ") already exists.");
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("The checkpoint file (" + checkpointFile + ") could not be created.", e);
+            }
+        }
+    }
+
+    private void load() {
+        Reader reader = null;
+        StringBuilder content = new StringBuilder();
+        try {
+            reader = new InputStreamReader(new FileInputStream(checkpointFile), ENCODING);
+            char[] buffer = new char[4096];
+            for (int read = reader.read(buffer); read >= 0; read = reader.read(buffer)) {
+                content.append(buffer, 0, read);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("The checkpoint file (" + checkpointFile + ") could not be read.", e);
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (IOException e) {
+                    logger.warn("Could not close the checkpoint file.", e);
+                }
+            }
+        }
+        int start = 0;
+        for (int end = content.indexOf("\n"); end >= 0; end = content.indexOf("\n", start)) {
+            if (end > start) {
+                migratedModuleUuids.add(content.substring(start, end));
+            }
+            start = end + 1;
+        }
+        // Text after the last line end is a line cut short by a crash, see markMigrated().
+        // It is cut off, otherwise the next module would be appended to it.
+        if (start < content.length()) {
+            logger.warn("Ignoring the incomplete last line of the checkpoint file ({}).", checkpointFile);
+            truncate(content.substring(0, start));
+        }
+    }
+
+    private void truncate(String completeLines) {
+        try {
+            RandomAccessFile file = new RandomAccessFile(checkpointFile, "rw");
+            try {
+                file.setLength(completeLines.getBytes(ENCODING).length);
+                file.getFD().sync();
+            } finally {
+                file.close();
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("The checkpoint file (" + checkpointFile + ") could not be repaired.", e);
+        }
+    }
+
+    public synchronized boolean isMigrated(String moduleUuid) {
+        return migratedModuleUuids.contains(moduleUuid);
+    }
+
+    public synchronized int getMigratedModuleCount() {
+        return migratedModuleUuids.size();
+    }
+
+    /**
+     * Appends the module to the checkpoint file and forces it to disk before returning.
+     */
+    public synchronized void markMigrated(String moduleUuid) throws IOException {
+        FileOutputStream out = new FileOutputStream(checkpointFile, true);
+        try {
+            out.write((moduleUuid + "\n").getBytes(ENCODING));
+            out.getFD().sync();
+        } finally {
+            out.close();
+        }
+        migratedModuleUuids.add(moduleUuid);
+    }
+
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.guvnor.jcr2vfsmigration.migrater;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.drools.repository.AssetItemIterator;
+import org.drools.repository.ModuleItem;
+import org.drools.repository.ModuleIterator;
+import org.drools.repository.RulesRepository;
+import org.guvnor.jcr2vfsmigration.config.MigrationConfig;
+import org.guvnor.jcr2vfsmigration.jcr.JcrSessionPool;
+import org.guvnor.jcr2vfsmigration.vfs.BatchedVfsWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Migrates all modules, {@link MigrationConfig#getThreadCount()} modules at a time.
+ * Each module is migrated by 1 thread with 1 JCR session from the {@link JcrSessionPool}
+ * and recorded in the {@link MigrationCheckpoint} when it is done.
+ * <p/>
+ * A module that fails does not stop the others. The migration can be run again to retry the failed modules.
+ */
+public class MigrationEngine {
+
+    protected static final Logger logger = LoggerFactory.getLogger(MigrationEngine.class);
+
+    private static final long REPORT_INTERVAL_SECONDS = 10L;
+
+    private final MigrationConfig migrationConfig;
+
+    public MigrationEngine(MigrationConfig migrationConfig) {
+        this.migrationConfig = migrationConfig;
+    }
+
+    /**
+     * @return never null
+     * @throws IllegalStateException if 1 or more modules failed to migrate
+     */
+    public MigrationProgress migrate() throws InterruptedException {
+        MigrationCheckpoint checkpoint = new MigrationCheckpoint(migrationConfig.getOutputVfsRepository());
+        int deletedTempFileCount = BatchedVfsWriter.deleteTempFiles(migrationConfig.getOutputVfsRepository());
+        if (deletedTempFileCount > 0) {
+            logger.info("Deleted {} temporary files left behind by the interrupted migration.", deletedTempFileCount);
+        }
+        JcrSessionPool sessionPool = new JcrSessionPool(migrationConfig.getInputJcrRepository(),
+                migrationConfig.getThreadCount());
+        try {
+            List<ModuleReference> moduleReferences = listModules(sessionPool, checkpoint);
+            long totalAssetCount = 0L;
+            for (ModuleReference moduleReference : moduleReferences) {
+                totalAssetCount += moduleReference.getAssetCount();
+            }
+            logger.info("Migrating {} modules with {} assets.", moduleReferences.size(), totalAssetCount);
+            MigrationProgress progress = new MigrationProgress(moduleReferences.size(), totalAssetCount);
+            int failedModuleCount = migrateModules(sessionPool, checkpoint, moduleReferences, progress);
+            logger.info(progress.toString());
+            if (failedModuleCount > 0) {
+                throw new IllegalStateException(failedModuleCount + " modules failed to migrate."
+                        + " Run the migration again to retry them.");
+            }
+            return progress;
+        } finally {
+            sessionPool.close();
+        }
+    }
+
+    private List<ModuleReference> listModules(JcrSessionPool sessionPool, MigrationCheckpoint checkpoint)
+            throws InterruptedException {
+        List<ModuleReference> moduleReferences = new ArrayList<ModuleReference>();
+        RulesRepository repository = sessionPool.acquire();
+        try {
+            ModuleIterator modules = repository.listModules();
+            modules.setArchivedIterator(true);
+            addModules(modules, "", checkpoint, moduleReferences);
+        } finally {
+            sessionPool.release(repository);
+        }
+        return moduleReferences;
+    }
+
+    private void addModules(ModuleIterator modules, String parentPath, MigrationCheckpoint checkpoint,
+            List<ModuleReference> moduleReferences) {
+        while (modules.hasNext()) {
+            ModuleItem module = modules.next();
+            String path = parentPath + BatchedVfsWriter.escapeFileName(module.getName());
+            if (!checkpoint.isMigrated(module.getUUID())) {
+                moduleReferences.add(new ModuleReference(module.getUUID(), path, countAssets(module)));
+            }
+            ModuleIterator subModules = module.listSubModules();
+            subModules.setArchivedIterator(true);
+            addModules(subModules, path + "/", checkpoint, moduleReferences);
+        }
+    }
+
+    /**
+     * The JCR query result does not always know its size, in which case the assets are counted one by one,
+     * so the progress never estimates the end of the migration from a negative total.
+     */
+    private long countAssets(ModuleItem module) {
+        AssetItemIterator assets = module.queryAssets("", true);
+        long assetCount = assets.getSize();
+        if (assetCount < 0L) {
+            assetCount = 0L;
+            while (assets.hasNext()) {
+                assets.next();
+                assetCount++;
+            }
+        }
+        return assetCount;
+    }
+
+    private int migrateModules(final JcrSessionPool sessionPool, final MigrationCheckpoint checkpoint,
+            List<ModuleReference> moduleReferences, final MigrationProgress progress) throws InterruptedException {
+        final ModuleMigrater moduleMigrater = new ModuleMigrater(progress);
+        ExecutorService executor = Executors.newFixedThreadPool(migrationConfig.getThreadCount());
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor();
+        reporter.scheduleAtFixedRate(new Runnable() {
+            public void run() {
+                logger.info(progress.toString());
+            }
+        }, REPORT_INTERVAL_SECONDS, REPORT_INTERVAL_SECONDS, TimeUnit.SECONDS);
+
+        List<Future<Void>> futures = new ArrayList<Future<Void>>(moduleReferences.size());
+        for (final ModuleReference moduleReference : moduleReferences) {
+            futures.add(executor.submit(new Callable<Void>() {
+                public Void call() throws Exception {
+                    RulesRepository repository = sessionPool.acquire();
+                    try {
+                        moduleMigrater.migrate(repository, moduleReference,
+                                new BatchedVfsWriter(migrationConfig.getOutputVfsRepository(),
+                                        migrationConfig.getBatchSize()));
+                    } finally {
+                        sessionPool.release(repository);
+                    }
+                    checkpoint.markMigrated(moduleReference.getUuid());
+                    progress.moduleMigrated();
+                    logger.debug("Migrated module ({}).", moduleReference);
+                    return null;
+                }
+            }));
+        }
+        executor.shutdown();
+
+        int failedModuleCount = 0;
+        try {
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    futures.get(i).get();
+                } catch (ExecutionException e) {
+                    failedModuleCount++;
+                    logger.error("The module (" + moduleReferences.get(i) + ") failed to migrate.", e.getCause());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+            reporter.shutdownNow();
+        }
+        return failedModuleCount;
+    }
+
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.guvnor.jcr2vfsmigration.migrater;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts what the migration threads have done, to report the throughput and estimate when the migration ends.
+ * The estimate is based on the number of assets, as modules vary too much in size.
+ */
+public class MigrationProgress {
+
+    private final int totalModuleCount;
+    private final long totalAssetCount;
+    private final long startTimeMillis;
+
+    private final AtomicInteger migratedModuleCount = new AtomicInteger(0);
+    private final AtomicLong migratedAssetCount = new AtomicLong(0L);
+    private final AtomicLong migratedVersionCount = new AtomicLong(0L);
+    private final AtomicLong writtenByteCount = new AtomicLong(0L);
+
+    /**
+     * @param totalModuleCount the modules still to migrate, without those already migrated by an interrupted run
+     * @param totalAssetCount the assets in those modules
+     */
+    public MigrationProgress(int totalModuleCount, long totalAssetCount) {
+        this.totalModuleCount = totalModuleCount;
+        this.totalAssetCount = totalAssetCount;
+        startTimeMillis = System.currentTimeMillis();
+    }
+
+    public void assetMigrated(int versionCount, long byteCount) {
+        migratedAssetCount.incrementAndGet();
+        migratedVersionCount.addAndGet(versionCount);
+        writtenByteCount.addAndGet(byteCount);
+    }
+
+    public void moduleMigrated() {
+        migratedModuleCount.incrementAndGet();
+    }
+
+    public int getMigratedModuleCount() {
+        return migratedModuleCount.get();
+    }
+
+    public long getMigratedAssetCount() {
+        return migratedAssetCount.get();
+    }
+
+    public long getMigratedVersionCount() {
+        return migratedVersionCount.get();
+    }
+
+    public long getWrittenByteCount() {
+        return writtenByteCount.get();
+    }
+
+    public long getTimeMillisSpent() {
+        return System.currentTimeMillis() - startTimeMillis;
+    }
+
+    /**
+     * @return the migrated asset versions per second
+     */
+    public double getVersionsPerSecond() {
+        long timeMillisSpent = Math.max(getTimeMillisSpent(), 1L);
+        return migratedVersionCount.get() * 1000.0 / timeMillisSpent;
+    }
+
+    /**
+     * @return the estimated time left in milliseconds, or -1 if nothing is migrated yet
+     */
+    public long getEstimatedTimeMillisLeft() {
+        long assetCount = migratedAssetCount.get();
+        if (assetCount == 0L) {
+            return -1L;
+        }
+        long assetsLeft = Math.max(totalAssetCount - assetCount, 0L);
+        return getTimeMillisSpent() * assetsLeft / assetCount;
+    }
+
+    public String toString() {
+        long estimatedTimeMillisLeft = getEstimatedTimeMillisLeft();
+        return "Migrated " + migratedModuleCount.get() + "/" + totalModuleCount + " modules, "
+                + migratedAssetCount.get() + "/" + totalAssetCount + " assets, "
+                + migratedVersionCount.get() + " versions (" + String.format("%.1f", getVersionsPerSecond())
+                + " versions/s, " + (writtenByteCount.get() / 1024L) + " KB written) in "
+                + formatTime(getTimeMillisSpent()) + ", ETA "
+                + (estimatedTimeMillisLeft < 0L ? "unknown" : formatTime(estimatedTimeMillisLeft)) + ".";
+    }
+
+    private static String formatTime(long timeMillis) {
+        long seconds = timeMillis / 1000L;
+        return String.format("%dh%02dm%02ds", seconds / 3600L, (seconds / 60L) % 60L, seconds % 60L);
+    }
+
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.guvnor.jcr2vfsmigration.migrater;
+
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+
+import org.drools.repository.AssetHistoryIterator;
+import org.drools.repository.AssetItem;
+import org.drools.repository.AssetItemIterator;
+import org.drools.repository.ModuleItem;
+import org.drools.repository.RulesRepository;
+import org.guvnor.jcr2vfsmigration.vfs.BatchedVfsWriter;
+
+/**
+ * Migrates the assets of 1 module, with all their versions, into the VFS repository:
+ * <pre>
+ * [module path]/[asset name].[format]                     the latest version
+ * [module path]/.history/[asset name].[format]/[version]  each checked in version
+ * </pre>
+ * Archived assets are migrated too.
+ */
+public class ModuleMigrater {
+
+    public static final String HISTORY_DIRECTORY_NAME = ".history";
+
+    private final MigrationProgress progress;
+
+    public ModuleMigrater(MigrationProgress progress) {
+        this.progress = progress;
+    }
+
+    public void migrate(RulesRepository repository, ModuleReference moduleReference, BatchedVfsWriter writer)
+            throws IOException {
+        ModuleItem module = repository.loadModuleByUUID(moduleReference.getUuid());
+        AssetItemIterator assets = module.queryAssets("", true);
+        while (assets.hasNext()) {
+            migrateAsset(assets.next(), moduleReference.getPath(), writer);
+        }
+        writer.flush();
+    }
+
+    private void migrateAsset(AssetItem asset, String modulePath, BatchedVfsWriter writer) throws IOException {
+        String fileName = BatchedVfsWriter.escapeFileName(asset.getName() + "." + asset.getFormat());
+        byte[] content = getContent(asset);
+        writer.write(modulePath + "/" + fileName, content);
+        long byteCount = content.length;
+        int versionCount = 0;
+
+        String historyPath = modulePath + "/" + HISTORY_DIRECTORY_NAME + "/" + fileName + "/";
+        AssetHistoryIterator history = asset.getHistory();
+        while (history.hasNext()) {
+            AssetItem historicalAsset = history.next();
+            long versionNumber = historicalAsset.getVersionNumber();
+            // The root version of a JCR version history has no content
+            if (versionNumber != 0L) {
+                byte[] historicalContent = getContent(historicalAsset);
+                writer.write(historyPath + versionNumber, historicalContent);
+                byteCount += historicalContent.length;
+                versionCount++;
+            }
+        }
+        progress.assetMigrated(versionCount, byteCount);
+    }
+
+    private byte[] getContent(AssetItem asset) throws UnsupportedEncodingException {
+        if (asset.isBinary()) {
+            byte[] content = asset.getBinaryContentAsBytes();
+            return content == null ? new byte[0] : content;
+        }
+        String content = asset.getContent();
+        return content == null ? new byte[0] : content.getBytes("UTF-8");
+    }
+
+}
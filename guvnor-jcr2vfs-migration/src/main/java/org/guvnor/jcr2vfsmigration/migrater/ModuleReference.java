@@ -0,0 +1,53 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.guvnor.jcr2vfsmigration.migrater;
+
+/**
+ * A module to migrate, found when the modules are listed, before the migration threads start.
+ */
+public class ModuleReference {
+
+    private final String uuid;
+    private final String path;
+    private final long assetCount;
+
+    /**
+     * @param path relative to the VFS repository, with sub modules below their parent module
+     */
+    public ModuleReference(String uuid, String path, long assetCount) {
+        this.uuid = uuid;
+        this.path = path;
+        this.assetCount = assetCount;
+    }
+
+    public String getUuid() {
+        return uuid;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public long getAssetCount() {
+        return assetCount;
+    }
+
+    public String toString() {
+        return path;
+    }
+
+}
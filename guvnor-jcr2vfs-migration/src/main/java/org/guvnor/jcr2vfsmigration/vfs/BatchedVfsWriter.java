@@ -0,0 +1,161 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.guvnor.jcr2vfsmigration.vfs;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes the migrated files into the Guvnor 6 VFS repository directory.
+ * Files are buffered and written out in batches of {@code batchSize} files (or sooner if the buffer
+ * holds too many bytes), so the disk sees a few large bursts instead of a write per asset version.
+ * <p/>
+ * Each file is written to a hidden temporary file first and then renamed, so an interrupted migration never
+ * leaves a half written file behind, only temporary files that {@link #deleteTempFiles(File)} removes.
+ * <p/>
+ * Not thread-safe: each migration thread uses its own writer.
+ */
+public class BatchedVfsWriter {
+
+    private static final long MAX_BUFFERED_BYTES = 16L * 1024L * 1024L;
+
+    // Escaped file names never start with a dot, so temporary files can not clash with migrated files
+    private static final String TEMP_FILE_PREFIX = ".";
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+
+    private final File outputVfsRepository;
+    private final int batchSize;
+
+    private final List<PendingFile> pendingFiles = new ArrayList<PendingFile>();
+    private long pendingBytes = 0L;
+
+    private long writtenFileCount = 0L;
+    private long writtenByteCount = 0L;
+
+    public BatchedVfsWriter(File outputVfsRepository, int batchSize) {
+        this.outputVfsRepository = outputVfsRepository;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * @param path relative to the VFS repository, separated by {@code /}, each element escaped with
+     * {@link #escapeFileName(String)}
+     */
+    public void write(String path, byte[] content) throws IOException {
+        pendingFiles.add(new PendingFile(path, content));
+        pendingBytes += content.length;
+        if (pendingFiles.size() >= batchSize || pendingBytes >= MAX_BUFFERED_BYTES) {
+            flush();
+        }
+    }
+
+    public void flush() throws IOException {
+        for (PendingFile pendingFile : pendingFiles) {
+            File file = new File(outputVfsRepository, pendingFile.path);
+            File parent = file.getParentFile();
+            if (!parent.exists() && !parent.mkdirs() && !parent.exists()) {
+                throw new IOException("Could not create the directory (" + parent + ").");
+            }
+            File tempFile = new File(parent, TEMP_FILE_PREFIX + file.getName() + TEMP_FILE_SUFFIX);
+            FileOutputStream out = new FileOutputStream(tempFile);
+            try {
+                out.write(pendingFile.content);
+            } finally {
+                out.close();
+            }
+            // A resumed migration overwrites what it wrote before it was interrupted
+            if (file.exists() && !file.delete()) {
+                throw new IOException("Could not overwrite the file (" + file + ").");
+            }
+            if (!tempFile.renameTo(file)) {
+                throw new IOException("Could not rename the file (" + tempFile + ") to (" + file + ").");
+            }
+            writtenFileCount++;
+            writtenByteCount += pendingFile.content.length;
+        }
+        pendingFiles.clear();
+        pendingBytes = 0L;
+    }
+
+    public long getWrittenFileCount() {
+        return writtenFileCount;
+    }
+
+    public long getWrittenByteCount() {
+        return writtenByteCount;
+    }
+
+    /**
+     * Deletes the temporary files an interrupted migration left behind in the VFS repository.
+     * @return the number of files deleted
+     */
+    public static int deleteTempFiles(File outputVfsRepository) {
+        int deletedCount = 0;
+        File[] files = outputVfsRepository.listFiles();
+        if (files == null) {
+            return deletedCount;
+        }
+        for (File file : files) {
+            if (file.isDirectory()) {
+                deletedCount += deleteTempFiles(file);
+            } else if (file.getName().startsWith(TEMP_FILE_PREFIX) && file.getName().endsWith(TEMP_FILE_SUFFIX)) {
+                if (!file.delete()) {
+                    throw new IllegalStateException("The temporary file (" + file + ") could not be deleted.");
+                }
+                deletedCount++;
+            }
+        }
+        return deletedCount;
+    }
+
+    /**
+     * Guvnor 5 names can contain characters that are not allowed in a file name on some file systems.
+     * @return never null, the name with each such character replaced by {@code %} and its hex code
+     */
+    public static String escapeFileName(String name) {
+        StringBuilder escaped = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c < ' ' || "/\\:*?\"<>|%".indexOf(c) >= 0) {
+                escaped.append('%').append(String.format("%02X", (int) c));
+            } else {
+                escaped.append(c);
+            }
+        }
+        if (escaped.length() == 0 || escaped.charAt(0) == '.') {
+            // Hidden files are reserved for the migration itself
+            escaped.insert(0, '_');
+        }
+        return escaped.toString();
+    }
+
+    private static class PendingFile {
+
+        private final String path;
+        private final byte[] content;
+
+        private PendingFile(String path, byte[] content) {
+            this.path = path;
+            this.content = content;
+        }
+
+    }
+
+}
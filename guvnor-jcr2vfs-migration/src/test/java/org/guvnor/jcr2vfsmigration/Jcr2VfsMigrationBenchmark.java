@@ -0,0 +1,99 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.guvnor.jcr2vfsmigration;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.Properties;
+
+import javax.jcr.Session;
+
+import org.drools.repository.JCRRepositoryConfigurator;
+import org.drools.repository.RepositorySessionUtil;
+import org.drools.repository.RulesRepository;
+import org.drools.repository.RulesRepositoryConfigurator;
+import org.guvnor.jcr2vfsmigration.config.MigrationConfig;
+import org.guvnor.jcr2vfsmigration.jcr.JcrSessionPool;
+import org.guvnor.jcr2vfsmigration.migrater.MigrationEngine;
+import org.guvnor.jcr2vfsmigration.migrater.MigrationProgress;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Imports a sample repository of guvnor-examples into a new JCR repository
+ * and migrates it with 1 thread and with more threads, to compare the throughput.
+ * <p/>
+ * Run it from the guvnor-jcr2vfs-migration directory, optionally with the exported repository XML file
+ * and the number of threads as arguments.
+ */
+public class Jcr2VfsMigrationBenchmark {
+
+    protected static final Logger logger = LoggerFactory.getLogger(Jcr2VfsMigrationBenchmark.class);
+
+    private static final int RUN_COUNT = 3;
+
+    public static void main(String[] args) throws Exception {
+        File exportedRepository = new File(args.length > 0 ? args[0]
+                : "../guvnor-examples/exported-repositories/mortgage-sample-repository.xml");
+        int threadCount = args.length > 1 ? Integer.parseInt(args[1])
+                : Math.max(Runtime.getRuntime().availableProcessors(), 2);
+
+        File benchmarkDirectory = new File("target/jcr2vfs-benchmark");
+        RepositorySessionUtil.deleteDir(benchmarkDirectory);
+        File inputJcrRepository = new File(benchmarkDirectory, "jcr");
+        inputJcrRepository.mkdirs();
+        importRepository(exportedRepository, inputJcrRepository);
+
+        for (int run = 0; run < RUN_COUNT; run++) {
+            for (int runThreadCount : new int[]{1, threadCount}) {
+                File outputVfsRepository = new File(benchmarkDirectory, "vfs-" + run + "-" + runThreadCount);
+                MigrationConfig migrationConfig = new MigrationConfig();
+                migrationConfig.parseArgs(new String[]{
+                        "-i", inputJcrRepository.getPath(),
+                        "-o", outputVfsRepository.getPath(),
+                        "-t", Integer.toString(runThreadCount)});
+                MigrationProgress progress = new MigrationEngine(migrationConfig).migrate();
+                logger.info("Run {} with {} threads: {} versions in {} ms ({} versions/s).", new Object[]{
+                        run, runThreadCount, progress.getMigratedVersionCount(), progress.getTimeMillisSpent(),
+                        String.format("%.1f", progress.getVersionsPerSecond())});
+            }
+        }
+    }
+
+    private static void importRepository(File exportedRepository, File inputJcrRepository) throws Exception {
+        Properties properties = new Properties();
+        properties.setProperty(RulesRepositoryConfigurator.CONFIGURATOR_CLASS,
+                JcrSessionPool.DEFAULT_CONFIGURATOR_CLASS);
+        properties.setProperty(JCRRepositoryConfigurator.REPOSITORY_ROOT_DIRECTORY, inputJcrRepository.getPath());
+        RulesRepositoryConfigurator configurator = RulesRepositoryConfigurator.getInstance(properties);
+        Session session = configurator.login("admin");
+        try {
+            configurator.setupRepository(session);
+            InputStream in = new FileInputStream(exportedRepository);
+            try {
+                new RulesRepository(session).importRulesRepositoryFromStream(in);
+            } finally {
+                in.close();
+            }
+        } finally {
+            session.logout();
+        }
+        logger.info("Imported {} into {}.", exportedRepository, inputJcrRepository);
+    }
+
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.guvnor.jcr2vfsmigration.config;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.drools.repository.RepositorySessionUtil;
+import org.guvnor.jcr2vfsmigration.migrater.MigrationCheckpoint;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MigrationConfigTest {
+
+    private File directory;
+    private File inputJcrRepository;
+    private File outputVfsRepository;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = File.createTempFile("jcr2vfs-config", "");
+        directory.delete();
+        inputJcrRepository = new File(directory, "jcr");
+        inputJcrRepository.mkdirs();
+        outputVfsRepository = new File(directory, "vfs");
+    }
+
+    @After
+    public void tearDown() {
+        RepositorySessionUtil.deleteDir(directory);
+    }
+
+    @Test
+    public void threadCountAndBatchSize() {
+        MigrationConfig config = parse("-t", "3", "-b", "50");
+        assertEquals(3, config.getThreadCount());
+        assertEquals(50, config.getBatchSize());
+
+        config = parse("--threadCount", "4", "--batchSize", "25");
+        assertEquals(4, config.getThreadCount());
+        assertEquals(25, config.getBatchSize());
+    }
+
+    @Test
+    public void defaultThreadCountAndBatchSize() {
+        MigrationConfig config = parse();
+        assertEquals(Runtime.getRuntime().availableProcessors(), config.getThreadCount());
+        assertEquals(100, config.getBatchSize());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void threadCountIsNotANumber() {
+        parse("-t", "many");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void batchSizeIsZero() {
+        parse("-b", "0");
+    }
+
+    @Test
+    public void interruptedMigrationIsAccepted() throws IOException {
+        outputVfsRepository.mkdirs();
+        new File(outputVfsRepository, MigrationCheckpoint.CHECKPOINT_FILE_NAME).createNewFile();
+        MigrationConfig config = parse();
+        assertEquals(outputVfsRepository.getCanonicalFile(), config.getOutputVfsRepository());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void existingOutputWithoutCheckpointIsRejected() {
+        outputVfsRepository.mkdirs();
+        parse();
+    }
+
+    private MigrationConfig parse(String... extraArgs) {
+        String[] args = new String[extraArgs.length + 4];
+        args[0] = "-i";
+        args[1] = inputJcrRepository.getPath();
+        args[2] = "-o";
+        args[3] = outputVfsRepository.getPath();
+        System.arraycopy(extraArgs, 0, args, 4, extraArgs.length);
+        MigrationConfig config = new MigrationConfig();
+        config.parseArgs(args);
+        return config;
+    }
+
+}
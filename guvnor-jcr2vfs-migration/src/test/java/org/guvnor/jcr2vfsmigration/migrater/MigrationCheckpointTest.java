@@ -0,0 +1,87 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.guvnor.jcr2vfsmigration.migrater;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import org.drools.repository.RepositorySessionUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MigrationCheckpointTest {
+
+    private File outputVfsRepository;
+
+    @Before
+    public void setUp() throws IOException {
+        outputVfsRepository = File.createTempFile("jcr2vfs-checkpoint", "");
+        outputVfsRepository.delete();
+        outputVfsRepository.mkdirs();
+    }
+
+    @After
+    public void tearDown() {
+        RepositorySessionUtil.deleteDir(outputVfsRepository);
+    }
+
+    @Test
+    public void resume() throws IOException {
+        MigrationCheckpoint checkpoint = new MigrationCheckpoint(outputVfsRepository);
+        assertEquals(0, checkpoint.getMigratedModuleCount());
+        checkpoint.markMigrated("module1");
+        checkpoint.markMigrated("module2");
+
+        MigrationCheckpoint resumed = new MigrationCheckpoint(outputVfsRepository);
+        assertEquals(2, resumed.getMigratedModuleCount());
+        assertTrue(resumed.isMigrated("module1"));
+        assertTrue(resumed.isMigrated("module2"));
+        assertFalse(resumed.isMigrated("module3"));
+    }
+
+    @Test
+    public void resumeWithTornLastLine() throws IOException {
+        // A crash while "module2" was being appended
+        writeCheckpointFile("module1\nmodu");
+
+        MigrationCheckpoint resumed = new MigrationCheckpoint(outputVfsRepository);
+        assertEquals(1, resumed.getMigratedModuleCount());
+        assertTrue(resumed.isMigrated("module1"));
+        assertFalse(resumed.isMigrated("modu"));
+
+        // The next module is not appended to the torn line
+        resumed.markMigrated("module2");
+        MigrationCheckpoint resumedAgain = new MigrationCheckpoint(outputVfsRepository);
+        assertEquals(2, resumedAgain.getMigratedModuleCount());
+        assertTrue(resumedAgain.isMigrated("module1"));
+        assertTrue(resumedAgain.isMigrated("module2"));
+    }
+
+    private void writeCheckpointFile(String content) throws IOException {
+        FileOutputStream out = new FileOutputStream(
+                new File(outputVfsRepository, MigrationCheckpoint.CHECKPOINT_FILE_NAME));
+        try {
+            out.write(content.getBytes("UTF-8"));
+        } finally {
+            out.close();
+        }
+    }
+
+}
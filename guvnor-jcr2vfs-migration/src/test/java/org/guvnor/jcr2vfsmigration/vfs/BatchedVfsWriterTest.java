@@ -0,0 +1,106 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.guvnor.jcr2vfsmigration.vfs;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.drools.repository.RepositorySessionUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BatchedVfsWriterTest {
+
+    private File outputVfsRepository;
+
+    @Before
+    public void setUp() throws IOException {
+        outputVfsRepository = File.createTempFile("jcr2vfs-writer", "");
+        outputVfsRepository.delete();
+        outputVfsRepository.mkdirs();
+    }
+
+    @After
+    public void tearDown() {
+        RepositorySessionUtil.deleteDir(outputVfsRepository);
+    }
+
+    @Test
+    public void escapeFileName() {
+        assertEquals("Rule 1", BatchedVfsWriter.escapeFileName("Rule 1"));
+        assertEquals("a%2Fb%5Cc%3Ad", BatchedVfsWriter.escapeFileName("a/b\\c:d"));
+        assertEquals("%2A%3F%22%3C%3E%7C", BatchedVfsWriter.escapeFileName("*?\"<>|"));
+        assertEquals("100%25", BatchedVfsWriter.escapeFileName("100%"));
+        assertEquals("tab%09newline%0A", BatchedVfsWriter.escapeFileName("tab\tnewline\n"));
+        assertEquals("_.hidden", BatchedVfsWriter.escapeFileName(".hidden"));
+        assertEquals("_", BatchedVfsWriter.escapeFileName(""));
+        assertEquals("r\u00E8gle", BatchedVfsWriter.escapeFileName("r\u00E8gle"));
+    }
+
+    @Test
+    public void writeInBatches() throws IOException {
+        BatchedVfsWriter writer = new BatchedVfsWriter(outputVfsRepository, 2);
+        writer.write("module/a.drl", "a".getBytes("UTF-8"));
+        assertFalse(new File(outputVfsRepository, "module/a.drl").exists());
+        writer.write("module/b.drl", "bb".getBytes("UTF-8"));
+        assertEquals("a", read(new File(outputVfsRepository, "module/a.drl")));
+        assertEquals("bb", read(new File(outputVfsRepository, "module/b.drl")));
+        assertEquals(2L, writer.getWrittenFileCount());
+        assertEquals(3L, writer.getWrittenByteCount());
+        assertEquals(0, BatchedVfsWriter.deleteTempFiles(outputVfsRepository));
+    }
+
+    @Test
+    public void deleteTempFiles() throws IOException {
+        BatchedVfsWriter writer = new BatchedVfsWriter(outputVfsRepository, 1);
+        // An asset whose name ends like a temporary file is not deleted
+        writer.write("module/notes.tmp", "notes".getBytes("UTF-8"));
+        File leftOver = new File(outputVfsRepository, "module/.history/.rule.drl.tmp");
+        leftOver.getParentFile().mkdirs();
+        OutputStream out = new FileOutputStream(leftOver);
+        try {
+            out.write("half written".getBytes("UTF-8"));
+        } finally {
+            out.close();
+        }
+
+        assertEquals(1, BatchedVfsWriter.deleteTempFiles(outputVfsRepository));
+        assertFalse(leftOver.exists());
+        assertTrue(new File(outputVfsRepository, "module/notes.tmp").exists());
+    }
+
+    private String read(File file) throws IOException {
+        InputStream in = new FileInputStream(file);
+        try {
+            byte[] content = new byte[(int) file.length()];
+            int length = 0;
+            while (length < content.length) {
+                length += in.read(content, length, content.length - length);
+            }
+            return new String(content, "UTF-8");
+        } finally {
+            in.close();
+        }
+    }
+
+}
@@ -329,6 +329,7 @@ public class AssetItem extends CategorisableItem {
         try {
             this.node.setProperty( DISABLED_PROPERTY_NAME,
                                    disabled );
+            AssetSummaryCache.getInstance().remove( getUUID() );
         } catch ( RepositoryException e ) {
             log.error( "Caught Exception",
                        e );
@@ -523,6 +524,14 @@ public class AssetItem extends CategorisableItem {
         return super.getStringProperty( MODULE_NAME_PROPERTY );
     }
 
+    /**
+     * @return the read-only summary of this version of the asset, as used by
+     *         list views. This is cached, see {@link AssetSummaryCache}.
+     */
+    public AssetSummary getSummary() {
+        return AssetSummaryCache.getInstance().getSummary( this );
+    }
+
     /**
      * @return A property value (for a user defined property).
      */
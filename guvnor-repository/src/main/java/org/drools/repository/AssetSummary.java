@@ -0,0 +1,312 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.repository;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.List;
+
+import javax.jcr.ItemNotFoundException;
+import javax.jcr.Node;
+import javax.jcr.Property;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.jcr.Value;
+
+import org.drools.guvnor.shared.api.Valid;
+
+/**
+ * A read-only snapshot of the properties of an asset version that list views,
+ * feeds and the REST API show. All the properties are read in one visit of the
+ * version content node, so a listing does not go back to the repository for
+ * every getter.
+ *
+ * Use {@link AssetSummaryCache} to get summaries, they are cached per asset
+ * UUID and version.
+ */
+public class AssetSummary {
+
+    private final String       uuid;
+    private final long         versionNumber;
+    private final boolean      historicalVersion;
+    private final String       name;
+    private final String       format;
+    private final String       description;
+    private final String       stateDescription;
+    private final String       creator;
+    private final String       lastContributor;
+    private final String       checkinComment;
+    private final String       externalSource;
+    private final String       moduleName;
+    private final String       binaryContentAttachmentFileName;
+    private final long         createdDate;
+    private final long         lastModified;
+    private final boolean      archived;
+    private final boolean      disabled;
+    private final Valid        valid;
+    private final List<String> categoryNames;
+    private final List<String> categoryPaths;
+
+    AssetSummary(AssetItem asset) {
+        try {
+            Node content = asset.getVersionContentNode();
+            Session session = content.getSession();
+
+            this.uuid = content.getIdentifier();
+            this.historicalVersion = asset.isHistoricalVersion();
+            this.versionNumber = getLong( content,
+                                          VersionableItem.VERSION_NUMBER_PROPERTY_NAME );
+            this.name = getString( content,
+                                   VersionableItem.TITLE_PROPERTY_NAME );
+            this.format = getString( content,
+                                     VersionableItem.FORMAT_PROPERTY_NAME );
+            this.description = getString( content,
+                                          VersionableItem.DESCRIPTION_PROPERTY_NAME );
+            this.creator = getString( content,
+                                      VersionableItem.CREATOR_PROPERTY_NAME );
+            this.lastContributor = getString( content,
+                                              VersionableItem.LAST_CONTRIBUTOR_PROPERTY_NAME );
+            this.checkinComment = getString( content,
+                                             VersionableItem.CHECKIN_COMMENT );
+            this.externalSource = getString( content,
+                                             VersionableItem.SOURCE_PROPERTY_NAME );
+            this.moduleName = getString( content,
+                                         AssetItem.MODULE_NAME_PROPERTY );
+            this.binaryContentAttachmentFileName = getString( content,
+                                                              AssetItem.CONTENT_PROPERTY_ATTACHMENT_FILENAME );
+            this.valid = Valid.fromString( getString( content,
+                                                      VersionableItem.VALID_PROPERTY_NAME ) );
+            this.archived = getBoolean( content,
+                                        VersionableItem.CONTENT_PROPERTY_ARCHIVE_FLAG );
+            this.disabled = getBoolean( content,
+                                        AssetItem.DISABLED_PROPERTY_NAME );
+            this.lastModified = getDate( content,
+                                         VersionableItem.LAST_MODIFIED_PROPERTY_NAME );
+            //jcr:created lives on the node itself, not on the frozen copy
+            this.createdDate = getDate( asset.getNode(),
+                                        "jcr:created" );
+            this.stateDescription = getStateDescription( session,
+                                                         content );
+
+            List<String> names = new ArrayList<String>();
+            List<String> paths = new ArrayList<String>();
+            loadCategories( asset,
+                            session,
+                            content,
+                            names,
+                            paths );
+            this.categoryNames = Collections.unmodifiableList( names );
+            this.categoryPaths = Collections.unmodifiableList( paths );
+        } catch ( RepositoryException e ) {
+            throw new RulesRepositoryException( e );
+        }
+    }
+
+    private static String getString(Node node,
+                                    String property) throws RepositoryException {
+        if ( node.hasProperty( property ) ) {
+            return node.getProperty( property ).getValue().getString();
+        }
+        return "";
+    }
+
+    private static long getLong(Node node,
+                                String property) throws RepositoryException {
+        if ( node.hasProperty( property ) ) {
+            return node.getProperty( property ).getValue().getLong();
+        }
+        return 0;
+    }
+
+    private static boolean getBoolean(Node node,
+                                      String property) throws RepositoryException {
+        if ( node.hasProperty( property ) ) {
+            return node.getProperty( property ).getBoolean();
+        }
+        return false;
+    }
+
+    private static long getDate(Node node,
+                                String property) throws RepositoryException {
+        if ( node.hasProperty( property ) ) {
+            return node.getProperty( property ).getDate().getTimeInMillis();
+        }
+        return 0;
+    }
+
+    private static String getStateDescription(Session session,
+                                              Node content) throws RepositoryException {
+        if ( !content.hasProperty( VersionableItem.STATE_PROPERTY_NAME ) ) {
+            return "";
+        }
+        try {
+            return session.getNodeByIdentifier( content.getProperty( VersionableItem.STATE_PROPERTY_NAME ).getString() ).getName();
+        } catch ( ItemNotFoundException e ) {
+            return "";
+        }
+    }
+
+    private static void loadCategories(AssetItem asset,
+                                       Session session,
+                                       Node content,
+                                       List<String> names,
+                                       List<String> paths) throws RepositoryException {
+        if ( !content.hasProperty( VersionableItem.CATEGORY_PROPERTY_NAME ) ) {
+            return;
+        }
+        Property categories = content.getProperty( VersionableItem.CATEGORY_PROPERTY_NAME );
+        Value[] values = categories.isMultiple() ? categories.getValues() : new Value[]{categories.getValue()};
+        for ( Value value : values ) {
+            try {
+                CategoryItem category = new CategoryItem( asset.getRulesRepository(),
+                                                          session.getNodeByIdentifier( value.getString() ) );
+                names.add( category.getName() );
+                paths.add( category.getFullPath() );
+            } catch ( ItemNotFoundException e ) {
+                //the category must have been removed
+            }
+        }
+    }
+
+    public String getUUID() {
+        return uuid;
+    }
+
+    public long getVersionNumber() {
+        return versionNumber;
+    }
+
+    public boolean isHistoricalVersion() {
+        return historicalVersion;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Same as the name, as it is for {@link AssetItem}.
+     */
+    public String getTitle() {
+        return name;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public String getStateDescription() {
+        return stateDescription;
+    }
+
+    public String getCreator() {
+        return creator;
+    }
+
+    public String getLastContributor() {
+        return lastContributor;
+    }
+
+    public String getCheckinComment() {
+        return checkinComment;
+    }
+
+    public String getExternalSource() {
+        return externalSource;
+    }
+
+    public String getModuleName() {
+        return moduleName;
+    }
+
+    public String getBinaryContentAttachmentFileName() {
+        return binaryContentAttachmentFileName;
+    }
+
+    /**
+     * @return a new Calendar each time, as Calendars are mutable.
+     */
+    public Calendar getCreatedDate() {
+        return toCalendar( createdDate );
+    }
+
+    /**
+     * @return a new Calendar each time, as Calendars are mutable.
+     */
+    public Calendar getLastModified() {
+        return toCalendar( lastModified );
+    }
+
+    long getLastModifiedMillis() {
+        return lastModified;
+    }
+
+    public boolean isArchived() {
+        return archived;
+    }
+
+    public boolean getDisabled() {
+        return disabled;
+    }
+
+    public Valid getValid() {
+        return valid;
+    }
+
+    public List<String> getCategoryNames() {
+        return categoryNames;
+    }
+
+    public List<String> getCategoryPaths() {
+        return categoryPaths;
+    }
+
+    /**
+     * The same short summary as {@link CategorisableItem#getCategorySummary()}.
+     */
+    public String getCategorySummary() {
+        StringBuilder sum = new StringBuilder();
+        int count = 0;
+        for ( String categoryName : categoryNames ) {
+            count++;
+            if ( count == 4 ) {
+                sum.append( "..." );
+                break;
+            }
+            sum.append( categoryName );
+            sum.append( ' ' );
+        }
+        return sum.toString();
+    }
+
+    private static Calendar toCalendar(long millis) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis( millis );
+        return calendar;
+    }
+
+    @Override
+    public String toString() {
+        return "AssetSummary[" + name + "." + format + ", " + uuid + ", version " + versionNumber + "]";
+    }
+
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.repository;
+
+import java.util.Calendar;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded, least recently used cache of {@link AssetSummary}s, keyed by
+ * asset UUID and version number.
+ *
+ * An entry is only used if the last modified date of the asset still matches,
+ * so changes that are saved without a new version are picked up too. Changes
+ * that do not update the last modified date (the state, the archive flag, the
+ * disabled flag and the categories) remove the entries of the asset instead.
+ * The size can be set with the "guvnor.assetSummaryCache.size" system property.
+ */
+public class AssetSummaryCache {
+
+    private static final int                DEFAULT_SIZE = 5000;
+    private static final AssetSummaryCache  instance     = new AssetSummaryCache( Integer.getInteger( "guvnor.assetSummaryCache.size",
+                                                                                                      DEFAULT_SIZE ) );
+
+    private final Map<String, AssetSummary> summaries;
+
+    AssetSummaryCache(final int maxSize) {
+        this.summaries = new LinkedHashMap<String, AssetSummary>( 16,
+                                                                  0.75f,
+                                                                  true ) {
+            private static final long serialVersionUID = 510l;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, AssetSummary> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    public static AssetSummaryCache getInstance() {
+        return instance;
+    }
+
+    /**
+     * @return the summary of this version of the asset, loaded from the
+     *         repository only if it is not cached already.
+     */
+    public AssetSummary getSummary(AssetItem asset) {
+        String key = asset.getUUID() + ":" + asset.getVersionNumber();
+        Calendar lastModified = asset.getLastModified();
+        long lastModifiedMillis = lastModified == null ? 0 : lastModified.getTimeInMillis();
+
+        AssetSummary summary;
+        synchronized ( summaries ) {
+            summary = summaries.get( key );
+        }
+        if ( summary != null && summary.getLastModifiedMillis() == lastModifiedMillis ) {
+            return summary;
+        }
+
+        summary = new AssetSummary( asset );
+        synchronized ( summaries ) {
+            summaries.put( key,
+                           summary );
+        }
+        return summary;
+    }
+
+    /**
+     * Removes the summaries of all versions of the asset.
+     */
+    public void remove(String uuid) {
+        String prefix = uuid + ":";
+        synchronized ( summaries ) {
+            for ( Iterator<String> keys = summaries.keySet().iterator(); keys.hasNext(); ) {
+                if ( keys.next().startsWith( prefix ) ) {
+                    keys.remove();
+                }
+            }
+        }
+    }
+
+    public void clearCache() {
+        synchronized ( summaries ) {
+            summaries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized ( summaries ) {
+            return summaries.size();
+        }
+    }
+
+}
@@ -102,6 +102,7 @@ public abstract class CategorisableItem extends VersionableItem {
         this.checkout();
         this.node.setProperty( CATEGORY_PROPERTY_NAME,
                                newTagValues );
+        AssetSummaryCache.getInstance().remove( getUUID() );
     }
 
     /**
@@ -266,6 +267,7 @@ public abstract class CategorisableItem extends VersionableItem {
                     checkout(targetNode);
                     targetNode.setProperty( CATEGORY_PROPERTY_NAME,
                                            newTagValues );
+                    AssetSummaryCache.getInstance().remove( targetNode.getIdentifier() );
                 } else {
                     log.error( "reached expected path of execution when removing tag '" + tag + "' from asset node: " + targetNode.getName() );
                 }
@@ -23,7 +23,6 @@ import org.slf4j.LoggerFactory;
 import javax.jcr.*;
 import javax.jcr.nodetype.NodeType;
 import javax.jcr.query.Query;
-import javax.jcr.query.QueryResult;
 import java.io.InputStream;
 import java.util.*;
 
@@ -658,9 +657,7 @@ public class ModuleItem extends VersionableItem {
                     Query.SQL);
 
             long time = System.currentTimeMillis();
-            QueryResult res = q.execute();
-
-            NodeIterator it = res.getNodes();
+            NodeIterator it = RulesRepository.execute(q);
             long taken = System.currentTimeMillis() - time;
             if (taken > 2000) {
                 log.debug("QueryExec time is: " + (System.currentTimeMillis() - time));
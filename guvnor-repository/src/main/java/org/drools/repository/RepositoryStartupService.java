@@ -78,13 +78,16 @@ public abstract class RepositoryStartupService {
     @PreDestroy
     public void close() {
         sessionForSetup.logout();
+        RulesRepository.ACTIVE_SESSIONS.dec();
         log.info( "Shutting down repository..." );
         configurator.shutdown();
     }
 
     public Session newSession(String userName) {
         try {
-            return configurator.login(userName);
+            Session session = configurator.login(userName);
+            RulesRepository.ACTIVE_SESSIONS.inc();
+            return session;
         } catch (LoginException e) {
             throw new RulesRepositoryException("Unable to login to JCR backend.", e);
         } catch (RepositoryException e) {
@@ -94,7 +97,9 @@ public abstract class RepositoryStartupService {
 
     public Session newSession(String userName, String password) {
         try {
-            return configurator.login(userName, password);
+            Session session = configurator.login(userName, password);
+            RulesRepository.ACTIVE_SESSIONS.inc();
+            return session;
         } catch (LoginException e) {
             throw new RulesRepositoryException("UserName: [ " + userName + "] Unable to login to JCR backend.", e);
         } catch (RepositoryException e) {
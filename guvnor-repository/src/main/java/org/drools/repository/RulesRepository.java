@@ -17,6 +17,10 @@
 package org.drools.repository;
 
 import org.drools.repository.events.StorageEventManager;
+import org.drools.repository.metrics.Counter;
+import org.drools.repository.metrics.Histogram;
+import org.drools.repository.metrics.Metrics;
+import org.drools.repository.metrics.Timer;
 import org.drools.repository.migration.MigrateDroolsPackage;
 import org.drools.repository.utils.NodeUtils;
 import org.slf4j.Logger;
@@ -35,7 +39,6 @@ import javax.jcr.PropertyIterator;
 import javax.jcr.RepositoryException;
 import javax.jcr.Session;
 import javax.jcr.query.Query;
-import javax.jcr.query.QueryResult;
 import java.io.*;
 import java.util.*;
 import java.util.zip.ZipEntry;
@@ -79,6 +82,11 @@ public class RulesRepository {
 
     private static final Logger log = LoggerFactory.getLogger(RulesRepository.class);
 
+    private static final Timer QUERY_TIME = Metrics.getInstance().timer("jcr.query.time");
+    private static final Histogram QUERY_ROWS = Metrics.getInstance().histogram("jcr.query.rows");
+    private static final Timer SNAPSHOT_TIME = Metrics.getInstance().timer("jcr.snapshot.time");
+    static final Counter ACTIVE_SESSIONS = Metrics.getInstance().counter("jcr.sessions.active");
+
     /**
      * The name of the module area of the repository
      */
@@ -205,7 +213,10 @@ public class RulesRepository {
      */
     @PreDestroy
     public void logout() {
-        this.session.logout();
+        if (this.session.isLive()) {
+            this.session.logout();
+            ACTIVE_SESSIONS.dec();
+        }
     }
 
     public Node getAreaNode(String areaName) throws RulesRepositoryException {
@@ -588,10 +599,10 @@ public class RulesRepository {
             String newName = snaps.getNode(nodePath).getPath() + "/" + snapshotName;
             Node moduleNode = this.getAreaNode(MODULE_AREA).getNode(moduleName);
 
-            long start = System.currentTimeMillis();
+            long start = SNAPSHOT_TIME.start();
             this.session.getWorkspace().copy(moduleNode.getPath(),
                     newName);
-            log.debug("Time taken for snap: " + (System.currentTimeMillis() - start));
+            log.debug("Time taken for snap: " + SNAPSHOT_TIME.stop(start) / 1000);
 
         } catch (RepositoryException e) {
             log.error("Unable to create snapshot",
@@ -1567,9 +1578,7 @@ public class RulesRepository {
             Query q = this.session.getWorkspace().getQueryManager().createQuery(stringBuilder.toString(),
                     Query.SQL);
 
-            QueryResult res = q.execute();
-
-            return new AssetItemIterator(res.getNodes(),
+            return new AssetItemIterator(execute(q),
                     this);
         } catch (RepositoryException e) {
             throw new RulesRepositoryException(e);
@@ -1643,9 +1652,7 @@ public class RulesRepository {
             Query q = this.session.getWorkspace().getQueryManager().createQuery(sb.toString(),
                     Query.SQL);
 
-            QueryResult res = q.execute();
-
-            return new AssetItemIterator(res.getNodes(),
+            return new AssetItemIterator(execute(q),
                     this);
         } catch (RepositoryException e) {
             throw new RulesRepositoryException(e);
@@ -1672,8 +1679,7 @@ public class RulesRepository {
 
             Query q = this.session.getWorkspace().getQueryManager().createQuery(stringBuilder.toString(),
                     Query.XPATH);
-            QueryResult res = q.execute();
-            return new AssetItemIterator(res.getNodes(),
+            return new AssetItemIterator(execute(q),
                     this);
         } catch (RepositoryException e) {
             throw new RulesRepositoryException(e);
@@ -1740,15 +1746,29 @@ public class RulesRepository {
             Query q = this.session.getWorkspace().getQueryManager().createQuery(sql.toString(),
                     Query.SQL);
 
-            QueryResult res = q.execute();
-
-            return new AssetItemIterator(res.getNodes(),
+            return new AssetItemIterator(execute(q),
                     this);
         } catch (RepositoryException e) {
             throw new RulesRepositoryException(e);
         }
     }
 
+    /**
+     * Executes a query, recording how long it takes and how many rows it returns.
+     */
+    static NodeIterator execute(Query query) throws RepositoryException {
+        long start = QUERY_TIME.start();
+        try {
+            NodeIterator nodes = query.execute().getNodes();
+            if (nodes.getSize() >= 0) {
+                QUERY_ROWS.update(nodes.getSize());
+            }
+            return nodes;
+        } finally {
+            QUERY_TIME.stop(start);
+        }
+    }
+
     private Node getPerspectivesConfigurationArea() throws RepositoryException {
         Node areaNode;
         try {
@@ -582,17 +582,44 @@ public abstract class VersionableItem extends Item {
      * It will also set the last modified property.
      */
     public void checkin(String comment) {
+        prepareCheckin( comment );
+        try {
+            this.node.getSession().save();
+        } catch ( RepositoryException e ) {
+            throw new RulesRepositoryException( "Unable to checkin.",
+                                                e );
+        }
+        completeCheckin();
+    }
+
+    /**
+     * The first half of {@link #checkin(String)}: sets the last modified
+     * date, comment, contributor and version number, but does not save them.
+     * This lets several items be saved together, after which each one is
+     * checked in with {@link #completeCheckin()}.
+     */
+    public void prepareCheckin(String comment) {
         checkIsUpdateable();
         checkInAssetIfNecessary(false);
         try {
-
             this.node.setProperty( LAST_MODIFIED_PROPERTY_NAME, Calendar.getInstance() );
             this.node.setProperty( CHECKIN_COMMENT, comment );
             this.node.setProperty( LAST_CONTRIBUTOR_PROPERTY_NAME, this.node.getSession().getUserID() );
             long nextVersion = getVersionNumber() + 1;
             this.node.setProperty( VERSION_NUMBER_PROPERTY_NAME,  nextVersion );
-            this.node.getSession().save();
-            
+        } catch ( RepositoryException e ) {
+            throw new RulesRepositoryException( "Unable to checkin.",
+                                                e );
+        }
+    }
+
+    /**
+     * The second half of {@link #checkin(String)}: creates the new version of
+     * an item that has been through {@link #prepareCheckin(String)} and has
+     * been saved since.
+     */
+    public void completeCheckin() {
+        try {
             getVersionManager(this.node).checkin(this.node.getPath());
 
             if (StorageEventManager.hasSaveEvent()) {
@@ -699,6 +726,7 @@ public abstract class VersionableItem extends Item {
             checkout();
             this.node.setProperty( STATE_PROPERTY_NAME,
                                    stateItem.getNode() );
+            AssetSummaryCache.getInstance().remove( getUUID() );
         } catch ( Exception e ) {
             log.error( "Caught exception",
                        e );
@@ -929,6 +957,7 @@ public abstract class VersionableItem extends Item {
 
         try {
             this.node.setProperty(CONTENT_PROPERTY_ARCHIVE_FLAG, data);
+            AssetSummaryCache.getInstance().remove(getUUID());
             return this;
         } catch (RepositoryException e) {
             log.error("Unable to update this VersionableItem binary archive flag");
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.repository.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A value that goes up and down, such as a number of bytes served or of open sessions.
+ */
+public class Counter implements CounterMBean {
+
+    private final AtomicLong value = new AtomicLong();
+
+    public void inc() {
+        value.incrementAndGet();
+    }
+
+    public void dec() {
+        value.decrementAndGet();
+    }
+
+    public void add(long n) {
+        value.addAndGet(n);
+    }
+
+    public long getValue() {
+        return value.get();
+    }
+
+    public void reset() {
+        value.set(0);
+    }
+
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.repository.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The distribution of a series of values, such as the number of rows returned by queries.
+ * <p/>
+ * Values are counted in buckets of powers of two, so recording one is a handful of atomic operations and the memory
+ * used does not grow. The percentiles are the upper bounds of the buckets they fall in, so they are accurate within a
+ * factor of two, and never more than the largest value recorded.
+ */
+public class Histogram implements HistogramMBean {
+
+    private static final int BUCKETS = 64;
+
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+    public void update(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        count.incrementAndGet();
+        total.addAndGet(value);
+        buckets.incrementAndGet(Math.min(BUCKETS - Long.numberOfLeadingZeros(value),
+                BUCKETS - 1));
+        long current = max.get();
+        while (value > current && !max.compareAndSet(current,
+                value)) {
+            current = max.get();
+        }
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getTotal() {
+        return total.get();
+    }
+
+    public double getMean() {
+        long n = count.get();
+        return n == 0 ? 0 : (double) total.get() / n;
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public long getMedian() {
+        return getPercentile(0.5);
+    }
+
+    public long get95thPercentile() {
+        return getPercentile(0.95);
+    }
+
+    public long get99thPercentile() {
+        return getPercentile(0.99);
+    }
+
+    /**
+     * @param quantile between 0 and 1
+     */
+    public long getPercentile(double quantile) {
+        long[] counts = new long[BUCKETS];
+        long n = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+            n += counts[i];
+        }
+        if (n == 0) {
+            return 0;
+        }
+        long rank = Math.max(1,
+                (long) Math.ceil(quantile * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(upperBound(i),
+                        max.get());
+            }
+        }
+        return max.get();
+    }
+
+    public void reset() {
+        count.set(0);
+        total.set(0);
+        max.set(0);
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets.set(i,
+                    0);
+        }
+    }
+
+    private static long upperBound(int bucket) {
+        return bucket == BUCKETS - 1 ? Long.MAX_VALUE : (1L << bucket) - 1;
+    }
+
+}
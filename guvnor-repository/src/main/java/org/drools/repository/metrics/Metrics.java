@@ -0,0 +1,153 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.repository.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The timers, histograms, counters and cache meters of the server, by name. Each of them is also registered as an
+ * MBean named "org.drools.guvnor:type=[Timer|Histogram|Counter|CacheMeter],name=[name]" on the platform MBean server,
+ * unless the "guvnor.metrics.jmx" system property is false.
+ * <p/>
+ * Looking a metric up is a map lookup, and recording a value a few atomic operations, so it can be done on every
+ * call. Code on hot paths keeps the metrics it records in static fields.
+ */
+public class Metrics {
+
+    public static final String DOMAIN = "org.drools.guvnor";
+
+    private static final Logger log = LoggerFactory.getLogger(Metrics.class);
+
+    private static final Metrics instance = new Metrics(Boolean.valueOf(System.getProperty("guvnor.metrics.jmx",
+            "true")));
+
+    private final boolean jmx;
+    private final ConcurrentMap<String, Object> metrics = new ConcurrentHashMap<String, Object>();
+
+    Metrics(boolean jmx) {
+        this.jmx = jmx;
+    }
+
+    public static Metrics getInstance() {
+        return instance;
+    }
+
+    public Timer timer(String name) {
+        return get(name,
+                Timer.class);
+    }
+
+    public Histogram histogram(String name) {
+        return get(name,
+                Histogram.class);
+    }
+
+    public Counter counter(String name) {
+        return get(name,
+                Counter.class);
+    }
+
+    public CacheMeter cacheMeter(String name) {
+        return get(name,
+                CacheMeter.class);
+    }
+
+    /**
+     * @return all the metrics, by name.
+     */
+    public SortedMap<String, Object> getMetrics() {
+        return new TreeMap<String, Object>(metrics);
+    }
+
+    /**
+     * Resets all the metrics, which are still registered.
+     */
+    public void reset() {
+        for (Object metric : metrics.values()) {
+            if (metric instanceof HistogramMBean) {
+                ((HistogramMBean) metric).reset();
+            } else if (metric instanceof CounterMBean) {
+                ((CounterMBean) metric).reset();
+            } else if (metric instanceof CacheMeterMBean) {
+                ((CacheMeterMBean) metric).reset();
+            }
+        }
+    }
+
+    private <T> T get(String name,
+                      Class<T> type) {
+        Object metric = metrics.get(name);
+        if (metric == null) {
+            Object created = newMetric(type);
+            metric = metrics.putIfAbsent(name,
+                    created);
+            if (metric == null) {
+                metric = created;
+                register(name,
+                        metric);
+            }
+        }
+        if (!type.isInstance(metric)) {
+            throw new IllegalArgumentException("Metric [" + name + "] is a " + metric.getClass().getSimpleName() + ", not a " + type.getSimpleName());
+        }
+        return type.cast(metric);
+    }
+
+    private static Object newMetric(Class<?> type) {
+        if (type == Timer.class) {
+            return new Timer();
+        } else if (type == Histogram.class) {
+            return new Histogram();
+        } else if (type == Counter.class) {
+            return new Counter();
+        }
+        return new CacheMeter();
+    }
+
+    private void register(String name,
+                          Object metric) {
+        if (!jmx) {
+            return;
+        }
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(DOMAIN + ":type=" + metric.getClass().getSimpleName() + ",name=" + ObjectName.quote(name));
+            if (!server.isRegistered(objectName)) {
+                server.registerMBean(metric,
+                        objectName);
+            }
+        } catch (JMException e) {
+            log.warn("Unable to register metric [" + name + "] with JMX",
+                    e);
+        } catch (SecurityException e) {
+            log.warn("Unable to register metric [" + name + "] with JMX",
+                    e);
+        }
+    }
+
+}
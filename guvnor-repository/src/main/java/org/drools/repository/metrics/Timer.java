@@ -0,0 +1,50 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.repository.metrics;
+
+/**
+ * The distribution of the durations of an operation, in microseconds.
+ * <pre>
+ * long start = timer.start();
+ * try {
+ *     ...
+ * } finally {
+ *     timer.stop(start);
+ * }
+ * </pre>
+ */
+public class Timer extends Histogram implements TimerMBean {
+
+    public long start() {
+        return System.nanoTime();
+    }
+
+    /**
+     * @param start what {@link #start()} returned
+     * @return the duration, in microseconds
+     */
+    public long stop(long start) {
+        long micros = (System.nanoTime() - start) / 1000;
+        update(micros);
+        return micros;
+    }
+
+    public String getUnit() {
+        return "microseconds";
+    }
+
+}
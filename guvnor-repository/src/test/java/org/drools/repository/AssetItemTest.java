@@ -135,6 +135,36 @@ public class AssetItemTest extends RepositoryTestCase {
         
     }
 
+    @Test
+    public void testCheckinSeveralAssetsWithOneSave() throws Exception {
+        RulesRepository repo = getRepo();
+        ModuleItem def = repo.loadDefaultModule();
+        AssetItem first = def.addAsset("testCheckinSeveralAssetsWithOneSave1", "test content");
+        AssetItem second = def.addAsset("testCheckinSeveralAssetsWithOneSave2", "test content");
+        long firstVersion = first.getVersionNumber();
+        long secondVersion = second.getVersionNumber();
+
+        first.updateContent("first content");
+        first.prepareCheckin("first");
+        second.updateContent("second content");
+        second.prepareCheckin("second");
+        repo.save();
+        first.completeCheckin();
+        second.completeCheckin();
+
+        first = repo.loadAssetByUUID(first.getUUID());
+        assertEquals("first content", first.getContent());
+        assertEquals("first", first.getCheckinComment());
+        assertEquals(firstVersion + 1, first.getVersionNumber());
+        assertFalse(first.getNode().isCheckedOut());
+
+        second = repo.loadAssetByUUID(second.getUUID());
+        assertEquals("second content", second.getContent());
+        assertEquals("second", second.getCheckinComment());
+        assertEquals(secondVersion + 1, second.getVersionNumber());
+        assertFalse(second.getNode().isCheckedOut());
+    }
+
     @Test
     public void testGetPackageItemHistorical() throws Exception {
         RulesRepository repo = getRepo();
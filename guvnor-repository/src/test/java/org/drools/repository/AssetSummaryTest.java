@@ -0,0 +1,163 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.repository;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class AssetSummaryTest extends RepositoryTestCase {
+
+    @Test
+    public void testSummaryMatchesAsset() throws Exception {
+        RulesRepository repo = getRepo();
+        repo.loadCategory( "/" ).addCategory( "testSummaryCat",
+                                              "description" );
+        AssetItem asset = getDefaultPackage().addAsset( "testSummaryMatchesAsset",
+                                                        "description",
+                                                        "testSummaryCat",
+                                                        "drl" );
+        asset.updateExternalSource( "source" );
+        asset.checkin( "version 1" );
+
+        AssetSummary summary = asset.getSummary();
+        assertEquals( asset.getUUID(),
+                      summary.getUUID() );
+        assertEquals( asset.getName(),
+                      summary.getName() );
+        assertEquals( asset.getFormat(),
+                      summary.getFormat() );
+        assertEquals( asset.getDescription(),
+                      summary.getDescription() );
+        assertEquals( asset.getStateDescription(),
+                      summary.getStateDescription() );
+        assertEquals( asset.getModuleName(),
+                      summary.getModuleName() );
+        assertEquals( asset.getExternalSource(),
+                      summary.getExternalSource() );
+        assertEquals( asset.getCheckinComment(),
+                      summary.getCheckinComment() );
+        assertEquals( asset.getVersionNumber(),
+                      summary.getVersionNumber() );
+        assertEquals( asset.getCategorySummary(),
+                      summary.getCategorySummary() );
+        assertEquals( asset.getLastModified().getTimeInMillis(),
+                      summary.getLastModified().getTimeInMillis() );
+        assertEquals( asset.getCreatedDate().getTimeInMillis(),
+                      summary.getCreatedDate().getTimeInMillis() );
+        assertTrue( summary.getCategoryPaths().contains( "testSummaryCat" ) );
+        assertFalse( summary.isArchived() );
+        assertFalse( summary.getDisabled() );
+    }
+
+    @Test
+    public void testSummaryIsCachedPerVersion() throws Exception {
+        AssetItem asset = getDefaultPackage().addAsset( "testSummaryIsCachedPerVersion",
+                                                        "description" );
+        asset.checkin( "version 1" );
+
+        AssetSummary first = asset.getSummary();
+        assertSame( first,
+                    getRepo().loadAssetByUUID( asset.getUUID() ).getSummary() );
+
+        asset.updateDescription( "new description" );
+        asset.checkin( "version 2" );
+
+        AssetSummary second = asset.getSummary();
+        assertNotSame( first,
+                       second );
+        assertEquals( "new description",
+                      second.getDescription() );
+        assertEquals( first.getVersionNumber() + 1,
+                      second.getVersionNumber() );
+    }
+
+    @Test
+    public void testStateChangeIsSeen() throws Exception {
+        AssetItem asset = getDefaultPackage().addAsset( "testSummaryStateChange",
+                                                        "description" );
+        asset.checkin( "version 1" );
+        getRepo().createState( "testSummaryState" );
+        asset.getSummary();
+
+        asset.updateState( "testSummaryState" );
+        getRepo().save();
+
+        assertEquals( "testSummaryState",
+                      getRepo().loadAssetByUUID( asset.getUUID() ).getSummary().getStateDescription() );
+    }
+
+    @Test
+    public void testArchiveIsSeen() throws Exception {
+        AssetItem asset = getDefaultPackage().addAsset( "testSummaryArchive",
+                                                        "description" );
+        asset.checkin( "version 1" );
+        assertFalse( asset.getSummary().isArchived() );
+
+        asset.archiveItem( true );
+        getRepo().save();
+
+        assertTrue( getRepo().loadAssetByUUID( asset.getUUID() ).getSummary().isArchived() );
+    }
+
+    @Test
+    public void testDisabledIsSeen() throws Exception {
+        AssetItem asset = getDefaultPackage().addAsset( "testSummaryDisabled",
+                                                        "description" );
+        asset.checkin( "version 1" );
+        assertFalse( asset.getSummary().getDisabled() );
+
+        asset.updateDisabled( true );
+        getRepo().save();
+
+        assertTrue( getRepo().loadAssetByUUID( asset.getUUID() ).getSummary().getDisabled() );
+    }
+
+    @Test
+    public void testCategoryChangeIsSeen() throws Exception {
+        RulesRepository repo = getRepo();
+        repo.loadCategory( "/" ).addCategory( "testSummaryCategoryChange",
+                                              "description" );
+        AssetItem asset = getDefaultPackage().addAsset( "testSummaryCategoryChange",
+                                                        "description" );
+        asset.checkin( "version 1" );
+        assertFalse( asset.getSummary().getCategoryPaths().contains( "testSummaryCategoryChange" ) );
+
+        asset.updateCategoryList( new String[]{"testSummaryCategoryChange"} );
+        repo.save();
+
+        assertTrue( repo.loadAssetByUUID( asset.getUUID() ).getSummary().getCategoryPaths().contains( "testSummaryCategoryChange" ) );
+    }
+
+    @Test
+    public void testCacheIsBounded() throws Exception {
+        AssetSummaryCache cache = new AssetSummaryCache( 2 );
+        for ( int i = 0; i < 3; i++ ) {
+            AssetItem asset = getDefaultPackage().addAsset( "testCacheIsBounded" + i,
+                                                            "description" );
+            asset.checkin( "version 1" );
+            cache.getSummary( asset );
+        }
+        assertEquals( 2,
+                      cache.size() );
+    }
+
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.repository.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.ObjectName;
+
+import org.junit.Test;
+
+public class MetricsTest {
+
+    @Test
+    public void testHistogramPercentiles() {
+        Histogram histogram = new Histogram();
+        for (int i = 1; i <= 100; i++) {
+            histogram.update(i);
+        }
+
+        assertEquals(100,
+                histogram.getCount());
+        assertEquals(50.5,
+                histogram.getMean(),
+                0.0001);
+        assertEquals(100,
+                histogram.getMax());
+        //Within a factor of two, and never more than the largest value
+        assertEquals(63,
+                histogram.getMedian());
+        assertEquals(100,
+                histogram.get99thPercentile());
+
+        histogram.reset();
+        assertEquals(0,
+                histogram.getCount());
+        assertEquals(0,
+                histogram.getMedian());
+    }
+
+    @Test
+    public void testCacheMeterHitRate() {
+        CacheMeter cacheMeter = new CacheMeter();
+        assertEquals(0,
+                cacheMeter.getHitRate(),
+                0.0001);
+        cacheMeter.hit();
+        cacheMeter.hit();
+        cacheMeter.hit();
+        cacheMeter.miss();
+        assertEquals(0.75,
+                cacheMeter.getHitRate(),
+                0.0001);
+    }
+
+    @Test
+    public void testMetricsAreRegisteredOnce() throws Exception {
+        Metrics metrics = new Metrics(true);
+        Timer timer = metrics.timer("test.metrics.timer");
+        assertSame(timer,
+                metrics.timer("test.metrics.timer"));
+        assertTrue(ManagementFactory.getPlatformMBeanServer().isRegistered(new ObjectName(Metrics.DOMAIN + ":type=Timer,name=\"test.metrics.timer\"")));
+
+        timer.update(10);
+        assertEquals(1,
+                metrics.getMetrics().size());
+        metrics.reset();
+        assertEquals(0,
+                timer.getCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNameIsOfOneKindOfMetric() {
+        Metrics metrics = new Metrics(false);
+        metrics.counter("test.metrics.counter");
+        metrics.timer("test.metrics.counter");
+    }
+
+}
@@ -112,6 +112,7 @@ public class AssetEditorActivity {
                 refreshModuleDataModelEvents.fire(
                         new RefreshModuleDataModelEvent(
                                 ruleAsset.metaData.moduleName,
+                                ruleAsset,
                                 createOnRefreshModuleDataModelCompletion(ruleAsset, loading)));
 
                 changeTitleWidgetEvent.fire(new ChangeTitleWidgetEvent(place, new InlineLabel(ruleAsset.getName())));
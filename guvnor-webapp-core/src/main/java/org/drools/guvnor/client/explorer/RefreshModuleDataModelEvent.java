@@ -1,15 +1,31 @@
 package org.drools.guvnor.client.explorer;
 
+import org.drools.guvnor.client.rpc.Asset;
+
 import com.google.gwt.user.client.Command;
 
 public class RefreshModuleDataModelEvent {
 
     private final String moduleName;
+    private final Asset asset;
     private Command callbackCommand = null;
 
     public RefreshModuleDataModelEvent(String moduleName,
                                        Command callbackCommand) {
+        this(moduleName,
+                null,
+                callbackCommand);
+    }
+
+    /**
+     * @param asset the asset to be opened once the data model is refreshed, so that what it uses of the data model
+     *              is there before its editor is rendered
+     */
+    public RefreshModuleDataModelEvent(String moduleName,
+                                       Asset asset,
+                                       Command callbackCommand) {
         this.moduleName = moduleName;
+        this.asset = asset;
         this.callbackCommand = callbackCommand;
     }
 
@@ -17,6 +33,10 @@ public class RefreshModuleDataModelEvent {
         return moduleName;
     }
 
+    public Asset getAsset() {
+        return asset;
+    }
+
     public Command getCallbackCommand() {
         return callbackCommand;
     }
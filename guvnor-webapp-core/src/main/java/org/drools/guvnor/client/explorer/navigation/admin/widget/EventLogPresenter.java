@@ -61,6 +61,21 @@ public class EventLogPresenter {
 
         int getPageSize();
 
+        /**
+         * @return the highest severity to show, 0 being errors and 1 info
+         */
+        Integer getMaxSeverity();
+
+        /**
+         * @return the category to show, or null for all
+         */
+        String getCategoryFilter();
+
+        /**
+         * @return the UUID of the asset or module to show, or null for all
+         */
+        String getItemIdFilter();
+
     }
 
     private final EventLogView view;
@@ -109,9 +124,11 @@ public class EventLogPresenter {
     private void setDataProvider() {
         view.setDataProvider(new AsyncDataProvider<LogPageRow>() {
             protected void onRangeChanged(HasData<LogPageRow> table) {
-                PageRequest request = new PageRequest();
-                request.setStartRowIndex(view.getStartRowIndex());
-                request.setPageSize(view.getPageSize());
+                LogPageRequest request = new LogPageRequest(view.getMaxSeverity(),
+                        view.getCategoryFilter(),
+                        view.getItemIdFilter(),
+                        view.getStartRowIndex(),
+                        view.getPageSize());
                 repositoryService.showLog(request,
                         new GenericCallback<PageResponse<LogPageRow>>() {
                             public void onSuccess(PageResponse<LogPageRow> response) {
@@ -102,4 +102,16 @@ public class EventLogViewImpl extends Composite
         return this.table.getPageSize();
     }
 
+    public Integer getMaxSeverity() {
+        return this.table.getMaxSeverity();
+    }
+
+    public String getCategoryFilter() {
+        return this.table.getCategoryFilter();
+    }
+
+    public String getItemIdFilter() {
+        return this.table.getItemIdFilter();
+    }
+
 }
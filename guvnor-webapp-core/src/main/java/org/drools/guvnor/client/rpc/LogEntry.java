@@ -28,5 +28,7 @@ public class LogEntry implements IsSerializable {
     public int severity;
     public String message;
     public Date timestamp;
+    public String category;
+    public String itemId;
 
 }
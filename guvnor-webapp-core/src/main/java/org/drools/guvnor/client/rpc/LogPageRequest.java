@@ -0,0 +1,82 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.guvnor.client.rpc;
+
+/**
+ * A request for the entries of the server log that match a filter. A filter
+ * that is null matches every entry.
+ */
+public class LogPageRequest extends PageRequest {
+
+    private Integer maxSeverity;
+    private String  category;
+    private String  itemId;
+
+    // For GWT serialisation
+    public LogPageRequest() {
+    }
+
+    public LogPageRequest(Integer maxSeverity,
+                          String category,
+                          String itemId,
+                          int startRowIndex,
+                          Integer pageSize) {
+        super( startRowIndex,
+               pageSize );
+        this.maxSeverity = maxSeverity;
+        this.category = category;
+        this.itemId = itemId;
+    }
+
+    // ************************************************************************
+    // Getters and setters
+    // ************************************************************************
+
+    /**
+     * @return the highest severity of the entries, 0 being errors and 1 info
+     */
+    public Integer getMaxSeverity() {
+        return maxSeverity;
+    }
+
+    /**
+     * @return the category of the entries, that is the class that logged them
+     */
+    public String getCategory() {
+        return category;
+    }
+
+    /**
+     * @return the UUID of the asset or module the entries are about
+     */
+    public String getItemId() {
+        return itemId;
+    }
+
+    public void setMaxSeverity(Integer maxSeverity) {
+        this.maxSeverity = maxSeverity;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public void setItemId(String itemId) {
+        this.itemId = itemId;
+    }
+
+}
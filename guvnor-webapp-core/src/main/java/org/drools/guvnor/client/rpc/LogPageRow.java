@@ -26,11 +26,21 @@ public class LogPageRow extends AbstractPageRow {
     private int    severity;  // TODO should be an enum
     private String message;
     private Date   timestamp;
+    private String category;
+    private String itemId;
 
     // ************************************************************************
     // Getters and setters
     // ************************************************************************
 
+    public String getCategory() {
+        return category;
+    }
+
+    public String getItemId() {
+        return itemId;
+    }
+
     public String getMessage() {
         return message;
     }
@@ -43,6 +53,14 @@ public class LogPageRow extends AbstractPageRow {
         return timestamp;
     }
 
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public void setItemId(String itemId) {
+        this.itemId = itemId;
+    }
+
     public void setMessage(String message) {
         this.message = message;
     }
@@ -212,6 +212,19 @@ public interface RepositoryService
     public String[] loadDropDownExpression(String[] valuePairs,
                                            String expression);
 
+    /**
+     * Loads several drop downs at once, as {@link #loadDropDownExpression(String[], String)} does one.
+     * A drop down whose expression fails is given an empty array.
+     *
+     * @param valuePairs
+     *            the key=value pairs of each expression
+     * @param expressions
+     *            the expressions
+     * @return the values of each expression, in the same order
+     */
+    public String[][] loadDropDownExpressions(String[][] valuePairs,
+                                              String[] expressions);
+
     /**
      * Runs a full text search using JCR.
      * 
@@ -36,6 +36,8 @@ import com.google.gwt.uibinder.client.UiField;
 import com.google.gwt.user.cellview.client.Column;
 import com.google.gwt.user.client.ui.AbstractImagePrototype;
 import com.google.gwt.user.client.ui.Button;
+import com.google.gwt.user.client.ui.ListBox;
+import com.google.gwt.user.client.ui.TextBox;
 import com.google.gwt.user.client.ui.Widget;
 
 /**
@@ -57,6 +59,15 @@ public class LogPagedTable extends AbstractPagedTable<LogPageRow>
     @UiField()
     protected Button                   refreshButton;
 
+    @UiField()
+    protected ListBox                  severityFilter;
+
+    @UiField()
+    protected TextBox                  categoryFilter;
+
+    @UiField()
+    protected TextBox                  itemIdFilter;
+
     private static LogPagedTableBinder uiBinder        = GWT.create( LogPagedTableBinder.class );
 
     private static ImagesCore images          = (ImagesCore) GWT.create( ImagesCore.class );
@@ -78,6 +89,10 @@ public class LogPagedTable extends AbstractPagedTable<LogPageRow>
      */
     public LogPagedTable() {
         super( PAGE_SIZE );
+        severityFilter.addItem( constants.Information(),
+                                "1" );
+        severityFilter.addItem( constants.Error(),
+                                "0" );
     }
 
     @Override
@@ -123,6 +138,30 @@ public class LogPagedTable extends AbstractPagedTable<LogPageRow>
                                                                         messageColumn ),
                                 true );
 
+        Column<LogPageRow, String> categoryColumn = new Column<LogPageRow, String>( new TextCell() ) {
+            public String getValue(LogPageRow row) {
+                return row.getCategory();
+            }
+        };
+        columnPicker.addColumn( categoryColumn,
+                                new SortableHeader<LogPageRow, String>(
+                                                                        sortableHeaderGroup,
+                                                                        constants.Category(),
+                                                                        categoryColumn ),
+                                true );
+
+        Column<LogPageRow, String> itemIdColumn = new Column<LogPageRow, String>( new TextCell() ) {
+            public String getValue(LogPageRow row) {
+                return row.getItemId();
+            }
+        };
+        columnPicker.addColumn( itemIdColumn,
+                                new SortableHeader<LogPageRow, String>(
+                                                                        sortableHeaderGroup,
+                                                                        constants.Item(),
+                                                                        itemIdColumn ),
+                                true );
+
         Column<LogPageRow, Date> timestampColumn = new Column<LogPageRow, Date>( new DateCell( DateTimeFormat.getFormat( DateTimeFormat.PredefinedFormat.DATE_TIME_MEDIUM ) ) ) {
             public Date getValue(LogPageRow row) {
                 return row.getTimestamp();
@@ -165,4 +204,21 @@ public class LogPagedTable extends AbstractPagedTable<LogPageRow>
         return PAGE_SIZE;
     }
 
+    public Integer getMaxSeverity() {
+        return Integer.valueOf( severityFilter.getValue( severityFilter.getSelectedIndex() ) );
+    }
+
+    public String getCategoryFilter() {
+        return getFilter( categoryFilter );
+    }
+
+    public String getItemIdFilter() {
+        return getFilter( itemIdFilter );
+    }
+
+    private String getFilter(TextBox textBox) {
+        String value = textBox.getText().trim();
+        return value.length() == 0 ? null : value;
+    }
+
 }
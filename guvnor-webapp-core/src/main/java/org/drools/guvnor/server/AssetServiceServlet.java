@@ -17,7 +17,6 @@
 package org.drools.guvnor.server;
 
 import com.google.gwt.user.client.rpc.SerializationException;
-import com.google.gwt.user.server.rpc.RemoteServiceServlet;
 import org.drools.guvnor.client.rpc.AssetService;
 import org.drools.guvnor.client.rpc.ConversionResult;
 import org.jboss.solder.core.Veto;
@@ -27,7 +26,7 @@ import javax.inject.Inject;
 
 @Veto
 public class AssetServiceServlet
-        extends RemoteServiceServlet
+        extends MeteredRemoteServiceServlet
         implements AssetService {
     
     @Inject
@@ -16,7 +16,6 @@
 
 package org.drools.guvnor.server;
 
-import com.google.gwt.user.server.rpc.RemoteServiceServlet;
 import org.drools.guvnor.client.rpc.CategoryService;
 import org.jboss.solder.core.Veto;
 
@@ -24,7 +23,7 @@ import javax.inject.Inject;
 
 @Veto
 public class CategoryServiceServlet
-        extends RemoteServiceServlet
+        extends MeteredRemoteServiceServlet
         implements CategoryService {
 
 
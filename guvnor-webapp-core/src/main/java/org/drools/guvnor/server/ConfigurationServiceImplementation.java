@@ -18,13 +18,12 @@ package org.drools.guvnor.server;
 
 import java.util.Map;
 
-import com.google.gwt.user.server.rpc.RemoteServiceServlet;
 import org.drools.guvnor.client.rpc.ConfigurationService;
 import org.drools.guvnor.server.configurations.ApplicationPreferencesInitializer;
 import org.drools.guvnor.server.configurations.ApplicationPreferencesLoader;
 
 public class ConfigurationServiceImplementation
-        extends RemoteServiceServlet
+        extends MeteredRemoteServiceServlet
         implements ConfigurationService {
 
     public Map<String, String> loadPreferences() {
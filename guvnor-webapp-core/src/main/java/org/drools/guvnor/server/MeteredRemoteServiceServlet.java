@@ -0,0 +1,70 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.guvnor.server;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.drools.repository.metrics.Metrics;
+import org.drools.repository.metrics.Timer;
+
+import com.google.gwt.user.client.rpc.SerializationException;
+import com.google.gwt.user.server.rpc.RPCRequest;
+import com.google.gwt.user.server.rpc.RemoteServiceServlet;
+
+/**
+ * A GWT RPC servlet that times its calls. Each method has a timer, named "rpc.[service].[method]", which includes
+ * the decoding of the request and the encoding of the response.
+ */
+public abstract class MeteredRemoteServiceServlet extends RemoteServiceServlet {
+
+    private static final ConcurrentMap<Method, Timer> timers = new ConcurrentHashMap<Method, Timer>();
+
+    private final ThreadLocal<Method> method = new ThreadLocal<Method>();
+
+    @Override
+    public String processCall(String payload) throws SerializationException {
+        long start = System.nanoTime();
+        try {
+            return super.processCall(payload);
+        } finally {
+            Method called = method.get();
+            if (called != null) {
+                method.remove();
+                getTimer(called).stop(start);
+            }
+        }
+    }
+
+    @Override
+    protected void onAfterRequestDeserialized(RPCRequest rpcRequest) {
+        super.onAfterRequestDeserialized(rpcRequest);
+        method.set(rpcRequest.getMethod());
+    }
+
+    private static Timer getTimer(Method method) {
+        Timer timer = timers.get(method);
+        if (timer == null) {
+            timer = Metrics.getInstance().timer("rpc." + method.getDeclaringClass().getSimpleName() + "." + method.getName());
+            timers.putIfAbsent(method,
+                    timer);
+        }
+        return timer;
+    }
+
+}
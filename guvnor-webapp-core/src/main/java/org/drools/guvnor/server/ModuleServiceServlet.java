@@ -1,7 +1,6 @@
 package org.drools.guvnor.server;
 
 import com.google.gwt.user.client.rpc.SerializationException;
-import com.google.gwt.user.server.rpc.RemoteServiceServlet;
 import org.drools.guvnor.client.rpc.ModuleService;
 import org.drools.guvnor.client.rpc.Path;
 import org.drools.guvnor.client.rpc.SnapshotInfo;
@@ -11,7 +10,7 @@ import javax.inject.Inject;
 
 @Veto
 public class ModuleServiceServlet
-        extends RemoteServiceServlet
+        extends MeteredRemoteServiceServlet
         implements ModuleService {
 
     @Inject
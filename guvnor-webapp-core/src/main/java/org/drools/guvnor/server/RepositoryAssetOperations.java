@@ -52,12 +52,12 @@ import org.drools.guvnor.server.builder.PageResponseBuilder;
 import org.drools.guvnor.server.builder.pagerow.ArchivedAssetPageRowBuilder;
 import org.drools.guvnor.server.builder.pagerow.AssetPageRowBuilder;
 import org.drools.guvnor.server.builder.pagerow.QuickFindPageRowBuilder;
-import org.drools.guvnor.server.cache.RuleBaseCache;
 import org.drools.guvnor.server.contenthandler.ContentHandler;
 import org.drools.guvnor.server.contenthandler.ContentManager;
 import org.drools.guvnor.server.contenthandler.ICanRenderSource;
 import org.drools.guvnor.server.contenthandler.IRuleAsset;
 import org.drools.guvnor.server.repository.MailboxService;
+import org.drools.guvnor.server.repository.ModuleRebuildService;
 import org.drools.guvnor.server.repository.Preferred;
 import org.drools.guvnor.server.util.AssetEditorConfiguration;
 import org.drools.guvnor.server.util.AssetEditorConfigurationParser;
@@ -98,6 +98,9 @@ public class RepositoryAssetOperations {
     @Inject
     private MailboxService mailboxService;
 
+    @Inject
+    private ModuleRebuildService moduleRebuildService;
+
     @Inject
     private AssetLockManager assetLockManager;
 
@@ -183,12 +186,10 @@ public class RepositoryAssetOperations {
                 repoAsset);
         repoAsset.updateValid(assetValidator.validate(repoAsset));
 
+        repoAsset.checkin(asset.getCheckinComment());
         if (AssetFormats.affectsBinaryUpToDate(asset.getFormat())) {
-            ModuleItem pkg = repoAsset.getModule();
-            pkg.updateBinaryUpToDate(false);
-            RuleBaseCache.getInstance().remove(pkg.getUUID());
+            moduleRebuildService.moduleChanged(repoAsset.getModule());
         }
-        repoAsset.checkin(asset.getCheckinComment());
 
         return repoAsset.getUUID();
     }
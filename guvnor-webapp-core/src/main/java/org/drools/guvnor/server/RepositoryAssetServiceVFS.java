@@ -46,11 +46,11 @@ import org.drools.guvnor.client.rpc.QueryPageRow;
 import org.drools.guvnor.client.rpc.TableDataResult;
 import org.drools.guvnor.server.builder.PageResponseBuilder;
 import org.drools.guvnor.server.builder.pagerow.AssetPageRowBuilder;
-import org.drools.guvnor.server.cache.RuleBaseCache;
 import org.drools.guvnor.server.contenthandler.ContentHandler;
 import org.drools.guvnor.server.contenthandler.ContentManager;
 import org.drools.guvnor.server.contenthandler.ICanHasAttachment;
 import org.drools.guvnor.server.converters.ConversionService;
+import org.drools.guvnor.server.repository.ModuleRebuildService;
 import org.drools.guvnor.server.repository.Preferred;
 import org.drools.guvnor.server.repository.UserInbox;
 import org.drools.guvnor.server.util.AssetPopulator;
@@ -98,6 +98,9 @@ public class RepositoryAssetServiceVFS
     @Inject
     protected Backchannel               backchannel;
 
+    @Inject
+    private ModuleRebuildService        moduleRebuildService;
+
     @Inject
     private ConversionService           conversionService;
 
@@ -472,13 +475,12 @@ public class RepositoryAssetServiceVFS
         }
         item.archiveItem( archive );
         ModuleItem pkg = item.getModule();
-        pkg.updateBinaryUpToDate( false );
-        RuleBaseCache.getInstance().remove( pkg.getUUID() );
         if ( archive ) {
             item.checkin( "archived" );
         } else {
             item.checkin( "unarchived" );
         }
+        moduleRebuildService.moduleChanged( pkg );
         push( "packageChange",
                 pkg.getName() );
     }
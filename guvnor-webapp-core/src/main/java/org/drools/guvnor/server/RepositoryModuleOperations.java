@@ -23,12 +23,12 @@ import java.util.Calendar;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.StringTokenizer;
 
 import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
 import javax.inject.Inject;
 
 import org.drools.compiler.DroolsParserException;
@@ -47,10 +47,13 @@ import org.drools.guvnor.server.builder.ModuleAssembler;
 import org.drools.guvnor.server.builder.ModuleAssemblerConfiguration;
 import org.drools.guvnor.server.builder.ModuleAssemblerManager;
 import org.drools.guvnor.server.builder.pagerow.SnapshotComparisonPageRowBuilder;
-import org.drools.guvnor.server.cache.RuleBaseCache;
+import org.drools.guvnor.server.cache.ModuleTreeCache;
 import org.drools.guvnor.server.contenthandler.ContentHandler;
 import org.drools.guvnor.server.contenthandler.ContentManager;
 import org.drools.guvnor.server.contenthandler.ICanHasAttachment;
+import org.drools.guvnor.server.files.ModuleDocumentationService;
+import org.drools.guvnor.server.repository.FileUploadedEvent;
+import org.drools.guvnor.server.repository.ModuleRebuildService;
 import org.drools.guvnor.server.repository.Preferred;
 import org.drools.guvnor.server.util.BuilderResultHelper;
 import org.drools.guvnor.server.util.DroolsHeader;
@@ -59,7 +62,6 @@ import org.drools.guvnor.server.util.ModuleFactory;
 import org.drools.repository.AssetItem;
 import org.drools.repository.AssetItemIterator;
 import org.drools.repository.ModuleItem;
-import org.drools.repository.ModuleIterator;
 import org.drools.repository.RulesRepository;
 import org.drools.repository.RulesRepositoryException;
 
@@ -81,65 +83,43 @@ public class RepositoryModuleOperations {
     @Inject @Preferred
     private RulesRepository rulesRepository;
 
+    @Inject
+    private ModuleRebuildService moduleRebuildService;
+
+    @Inject
+    private ModuleDocumentationService moduleDocumentationService;
+
+    /**
+     * The module explorer tree, kept up to date by the operations below.
+     */
+    private final ModuleTreeCache moduleTree = new ModuleTreeCache();
+
     @Deprecated
     public void setRulesRepositoryForTest(RulesRepository repository) {
         // TODO use GuvnorTestBase with a real RepositoryAssetOperations instead
         this.rulesRepository = repository;
+        this.moduleRebuildService = new ModuleRebuildService();
     }
 
     protected Module[] listModules(boolean archive,
-                                               String workspace) {
-        List<Module> result = new ArrayList<Module>();
-        ModuleIterator modules = rulesRepository.listModules();
-        handleIterateModules( archive,
-                workspace,
-                result,
-                modules );
-
-        sortModules( result );
-        return result.toArray( new Module[result.size()] );
-    }
-
-    private void handleIterateModules(boolean archive,
-                                       String workspace,
-                                       List<Module> result,
-                                       ModuleIterator modules) {
-        modules.setArchivedIterator( archive );
-        while (modules.hasNext()) {
-            ModuleItem packageItem = modules.next();
-
-            Module data = new Module();
-            Path path = new PathImpl();
-            path.setUUID(packageItem.getUUID());
-            data.setPath(path);;
-            data.setUuid( packageItem.getUUID() );
-            data.setName( packageItem.getName() );
-            data.setArchived( packageItem.isArchived() );
-            data.setWorkspaces( packageItem.getWorkspaces() );
-            handleIsModuleListed( archive,
-                    workspace,
-                    result,
-                    data );
-
-            data.subModules = listSubModules( packageItem,
-                    archive,
-                    null );
-
+                                   String workspace) {
+        if ( !moduleTree.isBuilt() ) {
+            moduleTree.build( rulesRepository );
         }
+        return moduleTree.listModules( archive,
+                                       workspace );
     }
 
-    private Module[] listSubModules(ModuleItem parentModule,
-                                                boolean archive,
-                                                String workspace) {
-        List<Module> children = new LinkedList<Module>();
-
-        handleIterateModules( archive,
-                workspace,
-                children,
-                parentModule.listSubModules() );
+    /**
+     * For changes to modules made outside of these operations (REST, imports,
+     * workspaces...).
+     */
+    public ModuleTreeCache getModuleTree() {
+        return moduleTree;
+    }
 
-        sortModules( children );
-        return children.toArray( new Module[children.size()] );
+    public void onFileUploaded(@Observes FileUploadedEvent event) {
+        moduleTree.invalidate();
     }
 
     void sortModules(List<Module> result) {
@@ -154,30 +134,6 @@ public class RepositoryModuleOperations {
                 } );
     }
 
-    private void handleIsModuleListed(boolean archive,
-                                        String workspace,
-                                        List<Module> result,
-                                        Module data) {
-        if ( !archive &&  (workspace == null || isWorkspace( workspace,
-                data.getWorkspaces() )) ) {
-            result.add( data );
-        } else if ( archive && data.isArchived() && (workspace == null || isWorkspace( workspace,
-                data.getWorkspaces() )) ) {
-            result.add( data );
-        }
-    }
-
-    private boolean isWorkspace(String workspace,
-                                String[] workspaces) {
-
-        for (String w : workspaces) {
-            if ( w.equals( workspace ) ) {
-                return true;
-            }
-        }
-        return false;
-    }
-
     protected Module loadGlobalModule() {
         ModuleItem item = rulesRepository.loadGlobalArea();
 
@@ -201,6 +157,7 @@ public class RepositoryModuleOperations {
             Path path = new PathImpl();
             path.setUUID(newModuleUUID);            
             fixProcessPackageNames( path );
+            moduleTree.moduleCopied( rulesRepository.loadModuleByUUID( newModuleUUID ) );
 
             return path;
         } catch ( RulesRepositoryException e ) {
@@ -238,6 +195,7 @@ public class RepositoryModuleOperations {
             log.info( "REMOVEING module [" + item.getName() + "]" );
             item.remove();
             rulesRepository.save();
+            moduleTree.moduleRemoved( modulePath.getUUID() );
         } catch (RulesRepositoryException e) {
             log.error( "Unable to remove module.",
                     e );
@@ -251,6 +209,8 @@ public class RepositoryModuleOperations {
 
         rulesRepository.renameModule( uuid.getUUID(),
                                       newName );
+        moduleTree.moduleRenamed( uuid.getUUID(),
+                                  newName );
 
         fixProcessPackageNames( uuid );
 
@@ -268,6 +228,7 @@ public class RepositoryModuleOperations {
                                   boolean importAsNew) {
         rulesRepository.importPackageToRepository( byteArray,
                 importAsNew );
+        moduleTree.invalidate();
     }
 
     protected Path createModule(String name, String description,
@@ -277,6 +238,10 @@ public class RepositoryModuleOperations {
                 + "]");
         ModuleItem item = rulesRepository.createModule(name,
                 description, format);
+        moduleTree.moduleCreated( item.getUUID(),
+                                  name,
+                                  null,
+                                  null );
 
         Path path = new PathImpl();
         path.setUUID(item.getUUID());
@@ -294,6 +259,10 @@ public class RepositoryModuleOperations {
                 format,
                 workspace,
                 "Initial");
+        moduleTree.moduleCreated( item.getUUID(),
+                                  name,
+                                  workspace,
+                                  null );
 
         Path path = new PathImpl();
         path.setUUID(item.getUUID());
@@ -307,6 +276,9 @@ public class RepositoryModuleOperations {
         ModuleItem item = rulesRepository.createSubModule( name,
                 description,
                 parentNode );
+        moduleTree.subModuleCreated( item.getUUID(),
+                                     name,
+                                     parentNode );
         Path path = new PathImpl();
         path.setUUID(item.getUUID());
         return path;
@@ -338,12 +310,13 @@ public class RepositoryModuleOperations {
         moduleItem.updateExternalURI( data.getExternalURI() );
         moduleItem.updateDescription( data.getDescription() );
         moduleItem.archiveItem( data.isArchived() );
-        moduleItem.updateBinaryUpToDate( false );
         if(!data.getFormat().equals("")) {
             moduleItem.updateFormat(data.getFormat());
         }
-        RuleBaseCache.getInstance().remove( data.getUuid() );
         moduleItem.checkin( data.getDescription() );
+        moduleRebuildService.moduleChanged( moduleItem );
+        moduleTree.moduleArchived( data.getUuid(),
+                                   data.isArchived() );
 
         // If module is archived, archive all the assets under it
         if ( data.isArchived() ) {
@@ -462,6 +435,10 @@ public class RepositoryModuleOperations {
         item.updateCheckinComment( comment );
         rulesRepository.save();
 
+        if ( ModuleItem.MODULE_FORMAT.equals( item.getFormat() ) ) {
+            moduleDocumentationService.snapshotCreated( moduleName,
+                                                        snapshotName );
+        }
     }
 
     protected void copyOrRemoveSnapshot(String moduleName,
@@ -554,6 +531,13 @@ public class RepositoryModuleOperations {
         return moduleAssemblerConfiguration;
     }
 
+    /**
+     * @return true if the module has been changed, and its binary will be rebuilt in the background
+     */
+    public boolean isModuleRebuildPending(String uuid) {
+        return moduleRebuildService.isRebuildPending( uuid );
+    }
+
     public void buildModuleWithoutErrors(ModuleItem moduleItem, boolean force)
             throws DetailedSerializationException {
         BuilderResult result = buildModule(moduleItem, false);
@@ -432,6 +432,7 @@ public class RepositoryModuleService
 
     public void installSampleRepository() throws SerializationException {
         rulesRepository.importRepository( this.getClass().getResourceAsStream( "/mortgage-sample-repository.xml" ) );
+        repositoryModuleOperations.getModuleTree().invalidate();
         this.rebuildPackages();
         this.rebuildSnapshots();
     }
@@ -478,6 +478,7 @@ public class RepositoryModuleServiceVFS
 
     public void installSampleRepository() throws SerializationException {
         rulesRepository.importRepository( this.getClass().getResourceAsStream( "/mortgage-sample-repository.xml" ) );
+        repositoryModuleOperations.getModuleTree().invalidate();
         this.rebuildPackages();
         this.rebuildSnapshots();
     }
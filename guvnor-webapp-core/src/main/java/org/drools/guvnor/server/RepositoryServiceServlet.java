@@ -28,7 +28,6 @@ import org.drools.guvnor.client.rpc.RepositoryService;
 import org.drools.guvnor.server.util.LoggingHelper;
 import org.drools.repository.RulesRepositoryException;
 
-import com.google.gwt.user.server.rpc.RemoteServiceServlet;
 import org.jboss.solder.core.Veto;
 import org.drools.guvnor.client.rpc.Path;
 
@@ -38,7 +37,7 @@ import org.drools.guvnor.client.rpc.Path;
  */
 @Veto
 public class RepositoryServiceServlet
-        extends RemoteServiceServlet
+        extends MeteredRemoteServiceServlet
         implements
         RepositoryService {
 
@@ -210,6 +209,12 @@ public class RepositoryServiceServlet
                 p1 );
     }
 
+    public java.lang.String[][] loadDropDownExpressions(java.lang.String[][] p0,
+                                                        java.lang.String[] p1) {
+        return serviceImplementation.loadDropDownExpressions( p0,
+                p1 );
+    }
+
     public org.drools.guvnor.client.rpc.PageResponse queryFullText(org.drools.guvnor.client.rpc.QueryPageRequest p0) throws com.google.gwt.user.client.rpc.SerializationException {
         return serviceImplementation.queryFullText( p0 );
     }
@@ -36,6 +36,7 @@ import org.drools.guvnor.client.rpc.DetailedSerializationException;
 import org.drools.guvnor.client.rpc.InboxPageRequest;
 import org.drools.guvnor.client.rpc.InboxPageRow;
 import org.drools.guvnor.client.rpc.LogEntry;
+import org.drools.guvnor.client.rpc.LogPageRequest;
 import org.drools.guvnor.client.rpc.LogPageRow;
 import org.drools.guvnor.client.rpc.MetaDataQuery;
 import org.drools.guvnor.client.rpc.Module;
@@ -61,8 +62,10 @@ import org.drools.guvnor.server.builder.pagerow.PermissionPageRowBuilder;
 import org.drools.guvnor.server.builder.pagerow.QueryFullTextPageRowBuilder;
 import org.drools.guvnor.server.builder.pagerow.QueryMetadataPageRowBuilder;
 import org.drools.guvnor.server.builder.pagerow.StatePageRowBuilder;
+import org.drools.guvnor.server.cache.DropDownExpressionCache;
 import org.drools.guvnor.server.contenthandler.ContentHandler;
 import org.drools.guvnor.server.contenthandler.ContentManager;
+import org.drools.guvnor.server.repository.ModuleRebuildService;
 import org.drools.guvnor.server.repository.Preferred;
 import org.drools.guvnor.server.repository.UserInbox;
 import org.drools.guvnor.server.ruleeditor.springcontext.SpringContextElementsManager;
@@ -85,8 +88,6 @@ import org.drools.repository.RulesRepositoryException;
 import org.drools.repository.StateItem;
 import org.drools.repository.UserInfo.InboxEntry;
 import org.drools.repository.security.PermissionManager;
-import org.mvel2.MVEL;
-import org.mvel2.templates.TemplateRuntime;
 
 import com.google.gwt.user.client.rpc.SerializationException;
 
@@ -124,6 +125,9 @@ public class ServiceImplementation
     @Inject
     private Backchannel                backchannel;
 
+    @Inject
+    private ModuleRebuildService       moduleRebuildService;
+
     public String[] listWorkspaces() {
         return rulesRepository.listWorkspaces();
     }
@@ -134,6 +138,7 @@ public class ServiceImplementation
 
     public void removeWorkspace(String workspace) {
         rulesRepository.removeWorkspace( workspace );
+        repositoryModuleOperations.getModuleTree().invalidate();
     }
 
     /**
@@ -146,11 +151,15 @@ public class ServiceImplementation
             ModuleItem module = rulesRepository.loadModule( moduleName );
             module.addWorkspace( workspace );
             module.checkin( "Add workspace" );
+            repositoryModuleOperations.getModuleTree().moduleWorkspacesChanged( module.getUUID(),
+                                                                                module.getWorkspaces() );
         }
         for ( String moduleName : unselectedModules ) {
             ModuleItem module = rulesRepository.loadModule( moduleName );
             module.removeWorkspace( workspace );
             module.checkin( "Remove workspace" );
+            repositoryModuleOperations.getModuleTree().moduleWorkspacesChanged( module.getUUID(),
+                                                                                module.getWorkspaces() );
         }
     }
 
@@ -315,11 +324,11 @@ public class ServiceImplementation
         AssetItem asset = rulesRepository.loadAssetByUUID(assetPath.getUUID());
 
         ModuleItem packageItem = asset.getModule();
-        packageItem.updateBinaryUpToDate( false );
 
         asset.remove();
 
         rulesRepository.save();
+        moduleRebuildService.moduleChanged( packageItem );
         push( "packageChange",
               packageItem.getName() );
     }
@@ -481,7 +490,15 @@ public class ServiceImplementation
         }
 
         long start = System.currentTimeMillis();
-        LogEntry[] logEntries = LoggingHelper.getMessages();
+        LogEntry[] logEntries;
+        if ( request instanceof LogPageRequest ) {
+            LogPageRequest logRequest = (LogPageRequest) request;
+            logEntries = LoggingHelper.getMessages( logRequest.getMaxSeverity(),
+                                                    logRequest.getCategory(),
+                                                    logRequest.getItemId() );
+        } else {
+            logEntries = LoggingHelper.getMessages();
+        }
         log.debug( "Search time: " + (System.currentTimeMillis() - start) );
 
         List<LogPageRow> rowList = new LogPageRowBuilder()
@@ -508,35 +525,24 @@ public class ServiceImplementation
 
     public String[] loadDropDownExpression(String[] valuePairs,
                                            String expression) {
-        Map<String, String> context = new HashMap<String, String>();
-
-        for ( String valuePair : valuePairs ) {
-            if ( valuePair == null ) {
-                return new String[0];
-            }
-            String[] pair = valuePair.split( "=" );
-            context.put( pair[0],
-                         pair[1] );
-        }
-        // first interpolate the pairs
-        expression = (String) TemplateRuntime.eval( expression,
-                                                    context );
-
-        // now we can eval it for real...
-        Object result = MVEL.eval( expression );
-        if ( result instanceof String[] ) {
-            return (String[]) result;
-        } else if ( result instanceof List ) {
-            List l = (List) result;
-            String[] xs = new String[l.size()];
-            for ( int i = 0; i < xs.length; i++ ) {
-                Object el = l.get( i );
-                xs[i] = el.toString();
+        return DropDownExpressionCache.getInstance().load( valuePairs,
+                                                           expression );
+    }
+
+    public String[][] loadDropDownExpressions(String[][] valuePairs,
+                                              String[] expressions) {
+        String[][] results = new String[expressions.length][];
+        for ( int i = 0; i < expressions.length; i++ ) {
+            try {
+                results[i] = DropDownExpressionCache.getInstance().load( valuePairs[i],
+                                                                         expressions[i] );
+            } catch ( RuntimeException e ) {
+                log.error( "Unable to load the drop down expression [" + expressions[i] + "]",
+                           e );
+                results[i] = new String[0];
             }
-            return xs;
-        } else {
-            return null;
         }
+        return results;
     }
 
     /**
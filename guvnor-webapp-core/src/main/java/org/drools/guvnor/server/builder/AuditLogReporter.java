@@ -17,37 +17,159 @@
 package org.drools.guvnor.server.builder;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 import org.drools.WorkingMemory;
-import org.drools.audit.WorkingMemoryInMemoryLogger;
+import org.drools.audit.WorkingMemoryLogger;
 import org.drools.audit.event.ActivationLogEvent;
 import org.drools.audit.event.LogEvent;
 
 /**
  * Add a little web specific reporting functionality to the audit logger.
+ * <p/>
+ * Only the most recent events are kept, in a ring buffer, so a scenario that
+ * fires rules a great many times does not hold all of its events in memory.
+ * Every event is counted though, by type, and every rule firing by rule. The
+ * firings can also be sampled, keeping only every n-th firing (and the events
+ * logged while it fires) for the report.
+ * <p/>
+ * The number of events kept can be set with the "guvnor.auditLog.size"
+ * system property, and the sample rate with "guvnor.auditLog.sampleRate".
  */
-public class AuditLogReporter extends WorkingMemoryInMemoryLogger {
+public class AuditLogReporter extends WorkingMemoryLogger {
+
+    private static final int DEFAULT_CAPACITY = 1000;
+
+    private final LogEvent[] events;
+    private final int sampleRate;
+    private final Map<Integer, Long> eventCounts = new TreeMap<Integer, Long>();
+    private final Map<String, Long> ruleFireCounts = new TreeMap<String, Long>();
+    private long eventCount;
+    private long kept;
+    private long firings;
+    private boolean skippingFiring;
 
     public AuditLogReporter(WorkingMemory workingMemory) {
+        this(workingMemory,
+                Integer.getInteger("guvnor.auditLog.size",
+                        DEFAULT_CAPACITY),
+                Integer.getInteger("guvnor.auditLog.sampleRate",
+                        1));
+    }
+
+    public AuditLogReporter(WorkingMemory workingMemory,
+                            int capacity,
+                            int sampleRate) {
         super(workingMemory);
+        this.events = new LogEvent[Math.max(1,
+                capacity)];
+        this.sampleRate = Math.max(1,
+                sampleRate);
+    }
+
+    @Override
+    public void logEventCreated(LogEvent logEvent) {
+        int type = logEvent.getType();
+        increment(eventCounts,
+                type);
+
+        switch (type) {
+        case LogEvent.ACTIVATION_CANCELLED:
+        case LogEvent.ACTIVATION_CREATED:
+            return;
+        case LogEvent.BEFORE_ACTIVATION_FIRE:
+            increment(ruleFireCounts,
+                    ((ActivationLogEvent) logEvent).getRule());
+            skippingFiring = firings++ % sampleRate != 0;
+            break;
+        case LogEvent.AFTER_ACTIVATION_FIRE:
+            if (skippingFiring) {
+                skippingFiring = false;
+                eventCount++;
+                return;
+            }
+            break;
+        default:
+            break;
+        }
+
+        eventCount++;
+        if (!skippingFiring) {
+            events[(int) (kept++ % events.length)] = logEvent;
+        }
+    }
+
+    /**
+     * @return the number of events the report would have if none were dropped
+     *         or sampled out.
+     */
+    public long getEventCount() {
+        return eventCount;
+    }
+
+    /**
+     * @return the number of events in the report.
+     */
+    public int getReportSize() {
+        return (int) Math.min(kept,
+                events.length);
+    }
+
+    /**
+     * @return the number of events logged, by event type, including those not
+     *         reported.
+     */
+    public Map<Integer, Long> getEventCounts() {
+        return Collections.unmodifiableMap(eventCounts);
+    }
+
+    /**
+     * @return the number of times each rule fired, by rule name.
+     */
+    public Map<String, Long> getRuleFireCounts() {
+        return Collections.unmodifiableMap(ruleFireCounts);
     }
 
     public List<String[]> buildReport() {
-        List<LogEvent> evs = this.getLogEvents();
-        int resultSize = Math.min(1000, evs.size());
-        List<String[]> ls = new ArrayList<String[]>(resultSize);
-        for (int i = 0; i < resultSize; i++) {
-            mapLogEvent(ls, evs.get(i));
+        return buildReport(0,
+                getReportSize());
+    }
+
+    /**
+     * @param startRow the first event of the page, the oldest kept being 0
+     * @param pageSize the number of events of the page
+     * @return the events of the page, as event type and message to display.
+     */
+    public List<String[]> buildReport(int startRow,
+                                      int pageSize) {
+        int size = getReportSize();
+        int from = Math.max(0,
+                startRow);
+        int to = (int) Math.min(size,
+                (long) from + Math.max(0,
+                        pageSize));
+        long oldest = kept - size;
+        List<String[]> ls = new ArrayList<String[]>(Math.max(0,
+                to - from));
+        for (int i = from; i < to; i++) {
+            mapLogEvent(ls,
+                    events[(int) ((oldest + i) % events.length)]);
         }
         return ls;
     }
 
+    private static <K> void increment(Map<K, Long> counts,
+                                      K key) {
+        Long count = counts.get(key);
+        counts.put(key,
+                count == null ? 1L : count + 1);
+    }
+
     private void mapLogEvent(List<String[]> ls, LogEvent logEvent) {
         switch (logEvent.getType()) {
-        case LogEvent.ACTIVATION_CANCELLED:
-        case LogEvent.ACTIVATION_CREATED:
-            break;
         case LogEvent.BEFORE_ACTIVATION_FIRE:
             ActivationLogEvent ae = (ActivationLogEvent) logEvent;
             String msg = "FIRING rule: [" + ae.getRule() + "] activationId:" + ae.getActivationId() + " declarations: " + ae.getDeclarations() + (ae.getRuleFlowGroup() == null ? "" : " ruleflow-group: " + ae.getRuleFlowGroup());
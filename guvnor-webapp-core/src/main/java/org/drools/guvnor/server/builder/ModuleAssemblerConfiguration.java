@@ -26,6 +26,7 @@ public class ModuleAssemblerConfiguration {
     private String categoryValue;
     private boolean enableCategorySelector = false;
     private String customSelectorConfigName;
+    private boolean markBinaryUpToDate = true;
 
     public String getBuildMode() {
         return buildMode;
@@ -90,4 +91,16 @@ public class ModuleAssemblerConfiguration {
     public void setCustomSelectorConfigName(String customSelectorConfigName) {
         this.customSelectorConfigName = customSelectorConfigName;
     }
+
+    public boolean isMarkBinaryUpToDate() {
+        return markBinaryUpToDate;
+    }
+
+    /**
+     * If false the compiled binary is stored, but the module is not marked as having an up to date binary. The caller
+     * does that, once it knows nothing was checked in while the module was being built.
+     */
+    public void setMarkBinaryUpToDate(boolean markBinaryUpToDate) {
+        this.markBinaryUpToDate = markBinaryUpToDate;
+    }
 }
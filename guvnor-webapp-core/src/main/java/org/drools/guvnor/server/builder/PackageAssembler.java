@@ -20,7 +20,10 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.ObjectOutput;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
 
 import org.drools.common.DroolsObjectOutputStream;
 import org.drools.guvnor.client.common.AssetFormats;
@@ -29,11 +32,16 @@ import org.drools.guvnor.server.contenthandler.ContentManager;
 import org.drools.guvnor.server.contenthandler.IRuleAsset;
 import org.drools.guvnor.server.selector.AssetSelector;
 import org.drools.guvnor.server.selector.BuiltInSelector;
+import org.drools.guvnor.server.selector.BulkAssetSelector;
 import org.drools.guvnor.server.selector.SelectorManager;
 import org.drools.guvnor.server.util.LoggingHelper;
 import org.drools.repository.AssetItem;
 import org.drools.repository.ModuleItem;
 import org.drools.repository.RulesRepositoryException;
+import org.drools.repository.metrics.Counter;
+import org.drools.repository.metrics.Histogram;
+import org.drools.repository.metrics.Metrics;
+import org.drools.repository.metrics.Timer;
 import org.drools.rule.Package;
 
 /**
@@ -45,8 +53,13 @@ public class PackageAssembler extends PackageAssemblerBase {
 
     private static final LoggingHelper log = LoggingHelper.getLogger(PackageAssembler.class);
 
+    private static final Timer BUILD_TIME = Metrics.getInstance().timer("module.build.time");
+    private static final Histogram BUILD_ASSETS = Metrics.getInstance().histogram("module.build.assets");
+    private static final Counter BUILD_FAILURES = Metrics.getInstance().counter("module.build.failures");
+
     private ModuleAssemblerConfiguration configuration;
     private AssetSelector selector;
+    private int builtAssets;
  
     public void init(ModuleItem moduleItem, ModuleAssemblerConfiguration moduleAssemblerConfiguration) {
         this.moduleItem = moduleItem;
@@ -61,11 +74,14 @@ public class PackageAssembler extends PackageAssemblerBase {
     }
     
     public void compile() {
+        long start = BUILD_TIME.start();
         if (setUpPackage()) {
             buildPackage();
         }
         
-        if (!hasErrors() ) {
+        if (hasErrors()) {
+            BUILD_FAILURES.inc();
+        } else {
             //TODO {manstis} Does this actually do anything useful?
             //            RuleBase ruleBase = RuleBaseFactory.newRuleBase(
             //                new RuleBaseConfiguration(getClassLoaders())
@@ -74,10 +90,14 @@ public class PackageAssembler extends PackageAssemblerBase {
 
             byte[] compiledPackageByte = getCompiledBinary();
             moduleItem.updateCompiledBinary(new ByteArrayInputStream(compiledPackageByte));
-            moduleItem.updateBinaryUpToDate(true);
+            if (configuration.isMarkBinaryUpToDate()) {
+                moduleItem.updateBinaryUpToDate(true);
+            }
             moduleItem.getRulesRepository().save();         
         }
 
+        BUILD_TIME.stop(start);
+        BUILD_ASSETS.update(builtAssets);
     }
 
     //private ClassLoader[] getClassLoaders() {
@@ -98,27 +118,47 @@ public class PackageAssembler extends PackageAssemblerBase {
     private void loadAssets() {
         StringBuilder includedAssets = new StringBuilder("Following assets have been included in package build: ");
 
-        loadDRLAssets(includedAssets);
-        loadAllButDRLAssets(includedAssets);
-
-        log.info(includedAssets.toString());
-    }
-
-    private void loadAllButDRLAssets(StringBuilder includedAssets) {
+        List<AssetItem> drlAssets = new ArrayList<AssetItem>();
+        List<AssetItem> otherAssets = new ArrayList<AssetItem>();
         Iterator<AssetItem> iterator = getAllAssets();
         while (iterator.hasNext()) {
             AssetItem asset = iterator.next();
-            if (!asset.getFormat().equals(AssetFormats.DRL) && assetCanBeAdded(asset)) {
-                addAsset(includedAssets, asset);
+            if (!asset.isArchived()) {
+                if (asset.getFormat().equals(AssetFormats.DRL)) {
+                    drlAssets.add(asset);
+                } else {
+                    otherAssets.add(asset);
+                }
             }
         }
+
+        Set<String> allowedAssets = getAllowedAssets(drlAssets, otherAssets);
+
+        //DRL is always built before the other assets
+        addAllowedAssets(includedAssets, drlAssets, allowedAssets);
+        addAllowedAssets(includedAssets, otherAssets, allowedAssets);
+
+        log.infoFor(moduleItem.getUUID(),
+                includedAssets.toString());
+    }
+
+    /**
+     * Selectors that support it decide on all the candidates at once.
+     * @return the allowed UUIDs, or null if the selector has to be asked per asset.
+     */
+    private Set<String> getAllowedAssets(List<AssetItem> drlAssets, List<AssetItem> otherAssets) {
+        if (!(selector instanceof BulkAssetSelector)) {
+            return null;
+        }
+        List<AssetItem> candidates = new ArrayList<AssetItem>(drlAssets.size() + otherAssets.size());
+        candidates.addAll(drlAssets);
+        candidates.addAll(otherAssets);
+        return ((BulkAssetSelector) selector).getAllowedAssets(candidates);
     }
 
-    private void loadDRLAssets(StringBuilder includedAssets) {
-        Iterator<AssetItem> drlAssetItemIterator = getAssetItemIterator(AssetFormats.DRL);
-        while (drlAssetItemIterator.hasNext()) {
-            AssetItem asset = drlAssetItemIterator.next();
-            if (assetCanBeAdded(asset)) {
+    private void addAllowedAssets(StringBuilder includedAssets, List<AssetItem> assets, Set<String> allowedAssets) {
+        for (AssetItem asset : assets) {
+            if (assetCanBeAdded(asset, allowedAssets)) {
                 addAsset(includedAssets, asset);
             }
         }
@@ -126,11 +166,15 @@ public class PackageAssembler extends PackageAssemblerBase {
 
     private void addAsset(StringBuilder includedAssets, AssetItem asset) {
         buildAsset(asset);
+        builtAssets++;
         includedAssets.append(asset.getName()).append(", ");
     }
 
-    private boolean assetCanBeAdded(AssetItem asset) {
-        return !asset.isArchived() && (selector.isAssetAllowed(asset));
+    private boolean assetCanBeAdded(AssetItem asset, Set<String> allowedAssets) {
+        if (allowedAssets == null) {
+            return selector.isAssetAllowed(asset);
+        }
+        return allowedAssets.contains(asset.getUUID());
     }
 
     private boolean setUpSelector() {
@@ -22,6 +22,7 @@ import java.util.List;
 import org.drools.guvnor.client.rpc.AdminArchivedPageRow;
 import org.drools.guvnor.client.rpc.PageRequest;
 import org.drools.repository.AssetItem;
+import org.drools.repository.AssetSummary;
 import org.drools.guvnor.client.rpc.Path;
 import org.drools.guvnor.client.rpc.PathImpl;
 
@@ -44,7 +45,7 @@ public class ArchivedAssetPageRowBuilder
             // assets whereas startRowIndex is the index of the
             // first displayed asset (i.e. filtered)
             if (skipped >= startRowIndex) {
-                rowList.add(makeAdminArchivedPageRow(archivedAssetItem));
+                rowList.add(makeAdminArchivedPageRow(archivedAssetItem.getSummary()));
             }
             skipped++;
 
@@ -52,17 +53,17 @@ public class ArchivedAssetPageRowBuilder
         return rowList;
     }
 
-    private AdminArchivedPageRow makeAdminArchivedPageRow(AssetItem assetItem) {
+    private AdminArchivedPageRow makeAdminArchivedPageRow(AssetSummary summary) {
         AdminArchivedPageRow row = new AdminArchivedPageRow();
         //REVISIT: get a Path instance from drools-repository-vfs
         Path path = new PathImpl();
-        path.setUUID(assetItem.getUUID());
+        path.setUUID(summary.getUUID());
         row.setPath( path );
-        row.setFormat( assetItem.getFormat() );
-        row.setName( assetItem.getName() );
-        row.setPackageName( assetItem.getModuleName() );
-        row.setLastContributor( assetItem.getLastContributor() );
-        row.setLastModified( assetItem.getLastModified().getTime() );
+        row.setFormat( summary.getFormat() );
+        row.setName( summary.getName() );
+        row.setPackageName( summary.getModuleName() );
+        row.setLastContributor( summary.getLastContributor() );
+        row.setLastModified( summary.getLastModified().getTime() );
         return row;
     }
 
@@ -42,6 +42,8 @@ public class LogPageRowBuilder
             row.setSeverity( e.severity );
             row.setMessage( e.message );
             row.setTimestamp( e.timestamp );
+            row.setCategory( e.category );
+            row.setItemId( e.itemId );
             rowList.add( row );
         }
 
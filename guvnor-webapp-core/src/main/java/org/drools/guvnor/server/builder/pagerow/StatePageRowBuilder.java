@@ -23,6 +23,7 @@ import org.apache.commons.lang.StringUtils;
 import org.drools.guvnor.client.rpc.PageRequest;
 import org.drools.guvnor.client.rpc.StatePageRow;
 import org.drools.repository.AssetItem;
+import org.drools.repository.AssetSummary;
 import org.drools.guvnor.client.rpc.Path;
 import org.drools.guvnor.client.rpc.PathImpl;
 
@@ -41,25 +42,25 @@ public class StatePageRowBuilder
         // repository.findAssetsByState() so we only need to simply copy
         while ( iterator.hasNext() ) {
             AssetItem assetItem = iterator.next();
-            rowList.add( makeStatePageRow( assetItem ) );
+            rowList.add( makeStatePageRow( assetItem.getSummary() ) );
         }
         return rowList;
     }
 
-    private StatePageRow makeStatePageRow(AssetItem assetItem) {
+    private StatePageRow makeStatePageRow(AssetSummary summary) {
         StatePageRow row = new StatePageRow();
         //REVISIT: get a Path instance from drools-repository-vfs
         Path path = new PathImpl();
-        path.setUUID(assetItem.getUUID());
+        path.setUUID(summary.getUUID());
         row.setPath( path );
-        row.setFormat( assetItem.getFormat() );
-        row.setName( assetItem.getName() );
-        row.setDescription( assetItem.getDescription() );
-        row.setAbbreviatedDescription( StringUtils.abbreviate( assetItem.getDescription(),
+        row.setFormat( summary.getFormat() );
+        row.setName( summary.getName() );
+        row.setDescription( summary.getDescription() );
+        row.setAbbreviatedDescription( StringUtils.abbreviate( summary.getDescription(),
                                                                80 ) );
-        row.setLastModified( assetItem.getLastModified().getTime() );
-        row.setStateName( assetItem.getState().getName() );
-        row.setPackageName( assetItem.getModuleName() );
+        row.setLastModified( summary.getLastModified().getTime() );
+        row.setStateName( summary.getStateDescription() );
+        row.setPackageName( summary.getModuleName() );
         return row;
     }
 
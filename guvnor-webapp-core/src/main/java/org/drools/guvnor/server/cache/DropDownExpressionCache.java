@@ -0,0 +1,211 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.guvnor.server.cache;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.drools.repository.metrics.CacheMeter;
+import org.drools.repository.metrics.Metrics;
+import org.mvel2.MVEL;
+import org.mvel2.templates.CompiledTemplate;
+import org.mvel2.templates.TemplateCompiler;
+import org.mvel2.templates.TemplateRuntime;
+
+/**
+ * Evaluates the expressions of dependent enumerations, which list the values of
+ * a drop down from the values of the fields it depends on. An expression is an
+ * MVEL template: the values are interpolated first, then the result is
+ * evaluated as an MVEL expression.
+ *
+ * The templates and the interpolated expressions are compiled once, and kept
+ * in bounded, least recently used caches. The enumeration of an asset version
+ * always has the same expression text, so that is what they are keyed by. The
+ * values evaluated are cached too, by interpolated expression, for a limited
+ * time only, as expressions can call services whose answers change.
+ *
+ * The sizes of the caches can be set with the "guvnor.dropDownCache.size"
+ * system property, and how long values are kept, in milliseconds, with
+ * "guvnor.dropDownCache.timeToLive". A time to live of 0 turns the caching of
+ * values off.
+ */
+public class DropDownExpressionCache {
+
+    private static final int                     DEFAULT_SIZE         = 1000;
+    private static final long                    DEFAULT_TIME_TO_LIVE = 60000;
+    private static final DropDownExpressionCache instance             = new DropDownExpressionCache( Integer.getInteger( "guvnor.dropDownCache.size",
+                                                                                                                           DEFAULT_SIZE ),
+                                                                                                      Long.getLong( "guvnor.dropDownCache.timeToLive",
+                                                                                                                    DEFAULT_TIME_TO_LIVE ) );
+    private static final CacheMeter              meter                = Metrics.getInstance().cacheMeter( "cache.dropDownValues" );
+
+    private final long                           timeToLive;
+    private final Map<String, CompiledTemplate>  templates;
+    private final Map<String, Serializable>      expressions;
+    private final Map<String, Values>            values;
+
+    DropDownExpressionCache(final int maxSize,
+                            final long timeToLive) {
+        this.timeToLive = timeToLive;
+        this.templates = newLruMap( maxSize );
+        this.expressions = newLruMap( maxSize );
+        this.values = newLruMap( maxSize );
+    }
+
+    public static DropDownExpressionCache getInstance() {
+        return instance;
+    }
+
+    /**
+     * @param valuePairs
+     *            key=value pairs to be interpolated into the expression.
+     * @param expression
+     *            The expression, which will then be eval'ed to generate a
+     *            String[]
+     * @return the values, or an empty array if a value pair is missing, or null
+     *         if the expression evaluated to something else than a list or
+     *         array.
+     */
+    public String[] load(String[] valuePairs,
+                         String expression) {
+        Map<String, String> context = new HashMap<String, String>();
+
+        for ( String valuePair : valuePairs ) {
+            if ( valuePair == null ) {
+                return new String[0];
+            }
+            String[] pair = valuePair.split( "=" );
+            context.put( pair[0],
+                         pair[1] );
+        }
+        // first interpolate the pairs
+        String interpolated = (String) TemplateRuntime.execute( getTemplate( expression ),
+                                                                context );
+
+        if ( timeToLive <= 0 ) {
+            return evaluate( interpolated );
+        }
+        long now = currentTimeMillis();
+        Values cached;
+        synchronized ( values ) {
+            cached = values.get( interpolated );
+        }
+        if ( cached == null || cached.expires < now ) {
+            meter.miss();
+            cached = new Values( evaluate( interpolated ),
+                                 now + timeToLive );
+            synchronized ( values ) {
+                values.put( interpolated,
+                            cached );
+            }
+        } else {
+            meter.hit();
+        }
+        return cached.values == null ? null : cached.values.clone();
+    }
+
+    public void clearCache() {
+        synchronized ( templates ) {
+            templates.clear();
+        }
+        synchronized ( expressions ) {
+            expressions.clear();
+        }
+        synchronized ( values ) {
+            values.clear();
+        }
+    }
+
+    long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    private CompiledTemplate getTemplate(String expression) {
+        CompiledTemplate template;
+        synchronized ( templates ) {
+            template = templates.get( expression );
+        }
+        if ( template == null ) {
+            template = TemplateCompiler.compileTemplate( expression );
+            synchronized ( templates ) {
+                templates.put( expression,
+                               template );
+            }
+        }
+        return template;
+    }
+
+    private String[] evaluate(String interpolated) {
+        Serializable expression;
+        synchronized ( expressions ) {
+            expression = expressions.get( interpolated );
+        }
+        if ( expression == null ) {
+            expression = MVEL.compileExpression( interpolated );
+            synchronized ( expressions ) {
+                expressions.put( interpolated,
+                                 expression );
+            }
+        }
+
+        // now we can eval it for real...
+        Object result = MVEL.executeExpression( expression );
+        if ( result instanceof String[] ) {
+            return (String[]) result;
+        } else if ( result instanceof List ) {
+            List< ? > l = (List< ? >) result;
+            String[] xs = new String[l.size()];
+            for ( int i = 0; i < xs.length; i++ ) {
+                Object el = l.get( i );
+                xs[i] = el.toString();
+            }
+            return xs;
+        } else {
+            return null;
+        }
+    }
+
+    private static <V> Map<String, V> newLruMap(final int maxSize) {
+        return new LinkedHashMap<String, V>( 16,
+                                             0.75f,
+                                             true ) {
+            private static final long serialVersionUID = 510l;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    private static class Values {
+
+        private final String[] values;
+        private final long     expires;
+
+        Values(String[] values,
+               long expires) {
+            this.values = values;
+            this.expires = expires;
+        }
+
+    }
+
+}
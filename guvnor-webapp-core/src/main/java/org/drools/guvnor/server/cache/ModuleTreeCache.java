@@ -0,0 +1,314 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.guvnor.server.cache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.drools.guvnor.client.rpc.Module;
+import org.drools.guvnor.client.rpc.Path;
+import org.drools.guvnor.client.rpc.PathImpl;
+import org.drools.repository.ModuleItem;
+import org.drools.repository.ModuleIterator;
+import org.drools.repository.RulesRepository;
+
+/**
+ * An in memory copy of the module tree (name, UUID, archived flag, workspaces
+ * and sub modules) that the module explorer lists. It is built from the
+ * repository the first time it is needed and then kept up to date by the
+ * module operations, so listing modules does not walk the repository.
+ *
+ * Every level of the tree is kept sorted by name.
+ */
+public class ModuleTreeCache {
+
+    private static final Comparator<ModuleNode> BY_NAME = new Comparator<ModuleNode>() {
+        public int compare(ModuleNode n1,
+                           ModuleNode n2) {
+            return n1.name.compareTo( n2.name );
+        }
+    };
+
+    private final Map<String, ModuleNode> nodes = new HashMap<String, ModuleNode>();
+    private final List<ModuleNode>        roots = new ArrayList<ModuleNode>();
+    private boolean                       built = false;
+
+    public synchronized boolean isBuilt() {
+        return built;
+    }
+
+    /**
+     * (Re)loads the whole tree from the repository.
+     */
+    public synchronized void build(RulesRepository repository) {
+        clear();
+        ModuleIterator modules = repository.listModules();
+        modules.setArchivedIterator( true );
+        addAll( modules,
+                null );
+        built = true;
+    }
+
+    private void addAll(ModuleIterator modules,
+                        ModuleNode parent) {
+        while ( modules.hasNext() ) {
+            ModuleItem moduleItem = modules.next();
+            ModuleNode node = add( moduleItem.getUUID(),
+                                   moduleItem.getName(),
+                                   moduleItem.isArchived(),
+                                   moduleItem.getWorkspaces(),
+                                   parent );
+            if ( node == null ) {
+                continue;
+            }
+            ModuleIterator subModules = moduleItem.listSubModules();
+            subModules.setArchivedIterator( true );
+            addAll( subModules,
+                    node );
+        }
+    }
+
+    /**
+     * Drops the tree, it is rebuilt the next time it is needed. This is for
+     * changes the cache can not follow, like imports.
+     */
+    public synchronized void invalidate() {
+        clear();
+    }
+
+    private void clear() {
+        nodes.clear();
+        roots.clear();
+        built = false;
+    }
+
+    /**
+     * Lists the modules the same way the repository does: top level modules
+     * are filtered by workspace, sub modules are not.
+     *
+     * @param archive true to list only archived modules, false to list only
+     *            modules that are not archived.
+     */
+    public synchronized Module[] listModules(boolean archive,
+                                             String workspace) {
+        return toModules( roots,
+                          archive,
+                          workspace );
+    }
+
+    private Module[] toModules(List<ModuleNode> level,
+                               boolean archive,
+                               String workspace) {
+        List<Module> result = new ArrayList<Module>();
+        for ( ModuleNode node : level ) {
+            if ( node.archived == archive && (workspace == null || node.isInWorkspace( workspace )) ) {
+                Module data = new Module();
+                Path path = new PathImpl();
+                path.setUUID( node.uuid );
+                data.setPath( path );
+                data.setUuid( node.uuid );
+                data.setName( node.name );
+                data.setArchived( node.archived );
+                data.setWorkspaces( node.workspaces.clone() );
+                data.subModules = toModules( node.children,
+                                             archive,
+                                             null );
+                result.add( data );
+            }
+        }
+        return result.toArray( new Module[result.size()] );
+    }
+
+    /**
+     * @param parentUUID null for a top level module.
+     */
+    public synchronized void moduleCreated(String uuid,
+                                           String name,
+                                           String[] workspaces,
+                                           String parentUUID) {
+        if ( !built ) {
+            return;
+        }
+        ModuleNode parent = null;
+        if ( parentUUID != null ) {
+            parent = nodes.get( parentUUID );
+            if ( parent == null ) {
+                invalidate();
+                return;
+            }
+        }
+        add( uuid,
+             name,
+             false,
+             workspaces,
+             parent );
+    }
+
+    /**
+     * Sub modules are created under a top level module, found by name.
+     */
+    public synchronized void subModuleCreated(String uuid,
+                                              String name,
+                                              String parentName) {
+        if ( !built ) {
+            return;
+        }
+        for ( ModuleNode root : roots ) {
+            if ( root.name.equals( parentName ) ) {
+                add( uuid,
+                     name,
+                     false,
+                     null,
+                     root );
+                return;
+            }
+        }
+        invalidate();
+    }
+
+    /**
+     * A copy brings its sub modules along, so the whole new branch is read.
+     */
+    public synchronized void moduleCopied(ModuleItem newModule) {
+        if ( !built ) {
+            return;
+        }
+        ModuleNode node = add( newModule.getUUID(),
+                               newModule.getName(),
+                               newModule.isArchived(),
+                               newModule.getWorkspaces(),
+                               null );
+        if ( node != null ) {
+            ModuleIterator subModules = newModule.listSubModules();
+            subModules.setArchivedIterator( true );
+            addAll( subModules,
+                    node );
+        }
+    }
+
+    public synchronized void moduleRenamed(String uuid,
+                                           String newName) {
+        ModuleNode node = nodes.get( uuid );
+        if ( node != null ) {
+            List<ModuleNode> level = levelOf( node );
+            level.remove( node );
+            node.name = newName;
+            insertSorted( level,
+                          node );
+        }
+    }
+
+    public synchronized void moduleArchived(String uuid,
+                                            boolean archived) {
+        ModuleNode node = nodes.get( uuid );
+        if ( node != null ) {
+            node.archived = archived;
+        }
+    }
+
+    public synchronized void moduleWorkspacesChanged(String uuid,
+                                                     String[] workspaces) {
+        ModuleNode node = nodes.get( uuid );
+        if ( node != null ) {
+            node.workspaces = workspaces == null ? new String[0] : workspaces.clone();
+        }
+    }
+
+    public synchronized void moduleRemoved(String uuid) {
+        ModuleNode node = nodes.get( uuid );
+        if ( node != null ) {
+            levelOf( node ).remove( node );
+            forget( node );
+        }
+    }
+
+    private void forget(ModuleNode node) {
+        nodes.remove( node.uuid );
+        for ( ModuleNode child : node.children ) {
+            forget( child );
+        }
+    }
+
+    private ModuleNode add(String uuid,
+                           String name,
+                           boolean archived,
+                           String[] workspaces,
+                           ModuleNode parent) {
+        if ( RulesRepository.GLOBAL_AREA.equals( name ) ) {
+            return null;
+        }
+        ModuleNode node = new ModuleNode( uuid,
+                                          name,
+                                          archived,
+                                          workspaces == null ? new String[0] : workspaces.clone(),
+                                          parent );
+        nodes.put( uuid,
+                   node );
+        insertSorted( parent == null ? roots : parent.children,
+                      node );
+        return node;
+    }
+
+    private List<ModuleNode> levelOf(ModuleNode node) {
+        return node.parent == null ? roots : node.parent.children;
+    }
+
+    private static void insertSorted(List<ModuleNode> level,
+                                     ModuleNode node) {
+        int index = Collections.binarySearch( level,
+                                              node,
+                                              BY_NAME );
+        level.add( index < 0 ? -index - 1 : index,
+                   node );
+    }
+
+    private static class ModuleNode {
+
+        private final String           uuid;
+        private final ModuleNode       parent;
+        private final List<ModuleNode> children = new ArrayList<ModuleNode>();
+        private String                 name;
+        private boolean                archived;
+        private String[]               workspaces;
+
+        ModuleNode(String uuid,
+                   String name,
+                   boolean archived,
+                   String[] workspaces,
+                   ModuleNode parent) {
+            this.uuid = uuid;
+            this.name = name;
+            this.archived = archived;
+            this.workspaces = workspaces;
+            this.parent = parent;
+        }
+
+        boolean isInWorkspace(String workspace) {
+            for ( String w : workspaces ) {
+                if ( w.equals( workspace ) ) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+}
@@ -16,6 +16,8 @@
 package org.drools.guvnor.server.cache;
 
 import org.drools.RuleBase;
+import org.drools.repository.metrics.CacheMeter;
+import org.drools.repository.metrics.Metrics;
 
 import java.util.Collections;
 import java.util.HashMap;
@@ -31,6 +33,7 @@ public class RuleBaseCache {
     private final Map<String, RuleBase> ruleBaseCache = Collections
             .synchronizedMap(new HashMap<String, RuleBase>());
     private static final RuleBaseCache instance = new RuleBaseCache();
+    private static final CacheMeter meter = Metrics.getInstance().cacheMeter("cache.ruleBases");
 
     private RuleBaseCache() {
     }
@@ -58,6 +61,11 @@ public class RuleBaseCache {
     }
 
     public boolean contains(final String uuid) {
-        return this.ruleBaseCache.containsKey(uuid);
+        if (this.ruleBaseCache.containsKey(uuid)) {
+            meter.hit();
+            return true;
+        }
+        meter.miss();
+        return false;
     }
 }
@@ -22,6 +22,7 @@ import org.drools.guvnor.server.repository.Preferred;
 import org.drools.guvnor.server.util.Discussion;
 import org.drools.guvnor.server.util.ISO8601;
 import org.drools.repository.AssetItem;
+import org.drools.repository.AssetSummary;
 import org.drools.repository.AssetItemPageResult;
 import org.drools.repository.ModuleItem;
 import org.drools.repository.RulesRepository;
@@ -158,7 +159,7 @@ public class FeedServlet extends RepositoryServlet {
                               Iterator<AssetItem> it,
                               String status) {
         while (it.hasNext()) {
-            AssetItem as = it.next();
+            AssetSummary as = it.next().getSummary();
             if (!as.isArchived() && !as.getDisabled()) {
                 if (status == null || status.equals("*") || as.getStateDescription().equals(status)) {
                     entries.add(new AtomFeed.AtomEntry(request,
@@ -250,6 +251,12 @@ public class FeedServlet extends RepositoryServlet {
              */
             public AtomEntry(HttpServletRequest req,
                              AssetItem asset) {
+                this(req,
+                        asset.getSummary());
+            }
+
+            public AtomEntry(HttpServletRequest req,
+                             AssetSummary asset) {
                 this.name = asset.getName();
                 this.format = asset.getFormat();
                 //Escape & with %26 to make generated XML safe.
@@ -37,6 +37,7 @@ import org.apache.commons.fileupload.disk.DiskFileItemFactory;
 import org.apache.commons.fileupload.servlet.ServletFileUpload;
 import org.drools.compiler.DroolsParserException;
 import org.drools.guvnor.client.common.HTMLFileManagerFields;
+import org.drools.guvnor.server.RepositoryModuleOperations;
 import org.drools.guvnor.server.builder.BRMSPackageBuilder;
 import org.drools.guvnor.server.builder.DSLLoader;
 import org.drools.guvnor.server.builder.ModuleAssembler;
@@ -46,6 +47,7 @@ import org.drools.guvnor.server.contenthandler.ContentManager;
 import org.drools.guvnor.server.contenthandler.ICanHasAttachment;
 import org.drools.guvnor.server.contenthandler.IRuleAsset;
 import org.drools.guvnor.server.repository.FileUploadedEvent;
+import org.drools.guvnor.server.repository.ModuleRebuildService;
 import org.drools.guvnor.server.repository.Preferred;
 import org.drools.guvnor.server.util.ClassicDRLImporter;
 import org.drools.guvnor.server.util.ClassicDRLImporter.Asset;
@@ -77,6 +79,12 @@ public class FileManagerService {
     @Any
     private Event<FileUploadedEvent> fileUploadedEventEvent;
 
+    @Inject
+    private RepositoryModuleOperations repositoryModuleOperations;
+
+    @Inject
+    private ModuleRebuildService moduleRebuildService;
+
     /**
      * This attach a file to an asset.
      */
@@ -111,7 +119,6 @@ public class FileManagerService {
 
         item.updateBinaryContentAttachment( fileData );
         item.updateBinaryContentAttachmentFileName( fileName );
-        item.getModule().updateBinaryUpToDate( false );
         item.checkin( "Attached file: " + fileName );
 
         // Special treatment for model and ruleflow attachments.
@@ -119,6 +126,7 @@ public class FileManagerService {
         if ( handler instanceof ICanHasAttachment ) {
             ((ICanHasAttachment) handler).onAttachmentAdded( item );
         }
+        moduleRebuildService.moduleChanged( item.getModule() );
 
     }
 
@@ -307,7 +315,9 @@ public class FileManagerService {
         if ( existing && repository.isModuleArchived( packageName ) ) {
             // Remove the package so it can be created again.
             ModuleItem item = repository.loadModule( packageName );
+            String uuid = item.getUUID();
             item.remove();
+            repositoryModuleOperations.getModuleTree().moduleRemoved( uuid );
             existing = false;
         }
 
@@ -320,6 +330,10 @@ public class FileManagerService {
         } else {
             pkg = repository.createModule( packageName,
                                             "<imported>" );
+            repositoryModuleOperations.getModuleTree().moduleCreated( pkg.getUUID(),
+                                                                      packageName,
+                                                                      null,
+                                                                      null );
             DroolsHeader.updateDroolsHeader( imp.getPackageHeader(),
                                                       pkg );
         }
@@ -349,8 +363,8 @@ public class FileManagerService {
             }
         }
 
-        pkg.updateBinaryUpToDate(false);
         repository.save();
+        moduleRebuildService.moduleChanged(pkg);
 
         /* Return the name of the new package to the caller */
         return packageName;
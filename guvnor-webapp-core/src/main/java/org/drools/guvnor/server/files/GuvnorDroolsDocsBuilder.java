@@ -54,6 +54,10 @@ public class GuvnorDroolsDocsBuilder extends DroolsDocsBuilder {
         super(createDrlPackageData(packageItem));
     }
 
+    private GuvnorDroolsDocsBuilder(DrlPackageParser packageData) throws DroolsParserException {
+        super(packageData);
+    }
+
     protected static DrlPackageParser createDrlPackageData(ModuleItem packageItem) {
 
         List<DrlRuleParser> rules = new ArrayList<DrlRuleParser>();
@@ -64,30 +68,20 @@ public class GuvnorDroolsDocsBuilder extends DroolsDocsBuilder {
 
             AssetItem assetItem = assets.next();
 
-            if (formats.contains(assetItem.getFormat()) && !assetItem.getDisabled() && !assetItem.isArchived()) {
-
-                String drl = getDRL(assetItem);
-
-                if (drl != null) {
-
-                    List<String> categories = new ArrayList<String>();
-
-                    for (CategoryItem categoryItem : assetItem.getCategories()) {
-                        categories.add(categoryItem.getName());
-                    }
-
-                    List<DrlRuleParser> ruleDataList = DrlRuleParser.findRulesDataFromDrl(drl);
-
-                    for (DrlRuleParser ruleData : ruleDataList) {
-                        ruleData.getOtherInformation().put("Categories",
-                                categories);
-                        ruleData.getMetadata().addAll(createMetaData(assetItem));
-                        rules.add(ruleData);
-                    }
-                }
+            if (isDocumented(assetItem)) {
+                rules.addAll(createRuleData(assetItem));
             }
         }
 
+        return createDrlPackageData(packageItem,
+                rules);
+    }
+
+    /**
+     * @return the package data, with the given rules
+     */
+    protected static DrlPackageParser createDrlPackageData(ModuleItem packageItem,
+                                                           List<DrlRuleParser> rules) {
         String header = DroolsHeader.getDroolsHeader(packageItem);
         List<String> globals = DrlPackageParser.findGlobals(header);
 
@@ -101,6 +95,41 @@ public class GuvnorDroolsDocsBuilder extends DroolsDocsBuilder {
 
     }
 
+    /**
+     * @return true if the rules of the asset are in the documentation
+     */
+    protected static boolean isDocumented(AssetItem assetItem) {
+        return formats.contains(assetItem.getFormat()) && !assetItem.getDisabled() && !assetItem.isArchived();
+    }
+
+    /**
+     * @return the data of the rules of a documented asset
+     */
+    protected static List<DrlRuleParser> createRuleData(AssetItem assetItem) {
+        List<DrlRuleParser> rules = new ArrayList<DrlRuleParser>();
+
+        String drl = getDRL(assetItem);
+
+        if (drl != null) {
+
+            List<String> categories = new ArrayList<String>();
+
+            for (CategoryItem categoryItem : assetItem.getCategories()) {
+                categories.add(categoryItem.getName());
+            }
+
+            List<DrlRuleParser> ruleDataList = DrlRuleParser.findRulesDataFromDrl(drl);
+
+            for (DrlRuleParser ruleData : ruleDataList) {
+                ruleData.getOtherInformation().put("Categories",
+                        categories);
+                ruleData.getMetadata().addAll(createMetaData(assetItem));
+                rules.add(ruleData);
+            }
+        }
+        return rules;
+    }
+
     private static List<String> createMetaData(VersionableItem versionableItem) {
         List<String> list = new ArrayList<String>();
 
@@ -119,6 +148,10 @@ public class GuvnorDroolsDocsBuilder extends DroolsDocsBuilder {
         return new GuvnorDroolsDocsBuilder(packageItem);
     }
 
+    public static GuvnorDroolsDocsBuilder getInstance(DrlPackageParser packageData) throws DroolsParserException {
+        return new GuvnorDroolsDocsBuilder(packageData);
+    }
+
     private static String getDRL(AssetItem item) {
         ContentHandler handler = ContentManager.getHandler(item.getFormat());
 
@@ -0,0 +1,494 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.guvnor.server.files;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import org.drools.compiler.DroolsParserException;
+import org.drools.guvnor.server.util.DroolsHeader;
+import org.drools.guvnor.server.util.LoggingHelper;
+import org.drools.repository.AssetItem;
+import org.drools.repository.GuvnorBootstrapConfiguration;
+import org.drools.repository.ModuleItem;
+import org.drools.repository.RepositoryStartupService;
+import org.drools.repository.RulesRepository;
+import org.drools.repository.utils.IOUtils;
+import org.drools.repository.metrics.CacheMeter;
+import org.drools.repository.metrics.Metrics;
+import org.drools.verifier.misc.DrlPackageParser;
+import org.drools.verifier.misc.DrlRuleParser;
+
+/**
+ * Produces the PDF documentation of modules.
+ * <p/>
+ * The rules of an asset are only assembled and parsed again when the asset has been checked in since, as they are
+ * kept by asset version. A document is rendered once, from those rules, and kept in a file until its module changes,
+ * so it can be streamed to any number of readers. A file that is dropped from the cache while it is being read is only
+ * deleted once its last reader has closed it. Documents are rendered by a bounded number of threads, and readers
+ * asking for a document that is being rendered wait for it rather than rendering it again.
+ * <p/>
+ * The documentation of a snapshot is rendered in the background when the snapshot is created.
+ * "org.drools.guvnor.documentation.threads" in the GuvnorBootstrapConfiguration properties is how many documents can
+ * be rendered at the same time, "org.drools.guvnor.documentation.cacheSize" is how many documents are kept, and
+ * "org.drools.guvnor.documentation.rulesCacheSize" how many assets' rules are.
+ */
+@ApplicationScoped
+public class ModuleDocumentationService {
+
+    private static final LoggingHelper log = LoggingHelper.getLogger(ModuleDocumentationService.class);
+
+    public static final String THREADS_PROPERTY = "org.drools.guvnor.documentation.threads";
+    public static final String CACHE_SIZE_PROPERTY = "org.drools.guvnor.documentation.cacheSize";
+    public static final String RULES_CACHE_SIZE_PROPERTY = "org.drools.guvnor.documentation.rulesCacheSize";
+
+    private static final int DEFAULT_THREADS = 1;
+    private static final int DEFAULT_CACHE_SIZE = 20;
+    private static final int DEFAULT_RULES_CACHE_SIZE = 10000;
+
+    private static final CacheMeter documentsMeter = Metrics.getInstance().cacheMeter("cache.documentation");
+    private static final CacheMeter rulesMeter = Metrics.getInstance().cacheMeter("cache.documentation.rules");
+
+    @Inject
+    private RepositoryStartupService repositoryStartupService;
+
+    @Inject
+    protected GuvnorBootstrapConfiguration guvnorBootstrapConfiguration;
+
+    private ExecutorService renderers;
+    private File directory;
+
+    /**
+     * The rules of documented assets, by asset version. Guarded by itself.
+     */
+    private Map<String, List<DrlRuleParser>> rules;
+
+    /**
+     * The rendered documents, by content. Guarded by itself, which also guards the documents.
+     */
+    private Map<String, CachedDocument> documents;
+
+    private final ConcurrentMap<String, FutureTask<File>> rendering = new ConcurrentHashMap<String, FutureTask<File>>();
+
+    /**
+     * True for the threads of the renderers.
+     */
+    private final ThreadLocal<Boolean> renderer = new ThreadLocal<Boolean>();
+
+    @PostConstruct
+    public void setup() {
+        Map<String, String> properties = guvnorBootstrapConfiguration.getProperties();
+        int threads = getProperty(properties,
+                THREADS_PROPERTY,
+                DEFAULT_THREADS);
+        final int cacheSize = getProperty(properties,
+                CACHE_SIZE_PROPERTY,
+                DEFAULT_CACHE_SIZE);
+        final int rulesCacheSize = getProperty(properties,
+                RULES_CACHE_SIZE_PROPERTY,
+                DEFAULT_RULES_CACHE_SIZE);
+
+        renderers = Executors.newFixedThreadPool(Math.max(1,
+                threads));
+        directory = new File(System.getProperty("java.io.tmpdir"),
+                "guvnor-documentation");
+        directory.mkdirs();
+
+        rules = new LinkedHashMap<String, List<DrlRuleParser>>(16,
+                0.75f,
+                true) {
+            private static final long serialVersionUID = 510l;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, List<DrlRuleParser>> eldest) {
+                return size() > rulesCacheSize;
+            }
+        };
+        documents = new LinkedHashMap<String, CachedDocument>(16,
+                0.75f,
+                true) {
+            private static final long serialVersionUID = 510l;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedDocument> eldest) {
+                if (size() > cacheSize) {
+                    eldest.getValue().evict();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @PreDestroy
+    public void destroy() {
+        renderers.shutdownNow();
+        synchronized (documents) {
+            for (CachedDocument document : documents.values()) {
+                document.evict();
+            }
+            documents.clear();
+        }
+    }
+
+    /**
+     * @return the PDF documentation of a module, or of a snapshot of a module, which is to be closed once it has been
+     *         read. Its file is kept until then, even if the module changes in the meantime.
+     */
+    public Documentation openDocumentation(final ModuleItem module) throws DroolsParserException, IOException {
+        MessageDigest digest = newDigest();
+        update(digest,
+                DroolsHeader.getDroolsHeader(module));
+        update(digest,
+                module.getDescription());
+        update(digest,
+                String.valueOf(module.getLastModified().getTimeInMillis()));
+
+        final List<DrlRuleParser> moduleRules = new ArrayList<DrlRuleParser>();
+        Iterator<AssetItem> assets = module.getAssets();
+        while (assets.hasNext()) {
+            AssetItem asset = assets.next();
+            if (GuvnorDroolsDocsBuilder.isDocumented(asset)) {
+                String version = asset.getUUID() + "@" + asset.getVersionNumber() + "@" + asset.getLastModified().getTimeInMillis();
+                update(digest,
+                        version);
+                moduleRules.addAll(getRules(version,
+                        asset));
+            }
+        }
+
+        final String key = module.getUUID() + "-" + toHex(digest.digest());
+        return open(key,
+                new Callable<File>() {
+                    public File call() throws Exception {
+                        return writeDocument(key,
+                                GuvnorDroolsDocsBuilder.createDrlPackageData(module,
+                                        moduleRules));
+                    }
+                });
+    }
+
+    /**
+     * Opens the cached document with a key, rendering it first if it is not cached. The job is to cache the document
+     * it renders.
+     */
+    Documentation open(String key,
+                       Callable<File> job) throws DroolsParserException, IOException {
+        boolean missed = false;
+        while (true) {
+            synchronized (documents) {
+                CachedDocument document = documents.get(key);
+                if (document != null && document.file.isFile()) {
+                    if (!missed) {
+                        documentsMeter.hit();
+                    }
+                    return new Documentation(document);
+                }
+            }
+            if (!missed) {
+                documentsMeter.miss();
+                missed = true;
+            }
+            //The document can be evicted again before it is opened, in which case it is rendered again
+            render(key,
+                    job);
+        }
+    }
+
+    /**
+     * Caches a rendered document, in place of any document with the same key.
+     */
+    void cache(String key,
+               File file) {
+        synchronized (documents) {
+            CachedDocument replaced = documents.put(key,
+                    new CachedDocument(file));
+            if (replaced != null) {
+                replaced.evict();
+            }
+        }
+    }
+
+    /**
+     * Renders the documentation of a snapshot in the background, so that it is ready when it is first downloaded.
+     */
+    public void snapshotCreated(final String moduleName,
+                                final String snapshotName) {
+        executeAsRenderer(new Runnable() {
+            public void run() {
+                RulesRepository repository = new RulesRepository(repositoryStartupService.newSession(guvnorBootstrapConfiguration.extractAdminUsername(),
+                        guvnorBootstrapConfiguration.extractAdminPassword()));
+                try {
+                    openDocumentation(repository.loadModuleSnapshot(moduleName,
+                            snapshotName)).close();
+                    log.debug("Rendered the documentation of snapshot [" + snapshotName + "] of module [" + moduleName + "]");
+                } catch (Exception e) {
+                    log.error("Unable to render the documentation of snapshot [" + snapshotName + "] of module [" + moduleName + "].",
+                            e);
+                } finally {
+                    repository.logout();
+                }
+            }
+        });
+    }
+
+    /**
+     * Runs a job on a renderer thread. Documents the job asks for are rendered by that thread, which would otherwise
+     * wait for another renderer.
+     */
+    void executeAsRenderer(final Runnable job) {
+        renderers.execute(new Runnable() {
+            public void run() {
+                renderer.set(Boolean.TRUE);
+                try {
+                    job.run();
+                } finally {
+                    renderer.remove();
+                }
+            }
+        });
+    }
+
+    private List<DrlRuleParser> getRules(String version,
+                                         AssetItem asset) {
+        synchronized (rules) {
+            List<DrlRuleParser> cached = rules.get(version);
+            if (cached != null) {
+                rulesMeter.hit();
+                return cached;
+            }
+        }
+        rulesMeter.miss();
+        List<DrlRuleParser> assetRules = Collections.unmodifiableList(GuvnorDroolsDocsBuilder.createRuleData(asset));
+        synchronized (rules) {
+            rules.put(version,
+                    assetRules);
+        }
+        return assetRules;
+    }
+
+    private File writeDocument(String key,
+                               DrlPackageParser packageData) throws DroolsParserException, IOException {
+        //Each rendering has its own file, so that the file of a document being read is never written to again
+        File document = File.createTempFile(key,
+                ".pdf",
+                directory);
+        boolean written = false;
+        OutputStream out = new BufferedOutputStream(new FileOutputStream(document));
+        try {
+            GuvnorDroolsDocsBuilder.getInstance(packageData).writePDF(out);
+            written = true;
+        } finally {
+            out.close();
+            if (!written) {
+                document.delete();
+            }
+        }
+        cache(key,
+                document);
+        return document;
+    }
+
+    /**
+     * Renders a document, or waits for the document being rendered with the same key.
+     */
+    File render(String key,
+                Callable<File> job) throws DroolsParserException, IOException {
+        FutureTask<File> task = new FutureTask<File>(job);
+
+        FutureTask<File> future = rendering.putIfAbsent(key,
+                task);
+        if (future == null) {
+            future = task;
+            if (isRenderer()) {
+                task.run();
+            } else {
+                renderers.execute(task);
+            }
+        } else if (isRenderer()) {
+            //The other task may be queued behind this thread, so it is run here. Running a task twice does nothing.
+            future.run();
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the documentation to be rendered.");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof DroolsParserException) {
+                throw (DroolsParserException) cause;
+            } else if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        } finally {
+            rendering.remove(key,
+                    task);
+        }
+    }
+
+    private boolean isRenderer() {
+        return Boolean.TRUE.equals(renderer.get());
+    }
+
+    /**
+     * A rendered document and how many readers have it open. Guarded by the documents.
+     */
+    private static class CachedDocument {
+
+        private final File file;
+        private int readers;
+        private boolean evicted;
+
+        CachedDocument(File file) {
+            this.file = file;
+        }
+
+        /**
+         * Deletes the file now, or once its last reader has closed it.
+         */
+        void evict() {
+            evicted = true;
+            if (readers == 0) {
+                file.delete();
+            }
+        }
+
+    }
+
+    /**
+     * The documentation of a module, open for reading.
+     */
+    public class Documentation implements Closeable {
+
+        private final CachedDocument document;
+        private boolean closed;
+
+        Documentation(CachedDocument document) {
+            this.document = document;
+            document.readers++;
+        }
+
+        /**
+         * @return the file of the document, which is not to be changed, and is only kept until the document is closed.
+         */
+        public File getFile() {
+            return document.file;
+        }
+
+        public long length() {
+            return document.file.length();
+        }
+
+        public void writeTo(OutputStream out) throws IOException {
+            InputStream in = new FileInputStream(document.file);
+            try {
+                IOUtils.copy(in,
+                        out);
+            } finally {
+                in.close();
+            }
+        }
+
+        public void close() {
+            synchronized (documents) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                document.readers--;
+                if (document.evicted && document.readers == 0) {
+                    document.file.delete();
+                }
+            }
+        }
+
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void update(MessageDigest digest,
+                               String value) {
+        try {
+            digest.update(String.valueOf(value).getBytes("UTF-8"));
+            digest.update((byte) 0);
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder();
+        for (byte b : bytes) {
+            hex.append(Integer.toHexString((b & 0xff) | 0x100).substring(1));
+        }
+        return hex.toString();
+    }
+
+    private int getProperty(Map<String, String> properties,
+                            String name,
+                            int defaultValue) {
+        String value = properties.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            log.error("Invalid value [" + value + "] for " + name + ", using " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+}
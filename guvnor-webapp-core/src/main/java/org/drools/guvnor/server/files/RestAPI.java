@@ -26,6 +26,7 @@ import java.util.Calendar;
 import java.util.Iterator;
 import java.util.Properties;
 
+import org.drools.guvnor.server.RepositoryModuleOperations;
 import org.drools.guvnor.server.repository.Preferred;
 import org.drools.repository.AssetHistoryIterator;
 import org.drools.repository.AssetItem;
@@ -51,6 +52,9 @@ public class RestAPI {
     @Inject
     private AssetValidator assetValidator;
 
+    @Inject
+    private RepositoryModuleOperations repositoryModuleOperations;
+
 
     private static Properties TEXT_ASSET_TYPES = loadAssetTypes();
 
@@ -249,6 +253,10 @@ public class RestAPI {
                 pkg.updateCheckinComment(comment);
                 pkg.updateStringProperty(readContent(in), ModuleItem.HEADER_PROPERTY_NAME);
                 rulesRepository.save();
+                //not set when created with a repository only
+                if (repositoryModuleOperations != null) {
+                    repositoryModuleOperations.getModuleTree().moduleCreated(pkg.getUUID(), bits[1], null, null);
+                }
             } else {
                 //new asset
                 ModuleItem pkg = rulesRepository.loadModule(bits[1]);
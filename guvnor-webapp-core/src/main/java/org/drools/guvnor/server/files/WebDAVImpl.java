@@ -20,6 +20,7 @@ import net.sf.webdav.ITransaction;
 import net.sf.webdav.IWebdavStore;
 import net.sf.webdav.StoredObject;
 import org.apache.commons.io.IOUtils;
+import org.drools.guvnor.server.RepositoryModuleOperations;
 import org.drools.guvnor.server.repository.Preferred;
 import org.drools.repository.AssetItem;
 import org.drools.repository.ModuleItem;
@@ -56,6 +57,9 @@ public class WebDAVImpl
     @Inject
     protected AssetValidator                 assetValidator;
 
+    @Inject
+    protected RepositoryModuleOperations     repositoryModuleOperations;
+
     public ITransaction begin(final Principal principal) {
         return new ITransaction() {
             public Principal getPrincipal() {
@@ -83,9 +87,15 @@ public class WebDAVImpl
                 ModuleItem pkg = loadPackageFromRepository( path[1] );
                 pkg.archiveItem( false );
                 pkg.checkin( "restored by webdav" );
+                repositoryModuleOperations.getModuleTree().moduleArchived( pkg.getUUID(),
+                                                                           false );
             } else {
-                rulesRepository.createModule( path[1],
-                                              "from webdav" );
+                ModuleItem pkg = rulesRepository.createModule( path[1],
+                                                               "from webdav" );
+                repositoryModuleOperations.getModuleTree().moduleCreated( pkg.getUUID(),
+                                                                          path[1],
+                                                                          null,
+                                                                          null );
             }
         } else {
             throw new UnsupportedOperationException( "Not able to create folders here..." );
@@ -718,6 +728,8 @@ public class WebDAVImpl
                 //delete package
                 packageItem.archiveItem( true );
                 packageItem.checkin( "" );
+                repositoryModuleOperations.getModuleTree().moduleArchived( packageItem.getUUID(),
+                                                                           true );
             }
         } else if ( isGlobalAreas( path ) ) {
             if ( path.length == 2 ) {
@@ -737,7 +749,7 @@ public class WebDAVImpl
     }
 
     public void rollback(ITransaction iTransaction) {
-        rulesRepository.getSession().logout();
+        rulesRepository.logout();
     }
 
     public long setResourceContent(ITransaction iTransaction,
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.guvnor.server.jaxrs;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Iterator;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.StreamingOutput;
+
+import org.drools.repository.AssetItem;
+
+/**
+ * Writes the sources of the assets of a package straight to the response,
+ * one asset at a time, either as a zip file or as newline delimited JSON.
+ */
+public class AssetExport implements StreamingOutput {
+
+    public static final String ZIP    = "application/zip";
+    public static final String NDJSON = "application/x-ndjson";
+
+    private final Iterator<AssetItem> assets;
+    private final boolean             zip;
+
+    public AssetExport(Iterator<AssetItem> assets,
+                       boolean zip) {
+        this.assets = assets;
+        this.zip = zip;
+    }
+
+    public void write(OutputStream output) throws IOException, WebApplicationException {
+        if ( zip ) {
+            writeZip( output );
+        } else {
+            writeJson( output );
+        }
+    }
+
+    private void writeZip(OutputStream output) throws IOException {
+        ZipOutputStream zout = new ZipOutputStream( output );
+        while ( assets.hasNext() ) {
+            AssetItem asset = assets.next();
+            zout.putNextEntry( new ZipEntry( fileName( asset ) ) );
+            if ( asset.isBinary() ) {
+                byte[] bytes = asset.getBinaryContentAsBytes();
+                if ( bytes != null ) {
+                    zout.write( bytes );
+                }
+            } else {
+                zout.write( asset.getContent().getBytes( "UTF-8" ) );
+            }
+            zout.closeEntry();
+        }
+        zout.finish();
+        zout.flush();
+    }
+
+    private void writeJson(OutputStream output) throws IOException {
+        Writer writer = new OutputStreamWriter( output,
+                                                "UTF-8" );
+        while ( assets.hasNext() ) {
+            AssetItem asset = assets.next();
+            writer.write( "{\"name\":" );
+            writeString( writer,
+                         asset.getName() );
+            writer.write( ",\"format\":" );
+            writeString( writer,
+                         asset.getFormat() );
+            writer.write( ",\"uuid\":" );
+            writeString( writer,
+                         asset.getUUID() );
+            writer.write( ",\"version\":" );
+            writer.write( String.valueOf( asset.getVersionNumber() ) );
+            if ( !asset.isBinary() ) {
+                writer.write( ",\"content\":" );
+                writeString( writer,
+                             asset.getContent() );
+            }
+            writer.write( "}\n" );
+            writer.flush();
+        }
+    }
+
+    String fileName(AssetItem asset) {
+        String format = asset.getFormat();
+        return format == null || format.length() == 0 ? asset.getName() : asset.getName() + "." + format;
+    }
+
+    static void writeString(Writer writer,
+                            String value) throws IOException {
+        if ( value == null ) {
+            writer.write( "null" );
+            return;
+        }
+        writer.write( '"' );
+        for ( int i = 0; i < value.length(); i++ ) {
+            char c = value.charAt( i );
+            switch ( c ) {
+                case '"' :
+                    writer.write( "\\\"" );
+                    break;
+                case '\\' :
+                    writer.write( "\\\\" );
+                    break;
+                case '\n' :
+                    writer.write( "\\n" );
+                    break;
+                case '\r' :
+                    writer.write( "\\r" );
+                    break;
+                case '\t' :
+                    writer.write( "\\t" );
+                    break;
+                default :
+                    if ( c < 0x20 ) {
+                        writer.write( String.format( "\\u%04x",
+                                                     (int) c ) );
+                    } else {
+                        writer.write( c );
+                    }
+            }
+        }
+        writer.write( '"' );
+    }
+}
@@ -27,6 +27,7 @@ public class GuvnorRestApplication extends Application {
         Set<Class<?>> classes = new HashSet<Class<?>>();
         classes.add(PackageResource.class);
         classes.add(CategoryResource.class);
+        classes.add(MetricsResource.class);
         return classes;
     }
 
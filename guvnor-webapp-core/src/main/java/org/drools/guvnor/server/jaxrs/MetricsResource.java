@@ -0,0 +1,112 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.guvnor.server.jaxrs;
+
+import java.util.Map;
+
+import javax.enterprise.context.RequestScoped;
+import javax.inject.Named;
+import javax.ws.rs.GET;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+
+import org.drools.repository.metrics.CacheMeter;
+import org.drools.repository.metrics.Counter;
+import org.drools.repository.metrics.Histogram;
+import org.drools.repository.metrics.Metrics;
+import org.drools.repository.metrics.Timer;
+
+/**
+ * The metrics of the server, as JSON, with the durations of the timers in microseconds. They are the same as the
+ * MBeans registered by {@link Metrics}.
+ */
+@Path("/metrics")
+@RequestScoped
+@Named
+public class MetricsResource {
+
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    public String getMetrics() {
+        StringBuilder timers = new StringBuilder();
+        StringBuilder histograms = new StringBuilder();
+        StringBuilder counters = new StringBuilder();
+        StringBuilder caches = new StringBuilder();
+        for (Map.Entry<String, Object> entry : Metrics.getInstance().getMetrics().entrySet()) {
+            Object metric = entry.getValue();
+            if (metric instanceof Timer) {
+                appendHistogram(name(timers,
+                        entry.getKey()),
+                        (Timer) metric);
+            } else if (metric instanceof Histogram) {
+                appendHistogram(name(histograms,
+                        entry.getKey()),
+                        (Histogram) metric);
+            } else if (metric instanceof Counter) {
+                name(counters,
+                        entry.getKey()).append(((Counter) metric).getValue());
+            } else if (metric instanceof CacheMeter) {
+                CacheMeter cacheMeter = (CacheMeter) metric;
+                name(caches,
+                        entry.getKey()).append("{\"hits\":").append(cacheMeter.getHits())
+                        .append(",\"misses\":").append(cacheMeter.getMisses())
+                        .append(",\"hitRate\":").append(cacheMeter.getHitRate())
+                        .append("}");
+            }
+        }
+        return new StringBuilder("{\"timers\":{").append(timers)
+                .append("},\"histograms\":{").append(histograms)
+                .append("},\"counters\":{").append(counters)
+                .append("},\"caches\":{").append(caches)
+                .append("}}").toString();
+    }
+
+    @POST
+    @Path("reset")
+    public void reset() {
+        Metrics.getInstance().reset();
+    }
+
+    private static StringBuilder name(StringBuilder json,
+                                      String name) {
+        if (json.length() > 0) {
+            json.append(',');
+        }
+        json.append('"');
+        for (char c : name.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                json.append('\\');
+            }
+            json.append(c);
+        }
+        return json.append("\":");
+    }
+
+    private static void appendHistogram(StringBuilder json,
+                                        Histogram histogram) {
+        json.append("{\"count\":").append(histogram.getCount())
+                .append(",\"mean\":").append(histogram.getMean())
+                .append(",\"median\":").append(histogram.getMedian())
+                .append(",\"p95\":").append(histogram.get95thPercentile())
+                .append(",\"p99\":").append(histogram.get99thPercentile())
+                .append(",\"max\":").append(histogram.getMax())
+                .append("}");
+    }
+
+}
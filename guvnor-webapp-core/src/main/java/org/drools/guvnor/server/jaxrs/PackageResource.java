@@ -32,7 +32,8 @@ import org.drools.guvnor.client.rpc.BuilderResult;
 import org.drools.guvnor.client.rpc.BuilderResultLine;
 import org.drools.guvnor.server.builder.ModuleAssembler;
 import org.drools.guvnor.server.builder.ModuleAssemblerManager;
-import org.drools.guvnor.server.cache.RuleBaseCache;
+import org.drools.guvnor.server.repository.ModuleRebuildService;
+import org.drools.guvnor.server.util.LoggingHelper;
 import org.drools.repository.AssetHistoryIterator;
 import org.drools.repository.AssetItem;
 import org.drools.repository.ModuleHistoryIterator;
@@ -40,7 +41,9 @@ import org.drools.repository.ModuleItem;
 import org.drools.repository.ModuleIterator;
 
 import javax.enterprise.context.RequestScoped;
+import javax.inject.Inject;
 import javax.inject.Named;
+import javax.jcr.RepositoryException;
 
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
@@ -70,9 +73,13 @@ import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Collection;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 import java.util.TimeZone;
 
 import static org.drools.guvnor.server.jaxrs.Translator.toAsset;
@@ -97,13 +104,22 @@ import static org.drools.guvnor.server.jaxrs.Translator.toPackageEntryAbdera;
 @Named
 @GZIP
 public class PackageResource extends Resource {
+    private static final LoggingHelper log = LoggingHelper.getLogger(PackageResource.class);
+
     private HttpHeaders headers;
 
+    @Inject
+    private ModuleRebuildService moduleRebuildService;
+
     @Context
     public void setHttpHeaders(HttpHeaders theHeaders) {
         headers = theHeaders;
     }
 
+    public void setModuleRebuildServiceForTest(ModuleRebuildService moduleRebuildService) {
+        this.moduleRebuildService = moduleRebuildService;
+    }
+
     @GET
     @Produces(MediaType.APPLICATION_ATOM_XML)
     public Feed getPackagesAsFeed() {
@@ -187,6 +203,7 @@ public class PackageResource extends Resource {
                 checkinComment = metaData.getCheckinComment();
             }
             ModuleItem packageItem = rulesRepository.createModule(entry.getTitle(), entry.getSummary(), ModuleItem.MODULE_FORMAT, null, checkinComment);
+            repositoryModuleOperations.getModuleTree().moduleCreated(packageItem.getUUID(), entry.getTitle(), null, null);
             //NOTE: no need to call packageItem.updateBinaryUpToDate(false) for a newly created module as the default value of BinaryUpToDate is false
             return toPackageEntryAbdera(packageItem, uriInfo);
         } catch (JAXBException e) {
@@ -208,6 +225,7 @@ public class PackageResource extends Resource {
             }
             
             ModuleItem packageItem = rulesRepository.createModule(p.getTitle(), p.getDescription(), ModuleItem.MODULE_FORMAT, null, checkinComment);
+            repositoryModuleOperations.getModuleTree().moduleCreated(packageItem.getUUID(), p.getTitle(), null, null);
             //NOTE: no need to call packageItem.updateBinaryUpToDate(false) for a newly created module as the default value of BinaryUpToDate is false
             return toPackage(packageItem, uriInfo);
         } catch (RuntimeException e) {
@@ -280,7 +298,7 @@ public class PackageResource extends Resource {
                     .entity("Package [" + packageName + "] does not exist").build());
         }
         try {
-            ModuleItem p = compileModuleIfNeeded(packageName);
+            ModuleItem p = compileModuleIfNeeded(packageName, true);
             byte[] result = p.getCompiledBinaryBytes();
             ModuleAssembler moduleAssembler = ModuleAssemblerManager.getModuleAssembler(p.getFormat(), p, null);
             String fileName = packageName + "." + moduleAssembler.getBinaryExtension();
@@ -293,9 +311,20 @@ public class PackageResource extends Resource {
     }
 
     private ModuleItem compileModuleIfNeeded(String packageName) throws SerializationException {
+        return compileModuleIfNeeded(packageName, false);
+    }
+
+    /**
+     * @param acceptPrevious if the module is being rebuilt in the background, the previous binary is good enough
+     */
+    private ModuleItem compileModuleIfNeeded(String packageName,
+                                             boolean acceptPrevious) throws SerializationException {
         ModuleItem p = rulesRepository.loadModule(packageName);
         if (p.isBinaryUpToDate()) {
             return p;
+        } else if (acceptPrevious && repositoryModuleOperations.isModuleRebuildPending(p.getUUID())
+                && hasCompiledBinary(p)) {
+            return p;
         } else {
         	org.drools.guvnor.client.rpc.Path path = new PathImpl();
             path.setUUID(p.getUUID());
@@ -403,6 +432,7 @@ public class PackageResource extends Resource {
             //Rename:
             if (!existingModuleItem.getTitle().equalsIgnoreCase(entry.getTitle())) {
                 rulesRepository.renameModule(existingModuleItem.getUUID(), entry.getTitle());
+                repositoryModuleOperations.getModuleTree().moduleRenamed(existingModuleItem.getUUID(), entry.getTitle());
             }
 
             if (entry.getSummary() != null) {
@@ -418,12 +448,13 @@ public class PackageResource extends Resource {
            AtomPackageMetadata packageMetadata = entry.getAnyOtherJAXBObject(AtomPackageMetadata.class);
            if ( packageMetadata != null ) {
                existingModuleItem.archiveItem(packageMetadata.isArchived());
+               repositoryModuleOperations.getModuleTree().moduleArchived(existingModuleItem.getUUID(), packageMetadata.isArchived());
                checkinComment = packageMetadata.getCheckinComment();
            }
 
-            existingModuleItem.updateBinaryUpToDate(false);
             existingModuleItem.checkin(checkinComment);
             rulesRepository.save();
+            moduleRebuildService.moduleChanged(existingModuleItem);
        } catch (JAXBException e) {
            throw new WebApplicationException(e);
        } catch (RuntimeException e) {
@@ -441,14 +472,15 @@ public class PackageResource extends Resource {
             //Rename:
             if (!existingModuleItem.getTitle().equalsIgnoreCase(module.getTitle())) {
                 rulesRepository.renameModule(existingModuleItem.getUUID(), module.getTitle());
+                repositoryModuleOperations.getModuleTree().moduleRenamed(existingModuleItem.getUUID(), module.getTitle());
             }
             
             existingModuleItem.updateDescription(module.getDescription());
             
             /* TODO: add more updates to package item from JSON */
-            existingModuleItem.updateBinaryUpToDate(false);
             existingModuleItem.checkin(module.getMetadata().getCheckinComment());
             rulesRepository.save();
+            moduleRebuildService.moduleChanged(existingModuleItem);
         } catch (RuntimeException e) {
             throw new WebApplicationException(e);
         }
@@ -529,6 +561,39 @@ public class PackageResource extends Resource {
         }
     }
 
+    @GET
+    @Path("{packageName}/export")
+    @Produces(AssetExport.ZIP)
+    public Response exportAssetsAsZip(@PathParam("packageName") String packageName) {
+        return exportAssets(packageName,
+                            true);
+    }
+
+    @GET
+    @Path("{packageName}/export")
+    @Produces(AssetExport.NDJSON)
+    public Response exportAssetsAsJson(@PathParam("packageName") String packageName) {
+        return exportAssets(packageName,
+                            false);
+    }
+
+    private Response exportAssets(String packageName, boolean zip) {
+        if (!rulesRepository.containsModule(packageName)) {
+            throw new WebApplicationException(Response.status(Response.Status.NOT_FOUND)
+                    .entity("Package [" + packageName + "] does not exist").build());
+        }
+        try {
+            ModuleItem p = rulesRepository.loadModule(packageName);
+            Response.ResponseBuilder builder = Response.ok(new AssetExport(p.getAssets(), zip));
+            if (zip) {
+                builder.header("Content-Disposition", "attachment; filename=" + packageName + ".zip");
+            }
+            return builder.build();
+        } catch (RuntimeException e) {
+            throw new WebApplicationException(e);
+        }
+    }
+
     @GET
     @Path("{packageName}/assets/{assetName}")
     @Produces(MediaType.APPLICATION_ATOM_XML)
@@ -627,8 +692,8 @@ public class PackageResource extends Resource {
             }
             
             //The categories are not saved by addAsset(). Need to force it here.
-            ai.getModule().updateBinaryUpToDate(false);
             rulesRepository.save();
+            moduleRebuildService.moduleChanged(ai.getModule());
 
             return toAssetEntryAbdera(ai, uriInfo);
         } catch (JAXBException e) {
@@ -677,10 +742,10 @@ public class PackageResource extends Resource {
                 ai.updateFormat(extension);
             }
             ai.updateBinaryContentAttachment(is);
-            ai.getModule().updateBinaryUpToDate(false);
             ai.updateValid(assetValidator.validate(ai));
             ai.checkin("update binary");
             rulesRepository.save();
+            moduleRebuildService.moduleChanged(ai.getModule());
             return toAssetEntryAbdera(ai, uriInfo);
         } catch (RuntimeException e) {
             //catch RulesRepositoryException and other exceptions. For example when the package already exists.
@@ -716,13 +781,11 @@ public class PackageResource extends Resource {
                 ai.updateState(assetMetadata.getState());
             }
             ai.updateValid(assetValidator.validate(ai));
-            if (AssetFormats.affectsBinaryUpToDate(ai.getFormat())) {
-                ModuleItem pkg = ai.getModule();
-                pkg.updateBinaryUpToDate(false);
-                RuleBaseCache.getInstance().remove(pkg.getUUID());
-            }
             ai.checkin("Check-in (summary): " + assetEntry.getSummary());
             rulesRepository.save();
+            if (AssetFormats.affectsBinaryUpToDate(ai.getFormat())) {
+                moduleRebuildService.moduleChanged(ai.getModule());
+            }
         } catch (JAXBException e) {
             throw new WebApplicationException(e);
         } catch (RuntimeException e) {
@@ -744,13 +807,11 @@ public class PackageResource extends Resource {
             ai.updateTitle(asset.getTitle());
             ai.updateDescription(asset.getDescription());
             ai.updateValid(assetValidator.validate(ai));
-            if (AssetFormats.affectsBinaryUpToDate(ai.getFormat())) {
-                ModuleItem pkg = ai.getModule();
-                pkg.updateBinaryUpToDate(false);
-                RuleBaseCache.getInstance().remove(pkg.getUUID());
-            }
             ai.checkin(asset.getMetadata().getCheckInComment());
             rulesRepository.save();
+            if (AssetFormats.affectsBinaryUpToDate(ai.getFormat())) {
+                moduleRebuildService.moduleChanged(ai.getModule());
+            }
         } catch (RuntimeException e) {
             throw new WebApplicationException(e);
         }
@@ -767,13 +828,11 @@ public class PackageResource extends Resource {
             asset.checkout();
             asset.updateContent(content);
             asset.updateValid(assetValidator.validate(asset));
-            if (AssetFormats.affectsBinaryUpToDate(asset.getFormat())) {
-                ModuleItem pkg = asset.getModule();
-                pkg.updateBinaryUpToDate(false);
-                RuleBaseCache.getInstance().remove(pkg.getUUID());
-            }
             asset.checkin("Updated asset source from REST interface");
             rulesRepository.save();
+            if (AssetFormats.affectsBinaryUpToDate(asset.getFormat())) {
+                moduleRebuildService.moduleChanged(asset.getModule());
+            }
         } catch (RuntimeException e) {
             throw new WebApplicationException(e);
         }
@@ -790,14 +849,9 @@ public class PackageResource extends Resource {
             asset.checkout();
             asset.updateBinaryContentAttachment(is);
             asset.updateValid(assetValidator.validate(asset));
-            if (AssetFormats.affectsBinaryUpToDate(asset.getFormat())) {
-                ModuleItem pkg = asset.getModule();
-                pkg.updateBinaryUpToDate(false);
-                RuleBaseCache.getInstance().remove(pkg.getUUID());
-            }
-            asset.getModule().updateBinaryUpToDate(false);
             asset.checkin("Update binary");
             rulesRepository.save();
+            moduleRebuildService.moduleChanged(asset.getModule());
         } catch (RuntimeException e) {
             throw new WebApplicationException(e);
         }
@@ -816,13 +870,169 @@ public class PackageResource extends Resource {
             org.drools.guvnor.client.rpc.Path path = new PathImpl();
             path.setUUID(ai.getUUID());
             repositoryAssetService.removeAsset(path);
-            module.updateBinaryUpToDate(false);
             rulesRepository.save();
+            moduleRebuildService.moduleChanged(module);
         } catch (RuntimeException e) {
             throw new WebApplicationException(e);
         }
     }
     
+    /**
+     * Applies a batch of asset creates, updates and deletes to a package.
+     * The batch is validated before anything is changed. The changes to the
+     * created and updated assets are saved together and then each asset is
+     * checked in, instead of being saved one by one. Deletes go through the
+     * same path as deleting a single asset. The package binary is marked as
+     * stale once for the whole batch, even if it fails partway.
+     */
+    @POST
+    @Path("{packageName}/batch")
+    @Consumes({MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML})
+    @Produces({MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML})
+    public Collection<Asset> applyAssetBatch(@PathParam("packageName") String packageName, AssetBatch batch) {
+        if (!rulesRepository.containsModule(packageName)) {
+            throw new WebApplicationException(Response.status(Response.Status.NOT_FOUND)
+                    .entity("Package [" + packageName + "] does not exist").build());
+        }
+        if (batch == null || batch.getOperations() == null) {
+            throw new WebApplicationException(Response.status(Response.Status.BAD_REQUEST)
+                    .entity("Request must contain a batch of operations").build());
+        }
+        ModuleItem module = rulesRepository.loadModule(packageName);
+        validateAssetBatch(module, batch);
+
+        boolean binaryAffected = false;
+        boolean completed = false;
+        //Assets changed but not yet saved and checked in, by name
+        Map<String, AssetItem> pending = new LinkedHashMap<String, AssetItem>();
+        try {
+            List<Asset> ret = new ArrayList<Asset>();
+            for (AssetOperation operation : batch.getOperations()) {
+                if (pending.containsKey(operation.getName())) {
+                    checkinAssetBatch(pending);
+                }
+
+                if (AssetOperation.DELETE.equals(operation.getAction())) {
+                    AssetItem ai = module.loadAsset(operation.getName());
+                    binaryAffected |= AssetFormats.affectsBinaryUpToDate(ai.getFormat());
+                    checkinAssetBatch(pending);
+                    org.drools.guvnor.client.rpc.Path path = new PathImpl();
+                    path.setUUID(ai.getUUID());
+                    repositoryAssetService.removeAsset(path);
+                    continue;
+                }
+
+                AssetItem ai;
+                if (AssetOperation.CREATE.equals(operation.getAction())) {
+                    String description = operation.getDescription() == null ? "" : operation.getDescription();
+                    ai = module.addAsset(operation.getName(), description, null, operation.getFormat());
+                } else {
+                    ai = module.loadAsset(operation.getName());
+                    ai.checkout();
+                    if (operation.getDescription() != null) {
+                        ai.updateDescription(operation.getDescription());
+                    }
+                    if (operation.getFormat() != null) {
+                        ai.updateFormat(operation.getFormat());
+                    }
+                }
+                if (operation.getContent() != null) {
+                    ai.updateContent(operation.getContent());
+                }
+                if (operation.getCategories() != null) {
+                    ai.updateCategoryList(operation.getCategories());
+                }
+                if (operation.getState() != null) {
+                    ai.updateState(operation.getState());
+                }
+                ai.updateValid(assetValidator.validate(ai));
+                binaryAffected |= AssetFormats.affectsBinaryUpToDate(ai.getFormat());
+                ai.prepareCheckin(operation.getCheckInComment() == null ? "Updated from REST batch" : operation.getCheckInComment());
+                pending.put(operation.getName(), ai);
+                ret.add(toAsset(ai, uriInfo));
+            }
+            checkinAssetBatch(pending);
+            completed = true;
+            return ret;
+        } catch (RuntimeException e) {
+            if (e instanceof WebApplicationException) {
+                throw e;
+            }
+            throw new WebApplicationException(e);
+        } finally {
+            if (!completed) {
+                discardChanges();
+            }
+            //Whatever was saved before a failure still has to be rebuilt
+            if (binaryAffected) {
+                moduleRebuildService.moduleChanged(module);
+            }
+        }
+    }
+
+    /**
+     * Saves the assets of a batch that have been changed since the last
+     * save, with one save, and then checks each of them in.
+     */
+    private void checkinAssetBatch(Map<String, AssetItem> pending) {
+        if (pending.isEmpty()) {
+            return;
+        }
+        rulesRepository.save();
+        for (AssetItem ai : pending.values()) {
+            ai.completeCheckin();
+        }
+        pending.clear();
+    }
+
+    /**
+     * Drops the changes of a failed batch that have not been saved yet.
+     */
+    private void discardChanges() {
+        try {
+            rulesRepository.getSession().refresh(false);
+        } catch (RepositoryException e) {
+            log.error("Unable to discard the unsaved changes of a failed batch.", e);
+        }
+    }
+
+    private void validateAssetBatch(ModuleItem module, AssetBatch batch) {
+        //Names of the assets as they will be after each operation has been applied
+        Set<String> created = new HashSet<String>();
+        Set<String> deleted = new HashSet<String>();
+        StringBuilder errs = new StringBuilder();
+        for (AssetOperation operation : batch.getOperations()) {
+            String name = operation.getName();
+            String action = operation.getAction();
+            if (name == null || "".equals(name.trim())) {
+                errs.append("Asset name must be specified for every operation\n");
+                continue;
+            }
+            boolean exists = !deleted.contains(name) && (created.contains(name) || module.containsAsset(name));
+            if (AssetOperation.CREATE.equals(action)) {
+                if (exists) {
+                    errs.append("Asset [").append(name).append("] already exists\n");
+                }
+                created.add(name);
+                deleted.remove(name);
+            } else if (AssetOperation.UPDATE.equals(action) || AssetOperation.DELETE.equals(action)) {
+                if (!exists) {
+                    errs.append("Asset [").append(name).append("] does not exist\n");
+                }
+                if (AssetOperation.DELETE.equals(action)) {
+                    created.remove(name);
+                    deleted.add(name);
+                }
+            } else {
+                errs.append("Unknown action [").append(action).append("] for asset [").append(name).append("]\n");
+            }
+        }
+        if (errs.length() > 0) {
+            throw new WebApplicationException(Response.status(Response.Status.BAD_REQUEST)
+                    .entity(errs.toString()).build());
+        }
+    }
+
     @GET
     @Path("{packageName}/assets/{assetName}/versions")
     @Produces(MediaType.APPLICATION_ATOM_XML)
@@ -944,6 +1154,11 @@ public class PackageResource extends Resource {
         return null;
     }
 
+    private boolean hasCompiledBinary(ModuleItem p) {
+        byte[] binary = p.getCompiledBinaryBytes();
+        return binary != null && binary.length > 0;
+    }
+
     @POST
     @Path("{packageName}/snapshot/{snapshotName}")
     public void createPackageSnapshot(
@@ -987,10 +1202,10 @@ public class PackageResource extends Resource {
         ai.updateBinaryContentAttachmentFileName(assetMultipartForm.getAsset().getBinaryContentAttachmentFileName());
         ai.updateFormat(assetMultipartForm.getAsset().getMetadata().getFormat());
         ai.updateBinaryContentAttachment(assetMultipartForm.getBinary());
-        ai.getModule().updateBinaryUpToDate(false);
         ai.updateValid(assetValidator.validate(ai));
         ai.checkin(assetMultipartForm.getAsset().getMetadata().getCheckInComment());
         rulesRepository.save();
+        moduleRebuildService.moduleChanged(ai.getModule());
         return assetMultipartForm.getAsset();
     }
 
@@ -1015,10 +1230,10 @@ public class PackageResource extends Resource {
         ai.updateBinaryContentAttachmentFileName(assetMultipartForm.getAsset().getBinaryContentAttachmentFileName());
         ai.updateFormat(assetMultipartForm.getAsset().getMetadata().getFormat());
         ai.updateBinaryContentAttachment(assetMultipartForm.getBinary());
-        ai.getModule().updateBinaryUpToDate(false);
         ai.updateValid(assetValidator.validate(ai));
         ai.checkin(assetMultipartForm.getAsset().getMetadata().getCheckInComment());
         rulesRepository.save();
+        moduleRebuildService.moduleChanged(ai.getModule());
         return assetMultipartForm.getAsset();
     }
     
@@ -23,6 +23,7 @@ import org.drools.guvnor.server.jaxrs.providers.atom.Entry;
 import org.drools.guvnor.server.jaxrs.providers.atom.Link;
 import org.drools.guvnor.server.jaxrs.providers.atom.Person;
 import org.drools.repository.AssetItem;
+import org.drools.repository.AssetSummary;
 import org.drools.repository.CategoryItem;
 import org.drools.repository.ModuleItem;
 
@@ -61,22 +62,19 @@ public class Translator {
     }
 
     public static Asset toAsset(AssetItem a, UriInfo uriInfo) {
+        return toAsset(a.getSummary(), uriInfo);
+    }
+
+    public static Asset toAsset(AssetSummary a, UriInfo uriInfo) {
         AssetMetadata metadata = new AssetMetadata();
         metadata.setUuid(a.getUUID());
         metadata.setCreated(a.getCreatedDate().getTime());
         metadata.setDisabled(a.getDisabled());
         metadata.setFormat(a.getFormat());
-        metadata.setState(a.getState() == null ? "" : a.getState().getName());
+        metadata.setState(a.getStateDescription());
         metadata.setNote("<![CDATA[ " + a.getCheckinComment() + " ]]>");
         metadata.setCheckInComment(a.getCheckinComment());
         metadata.setVersionNumber(a.getVersionNumber());
-        List<CategoryItem> categories = a.getCategories();
-        //TODO: Is this a bug since cat's are never assigned to metadata after this?
-        String[] cats = new String[categories.size()];
-        int counter = 0;
-        for (CategoryItem c : categories) {
-            cats[counter++] = c.getName();
-        }
 
         Asset ret = new Asset();
         ret.setTitle(a.getTitle());
@@ -87,13 +85,13 @@ public class Translator {
         ret.setDescription(a.getDescription());
         ret.setRefLink(uriInfo.getBaseUriBuilder()
                 .path("/packages/{packageName}/assets/{assetName}")
-                .build(a.getModule().getName(), a.getName()));
+                .build(a.getModuleName(), a.getName()));
         ret.setBinaryLink(uriInfo.getBaseUriBuilder()
                 .path("/packages/{packageName}/assets/{assetName}/binary")
-                .build(a.getModule().getName(), a.getName()));
+                .build(a.getModuleName(), a.getName()));
         ret.setSourceLink(uriInfo.getBaseUriBuilder()
                 .path("/packages/{packageName}/assets/{assetName}/source")
-                .build(a.getModule().getName(), a.getName()));
+                .build(a.getModuleName(), a.getName()));
         return ret;
     }
 
@@ -224,6 +222,10 @@ public class Translator {
         return e;
     }*/
     public static Entry toAssetEntryAbdera(AssetItem a, UriInfo uriInfo) {
+        return toAssetEntryAbdera(a.getSummary(), uriInfo);
+    }
+
+    public static Entry toAssetEntryAbdera(AssetSummary a, UriInfo uriInfo) {
         URI baseUri;
         if (a.isHistoricalVersion()) {
             baseUri = uriInfo.getBaseUriBuilder()
@@ -250,17 +252,11 @@ public class Translator {
             }
             atomAssetMetadata.setArchived(a.isArchived());
             atomAssetMetadata.setUuid(a.getUUID());
-            atomAssetMetadata.setState(a.getState() == null ? "" : a.getState().getName());
+            atomAssetMetadata.setState(a.getStateDescription());
             atomAssetMetadata.setFormat(a.getFormat());
             atomAssetMetadata.setVersionNumber(a.getVersionNumber());
             atomAssetMetadata.setCheckinComment(a.getCheckinComment());
-            String[] categories = new String[a.getCategories().size()];
-            int i = 0;
-            for (CategoryItem cItem : a.getCategories()) {
-                categories[i] = cItem.getName();
-                i++;
-            }
-            atomAssetMetadata.setCategories(categories);
+            atomAssetMetadata.setCategories(a.getCategoryNames().toArray(new String[a.getCategoryNames().size()]));
             e.setAnyOtherJAXBObject(atomAssetMetadata);
         } catch (Exception ex) {
             throw new WebServiceException(ex);
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.drools.guvnor.server.jaxrs.jaxb;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlRootElement;
+
+/**
+ * A list of asset operations that are applied to one package in a single request.
+ */
+@XmlRootElement(name="batch")
+public class AssetBatch {
+
+    private List<AssetOperation> operations = new ArrayList<AssetOperation>();
+
+    @XmlElement(name="operation")
+    public List<AssetOperation> getOperations() {
+        return operations;
+    }
+
+    public void setOperations(List<AssetOperation> operations) {
+        this.operations = operations;
+    }
+}
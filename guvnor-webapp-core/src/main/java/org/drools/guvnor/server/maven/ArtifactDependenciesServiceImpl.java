@@ -18,11 +18,11 @@ package org.drools.guvnor.server.maven;
 
 import java.util.Collection;
 
-import com.google.gwt.user.server.rpc.RemoteServiceServlet;
+import org.drools.guvnor.server.MeteredRemoteServiceServlet;
 import org.drools.guvnor.client.rpc.ArtifactDependenciesService;
 import org.drools.guvnor.client.rpc.MavenArtifact;
 
-public class ArtifactDependenciesServiceImpl extends RemoteServiceServlet implements ArtifactDependenciesService {
+public class ArtifactDependenciesServiceImpl extends MeteredRemoteServiceServlet implements ArtifactDependenciesService {
 
     public Collection<MavenArtifact> getDependencies() {
         return ArtifactDependencySupport.getDependencyTree();
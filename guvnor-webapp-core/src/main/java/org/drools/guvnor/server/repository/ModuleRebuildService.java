@@ -0,0 +1,358 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.guvnor.server.repository;
+
+import java.io.ByteArrayInputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import org.drools.RuleBase;
+import org.drools.RuleBaseConfiguration;
+import org.drools.RuleBaseFactory;
+import org.drools.core.util.BinaryRuleBaseLoader;
+import org.drools.guvnor.client.common.AssetFormats;
+import org.drools.guvnor.server.builder.ClassLoaderBuilder;
+import org.drools.guvnor.server.builder.ModuleAssembler;
+import org.drools.guvnor.server.builder.ModuleAssemblerConfiguration;
+import org.drools.guvnor.server.builder.ModuleAssemblerManager;
+import org.drools.guvnor.server.cache.RuleBaseCache;
+import org.drools.guvnor.server.util.LoggingHelper;
+import org.drools.repository.GuvnorBootstrapConfiguration;
+import org.drools.repository.ModuleItem;
+import org.drools.repository.RepositoryStartupService;
+import org.drools.repository.RulesRepository;
+
+/**
+ * Rebuilds the binary of a module in the background, once changes to the module have been quiet for a while, and
+ * loads the new binary into the {@link RuleBaseCache}. Until the rebuild is done, readers that can do with the previous
+ * binary (such as the REST API) are given that instead of building the module themselves.
+ * <p/>
+ * This is off unless "org.drools.guvnor.eagerRebuild.enabled" is true in the GuvnorBootstrapConfiguration
+ * properties. "org.drools.guvnor.eagerRebuild.quietPeriod" is how long to wait after the last change, in
+ * milliseconds, and "org.drools.guvnor.eagerRebuild.threads" is how many modules can be rebuilt at the same time.
+ * <p/>
+ * Everything that changes a module marks its binary out of date through {@link #moduleChanged(ModuleItem)}, once the
+ * change is saved. A rebuild only marks the binary up to date if no such change was started, or was still going on,
+ * while the module was being built.
+ */
+@ApplicationScoped
+public class ModuleRebuildService {
+
+    private static final LoggingHelper log = LoggingHelper.getLogger(ModuleRebuildService.class);
+
+    public static final String ENABLED_PROPERTY = "org.drools.guvnor.eagerRebuild.enabled";
+    public static final String QUIET_PERIOD_PROPERTY = "org.drools.guvnor.eagerRebuild.quietPeriod";
+    public static final String THREADS_PROPERTY = "org.drools.guvnor.eagerRebuild.threads";
+
+    private static final long DEFAULT_QUIET_PERIOD = 10000;
+    private static final int DEFAULT_THREADS = 1;
+
+    @Inject
+    private RepositoryStartupService repositoryStartupService;
+
+    @Inject
+    protected GuvnorBootstrapConfiguration guvnorBootstrapConfiguration;
+
+    private volatile boolean enabled = false;
+    private long quietPeriod;
+    private ScheduledExecutorService scheduler;
+    private ExecutorService builders;
+
+    /**
+     * The modules changed since they were last rebuilt, guarded by itself.
+     */
+    private final Map<String, Rebuild> rebuilds = new HashMap<String, Rebuild>();
+
+    @PostConstruct
+    public void setup() {
+        Map<String, String> properties = guvnorBootstrapConfiguration.getProperties();
+        if (!"true".equalsIgnoreCase(properties.get(ENABLED_PROPERTY))) {
+            return;
+        }
+        quietPeriod = getProperty(properties,
+                QUIET_PERIOD_PROPERTY,
+                DEFAULT_QUIET_PERIOD);
+        int threads = (int) getProperty(properties,
+                THREADS_PROPERTY,
+                DEFAULT_THREADS);
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        builders = Executors.newFixedThreadPool(Math.max(1,
+                threads));
+        enabled = true;
+        log.info("Eager module rebuilds are enabled, after " + quietPeriod + "ms without changes, " + threads + " at a time");
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (enabled) {
+            enabled = false;
+            scheduler.shutdownNow();
+            builders.shutdownNow();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Call this once a change to the module, such as a check-in of one of its assets, has been saved. This marks the
+     * binary of the module out of date, drops its cached rule base and, if enabled, rebuilds it once no other changes
+     * have been made to it for the quiet period.
+     */
+    public void moduleChanged(ModuleItem module) {
+        String moduleUUID = module.getUUID();
+        changeStarted(moduleUUID);
+        try {
+            module.updateBinaryUpToDate(false);
+            RuleBaseCache.getInstance().remove(moduleUUID);
+            module.getRulesRepository().save();
+        } finally {
+            changeFinished(moduleUUID);
+        }
+    }
+
+    /**
+     * Called before the binary of the module is marked out of date. Each call must be followed by a call to
+     * {@link #changeFinished(String)}.
+     */
+    void changeStarted(String moduleUUID) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (rebuilds) {
+            Rebuild rebuild = getRebuild(moduleUUID);
+            rebuild.changes++;
+            rebuild.changing++;
+            if (rebuild.timer != null) {
+                rebuild.timer.cancel(false);
+                rebuild.timer = null;
+            }
+        }
+    }
+
+    /**
+     * Called once the binary of the module is marked out of date. The module is rebuilt once no other changes have
+     * been made to it for the quiet period.
+     */
+    void changeFinished(String moduleUUID) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (rebuilds) {
+            Rebuild rebuild = getRebuild(moduleUUID);
+            rebuild.changes++;
+            if (rebuild.changing > 0) {
+                rebuild.changing--;
+            }
+            if (rebuild.timer != null) {
+                rebuild.timer.cancel(false);
+            }
+            rebuild.timer = scheduler.schedule(newStartTask(rebuild),
+                    quietPeriod,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private Rebuild getRebuild(String moduleUUID) {
+        Rebuild rebuild = rebuilds.get(moduleUUID);
+        if (rebuild == null) {
+            rebuild = new Rebuild(moduleUUID);
+            rebuilds.put(moduleUUID,
+                    rebuild);
+        }
+        return rebuild;
+    }
+
+    /**
+     * @return true if the module has been changed and will be, or is being, rebuilt in the background.
+     */
+    public boolean isRebuildPending(String moduleUUID) {
+        synchronized (rebuilds) {
+            return rebuilds.containsKey(moduleUUID);
+        }
+    }
+
+    private Runnable newStartTask(final Rebuild rebuild) {
+        return new Runnable() {
+            public void run() {
+                start(rebuild);
+            }
+        };
+    }
+
+    private void start(final Rebuild rebuild) {
+        synchronized (rebuilds) {
+            rebuild.timer = null;
+            if (rebuild.running) {
+                //Started again when the running rebuild is done
+                return;
+            }
+            rebuild.running = true;
+        }
+        builders.execute(new Runnable() {
+            public void run() {
+                build(rebuild);
+            }
+        });
+    }
+
+    private void build(Rebuild rebuild) {
+        int changes;
+        synchronized (rebuilds) {
+            changes = rebuild.changes;
+        }
+
+        try {
+            rebuild(rebuild.moduleUUID,
+                    changes);
+        } catch (RuntimeException e) {
+            log.error("Unable to rebuild module [" + rebuild.moduleUUID + "] in the background.",
+                    e);
+        } catch (LinkageError e) {
+            log.error("Unable to rebuild module [" + rebuild.moduleUUID + "] in the background.",
+                    e);
+        }
+
+        synchronized (rebuilds) {
+            rebuild.running = false;
+            if (isUnchanged(rebuild.moduleUUID,
+                    changes)) {
+                rebuilds.remove(rebuild.moduleUUID);
+            } else if (rebuild.timer == null && rebuild.changing == 0 && enabled) {
+                //Changed while it was being built, and the quiet period is over already
+                rebuild.timer = scheduler.schedule(newStartTask(rebuild),
+                        0,
+                        TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * Builds the module and, if it is unchanged since the given number of changes, marks its binary up to date and
+     * caches its rule base.
+     */
+    void rebuild(String moduleUUID,
+                 int changes) {
+        RulesRepository repository = new RulesRepository(repositoryStartupService.newSession(guvnorBootstrapConfiguration.extractAdminUsername(),
+                guvnorBootstrapConfiguration.extractAdminPassword()));
+        try {
+            ModuleItem item = repository.loadModuleByUUID(moduleUUID);
+            log.debug("Rebuilding module [" + item.getName() + "] in the background");
+
+            //The assembler only stores the new binary, it is marked up to date below
+            ModuleAssemblerConfiguration configuration = new ModuleAssemblerConfiguration();
+            configuration.setMarkBinaryUpToDate(false);
+            ModuleAssembler moduleAssembler = ModuleAssemblerManager.getModuleAssembler(item.getFormat(),
+                    item,
+                    configuration);
+            moduleAssembler.compile();
+            if (moduleAssembler.hasErrors()) {
+                log.info("Module [" + item.getName() + "] has errors, it will be built when it is next used");
+                return;
+            }
+
+            RuleBase ruleBase = null;
+            if (ModuleItem.MODULE_FORMAT.equals(item.getFormat())) {
+                ruleBase = loadRuleBase(item);
+            }
+
+            //A change waits for this before it marks the binary out of date and clears the cache
+            synchronized (rebuilds) {
+                if (!isUnchanged(moduleUUID,
+                        changes)) {
+                    log.debug("Module [" + item.getName() + "] was changed while it was being rebuilt");
+                    return;
+                }
+                item.updateBinaryUpToDate(true);
+                repository.save();
+                if (ruleBase != null) {
+                    RuleBaseCache.getInstance().put(moduleUUID,
+                            ruleBase);
+                }
+            }
+        } finally {
+            repository.logout();
+        }
+    }
+
+    /**
+     * @return true if no change to the module has been started, or is still going on, since it had the given number
+     *         of changes.
+     */
+    boolean isUnchanged(String moduleUUID,
+                        int changes) {
+        synchronized (rebuilds) {
+            Rebuild rebuild = rebuilds.get(moduleUUID);
+            return rebuild.changes == changes && rebuild.changing == 0;
+        }
+    }
+
+    private RuleBase loadRuleBase(ModuleItem item) {
+        try {
+            ClassLoader classLoader = new ClassLoaderBuilder(item.listAssetsWithVersionsSpecifiedByDependenciesByFormat(AssetFormats.MODEL)).buildClassLoader();
+            RuleBase ruleBase = RuleBaseFactory.newRuleBase(new RuleBaseConfiguration(classLoader));
+            BinaryRuleBaseLoader rbl = new BinaryRuleBaseLoader(ruleBase,
+                    classLoader);
+            rbl.addPackage(new ByteArrayInputStream(item.getCompiledBinaryBytes()));
+            return ruleBase;
+        } catch (Exception e) {
+            throw new IllegalStateException("Unable to load the rule base of module [" + item.getName() + "].",
+                    e);
+        }
+    }
+
+    private long getProperty(Map<String, String> properties,
+                             String name,
+                             long defaultValue) {
+        String value = properties.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            log.warn("Invalid value [" + value + "] for " + name + ", using " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    private static class Rebuild {
+
+        private final String moduleUUID;
+        private int changes = 0;
+        private int changing = 0;
+        private boolean running = false;
+        private ScheduledFuture<?> timer;
+
+        private Rebuild(String moduleUUID) {
+            this.moduleUUID = moduleUUID;
+        }
+
+    }
+
+}
@@ -18,9 +18,30 @@ package org.drools.guvnor.server.selector;
 
 /**
  * This is a simple named fact for the selectors.
+ *
+ * When assets are selected in bulk the rules work on {@link AssetMetadata}
+ * facts, and need to say which asset they allow, eg "insert(new Allow($asset))".
  */
 public class Allow {
 
+    private String uuid;
+
     public Allow() {}
 
+    public Allow(String uuid) {
+        this.uuid = uuid;
+    }
+
+    public Allow(AssetMetadata asset) {
+        this( asset.getUuid() );
+    }
+
+    /**
+     * @return the UUID of the allowed asset, or null if this was inserted by a
+     *         rule that works on a single asset.
+     */
+    public String getUuid() {
+        return uuid;
+    }
+
 }
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.guvnor.server.selector;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.List;
+
+import org.drools.repository.AssetItem;
+import org.drools.repository.CategoryItem;
+
+/**
+ * A lightweight, read-only copy of the asset properties that selectors work on.
+ * This is what is inserted into the rule based selectors when assets are
+ * evaluated in bulk, so the rules never touch the live repository nodes.
+ */
+public class AssetMetadata {
+
+    private final String       uuid;
+    private final String       name;
+    private final String       format;
+    private final String       stateDescription;
+    private final String       creator;
+    private final Calendar     lastModified;
+    private final Calendar     createdDate;
+    private final List<String> categories;
+
+    public AssetMetadata(String uuid,
+                         String name,
+                         String format,
+                         String stateDescription,
+                         String creator,
+                         Calendar lastModified,
+                         Calendar createdDate,
+                         List<String> categories) {
+        this.uuid = uuid;
+        this.name = name;
+        this.format = format;
+        this.stateDescription = stateDescription;
+        this.creator = creator;
+        this.lastModified = lastModified;
+        this.createdDate = createdDate;
+        this.categories = Collections.unmodifiableList( new ArrayList<String>( categories ) );
+    }
+
+    /**
+     * Reads each of the properties from the asset exactly once.
+     */
+    public static AssetMetadata fromAsset(AssetItem asset) {
+        List<String> categoryPaths = new ArrayList<String>();
+        for ( CategoryItem category : asset.getCategories() ) {
+            categoryPaths.add( category.getFullPath() );
+        }
+        return new AssetMetadata( asset.getUUID(),
+                                  asset.getName(),
+                                  asset.getFormat(),
+                                  asset.getStateDescription(),
+                                  asset.getCreator(),
+                                  asset.getLastModified(),
+                                  asset.getCreatedDate(),
+                                  categoryPaths );
+    }
+
+    public String getUuid() {
+        return uuid;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    public String getStateDescription() {
+        return stateDescription;
+    }
+
+    public String getCreator() {
+        return creator;
+    }
+
+    public Calendar getLastModified() {
+        return lastModified;
+    }
+
+    public Calendar getCreatedDate() {
+        return createdDate;
+    }
+
+    /**
+     * @return the full paths of the categories the asset belongs to.
+     */
+    public List<String> getCategories() {
+        return categories;
+    }
+
+    public boolean hasCategory(String categoryPath) {
+        return categories.contains( categoryPath );
+    }
+
+    @Override
+    public String toString() {
+        return "AssetMetadata[" + name + "." + format + ", " + uuid + "]";
+    }
+
+}
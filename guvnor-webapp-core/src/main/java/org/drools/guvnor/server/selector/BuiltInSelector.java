@@ -16,10 +16,16 @@
 
 package org.drools.guvnor.server.selector;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
 import org.drools.repository.AssetItem;
 import org.drools.repository.CategoryItem;
 
-public class BuiltInSelector implements AssetSelector {
+public class BuiltInSelector implements BulkAssetSelector {
     private String  status;
     private String  statusOperator;
     private String  category;
@@ -80,46 +86,54 @@ public class BuiltInSelector implements AssetSelector {
 
     public boolean isAssetAllowed(AssetItem item) {
         if ( enableStatusSelector && enableCategorySelector ) {
-            return (isStatusAllowed( item ) && isCategoryAllowed( item ));
+            return (isStatusAllowed( item.getStateDescription() ) && isCategoryAllowed( getCategoryPaths( item ) ));
         } else if ( enableStatusSelector ) {
-            return isStatusAllowed( item );
+            return isStatusAllowed( item.getStateDescription() );
         } else if ( enableCategorySelector ) {
-            return isCategoryAllowed( item );
+            return isCategoryAllowed( getCategoryPaths( item ) );
         }
 
         //allow everything if none enabled.
         return true;
     }
 
-    private boolean isStatusAllowed(AssetItem item) {
-        if ( "=".equals( statusOperator ) ) {
-            if ( item.getStateDescription().equals( status ) ) {
-                return true;
+    /**
+     * Only reads the status and category properties of each asset, and only
+     * when the corresponding selector is enabled.
+     */
+    public Set<String> getAllowedAssets(Collection<AssetItem> assets) {
+        Set<String> allowed = new HashSet<String>();
+        for ( AssetItem item : assets ) {
+            if ( isAssetAllowed( item ) ) {
+                allowed.add( item.getUUID() );
             }
+        }
+        return allowed;
+    }
+
+    private List<String> getCategoryPaths(AssetItem item) {
+        List<String> paths = new ArrayList<String>();
+        for ( CategoryItem cat : item.getCategories() ) {
+            paths.add( cat.getFullPath() );
+        }
+        return paths;
+    }
+
+    private boolean isStatusAllowed(String stateDescription) {
+        if ( "=".equals( statusOperator ) ) {
+            return stateDescription.equals( status );
         } else if ( "!=".equals( statusOperator ) ) {
-            if ( !item.getStateDescription().equals( status ) ) {
-                return true;
-            }
+            return !stateDescription.equals( status );
         }
 
         return false;
     }
 
-    private boolean isCategoryAllowed(AssetItem item) {
+    private boolean isCategoryAllowed(List<String> categoryPaths) {
         if ( "=".equals( categoryOperator ) ) {
-            for ( CategoryItem cat : item.getCategories() ) {
-                if ( cat.getFullPath().equals( category ) ) {
-                    return true;
-                }
-            }
+            return categoryPaths.contains( category );
         } else if ( "!=".equals( categoryOperator ) ) {
-            boolean categoryFound = false;
-            for ( CategoryItem cat : item.getCategories() ) {
-                if ( cat.getFullPath().equals( category ) ) {
-                    categoryFound = true;
-                }
-            }
-            return !categoryFound;
+            return !categoryPaths.contains( category );
         }
 
         return false;
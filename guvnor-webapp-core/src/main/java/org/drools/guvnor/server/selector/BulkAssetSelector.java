@@ -0,0 +1,40 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.guvnor.server.selector;
+
+import java.util.Collection;
+import java.util.Set;
+
+import org.drools.repository.AssetItem;
+
+/**
+ * An asset selector that can decide on all the candidate assets of a build in
+ * one go, rather than being called once per asset.
+ *
+ * Selectors that only implement {@link AssetSelector} keep working, the
+ * package build falls back to calling them for each asset.
+ */
+public interface BulkAssetSelector extends AssetSelector {
+
+    /**
+     *
+     * @param assets All the assets that are candidates for the build.
+     * @return the UUIDs of the assets that are allowed.
+     */
+    Set<String> getAllowedAssets(Collection<AssetItem> assets);
+
+}
@@ -21,25 +21,43 @@ import org.drools.RuleBase;
 import org.drools.RuntimeDroolsException;
 import org.drools.StatelessSession;
 import org.drools.StatelessSessionResult;
+import org.drools.base.ClassObjectType;
 import org.drools.compiler.RuleBaseLoader;
 import org.drools.repository.AssetItem;
+import org.drools.rule.Package;
+import org.drools.rule.Pattern;
+import org.drools.rule.Rule;
+import org.drools.rule.RuleConditionElement;
+import org.drools.spi.ObjectType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 /**
  * This uses rules to decide if an asset is to be included in a build.
+ *
+ * Rule files whose rules match {@link AssetMetadata}, and never AssetItem, are
+ * evaluated for all the assets of a build in a single session. Other rule
+ * files (the older style, written against AssetItem) are still evaluated one
+ * asset at a time.
  */
-public class RuleBasedSelector implements AssetSelector {
+public class RuleBasedSelector implements BulkAssetSelector {
 
     private static final Logger log = LoggerFactory.getLogger(RuleBasedSelector.class);
 
 
     final String ruleFile;
     private RuleBase ruleBase;
+    private boolean bulkEvaluation;
 
     public RuleBasedSelector(String val) {
         this.ruleFile = val;
@@ -58,12 +76,89 @@ public class RuleBasedSelector implements AssetSelector {
             throw new RuntimeDroolsException(e);
         }
 
+        this.bulkEvaluation = matchesFactType(AssetMetadata.class) && !matchesFactType(AssetItem.class);
+    }
+
+    /**
+     * Whether any rule has a pattern for the given fact type. Imports are not
+     * enough, as a rule file can import a type it never matches.
+     */
+    private boolean matchesFactType(Class<?> factType) {
+        for (Package pkg : ruleBase.getPackages()) {
+            for (Rule rule : pkg.getRules()) {
+                if (matchesFactType(rule.getLhs(), factType)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean matchesFactType(RuleConditionElement element, Class<?> factType) {
+        if (element instanceof Pattern) {
+            ObjectType objectType = ((Pattern) element).getObjectType();
+            if (objectType instanceof ClassObjectType
+                    && factType.isAssignableFrom(((ClassObjectType) objectType).getClassType())) {
+                return true;
+            }
+        }
+        for (RuleConditionElement nested : element.getNestedElements()) {
+            if (matchesFactType(nested, factType)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     public boolean isAssetAllowed(AssetItem asset) {
+        if (bulkEvaluation) {
+            return !evalBulkRules(Collections.singletonList(AssetMetadata.fromAsset(asset))).isEmpty();
+        }
         return evalRules(asset);
     }
 
+    public Set<String> getAllowedAssets(Collection<AssetItem> assets) {
+        if (!bulkEvaluation) {
+            Set<String> allowed = new HashSet<String>();
+            for (AssetItem asset : assets) {
+                if (evalRules(asset)) {
+                    allowed.add(asset.getUUID());
+                }
+            }
+            return allowed;
+        }
+
+        List<AssetMetadata> facts = new ArrayList<AssetMetadata>(assets.size());
+        for (AssetItem asset : assets) {
+            facts.add(AssetMetadata.fromAsset(asset));
+        }
+        return evalBulkRules(facts);
+    }
+
+    boolean isBulkEvaluation() {
+        return bulkEvaluation;
+    }
+
+    /**
+     * Runs all the facts through one session.
+     * @return the UUIDs of the assets the rules inserted an Allow for.
+     */
+    @SuppressWarnings("rawtypes")
+    Set<String> evalBulkRules(Collection<AssetMetadata> assets) {
+        StatelessSession session = ruleBase.newStatelessSession();
+        StatelessSessionResult result = session.executeWithResults(assets);
+
+        Set<String> allowed = new HashSet<String>();
+        java.util.Iterator objects = result.iterateObjects();
+        while (objects.hasNext()) {
+            Object o = objects.next();
+            if (o instanceof Allow && ((Allow) o).getUuid() != null) {
+                allowed.add(((Allow) o).getUuid());
+            }
+        }
+        return allowed;
+    }
+
     @SuppressWarnings("rawtypes")
     boolean evalRules(Object asset) {
         StatelessSession session = ruleBase.newStatelessSession();
@@ -18,30 +18,35 @@ package org.drools.guvnor.server.util;
 import org.apache.commons.lang.StringUtils;
 import org.drools.guvnor.client.rpc.AssetPageRow;
 import org.drools.repository.AssetItem;
+import org.drools.repository.AssetSummary;
 import org.drools.guvnor.client.rpc.Asset;
 import org.drools.guvnor.client.rpc.Path;
 import org.drools.guvnor.client.rpc.PathImpl;
 
 public class AssetPageRowPopulator {
     public AssetPageRow populateFrom(AssetItem assetItem) {
+        return populateFrom( assetItem.getSummary() );
+    }
+
+    public AssetPageRow populateFrom(AssetSummary summary) {
         AssetPageRow row = new AssetPageRow();
         //REVISIT: get a Path instance from drools-repository-vfs
         Path path = new PathImpl();
-        path.setUUID(assetItem.getUUID());
+        path.setUUID(summary.getUUID());
         row.setPath( path );
-        row.setFormat( assetItem.getFormat() );
-        row.setName( assetItem.getName() );
-        row.setDescription( assetItem.getDescription() );
-        row.setAbbreviatedDescription( StringUtils.abbreviate( assetItem.getDescription(), 80 ) );
-        row.setStateName( assetItem.getStateDescription() );
-        row.setCreator( assetItem.getCreator() );
-        row.setCreatedDate( assetItem.getCreatedDate().getTime() );
-        row.setLastContributor( assetItem.getLastContributor() );
-        row.setLastModified( assetItem.getLastModified().getTime() );
-        row.setCategorySummary( assetItem.getCategorySummary() );
-        row.setExternalSource( assetItem.getExternalSource() );
-        row.setDisabled( assetItem.getDisabled() );
-        row.setValid(assetItem.getValid());
+        row.setFormat( summary.getFormat() );
+        row.setName( summary.getName() );
+        row.setDescription( summary.getDescription() );
+        row.setAbbreviatedDescription( StringUtils.abbreviate( summary.getDescription(), 80 ) );
+        row.setStateName( summary.getStateDescription() );
+        row.setCreator( summary.getCreator() );
+        row.setCreatedDate( summary.getCreatedDate().getTime() );
+        row.setLastContributor( summary.getLastContributor() );
+        row.setLastModified( summary.getLastModified().getTime() );
+        row.setCategorySummary( summary.getCategorySummary() );
+        row.setExternalSource( summary.getExternalSource() );
+        row.setDisabled( summary.getDisabled() );
+        row.setValid(summary.getValid());
         return row;
     }
     public AssetPageRow populateFrom(Asset asset) {
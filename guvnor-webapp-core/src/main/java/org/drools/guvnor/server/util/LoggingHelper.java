@@ -19,20 +19,45 @@ package org.drools.guvnor.server.util;
 import org.drools.guvnor.client.rpc.LogEntry;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * Collects messages for displaying in the GUI as well as providing a logger.
+ * <p/>
+ * The last messages are kept, up to "guvnor.log.maxEntries" messages (500 by default) and "guvnor.log.maxBytes"
+ * bytes of text (1MB by default).
  */
 public class LoggingHelper {
     private final org.slf4j.Logger log;
+    private final String category;
 
-    private static final MessageList messages = new MessageList();
+    private static final MessageList messages = new MessageList(Integer.getInteger("guvnor.log.maxEntries",
+            MessageList.DEFAULT_MAX_ENTRIES),
+            Long.getLong("guvnor.log.maxBytes",
+                    MessageList.DEFAULT_MAX_BYTES));
 
     public static LogEntry[] getMessages() {
         return messages.getMessages();
     }
 
+    /**
+     * @param maxSeverity the highest severity to return (0 is error, 1 is info), or null for all
+     * @param category    the category, that is the name of the logging class, or null for all
+     * @param itemId      the asset or module, or null for all
+     * @return the messages that match, oldest first
+     */
+    public static LogEntry[] getMessages(Integer maxSeverity,
+                                         String category,
+                                         String itemId) {
+        return messages.getMessages(maxSeverity,
+                category,
+                itemId);
+    }
+
     public static void cleanLog() {
         messages.cleanEntry();
     }
@@ -43,12 +68,27 @@ public class LoggingHelper {
 
     private LoggingHelper(Class<?> cls) {
         log = LoggerFactory.getLogger(cls);
+        category = cls.getName();
     }
 
     public void info(String message) {
         log.info(message);
         messages.add(message,
-                1);
+                1,
+                category,
+                null);
+    }
+
+    /**
+     * Logs a message about an asset or a module.
+     */
+    public void infoFor(String itemId,
+                        String message) {
+        log.info(message);
+        messages.add(message,
+                1,
+                category,
+                itemId);
     }
 
     public void info(String message,
@@ -56,7 +96,9 @@ public class LoggingHelper {
         log.info(message,
                 error);
         messages.add(message + " " + error.getMessage(),
-                1);
+                1,
+                category,
+                null);
     }
 
     public void debug(String message) {
@@ -66,7 +108,21 @@ public class LoggingHelper {
     public void error(String message) {
         log.error(message);
         messages.add(message,
-                0);
+                0,
+                category,
+                null);
+    }
+
+    /**
+     * Logs an error about an asset or a module.
+     */
+    public void errorFor(String itemId,
+                         String message) {
+        log.error(message);
+        messages.add(message,
+                0,
+                category,
+                itemId);
     }
 
     public void error(String message,
@@ -74,7 +130,9 @@ public class LoggingHelper {
         log.error(message,
                 error);
         messages.add(message + " " + error.getMessage(),
-                0);
+                0,
+                category,
+                null);
     }
 
     public void warn(String message) {
@@ -87,43 +145,160 @@ public class LoggingHelper {
 
 }
 
+/**
+ * A ring buffer of the last messages. Adding a message does not lock: it takes the next sequence number, and the
+ * slot of that number. Readers go through the sequence numbers that are still kept, and skip the slots that have
+ * been taken by newer messages since.
+ */
 class MessageList {
-    private static final int MAX = 500;
-    private LogEntry[] messages = new LogEntry[MAX];
-    private int current = 0;
+    static final int DEFAULT_MAX_ENTRIES = 500;
+    static final long DEFAULT_MAX_BYTES = 1024 * 1024;
+
+    //What an entry takes besides its text, roughly
+    private static final int ENTRY_OVERHEAD = 64;
+
+    private final int maxEntries;
+    private final long maxBytes;
+    private final AtomicReferenceArray<Entry> entries;
+
+    //The sequence number of the next message
+    private final AtomicLong next = new AtomicLong();
+    //The sequence number of the oldest message that is kept, if it is within the last maxEntries
+    private final AtomicLong oldest = new AtomicLong();
+    private final AtomicLong bytes = new AtomicLong();
 
     public MessageList() {
+        this(DEFAULT_MAX_ENTRIES,
+                DEFAULT_MAX_BYTES);
+    }
 
+    public MessageList(int maxEntries,
+                       long maxBytes) {
+        this.maxEntries = Math.max(1,
+                maxEntries);
+        this.maxBytes = maxBytes;
+        this.entries = new AtomicReferenceArray<Entry>(this.maxEntries);
     }
 
-    public synchronized void add(String message,
-                                 int severity) {
-        LogEntry entry = new LogEntry();
-        entry.message = message;
-        entry.timestamp = new Date();
-        entry.severity = severity;
+    public void add(String message,
+                    int severity) {
+        add(message,
+                severity,
+                null,
+                null);
+    }
+
+    public void add(String message,
+                    int severity,
+                    String category,
+                    String itemId) {
+        LogEntry logEntry = new LogEntry();
+        logEntry.message = message;
+        logEntry.timestamp = new Date();
+        logEntry.severity = severity;
+        logEntry.category = category;
+        logEntry.itemId = itemId;
+
+        long sequence = next.getAndIncrement();
+        Entry entry = new Entry(sequence,
+                logEntry);
+        Entry replaced = entries.getAndSet(slot(sequence),
+                entry);
+        long total = bytes.addAndGet(entry.size - (replaced == null ? 0 : replaced.size));
 
-        if (current == MAX) {
-            current = 0;
+        //Drops the oldest messages until the text fits
+        while (total > maxBytes) {
+            long first = oldest.get();
+            if (first >= sequence) {
+                break;
+            }
+            if (first <= sequence - maxEntries) {
+                //Overwritten already
+                oldest.compareAndSet(first,
+                        sequence - maxEntries + 1);
+                continue;
+            }
+            if (oldest.compareAndSet(first,
+                    first + 1)) {
+                Entry dropped = entries.get(slot(first));
+                if (dropped != null && dropped.sequence == first && entries.compareAndSet(slot(first),
+                        dropped,
+                        null)) {
+                    total = bytes.addAndGet(-dropped.size);
+                } else {
+                    total = bytes.get();
+                }
+            }
         }
-        messages[current++] = entry;
     }
 
+    /**
+     * @return the messages, oldest first
+     */
     public LogEntry[] getMessages() {
-        //JDK1.5 Incompatible. 
-        //return Arrays.copyOf( messages, current );
-        LogEntry[] result = new LogEntry[current];
-        System.arraycopy(messages,
-                0,
-                result,
-                0,
-                Math.min(messages.length,
-                        current));
-        return result;
+        return getMessages(null,
+                null,
+                null);
+    }
+
+    public LogEntry[] getMessages(Integer maxSeverity,
+                                  String category,
+                                  String itemId) {
+        long end = next.get();
+        long start = Math.max(oldest.get(),
+                end - maxEntries);
+        List<LogEntry> result = new ArrayList<LogEntry>((int) (end - start));
+        for (long sequence = start; sequence < end; sequence++) {
+            Entry entry = entries.get(slot(sequence));
+            //Not written yet, or overwritten since
+            if (entry == null || entry.sequence != sequence) {
+                continue;
+            }
+            LogEntry logEntry = entry.logEntry;
+            if ((maxSeverity == null || logEntry.severity <= maxSeverity)
+                    && (category == null || category.equals(logEntry.category))
+                    && (itemId == null || itemId.equals(logEntry.itemId))) {
+                result.add(logEntry);
+            }
+        }
+        return result.toArray(new LogEntry[result.size()]);
+    }
+
+    public void cleanEntry() {
+        long end = next.get();
+        long first = oldest.get();
+        while (first < end && !oldest.compareAndSet(first,
+                end)) {
+            first = oldest.get();
+        }
+        for (int i = 0; i < maxEntries; i++) {
+            Entry entry = entries.get(i);
+            if (entry != null && entry.sequence < end && entries.compareAndSet(i,
+                    entry,
+                    null)) {
+                bytes.addAndGet(-entry.size);
+            }
+        }
+    }
+
+    private int slot(long sequence) {
+        return (int) (sequence % maxEntries);
     }
 
-    public synchronized void cleanEntry() {
-        messages = new LogEntry[MAX];
-        current = 0;
+    private static class Entry {
+        private final long sequence;
+        private final LogEntry logEntry;
+        private final long size;
+
+        private Entry(long sequence,
+                      LogEntry logEntry) {
+            this.sequence = sequence;
+            this.logEntry = logEntry;
+            this.size = ENTRY_OVERHEAD + 2 * (length(logEntry.message) + length(logEntry.category) + length(logEntry.itemId));
+        }
+
+        private static int length(String value) {
+            return value == null ? 0 : value.length();
+        }
     }
 }
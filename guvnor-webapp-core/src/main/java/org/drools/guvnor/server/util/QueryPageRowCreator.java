@@ -18,24 +18,29 @@ package org.drools.guvnor.server.util;
 import org.apache.commons.lang.StringUtils;
 import org.drools.guvnor.client.rpc.QueryPageRow;
 import org.drools.repository.AssetItem;
+import org.drools.repository.AssetSummary;
 import org.drools.guvnor.client.rpc.Path;
 import org.drools.guvnor.client.rpc.PathImpl;
 
 public class QueryPageRowCreator {
     public static QueryPageRow makeQueryPageRow(AssetItem assetItem) {
+        return makeQueryPageRow( assetItem.getSummary() );
+    }
+
+    public static QueryPageRow makeQueryPageRow(AssetSummary summary) {
         QueryPageRow row = new QueryPageRow();
         //REVISIT: get a Path instance from drools-repository-vfs
         Path path = new PathImpl();
-        path.setUUID(assetItem.getUUID());
+        path.setUUID(summary.getUUID());
         row.setPath( path );
-        row.setFormat( assetItem.getFormat() );
-        row.setName( assetItem.getName() );
-        row.setDescription( assetItem.getDescription() );
-        row.setAbbreviatedDescription( StringUtils.abbreviate( assetItem.getDescription(),
+        row.setFormat( summary.getFormat() );
+        row.setName( summary.getName() );
+        row.setDescription( summary.getDescription() );
+        row.setAbbreviatedDescription( StringUtils.abbreviate( summary.getDescription(),
                                                                80 ) );
-        row.setPackageName( assetItem.getModuleName() );
-        row.setCreatedDate( assetItem.getCreatedDate().getTime() );
-        row.setLastModified( assetItem.getLastModified().getTime() );
+        row.setPackageName( summary.getModuleName() );
+        row.setCreatedDate( summary.getCreatedDate().getTime() );
+        row.setLastModified( summary.getLastModified().getTime() );
         return row;
     }
 
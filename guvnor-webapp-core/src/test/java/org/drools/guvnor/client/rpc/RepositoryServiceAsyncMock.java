@@ -135,6 +135,10 @@ public class RepositoryServiceAsyncMock implements RepositoryServiceAsync {
         
     }
 
+    public void loadDropDownExpressions(String[][] p0, String[] p1, AsyncCallback<String[][]> cb) {
+        
+    }
+
     public void queryFullText(QueryPageRequest p0, AsyncCallback<PageResponse<QueryPageRow>> cb) {
         
     }
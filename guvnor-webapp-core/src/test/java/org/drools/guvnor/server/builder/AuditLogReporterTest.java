@@ -0,0 +1,132 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.guvnor.server.builder;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.drools.WorkingMemory;
+import org.drools.audit.event.ActivationLogEvent;
+import org.drools.audit.event.LogEvent;
+import org.junit.Test;
+
+public class AuditLogReporterTest {
+
+    @Test
+    public void testKeepsMostRecentEvents() {
+        AuditLogReporter reporter = new AuditLogReporter(mock(WorkingMemory.class),
+                3,
+                1);
+        for (int i = 0; i < 5; i++) {
+            reporter.logEventCreated(event(LogEvent.INSERTED,
+                    "inserted " + i));
+        }
+        reporter.logEventCreated(event(LogEvent.ACTIVATION_CREATED,
+                "created"));
+
+        assertEquals(5,
+                reporter.getEventCount());
+        assertEquals(3,
+                reporter.getReportSize());
+        List<String[]> report = reporter.buildReport();
+        assertEquals("inserted 2",
+                report.get(0)[1]);
+        assertEquals("inserted 4",
+                report.get(2)[1]);
+        assertEquals(Long.valueOf(5),
+                reporter.getEventCounts().get(LogEvent.INSERTED));
+        assertEquals(Long.valueOf(1),
+                reporter.getEventCounts().get(LogEvent.ACTIVATION_CREATED));
+    }
+
+    @Test
+    public void testBuildsReportPages() {
+        AuditLogReporter reporter = new AuditLogReporter(mock(WorkingMemory.class),
+                10,
+                1);
+        for (int i = 0; i < 5; i++) {
+            reporter.logEventCreated(event(LogEvent.UPDATED,
+                    "updated " + i));
+        }
+
+        List<String[]> page = reporter.buildReport(2,
+                2);
+        assertEquals(2,
+                page.size());
+        assertEquals(String.valueOf(LogEvent.UPDATED),
+                page.get(0)[0]);
+        assertEquals("updated 2",
+                page.get(0)[1]);
+        assertEquals("updated 3",
+                page.get(1)[1]);
+        assertEquals(1,
+                reporter.buildReport(4,
+                        10).size());
+        assertEquals(0,
+                reporter.buildReport(5,
+                        10).size());
+    }
+
+    @Test
+    public void testSamplesFirings() {
+        AuditLogReporter reporter = new AuditLogReporter(mock(WorkingMemory.class),
+                100,
+                2);
+        for (int i = 0; i < 4; i++) {
+            reporter.logEventCreated(firing(LogEvent.BEFORE_ACTIVATION_FIRE,
+                    i % 2 == 0 ? "even" : "odd"));
+            reporter.logEventCreated(event(LogEvent.INSERTED,
+                    "inserted " + i));
+            reporter.logEventCreated(firing(LogEvent.AFTER_ACTIVATION_FIRE,
+                    i % 2 == 0 ? "even" : "odd"));
+        }
+
+        assertEquals(12,
+                reporter.getEventCount());
+        assertEquals(6,
+                reporter.getReportSize());
+        List<String[]> report = reporter.buildReport();
+        assertEquals("inserted 0",
+                report.get(1)[1]);
+        assertEquals("inserted 2",
+                report.get(4)[1]);
+        assertEquals(Long.valueOf(2),
+                reporter.getRuleFireCounts().get("even"));
+        assertEquals(Long.valueOf(2),
+                reporter.getRuleFireCounts().get("odd"));
+    }
+
+    private LogEvent event(int type,
+                           String text) {
+        LogEvent event = mock(LogEvent.class,
+                text);
+        when(event.getType()).thenReturn(type);
+        return event;
+    }
+
+    private ActivationLogEvent firing(int type,
+                                      String rule) {
+        ActivationLogEvent event = mock(ActivationLogEvent.class);
+        when(event.getType()).thenReturn(type);
+        when(event.getRule()).thenReturn(rule);
+        return event;
+    }
+
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.guvnor.server.cache;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class DropDownExpressionCacheTest {
+
+    private static final String COUNTING_EXPRESSION = "['@{f1}', String.valueOf(org.drools.guvnor.server.cache.DropDownExpressionCacheTest.next())]";
+
+    private static int              counter;
+
+    private long                    now;
+    private DropDownExpressionCache cache;
+
+    public static int next() {
+        return ++counter;
+    }
+
+    @Before
+    public void setUp() {
+        counter = 0;
+        now = 1000;
+        cache = new DropDownExpressionCache( 10,
+                                             100 ) {
+            @Override
+            long currentTimeMillis() {
+                return now;
+            }
+        };
+    }
+
+    @Test
+    public void testValuesAreInterpolated() {
+        String[] values = cache.load( new String[]{"f1=x", "f2=2"},
+                                      "['@{f1}', '@{f2}']" );
+        assertArrayEquals( new String[]{"x", "2"},
+                           values );
+    }
+
+    @Test
+    public void testMissingValuePair() {
+        assertEquals( 0,
+                      cache.load( new String[]{null},
+                                  "['@{f1}', '@{f2}']" ).length );
+    }
+
+    @Test
+    public void testValuesAreCachedPerBoundValues() {
+        String[] values = cache.load( new String[]{"f1=x"},
+                                      COUNTING_EXPRESSION );
+        assertArrayEquals( new String[]{"x", "1"},
+                           values );
+
+        String[] cached = cache.load( new String[]{"f1=x"},
+                                      COUNTING_EXPRESSION );
+        assertArrayEquals( values,
+                           cached );
+        assertNotSame( values,
+                       cached );
+
+        assertArrayEquals( new String[]{"y", "2"},
+                           cache.load( new String[]{"f1=y"},
+                                       COUNTING_EXPRESSION ) );
+    }
+
+    @Test
+    public void testValuesExpire() {
+        cache.load( new String[]{"f1=x"},
+                    COUNTING_EXPRESSION );
+        now += 100;
+        assertArrayEquals( new String[]{"x", "1"},
+                           cache.load( new String[]{"f1=x"},
+                                       COUNTING_EXPRESSION ) );
+        now += 1;
+        assertArrayEquals( new String[]{"x", "2"},
+                           cache.load( new String[]{"f1=x"},
+                                       COUNTING_EXPRESSION ) );
+    }
+
+    @Test
+    public void testValuesAreNotCachedWithoutTimeToLive() {
+        cache = new DropDownExpressionCache( 10,
+                                             0 );
+        cache.load( new String[]{"f1=x"},
+                    COUNTING_EXPRESSION );
+        assertArrayEquals( new String[]{"x", "2"},
+                           cache.load( new String[]{"f1=x"},
+                                       COUNTING_EXPRESSION ) );
+    }
+
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.guvnor.server.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.drools.guvnor.client.rpc.Module;
+import org.drools.repository.ModuleIterator;
+import org.drools.repository.RulesRepository;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ModuleTreeCacheTest {
+
+    private ModuleTreeCache cache;
+
+    @Before
+    public void setUp() {
+        RulesRepository repository = mock( RulesRepository.class );
+        when( repository.listModules() ).thenReturn( new ModuleIterator() );
+        cache = new ModuleTreeCache();
+        cache.build( repository );
+    }
+
+    @Test
+    public void testChangesAreIgnoredUntilBuilt() {
+        ModuleTreeCache notBuilt = new ModuleTreeCache();
+        notBuilt.moduleCreated( "uuid1",
+                                "a",
+                                null,
+                                null );
+        assertFalse( notBuilt.isBuilt() );
+        assertEquals( 0,
+                      notBuilt.listModules( false,
+                                            null ).length );
+    }
+
+    @Test
+    public void testModulesAreSortedByName() {
+        cache.moduleCreated( "uuid1",
+                             "c",
+                             null,
+                             null );
+        cache.moduleCreated( "uuid2",
+                             "a",
+                             null,
+                             null );
+        cache.moduleCreated( "uuid3",
+                             "b",
+                             null,
+                             null );
+
+        Module[] modules = cache.listModules( false,
+                                              null );
+        assertEquals( 3,
+                      modules.length );
+        assertEquals( "a",
+                      modules[0].getName() );
+        assertEquals( "b",
+                      modules[1].getName() );
+        assertEquals( "c",
+                      modules[2].getName() );
+
+        cache.moduleRenamed( "uuid2",
+                             "d" );
+        modules = cache.listModules( false,
+                                     null );
+        assertEquals( "b",
+                      modules[0].getName() );
+        assertEquals( "d",
+                      modules[2].getName() );
+        assertEquals( "uuid2",
+                      modules[2].getUuid() );
+    }
+
+    @Test
+    public void testArchiveAndRemove() {
+        cache.moduleCreated( "uuid1",
+                             "a",
+                             null,
+                             null );
+        cache.moduleCreated( "uuid2",
+                             "b",
+                             null,
+                             null );
+        cache.moduleArchived( "uuid1",
+                              true );
+
+        assertEquals( 1,
+                      cache.listModules( false,
+                                         null ).length );
+        Module[] archived = cache.listModules( true,
+                                               null );
+        assertEquals( 1,
+                      archived.length );
+        assertEquals( "a",
+                      archived[0].getName() );
+        assertTrue( archived[0].isArchived() );
+
+        cache.moduleRemoved( "uuid2" );
+        assertEquals( 0,
+                      cache.listModules( false,
+                                         null ).length );
+    }
+
+    @Test
+    public void testSubModules() {
+        cache.moduleCreated( "uuid1",
+                             "parent",
+                             null,
+                             null );
+        cache.subModuleCreated( "uuid2",
+                                "z",
+                                "parent" );
+        cache.subModuleCreated( "uuid3",
+                                "y",
+                                "parent" );
+
+        Module[] modules = cache.listModules( false,
+                                              null );
+        assertEquals( 1,
+                      modules.length );
+        assertEquals( 2,
+                      modules[0].getSubModules().length );
+        assertEquals( "y",
+                      modules[0].getSubModules()[0].getName() );
+
+        cache.moduleRemoved( "uuid1" );
+        cache.moduleRenamed( "uuid2",
+                             "x" );
+        assertEquals( 0,
+                      cache.listModules( false,
+                                         null ).length );
+    }
+
+    @Test
+    public void testWorkspaces() {
+        cache.moduleCreated( "uuid1",
+                             "a",
+                             new String[]{"ws1"},
+                             null );
+        cache.moduleCreated( "uuid2",
+                             "b",
+                             null,
+                             null );
+
+        assertEquals( 1,
+                      cache.listModules( false,
+                                         "ws1" ).length );
+        assertEquals( 0,
+                      cache.listModules( false,
+                                         "ws2" ).length );
+
+        cache.moduleWorkspacesChanged( "uuid2",
+                                       new String[]{"ws1", "ws2"} );
+        assertEquals( 2,
+                      cache.listModules( false,
+                                         "ws1" ).length );
+        assertEquals( 1,
+                      cache.listModules( false,
+                                         "ws2" ).length );
+    }
+
+}
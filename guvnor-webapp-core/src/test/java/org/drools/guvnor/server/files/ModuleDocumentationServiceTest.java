@@ -0,0 +1,195 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.guvnor.server.files;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.drools.repository.GuvnorBootstrapConfiguration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ModuleDocumentationServiceTest {
+
+    private ModuleDocumentationService service;
+
+    @Before
+    public void setUp() {
+        service = new ModuleDocumentationService();
+        service.guvnorBootstrapConfiguration = new GuvnorBootstrapConfiguration();
+        service.setup();
+    }
+
+    @After
+    public void tearDown() {
+        service.destroy();
+    }
+
+    @Test(timeout = 10000)
+    public void testRendererRunsTheRenderingQueuedBehindIt() throws Exception {
+        final File document = new File("documentation.pdf");
+        final CountDownLatch rendererStarted = new CountDownLatch(1);
+        final CountDownLatch requestQueued = new CountDownLatch(1);
+        final CountDownLatch rendererDone = new CountDownLatch(1);
+        final AtomicReference<File> rendered = new AtomicReference<File>();
+
+        //Like a snapshot being rendered, on the only renderer thread
+        service.executeAsRenderer(new Runnable() {
+            public void run() {
+                rendererStarted.countDown();
+                try {
+                    requestQueued.await();
+                    rendered.set(service.render("key",
+                            returning(new File("other.pdf"))));
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                } finally {
+                    rendererDone.countDown();
+                }
+            }
+        });
+        rendererStarted.await();
+
+        //A download of the same document, queued behind it
+        FutureTask<File> request = new FutureTask<File>(new Callable<File>() {
+            public File call() throws Exception {
+                return service.render("key",
+                        returning(document));
+            }
+        });
+        Thread requestThread = new Thread(request);
+        requestThread.start();
+        while (requestThread.getState() != Thread.State.WAITING) {
+            Thread.sleep(10);
+        }
+        requestQueued.countDown();
+
+        assertEquals(document,
+                request.get(5,
+                        TimeUnit.SECONDS));
+        assertTrue(rendererDone.await(5,
+                TimeUnit.SECONDS));
+        assertEquals(document,
+                rendered.get());
+    }
+
+    @Test(timeout = 10000)
+    public void testRequestsWaitForTheRenderingInProgress() throws Exception {
+        final CountDownLatch renderingStarted = new CountDownLatch(1);
+        final CountDownLatch finishRendering = new CountDownLatch(1);
+        final File document = new File("documentation.pdf");
+
+        FutureTask<File> first = new FutureTask<File>(new Callable<File>() {
+            public File call() throws Exception {
+                return service.render("key",
+                        new Callable<File>() {
+                            public File call() throws Exception {
+                                renderingStarted.countDown();
+                                finishRendering.await();
+                                return document;
+                            }
+                        });
+            }
+        });
+        new Thread(first).start();
+        renderingStarted.await();
+
+        FutureTask<File> second = new FutureTask<File>(new Callable<File>() {
+            public File call() throws Exception {
+                return service.render("key",
+                        returning(new File("other.pdf")));
+            }
+        });
+        Thread secondThread = new Thread(second);
+        secondThread.start();
+        while (secondThread.getState() != Thread.State.WAITING) {
+            Thread.sleep(10);
+        }
+        finishRendering.countDown();
+
+        assertEquals(document,
+                first.get());
+        assertEquals(document,
+                second.get());
+    }
+
+    @Test
+    public void testEvictedDocumentIsKeptUntilItIsClosed() throws Exception {
+        service.destroy();
+        service = new ModuleDocumentationService();
+        service.guvnorBootstrapConfiguration = new GuvnorBootstrapConfiguration();
+        service.guvnorBootstrapConfiguration.getProperties().put(ModuleDocumentationService.CACHE_SIZE_PROPERTY,
+                "1");
+        service.setup();
+
+        ModuleDocumentationService.Documentation first = service.open("first",
+                caching("first"));
+        File firstFile = first.getFile();
+
+        //Only one document is cached, so the first one is evicted while it is being read
+        ModuleDocumentationService.Documentation second = service.open("second",
+                caching("second"));
+        second.close();
+        assertTrue(firstFile.isFile());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        first.writeTo(out);
+        assertEquals("first",
+                out.toString("UTF-8"));
+
+        first.close();
+        assertFalse(firstFile.exists());
+        assertTrue(second.getFile().isFile());
+    }
+
+    private Callable<File> caching(final String key) {
+        return new Callable<File>() {
+            public File call() throws Exception {
+                File document = File.createTempFile(key,
+                        ".pdf");
+                FileOutputStream out = new FileOutputStream(document);
+                try {
+                    out.write(key.getBytes("UTF-8"));
+                } finally {
+                    out.close();
+                }
+                service.cache(key,
+                        document);
+                return document;
+            }
+        };
+    }
+
+    private static Callable<File> returning(final File document) {
+        return new Callable<File>() {
+            public File call() {
+                return document;
+            }
+        };
+    }
+
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.guvnor.server.jaxrs;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.drools.repository.AssetItem;
+import org.drools.repository.utils.IOUtils;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class AssetExportTest {
+
+    @Test
+    public void testWriteZip() throws Exception {
+        AssetItem drl = mockAsset( "rule1",
+                                   "drl",
+                                   "rule \"rule1\" when then end" );
+        AssetItem jar = mockAsset( "model",
+                                   "jar",
+                                   null );
+        when( jar.isBinary() ).thenReturn( true );
+        when( jar.getBinaryContentAsBytes() ).thenReturn( new byte[]{1, 2, 3} );
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new AssetExport( Arrays.asList( drl,
+                                        jar ).iterator(),
+                         true ).write( out );
+
+        ZipInputStream zin = new ZipInputStream( new ByteArrayInputStream( out.toByteArray() ) );
+        ZipEntry entry = zin.getNextEntry();
+        assertEquals( "rule1.drl",
+                      entry.getName() );
+        assertEquals( "rule \"rule1\" when then end",
+                      new String( IOUtils.toByteArray( zin ),
+                                  "UTF-8" ) );
+        entry = zin.getNextEntry();
+        assertEquals( "model.jar",
+                      entry.getName() );
+        assertArrayEquals( new byte[]{1, 2, 3},
+                           IOUtils.toByteArray( zin ) );
+        assertNull( zin.getNextEntry() );
+    }
+
+    @Test
+    public void testWriteJson() throws Exception {
+        AssetItem drl = mockAsset( "rule1",
+                                   "drl",
+                                   "rule \"rule1\"\n\twhen then end" );
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new AssetExport( Arrays.asList( drl,
+                                        drl ).iterator(),
+                         false ).write( out );
+
+        String line = "{\"name\":\"rule1\",\"format\":\"drl\",\"uuid\":\"uuid-rule1\",\"version\":3,"
+                      + "\"content\":\"rule \\\"rule1\\\"\\n\\twhen then end\"}\n";
+        assertEquals( line + line,
+                      out.toString( "UTF-8" ) );
+    }
+
+    @Test
+    public void testWriteString() throws Exception {
+        StringWriter writer = new StringWriter();
+        AssetExport.writeString( writer,
+                                 "a\\b\u0001" );
+        assertEquals( "\"a\\\\b\\u0001\"",
+                      writer.toString() );
+
+        writer = new StringWriter();
+        AssetExport.writeString( writer,
+                                 null );
+        assertEquals( "null",
+                      writer.toString() );
+    }
+
+    private AssetItem mockAsset(String name,
+                                String format,
+                                String content) {
+        AssetItem asset = mock( AssetItem.class );
+        when( asset.getName() ).thenReturn( name );
+        when( asset.getFormat() ).thenReturn( format );
+        when( asset.getUUID() ).thenReturn( "uuid-" + name );
+        when( asset.getVersionNumber() ).thenReturn( 3L );
+        when( asset.getContent() ).thenReturn( content );
+        return asset;
+    }
+}
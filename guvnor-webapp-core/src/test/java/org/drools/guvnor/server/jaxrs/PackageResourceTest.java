@@ -0,0 +1,192 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.drools.guvnor.server.jaxrs;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+import javax.jcr.Session;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.UriInfo;
+
+import org.drools.guvnor.client.rpc.AssetService;
+import org.drools.guvnor.client.rpc.Path;
+import org.drools.guvnor.server.jaxrs.jaxb.Asset;
+import org.drools.guvnor.server.jaxrs.jaxb.AssetBatch;
+import org.drools.guvnor.server.jaxrs.jaxb.AssetOperation;
+import org.drools.guvnor.server.repository.ModuleRebuildService;
+import org.drools.repository.AssetItem;
+import org.drools.repository.ModuleItem;
+import org.drools.repository.RulesRepository;
+import org.drools.repository.utils.AssetValidator;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class PackageResourceTest {
+
+    private RulesRepository rulesRepository;
+    private AssetService assetService;
+    private ModuleRebuildService moduleRebuildService;
+    private ModuleItem module;
+    private PackageResource resource;
+
+    @Before
+    public void setUp() throws Exception {
+        rulesRepository = mock( RulesRepository.class );
+        assetService = mock( AssetService.class );
+        moduleRebuildService = mock( ModuleRebuildService.class );
+        module = mock( ModuleItem.class );
+        when( rulesRepository.containsModule( "pkg" ) ).thenReturn( true );
+        when( rulesRepository.loadModule( "pkg" ) ).thenReturn( module );
+        when( rulesRepository.getSession() ).thenReturn( mock( Session.class ) );
+
+        resource = new PackageResource();
+        resource.inject( null,
+                         null,
+                         assetService,
+                         null,
+                         null,
+                         rulesRepository,
+                         null,
+                         mock( AssetValidator.class ) );
+        resource.uriInfo = mock( UriInfo.class,
+                                 RETURNS_DEEP_STUBS );
+        resource.setModuleRebuildServiceForTest( moduleRebuildService );
+    }
+
+    @Test
+    public void testApplyAssetBatch() throws Exception {
+        AssetItem created = mockAsset( "created" );
+        AssetItem updated = mockAsset( "updated" );
+        AssetItem deleted = mockAsset( "deleted" );
+        when( module.addAsset( "created",
+                               "",
+                               null,
+                               "drl" ) ).thenReturn( created );
+
+        Collection<Asset> result = resource.applyAssetBatch( "pkg",
+                                                             batch( operation( AssetOperation.CREATE,
+                                                                               "created" ),
+                                                                    operation( AssetOperation.UPDATE,
+                                                                               "updated" ),
+                                                                    operation( AssetOperation.DELETE,
+                                                                               "deleted" ) ) );
+        assertEquals( 2,
+                      result.size() );
+
+        //Both check-ins share one save, which comes before the delete
+        InOrder inOrder = inOrder( created,
+                                   updated,
+                                   rulesRepository,
+                                   assetService,
+                                   moduleRebuildService );
+        inOrder.verify( created ).prepareCheckin( "comment" );
+        inOrder.verify( updated ).prepareCheckin( "comment" );
+        inOrder.verify( rulesRepository ).save();
+        inOrder.verify( created ).completeCheckin();
+        inOrder.verify( updated ).completeCheckin();
+        ArgumentCaptor<Path> path = ArgumentCaptor.forClass( Path.class );
+        inOrder.verify( assetService ).removeAsset( path.capture() );
+        inOrder.verify( moduleRebuildService ).moduleChanged( module );
+        assertEquals( deleted.getUUID(),
+                      path.getValue().getUUID() );
+
+        verify( rulesRepository,
+                times( 1 ) ).save();
+        verify( created,
+                never() ).checkin( anyString() );
+        verify( updated,
+                never() ).checkin( anyString() );
+        verify( deleted,
+                never() ).remove();
+        verify( rulesRepository.getSession(),
+                never() ).refresh( anyBoolean() );
+    }
+
+    @Test
+    public void testApplyAssetBatchFailingPartway() throws Exception {
+        AssetItem created = mockAsset( "created" );
+        AssetItem updated = mockAsset( "updated" );
+        mockAsset( "deleted" );
+        when( module.addAsset( "created",
+                               "",
+                               null,
+                               "drl" ) ).thenReturn( created );
+        doThrow( new RuntimeException( "Boom" ) ).when( updated ).updateContent( anyString() );
+
+        try {
+            resource.applyAssetBatch( "pkg",
+                                      batch( operation( AssetOperation.CREATE,
+                                                        "created" ),
+                                             operation( AssetOperation.DELETE,
+                                                        "deleted" ),
+                                             operation( AssetOperation.UPDATE,
+                                                        "updated" ) ) );
+            fail( "The batch should have failed" );
+        } catch ( WebApplicationException e ) {
+            assertEquals( "Boom",
+                          e.getCause().getMessage() );
+        }
+
+        //What was done before the failure is kept, the rest is thrown away
+        verify( created ).completeCheckin();
+        verify( assetService ).removeAsset( any( Path.class ) );
+        verify( updated,
+                never() ).prepareCheckin( anyString() );
+        verify( updated,
+                never() ).completeCheckin();
+        verify( rulesRepository.getSession() ).refresh( false );
+
+        //The module still has to be rebuilt for the changes that were made
+        verify( moduleRebuildService ).moduleChanged( module );
+    }
+
+    private AssetItem mockAsset(String name) {
+        AssetItem asset = mock( AssetItem.class,
+                                RETURNS_DEEP_STUBS );
+        when( asset.getName() ).thenReturn( name );
+        when( asset.getUUID() ).thenReturn( "uuid-" + name );
+        when( asset.getFormat() ).thenReturn( "drl" );
+        when( module.containsAsset( name ) ).thenReturn( !"created".equals( name ) );
+        when( module.loadAsset( name ) ).thenReturn( asset );
+        return asset;
+    }
+
+    private AssetOperation operation(String action,
+                                     String name) {
+        AssetOperation operation = new AssetOperation();
+        operation.setAction( action );
+        operation.setName( name );
+        operation.setFormat( "drl" );
+        operation.setContent( "rule \"" + name + "\" when then end" );
+        operation.setCheckInComment( "comment" );
+        return operation;
+    }
+
+    private AssetBatch batch(AssetOperation... operations) {
+        AssetBatch batch = new AssetBatch();
+        batch.setOperations( Arrays.asList( operations ) );
+        return batch;
+    }
+
+}
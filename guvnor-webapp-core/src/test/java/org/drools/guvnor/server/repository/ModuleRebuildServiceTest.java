@@ -0,0 +1,277 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.guvnor.server.repository;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.drools.repository.GuvnorBootstrapConfiguration;
+import org.drools.repository.ModuleItem;
+import org.drools.repository.RulesRepository;
+import org.drools.repository.RulesRepositoryException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ModuleRebuildServiceTest {
+
+    private static final long QUIET_PERIOD = 50;
+    private static final long TIMEOUT = 5000;
+    private static final String MODULE = "module-uuid";
+
+    private RecordingRebuildService service;
+
+    @Before
+    public void setUp() {
+        service = new RecordingRebuildService();
+        service.guvnorBootstrapConfiguration = new GuvnorBootstrapConfiguration();
+        service.guvnorBootstrapConfiguration.getProperties().put(ModuleRebuildService.ENABLED_PROPERTY,
+                "true");
+        service.guvnorBootstrapConfiguration.getProperties().put(ModuleRebuildService.QUIET_PERIOD_PROPERTY,
+                String.valueOf(QUIET_PERIOD));
+        service.setup();
+    }
+
+    @After
+    public void tearDown() {
+        service.destroy();
+    }
+
+    @Test
+    public void testDisabledByDefault() {
+        ModuleRebuildService disabled = new RecordingRebuildService();
+        disabled.guvnorBootstrapConfiguration = new GuvnorBootstrapConfiguration();
+        disabled.setup();
+
+        assertFalse(disabled.isEnabled());
+        change(disabled);
+        assertFalse(disabled.isRebuildPending(MODULE));
+    }
+
+    @Test
+    public void testRepeatedChangesAreRebuiltOnce() throws InterruptedException {
+        for (int i = 0; i < 5; i++) {
+            change(service);
+        }
+        assertTrue(service.isRebuildPending(MODULE));
+
+        assertEquals(MODULE,
+                service.started.poll(TIMEOUT,
+                        TimeUnit.MILLISECONDS));
+        assertTrue(service.finished.poll(TIMEOUT,
+                TimeUnit.MILLISECONDS));
+        assertNoMoreRebuilds();
+        assertRebuildDone();
+    }
+
+    @Test
+    public void testChangeDuringRebuildIsRebuiltAgain() throws InterruptedException {
+        service.proceed.drainPermits();
+        change(service);
+        assertEquals(MODULE,
+                service.started.poll(TIMEOUT,
+                        TimeUnit.MILLISECONDS));
+
+        change(service);
+        service.proceed.release();
+
+        //What was built may not have the second change, so it must not be marked up to date
+        assertFalse(service.finished.poll(TIMEOUT,
+                TimeUnit.MILLISECONDS));
+        assertTrue(service.isRebuildPending(MODULE));
+
+        service.proceed.release();
+        assertEquals(MODULE,
+                service.started.poll(TIMEOUT,
+                        TimeUnit.MILLISECONDS));
+        assertTrue(service.finished.poll(TIMEOUT,
+                TimeUnit.MILLISECONDS));
+        assertNoMoreRebuilds();
+        assertRebuildDone();
+    }
+
+    @Test
+    public void testChangeInProgressWhenRebuildEndsIsRebuiltAfterItIsDone() throws InterruptedException {
+        service.proceed.drainPermits();
+        change(service);
+        assertEquals(MODULE,
+                service.started.poll(TIMEOUT,
+                        TimeUnit.MILLISECONDS));
+
+        service.changeStarted(MODULE);
+        service.proceed.release();
+        assertFalse(service.finished.poll(TIMEOUT,
+                TimeUnit.MILLISECONDS));
+
+        //Not rebuilt again until the change is done
+        assertNoMoreRebuilds();
+        assertTrue(service.isRebuildPending(MODULE));
+
+        service.proceed.release();
+        service.changeFinished(MODULE);
+        assertEquals(MODULE,
+                service.started.poll(TIMEOUT,
+                        TimeUnit.MILLISECONDS));
+        assertTrue(service.finished.poll(TIMEOUT,
+                TimeUnit.MILLISECONDS));
+        assertRebuildDone();
+    }
+
+    @Test
+    public void testFailedRebuildIsDroppedAndRetriedOnNextChange() throws InterruptedException {
+        service.failure = new IllegalStateException("Expected by the test");
+        change(service);
+        assertEquals(MODULE,
+                service.started.poll(TIMEOUT,
+                        TimeUnit.MILLISECONDS));
+        assertRebuildDone();
+        assertNull(service.finished.poll());
+
+        service.failure = null;
+        change(service);
+        assertEquals(MODULE,
+                service.started.poll(TIMEOUT,
+                        TimeUnit.MILLISECONDS));
+        assertTrue(service.finished.poll(TIMEOUT,
+                TimeUnit.MILLISECONDS));
+        assertRebuildDone();
+    }
+
+    @Test
+    public void testModuleChangedMarksBinaryOutOfDate() throws InterruptedException {
+        RulesRepository repository = mock(RulesRepository.class);
+        ModuleItem module = newModule(repository);
+
+        service.moduleChanged(module);
+
+        verify(module).updateBinaryUpToDate(false);
+        verify(repository).save();
+        assertTrue(service.isRebuildPending(MODULE));
+        assertEquals(MODULE,
+                service.started.poll(TIMEOUT,
+                        TimeUnit.MILLISECONDS));
+        assertTrue(service.finished.poll(TIMEOUT,
+                TimeUnit.MILLISECONDS));
+        assertRebuildDone();
+    }
+
+    @Test
+    public void testModuleChangedOutsideCheckinDuringRebuildIsRebuiltAgain() throws InterruptedException {
+        service.proceed.drainPermits();
+        change(service);
+        assertEquals(MODULE,
+                service.started.poll(TIMEOUT,
+                        TimeUnit.MILLISECONDS));
+
+        //Such as an asset being archived or deleted, or the module itself being saved
+        service.moduleChanged(newModule(mock(RulesRepository.class)));
+        service.proceed.release();
+        assertFalse(service.finished.poll(TIMEOUT,
+                TimeUnit.MILLISECONDS));
+
+        service.proceed.release();
+        assertEquals(MODULE,
+                service.started.poll(TIMEOUT,
+                        TimeUnit.MILLISECONDS));
+        assertTrue(service.finished.poll(TIMEOUT,
+                TimeUnit.MILLISECONDS));
+        assertRebuildDone();
+    }
+
+    @Test
+    public void testModuleChangedThatFailsToSaveIsStillRebuilt() throws InterruptedException {
+        RulesRepository repository = mock(RulesRepository.class);
+        doThrow(new RulesRepositoryException("Expected by the test")).when(repository).save();
+
+        try {
+            service.moduleChanged(newModule(repository));
+            fail("The save should have failed");
+        } catch (RulesRepositoryException e) {
+            //Expected
+        }
+
+        assertEquals(MODULE,
+                service.started.poll(TIMEOUT,
+                        TimeUnit.MILLISECONDS));
+        assertTrue(service.finished.poll(TIMEOUT,
+                TimeUnit.MILLISECONDS));
+        assertRebuildDone();
+    }
+
+    private void change(ModuleRebuildService service) {
+        service.changeStarted(MODULE);
+        service.changeFinished(MODULE);
+    }
+
+    private ModuleItem newModule(RulesRepository repository) {
+        ModuleItem module = mock(ModuleItem.class);
+        when(module.getUUID()).thenReturn(MODULE);
+        when(module.getRulesRepository()).thenReturn(repository);
+        return module;
+    }
+
+    private void assertNoMoreRebuilds() throws InterruptedException {
+        assertNull(service.started.poll(QUIET_PERIOD * 4,
+                TimeUnit.MILLISECONDS));
+    }
+
+    private void assertRebuildDone() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT;
+        while (service.isRebuildPending(MODULE) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertFalse(service.isRebuildPending(MODULE));
+    }
+
+    /**
+     * Records the rebuilds instead of building the module, and whether each one would have marked the binary up to
+     * date.
+     */
+    private static class RecordingRebuildService extends ModuleRebuildService {
+
+        private final BlockingQueue<String> started = new LinkedBlockingQueue<String>();
+        private final BlockingQueue<Boolean> finished = new LinkedBlockingQueue<Boolean>();
+        private final Semaphore proceed = new Semaphore(Integer.MAX_VALUE / 2);
+        private volatile RuntimeException failure;
+
+        @Override
+        void rebuild(String moduleUUID,
+                     int changes) {
+            started.add(moduleUUID);
+            proceed.acquireUninterruptibly();
+            if (failure != null) {
+                throw failure;
+            }
+            finished.add(isUnchanged(moduleUUID,
+                    changes));
+        }
+
+    }
+
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.guvnor.server.selector;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RuleBasedSelectorTest {
+
+    @Test
+    public void testAssetItemRulesAreNotBulkEvaluated() {
+        RuleBasedSelector sel = new RuleBasedSelector( "TestSelector.drl" );
+        assertFalse( sel.isBulkEvaluation() );
+    }
+
+    @Test
+    public void testRulesWithoutAssetMetadataPatternsAreNotBulkEvaluated() {
+        RuleBasedSelector sel = new RuleBasedSelector( "TestNoFactSelector.drl" );
+        assertFalse( sel.isBulkEvaluation() );
+    }
+
+    @Test
+    public void testBulkEvaluation() {
+        RuleBasedSelector sel = new RuleBasedSelector( "TestBulkSelector.drl" );
+        assertTrue( sel.isBulkEvaluation() );
+
+        List<AssetMetadata> assets = new ArrayList<AssetMetadata>();
+        assets.add( metadata( "uuid1", "Draft" ) );
+        assets.add( metadata( "uuid2", "Approved" ) );
+        assets.add( metadata( "uuid3", "Draft" ) );
+        assets.add( metadata( "uuid4", "Production" ) );
+
+        Set<String> allowed = sel.evalBulkRules( assets );
+        assertEquals( 2, allowed.size() );
+        assertTrue( allowed.contains( "uuid2" ) );
+        assertTrue( allowed.contains( "uuid4" ) );
+    }
+
+    @Test
+    public void testBulkEvaluationWithNoAssets() {
+        RuleBasedSelector sel = new RuleBasedSelector( "TestBulkSelector.drl" );
+        assertTrue( sel.evalBulkRules( Collections.<AssetMetadata> emptyList() ).isEmpty() );
+    }
+
+    private AssetMetadata metadata(String uuid,
+                                   String state) {
+        return new AssetMetadata( uuid,
+                                  "name-" + uuid,
+                                  "drl",
+                                  state,
+                                  "admin",
+                                  Calendar.getInstance(),
+                                  Calendar.getInstance(),
+                                  Collections.<String> emptyList() );
+    }
+
+}
@@ -24,6 +24,7 @@ import java.util.GregorianCalendar;
 
 import org.drools.guvnor.client.rpc.AssetPageRow;
 import org.drools.repository.AssetItem;
+import org.drools.repository.AssetSummary;
 import org.junit.Test;
 
 public class AssetPageRowPopulatorTest {
@@ -31,7 +32,7 @@ public class AssetPageRowPopulatorTest {
     @Test
     public void testPopulateFrom() {
     
-            AssetItem assetItem = mock( AssetItem.class );
+            AssetSummary assetItem = mock( AssetSummary.class );
             Calendar calendar = GregorianCalendar.getInstance();
             calendar.add( Calendar.MONTH,
                           -1 );
@@ -48,8 +49,10 @@ public class AssetPageRowPopulatorTest {
             when( assetItem.getLastModified() ).thenReturn( lastModifiedCalendar );
             when( assetItem.getCategorySummary() ).thenReturn( "categorysummary" );
             when( assetItem.getExternalSource() ).thenReturn( "externalsource" );
+            AssetItem item = mock( AssetItem.class );
+            when( item.getSummary() ).thenReturn( assetItem );
             AssetPageRowPopulator assetPageRowPopulator = new AssetPageRowPopulator();
-            AssetPageRow makeAssetPageRow = assetPageRowPopulator.populateFrom( assetItem );
+            AssetPageRow makeAssetPageRow = assetPageRowPopulator.populateFrom( item );
             assertEquals( makeAssetPageRow.getPath().getUUID(),
                           assetItem.getUUID() );
             assertEquals( makeAssetPageRow.getFormat(),
@@ -22,6 +22,7 @@ import org.junit.Test;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 public class LoggingHelperTest  {
 
@@ -83,4 +84,78 @@ public class LoggingHelperTest  {
 
     }
 
+    @Test
+    public void testMessagesAreOldestFirst() throws Exception {
+        MessageList ml = new MessageList(3,
+                Long.MAX_VALUE);
+        for (int i = 0; i < 5; i++) {
+            ml.add("entry " + i,
+                    1);
+        }
+
+        LogEntry[] results = ml.getMessages();
+        assertEquals(3,
+                results.length);
+        assertEquals("entry 2",
+                results[0].message);
+        assertEquals("entry 4",
+                results[2].message);
+
+        ml.cleanEntry();
+        assertEquals(0,
+                ml.getMessages().length);
+        ml.add("entry 5",
+                1);
+        assertEquals("entry 5",
+                ml.getMessages()[0].message);
+    }
+
+    @Test
+    public void testFilteredMessages() throws Exception {
+        MessageList ml = new MessageList(10,
+                Long.MAX_VALUE);
+        ml.add("built",
+                1,
+                "PackageAssembler",
+                "uuid1");
+        ml.add("failed",
+                0,
+                "PackageAssembler",
+                "uuid2");
+        ml.add("saved",
+                1,
+                "ServiceImplementation",
+                null);
+
+        assertEquals(1,
+                ml.getMessages(0,
+                        null,
+                        null).length);
+        assertEquals(2,
+                ml.getMessages(null,
+                        "PackageAssembler",
+                        null).length);
+        LogEntry[] results = ml.getMessages(1,
+                "PackageAssembler",
+                "uuid1");
+        assertEquals(1,
+                results.length);
+        assertEquals("built",
+                results[0].message);
+    }
+
+    @Test
+    public void testMessagesAreCappedInBytes() throws Exception {
+        MessageList ml = new MessageList(100,
+                1000);
+        for (int i = 0; i < 100; i++) {
+            ml.add("a message of about fifty characters, give or take",
+                    1);
+        }
+
+        LogEntry[] results = ml.getMessages();
+        assertTrue(results.length > 0);
+        assertTrue(results.length < 10);
+    }
+
 }
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.guvnor.client.asseteditor.drools.modeldriven.ui;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.drools.guvnor.client.common.GenericCallback;
+import org.drools.guvnor.client.rpc.RepositoryService;
+import org.drools.guvnor.client.rpc.RepositoryServiceAsync;
+
+import com.google.gwt.core.client.GWT;
+import com.google.gwt.core.client.Scheduler;
+import com.google.gwt.core.client.Scheduler.ScheduledCommand;
+import com.google.gwt.user.client.rpc.AsyncCallback;
+
+/**
+ * Loads the values of drop downs from their enumeration expressions. The drop
+ * downs asked for in the same event loop (such as all those of an editor that
+ * is being opened) are loaded with a single call to the server.
+ */
+public class DropDownExpressionLoader {
+
+    private static final List<Request> pending = new ArrayList<Request>();
+
+    private DropDownExpressionLoader() {
+    }
+
+    public static void load(final String[] valuePairs,
+                            final String expression,
+                            final AsyncCallback<String[]> callback) {
+        if ( pending.isEmpty() ) {
+            Scheduler.get().scheduleDeferred( new ScheduledCommand() {
+                public void execute() {
+                    flush();
+                }
+            } );
+        }
+        pending.add( new Request( valuePairs,
+                                  expression,
+                                  callback ) );
+    }
+
+    private static void flush() {
+        final List<Request> requests = new ArrayList<Request>( pending );
+        pending.clear();
+
+        String[][] valuePairs = new String[requests.size()][];
+        String[] expressions = new String[requests.size()];
+        for ( int i = 0; i < requests.size(); i++ ) {
+            valuePairs[i] = requests.get( i ).valuePairs;
+            expressions[i] = requests.get( i ).expression;
+        }
+
+        RepositoryServiceAsync repositoryService = GWT.create( RepositoryService.class );
+        repositoryService.loadDropDownExpressions( valuePairs,
+                                                   expressions,
+                                                   new GenericCallback<String[][]>() {
+                                                       public void onSuccess(String[][] data) {
+                                                           for ( int i = 0; i < requests.size(); i++ ) {
+                                                               requests.get( i ).callback.onSuccess( data[i] == null ? new String[0] : data[i] );
+                                                           }
+                                                       }
+
+                                                       public void onFailure(Throwable t) {
+                                                           for ( Request request : requests ) {
+                                                               request.callback.onFailure( t );
+                                                           }
+                                                       }
+                                                   } );
+    }
+
+    private static class Request {
+
+        private final String[]                valuePairs;
+        private final String                  expression;
+        private final AsyncCallback<String[]> callback;
+
+        private Request(String[] valuePairs,
+                        String expression,
+                        AsyncCallback<String[]> callback) {
+            this.valuePairs = valuePairs;
+            this.expression = expression;
+            this.callback = callback;
+        }
+
+    }
+
+}
@@ -20,7 +20,12 @@ import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 
 import org.drools.guvnor.client.decisiontable.analysis.action.ActionDetector;
 import org.drools.guvnor.client.decisiontable.analysis.action.ActionDetectorKey;
@@ -47,6 +52,7 @@ import org.drools.ide.common.client.modeldriven.dt52.ActionCol52;
 import org.drools.ide.common.client.modeldriven.dt52.ActionInsertFactCol52;
 import org.drools.ide.common.client.modeldriven.dt52.ActionSetFieldCol52;
 import org.drools.ide.common.client.modeldriven.dt52.Analysis;
+import org.drools.ide.common.client.modeldriven.dt52.BaseColumn;
 import org.drools.ide.common.client.modeldriven.dt52.BRLActionColumn;
 import org.drools.ide.common.client.modeldriven.dt52.ConditionCol52;
 import org.drools.ide.common.client.modeldriven.dt52.DTCellValue52;
@@ -54,56 +60,157 @@ import org.drools.ide.common.client.modeldriven.dt52.GuidedDecisionTable52;
 import org.drools.ide.common.client.modeldriven.dt52.LimitedEntryCol;
 import org.drools.ide.common.client.modeldriven.dt52.Pattern52;
 
+/**
+ * Analyses the rows of a decision table for impossible matches, conflicts and duplicates.
+ * Rows are indexed so each row is only compared with the rows it can conflict with. Once
+ * prepared, rows can be analysed individually and re-analysed following a change to their
+ * values.
+ */
 public class DecisionTableAnalyzer {
 
     private SuggestionCompletionEngine sce;
 
+    private List<BaseColumn>           expandedColumns;
+    private List<List<DTCellValue52>>  rows;
+    private Map<BaseColumn, Integer>   columnIndexes;
+    private List<RowDetector>          rowDetectorList;
+    private RowDetectorIndex           rowDetectorIndex;
+
     public DecisionTableAnalyzer(SuggestionCompletionEngine sce) {
         this.sce = sce;
     }
 
-    @SuppressWarnings("rawtypes")
     public List<Analysis> analyze(GuidedDecisionTable52 model) {
+        prepare( model );
+        List<Analysis> analysisData = new ArrayList<Analysis>( rowDetectorList.size() );
+        for ( int iRow = 0; iRow < rowDetectorList.size(); iRow++ ) {
+            analysisData.add( analyzeRow( iRow ) );
+        }
+        return analysisData;
+    }
+
+    /**
+     * Build the detectors for every row of the table and index them. Rows can
+     * then be analysed individually with {@link #analyzeRow(int)}.
+     * 
+     * @param model
+     */
+    public void prepare(GuidedDecisionTable52 model) {
+        expandedColumns = model.getExpandedColumns();
+        columnIndexes = new HashMap<BaseColumn, Integer>( expandedColumns.size() );
+        for ( int iCol = 0; iCol < expandedColumns.size(); iCol++ ) {
+            BaseColumn column = expandedColumns.get( iCol );
+            if ( !columnIndexes.containsKey( column ) ) {
+                columnIndexes.put( column,
+                                   iCol );
+            }
+        }
+
         List<List<DTCellValue52>> data = model.getData();
-        List<Analysis> analysisData = new ArrayList<Analysis>( data.size() );
-        List<RowDetector> rowDetectorList = new ArrayList<RowDetector>( data.size() );
+        rows = new ArrayList<List<DTCellValue52>>( data );
+        rowDetectorList = new ArrayList<RowDetector>( data.size() );
         for ( List<DTCellValue52> row : data ) {
-            final Integer rowNumber = ((Integer) row.get( 0 ).getNumericValue()) - 1;
-            RowDetector rowDetector = new RowDetector( rowNumber );
-            for ( Pattern52 pattern : model.getPatterns() ) {
-                for ( ConditionCol52 conditionCol : pattern.getChildColumns() ) {
-                    int columnIndex = model.getExpandedColumns().indexOf( conditionCol );
-                    DTCellValue52 visibleCellValue = row.get( columnIndex );
-                    DTCellValue52 realCellValue;
-                    boolean cellIsNotBlank;
-                    if ( conditionCol instanceof LimitedEntryCol ) {
-                        realCellValue = ((LimitedEntryCol) conditionCol).getValue();
-                        cellIsNotBlank = visibleCellValue.getBooleanValue();
-                    } else {
-                        realCellValue = visibleCellValue;
-                        cellIsNotBlank = visibleCellValue.hasValue();
-                    }
-                    // Blank cells are ignored
-                    if ( cellIsNotBlank ) {
-                        ConditionDetector conditionDetector = buildConditionDetector( model,
-                                                                                      pattern,
-                                                                                      conditionCol,
-                                                                                      realCellValue );
-                        rowDetector.putOrMergeConditionDetector( conditionDetector );
-                    }
-                }
+            rowDetectorList.add( buildRowDetector( model,
+                                                   row ) );
+        }
+        rowDetectorIndex = new RowDetectorIndex( rowDetectorList );
+    }
+
+    /**
+     * @return The number of rows prepared for analysis
+     */
+    public int getRowCount() {
+        return rowDetectorList == null ? 0 : rowDetectorList.size();
+    }
+
+    /**
+     * Analyse a single row of a prepared table
+     * 
+     * @param rowIndex
+     * @return
+     */
+    public Analysis analyzeRow(int rowIndex) {
+        RowDetector rowDetector = rowDetectorList.get( rowIndex );
+        return rowDetector.buildAnalysis( rowDetectorIndex.getCandidates( rowDetector ) );
+    }
+
+    /**
+     * Re-build the detectors of rows of a prepared table following changes to
+     * their values.
+     * 
+     * @param model
+     * @param rowIndexes
+     *            The rows that have changed
+     * @return The rows whose analysis may have changed, in row order, or null
+     *         if the columns or the rows have changed since the table was
+     *         prepared; in which case it needs to be prepared again.
+     */
+    public Set<Integer> updateRows(GuidedDecisionTable52 model,
+                                   Collection<Integer> rowIndexes) {
+        if ( !isPrepared( model ) ) {
+            return null;
+        }
+
+        //Rows that could conflict with the old values
+        Set<Integer> affectedRowIndexes = new TreeSet<Integer>( rowIndexes );
+        for ( Integer iRow : rowIndexes ) {
+            for ( RowDetector rowDetector : rowDetectorIndex.getCandidates( rowDetectorList.get( iRow ) ) ) {
+                affectedRowIndexes.add( rowDetectorIndex.indexOf( rowDetector ) );
             }
-            for ( ActionCol52 actionCol : model.getActionCols() ) {
-                //BRLActionColumns cannot be analysed
-                if ( actionCol instanceof BRLActionColumn ) {
-                    continue;
-                }
-                int columnIndex = model.getExpandedColumns().indexOf( actionCol );
+        }
+
+        for ( Integer iRow : rowIndexes ) {
+            rowDetectorList.set( iRow,
+                                 buildRowDetector( model,
+                                                   model.getData().get( iRow ) ) );
+        }
+        rowDetectorIndex = new RowDetectorIndex( rowDetectorList );
+
+        //Rows that could conflict with the new values
+        for ( Integer iRow : rowIndexes ) {
+            for ( RowDetector rowDetector : rowDetectorIndex.getCandidates( rowDetectorList.get( iRow ) ) ) {
+                affectedRowIndexes.add( rowDetectorIndex.indexOf( rowDetector ) );
+            }
+        }
+        return affectedRowIndexes;
+    }
+
+    private boolean isPrepared(GuidedDecisionTable52 model) {
+        //Rows that have been added, removed or moved are different rows at the same index
+        List<List<DTCellValue52>> data = model.getData();
+        if ( rows == null || rows.size() != data.size() ) {
+            return false;
+        }
+        for ( int iRow = 0; iRow < data.size(); iRow++ ) {
+            if ( data.get( iRow ) != rows.get( iRow ) ) {
+                return false;
+            }
+        }
+        List<BaseColumn> columns = model.getExpandedColumns();
+        if ( columns.size() != expandedColumns.size() ) {
+            return false;
+        }
+        for ( int iCol = 0; iCol < columns.size(); iCol++ ) {
+            if ( columns.get( iCol ) != expandedColumns.get( iCol ) ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @SuppressWarnings("rawtypes")
+    private RowDetector buildRowDetector(GuidedDecisionTable52 model,
+                                         List<DTCellValue52> row) {
+        final Integer rowNumber = ((Integer) row.get( 0 ).getNumericValue()) - 1;
+        RowDetector rowDetector = new RowDetector( rowNumber );
+        for ( Pattern52 pattern : model.getPatterns() ) {
+            for ( ConditionCol52 conditionCol : pattern.getChildColumns() ) {
+                int columnIndex = columnIndexes.get( conditionCol );
                 DTCellValue52 visibleCellValue = row.get( columnIndex );
                 DTCellValue52 realCellValue;
                 boolean cellIsNotBlank;
-                if ( actionCol instanceof LimitedEntryCol ) {
-                    realCellValue = ((LimitedEntryCol) actionCol).getValue();
+                if ( conditionCol instanceof LimitedEntryCol ) {
+                    realCellValue = ((LimitedEntryCol) conditionCol).getValue();
                     cellIsNotBlank = visibleCellValue.getBooleanValue();
                 } else {
                     realCellValue = visibleCellValue;
@@ -111,18 +218,39 @@ public class DecisionTableAnalyzer {
                 }
                 // Blank cells are ignored
                 if ( cellIsNotBlank ) {
-                    ActionDetector actionDetector = buildActionDetector( model,
-                                                                         actionCol,
-                                                                         realCellValue );
-                    rowDetector.putOrMergeActionDetector( actionDetector );
+                    ConditionDetector conditionDetector = buildConditionDetector( model,
+                                                                                  pattern,
+                                                                                  conditionCol,
+                                                                                  realCellValue );
+                    rowDetector.putOrMergeConditionDetector( conditionDetector );
                 }
             }
-            rowDetectorList.add( rowDetector );
         }
-        for ( RowDetector rowDetector : rowDetectorList ) {
-            analysisData.add( rowDetector.buildAnalysis( rowDetectorList ) );
+        for ( ActionCol52 actionCol : model.getActionCols() ) {
+            //BRLActionColumns cannot be analysed
+            if ( actionCol instanceof BRLActionColumn ) {
+                continue;
+            }
+            int columnIndex = columnIndexes.get( actionCol );
+            DTCellValue52 visibleCellValue = row.get( columnIndex );
+            DTCellValue52 realCellValue;
+            boolean cellIsNotBlank;
+            if ( actionCol instanceof LimitedEntryCol ) {
+                realCellValue = ((LimitedEntryCol) actionCol).getValue();
+                cellIsNotBlank = visibleCellValue.getBooleanValue();
+            } else {
+                realCellValue = visibleCellValue;
+                cellIsNotBlank = visibleCellValue.hasValue();
+            }
+            // Blank cells are ignored
+            if ( cellIsNotBlank ) {
+                ActionDetector actionDetector = buildActionDetector( model,
+                                                                     actionCol,
+                                                                     realCellValue );
+                rowDetector.putOrMergeActionDetector( actionDetector );
+            }
         }
-        return analysisData;
+        return rowDetector;
     }
 
     @SuppressWarnings("rawtypes")
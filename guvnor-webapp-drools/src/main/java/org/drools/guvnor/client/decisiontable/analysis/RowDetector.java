@@ -16,9 +16,11 @@
 
 package org.drools.guvnor.client.decisiontable.analysis;
 
+import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.drools.guvnor.client.decisiontable.analysis.action.ActionDetector;
 import org.drools.guvnor.client.decisiontable.analysis.action.ActionDetectorKey;
@@ -49,6 +51,10 @@ public class RowDetector {
         return conditionDetectorMap.get(key);
     }
 
+    public Collection<ConditionDetector> getConditionDetectors() {
+        return conditionDetectorMap.values();
+    }
+
     public void putOrMergeConditionDetector(ConditionDetector conditionDetector) {
         ConditionDetectorKey key = conditionDetector.getKey();
         ConditionDetector originalConditionDetector = conditionDetectorMap.get(key);
@@ -65,6 +71,10 @@ public class RowDetector {
         return actionDetectorMap.get(key);
     }
 
+    public Set<ActionDetectorKey> getActionDetectorKeys() {
+        return actionDetectorMap.keySet();
+    }
+
     public void putOrMergeActionDetector(ActionDetector actionDetector) {
         ActionDetectorKey key = actionDetector.getKey();
         ActionDetector originalActionDetector = actionDetectorMap.get(key);
@@ -77,6 +87,12 @@ public class RowDetector {
         actionDetectorMap.put(key, mergedActionDetector);
     }
 
+    /**
+     * Build the analysis of this row
+     * @param rowDetectorList The rows to check for conflicts, in row order. Rows that can not
+     * overlap with this one, or which share no action with it, can be omitted.
+     * @return
+     */
     public Analysis buildAnalysis(List<RowDetector> rowDetectorList) {
         Analysis analysis = new Analysis();
         detectImpossibleMatch(analysis);
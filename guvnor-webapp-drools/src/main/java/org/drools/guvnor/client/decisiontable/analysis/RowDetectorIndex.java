@@ -0,0 +1,365 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.guvnor.client.decisiontable.analysis;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.drools.guvnor.client.decisiontable.analysis.action.ActionDetectorKey;
+import org.drools.guvnor.client.decisiontable.analysis.condition.ConditionDetector;
+import org.drools.guvnor.client.decisiontable.analysis.condition.ConditionDetectorKey;
+
+/**
+ * An index of the rows of a decision table, to find the rows that can conflict with a row without
+ * comparing it with every other row. Two rows can only conflict if they share an action and the
+ * conditions they have in common can all be matched at the same time. Conditions restricted to a
+ * list of values are indexed by value and conditions restricted to a range by an interval tree.
+ * The candidates returned can include rows that do not conflict, but never omit a row that does.
+ */
+public class RowDetectorIndex {
+
+    private final List<RowDetector> rowDetectorList;
+
+    private final Map<RowDetector, Integer> positions = new HashMap<RowDetector, Integer>();
+
+    private final Map<ActionDetectorKey, List<Integer>> actionIndex = new HashMap<ActionDetectorKey, List<Integer>>();
+
+    private final Map<ConditionDetectorKey, ConditionIndex> conditionIndexes = new HashMap<ConditionDetectorKey, ConditionIndex>();
+
+    public RowDetectorIndex(List<RowDetector> rowDetectorList) {
+        this.rowDetectorList = rowDetectorList;
+        for (int iRow = 0; iRow < rowDetectorList.size(); iRow++) {
+            RowDetector rowDetector = rowDetectorList.get(iRow);
+            positions.put(rowDetector, iRow);
+            for (ActionDetectorKey key : rowDetector.getActionDetectorKeys()) {
+                List<Integer> rows = actionIndex.get(key);
+                if (rows == null) {
+                    rows = new ArrayList<Integer>();
+                    actionIndex.put(key, rows);
+                }
+                rows.add(iRow);
+            }
+            for (ConditionDetector conditionDetector : rowDetector.getConditionDetectors()) {
+                ConditionIndex conditionIndex = conditionIndexes.get(conditionDetector.getKey());
+                if (conditionIndex == null) {
+                    conditionIndex = new ConditionIndex(rowDetectorList.size());
+                    conditionIndexes.put(conditionDetector.getKey(), conditionIndex);
+                }
+                conditionIndex.add(iRow, conditionDetector);
+            }
+        }
+        for (ConditionIndex conditionIndex : conditionIndexes.values()) {
+            conditionIndex.build();
+        }
+    }
+
+    public int indexOf(RowDetector rowDetector) {
+        Integer position = positions.get(rowDetector);
+        return position == null ? -1 : position;
+    }
+
+    /**
+     * @return The rows that can conflict with the given row, in row order.
+     */
+    public List<RowDetector> getCandidates(RowDetector rowDetector) {
+        List<RowDetector> candidates = new ArrayList<RowDetector>();
+        if (rowDetector.getActionDetectorKeys().isEmpty()) {
+            return candidates;
+        }
+
+        // Use the condition that leaves the fewest rows
+        List<Integer> rows = null;
+        for (ConditionDetector conditionDetector : rowDetector.getConditionDetectors()) {
+            ConditionIndex conditionIndex = conditionIndexes.get(conditionDetector.getKey());
+            List<Integer> overlappingRows = conditionIndex == null ? null : conditionIndex.query(conditionDetector);
+            if (overlappingRows != null && (rows == null || overlappingRows.size() < rows.size())) {
+                rows = overlappingRows;
+            }
+        }
+
+        // No condition restricts the rows, so every row sharing an action is a candidate
+        if (rows == null) {
+            rows = new ArrayList<Integer>();
+            for (ActionDetectorKey key : rowDetector.getActionDetectorKeys()) {
+                rows.addAll(actionIndex.get(key));
+            }
+        }
+
+        int position = indexOf(rowDetector);
+        Collections.sort(rows);
+        int previousRow = -1;
+        for (Integer iRow : rows) {
+            if (iRow != previousRow && iRow != position) {
+                RowDetector otherRowDetector = rowDetectorList.get(iRow);
+                if (isSharingAction(rowDetector, otherRowDetector)) {
+                    candidates.add(otherRowDetector);
+                }
+            }
+            previousRow = iRow;
+        }
+        return candidates;
+    }
+
+    private boolean isSharingAction(RowDetector rowDetector, RowDetector otherRowDetector) {
+        for (ActionDetectorKey key : rowDetector.getActionDetectorKeys()) {
+            if (otherRowDetector.getActionDetector(key) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static int compare(Comparable a, Comparable b) {
+        return a.compareTo(b);
+    }
+
+    // The rows with a condition on one field of one pattern
+    private static class ConditionIndex {
+
+        private final Map<Object, List<Integer>> valueIndex = new HashMap<Object, List<Integer>>();
+        private final List<Integer> valueRows = new ArrayList<Integer>();
+        private final List<Interval> intervals = new ArrayList<Interval>();
+        private final List<Integer> unrestrictedRows = new ArrayList<Integer>();
+        private final boolean[] restricted;
+        private IntervalNode intervalTree;
+
+        private ConditionIndex(int rowCount) {
+            restricted = new boolean[rowCount];
+        }
+
+        private void add(int iRow, ConditionDetector conditionDetector) {
+            // Impossible matches are not necessarily impossible once merged, so they are left unrestricted
+            if (conditionDetector.isImpossibleMatch()) {
+                return;
+            }
+            List<?> allowedValues = conditionDetector.getAllowedValues();
+            if (allowedValues != null) {
+                restricted[iRow] = true;
+                valueRows.add(iRow);
+                for (Object value : allowedValues) {
+                    List<Integer> rows = valueIndex.get(value);
+                    if (rows == null) {
+                        rows = new ArrayList<Integer>();
+                        valueIndex.put(value, rows);
+                    }
+                    rows.add(iRow);
+                }
+                return;
+            }
+            Interval interval = Interval.create(iRow, conditionDetector);
+            if (interval != null) {
+                restricted[iRow] = true;
+                intervals.add(interval);
+            }
+        }
+
+        private void build() {
+            // Rows without the condition, or with a condition that could not be indexed, overlap with any row
+            for (int iRow = 0; iRow < restricted.length; iRow++) {
+                if (!restricted[iRow]) {
+                    unrestrictedRows.add(iRow);
+                }
+            }
+            intervalTree = IntervalNode.build(intervals);
+        }
+
+        // Returns the rows that can overlap with the condition (possibly more than once),
+        // or null if the condition does not restrict the rows
+        private List<Integer> query(ConditionDetector conditionDetector) {
+            if (conditionDetector.isImpossibleMatch()) {
+                return null;
+            }
+            List<Integer> rows;
+            List<?> allowedValues = conditionDetector.getAllowedValues();
+            if (allowedValues != null) {
+                rows = new ArrayList<Integer>(unrestrictedRows);
+                for (Object value : allowedValues) {
+                    List<Integer> valueRows = valueIndex.get(value);
+                    if (valueRows != null) {
+                        rows.addAll(valueRows);
+                    }
+                }
+                for (Interval interval : intervals) {
+                    rows.add(interval.row);
+                }
+                return rows;
+            }
+            Interval interval = Interval.create(-1, conditionDetector);
+            if (interval == null) {
+                return null;
+            }
+            rows = new ArrayList<Integer>(unrestrictedRows);
+            if (intervalTree != null) {
+                intervalTree.query(interval.from, interval.to, rows);
+            }
+            rows.addAll(valueRows);
+            return rows;
+        }
+
+    }
+
+    // A range of values; a null bound is unbounded. Bounds are treated as inclusive.
+    private static class Interval {
+
+        private final int row;
+        private final Comparable<?> from;
+        private final Comparable<?> to;
+
+        private Interval(int row, Comparable<?> from, Comparable<?> to) {
+            this.row = row;
+            this.from = from;
+            this.to = to;
+        }
+
+        private static Interval create(int row, ConditionDetector conditionDetector) {
+            Comparable<?> from = conditionDetector.getFrom();
+            Comparable<?> to = conditionDetector.getTo();
+            if (from == null && to == null) {
+                return null;
+            }
+            if (from != null && to != null && compare(from, to) > 0) {
+                return null;
+            }
+            return new Interval(row, from, to);
+        }
+
+    }
+
+    // A centered interval tree
+    private static class IntervalNode {
+
+        private static final Comparator<Comparable<?>> ENDPOINT_COMPARATOR = new Comparator<Comparable<?>>() {
+            public int compare(Comparable<?> a, Comparable<?> b) {
+                return RowDetectorIndex.compare(a, b);
+            }
+        };
+
+        private static final Comparator<Interval> FROM_COMPARATOR = new Comparator<Interval>() {
+            public int compare(Interval a, Interval b) {
+                if (a.from == null) {
+                    return b.from == null ? 0 : -1;
+                } else if (b.from == null) {
+                    return 1;
+                }
+                return RowDetectorIndex.compare(a.from, b.from);
+            }
+        };
+
+        private static final Comparator<Interval> TO_DESCENDING_COMPARATOR = new Comparator<Interval>() {
+            public int compare(Interval a, Interval b) {
+                if (a.to == null) {
+                    return b.to == null ? 0 : -1;
+                } else if (b.to == null) {
+                    return 1;
+                }
+                return RowDetectorIndex.compare(b.to, a.to);
+            }
+        };
+
+        private final Comparable<?> center;
+        private final List<Interval> byFrom;
+        private final List<Interval> byTo;
+        private final IntervalNode left;
+        private final IntervalNode right;
+
+        private IntervalNode(Comparable<?> center, List<Interval> intervals, IntervalNode left, IntervalNode right) {
+            this.center = center;
+            this.byFrom = new ArrayList<Interval>(intervals);
+            Collections.sort(byFrom, FROM_COMPARATOR);
+            this.byTo = new ArrayList<Interval>(intervals);
+            Collections.sort(byTo, TO_DESCENDING_COMPARATOR);
+            this.left = left;
+            this.right = right;
+        }
+
+        private static IntervalNode build(List<Interval> intervals) {
+            if (intervals.isEmpty()) {
+                return null;
+            }
+
+            // The median end point is always within at least one interval
+            List<Comparable<?>> endPoints = new ArrayList<Comparable<?>>();
+            for (Interval interval : intervals) {
+                if (interval.from != null) {
+                    endPoints.add(interval.from);
+                }
+                if (interval.to != null) {
+                    endPoints.add(interval.to);
+                }
+            }
+            Collections.sort(endPoints, ENDPOINT_COMPARATOR);
+            Comparable<?> center = endPoints.get(endPoints.size() / 2);
+
+            List<Interval> leftIntervals = new ArrayList<Interval>();
+            List<Interval> rightIntervals = new ArrayList<Interval>();
+            List<Interval> centerIntervals = new ArrayList<Interval>();
+            for (Interval interval : intervals) {
+                if (interval.to != null && compare(interval.to, center) < 0) {
+                    leftIntervals.add(interval);
+                } else if (interval.from != null && compare(interval.from, center) > 0) {
+                    rightIntervals.add(interval);
+                } else {
+                    centerIntervals.add(interval);
+                }
+            }
+            return new IntervalNode(center, centerIntervals, build(leftIntervals), build(rightIntervals));
+        }
+
+        private void query(Comparable<?> from, Comparable<?> to, List<Integer> rows) {
+            if (to != null && compare(to, center) < 0) {
+                // Intervals containing the center overlap if they start before the query ends
+                for (Interval interval : byFrom) {
+                    if (interval.from != null && compare(interval.from, to) > 0) {
+                        break;
+                    }
+                    rows.add(interval.row);
+                }
+                if (left != null) {
+                    left.query(from, to, rows);
+                }
+            } else if (from != null && compare(from, center) > 0) {
+                // Intervals containing the center overlap if they end after the query starts
+                for (Interval interval : byTo) {
+                    if (interval.to != null && compare(interval.to, from) < 0) {
+                        break;
+                    }
+                    rows.add(interval.row);
+                }
+                if (right != null) {
+                    right.query(from, to, rows);
+                }
+            } else {
+                for (Interval interval : byFrom) {
+                    rows.add(interval.row);
+                }
+                if (left != null) {
+                    left.query(from, to, rows);
+                }
+                if (right != null) {
+                    right.query(from, to, rows);
+                }
+            }
+        }
+
+    }
+
+}
@@ -143,6 +143,16 @@ public abstract class AbstractNumericConditionDetector<T extends Comparable<T>>
         }
     }
 
+    @Override
+    public T getFrom() {
+        return from;
+    }
+
+    @Override
+    public T getTo() {
+        return to;
+    }
+
     public abstract AbstractNumericConditionDetector<T> merge(AbstractNumericConditionDetector<T> other);
 
 }
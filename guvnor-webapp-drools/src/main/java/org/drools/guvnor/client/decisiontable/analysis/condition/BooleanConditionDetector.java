@@ -16,6 +16,9 @@
 
 package org.drools.guvnor.client.decisiontable.analysis.condition;
 
+import java.util.Collections;
+import java.util.List;
+
 import org.drools.ide.common.client.modeldriven.dt52.Pattern52;
 
 public class BooleanConditionDetector extends ConditionDetector<BooleanConditionDetector> {
@@ -47,6 +50,14 @@ public class BooleanConditionDetector extends ConditionDetector<BooleanCondition
         }
     }
 
+    @Override
+    public List<Boolean> getAllowedValues() {
+        if (value == null) {
+            return null;
+        }
+        return Collections.singletonList(value);
+    }
+
     public BooleanConditionDetector merge(BooleanConditionDetector other) {
         return new BooleanConditionDetector(this, other);
     }
@@ -16,6 +16,8 @@
 
 package org.drools.guvnor.client.decisiontable.analysis.condition;
 
+import java.util.List;
+
 import org.drools.ide.common.client.modeldriven.dt52.Pattern52;
 
 public abstract class ConditionDetector<T extends ConditionDetector> {
@@ -57,6 +59,31 @@ public abstract class ConditionDetector<T extends ConditionDetector> {
         return impossibleMatch;
     }
 
+    /**
+     * @return The values that can be matched, or null if the condition does
+     *         not restrict the field to a list of values. Used to index which
+     *         rows can overlap.
+     */
+    public List< ? > getAllowedValues() {
+        return null;
+    }
+
+    /**
+     * @return The lower bound of the values that can be matched (inclusive or
+     *         not), or null if unbounded. Used to index which rows can overlap.
+     */
+    public Comparable< ? > getFrom() {
+        return null;
+    }
+
+    /**
+     * @return The upper bound of the values that can be matched (inclusive or
+     *         not), or null if unbounded. Used to index which rows can overlap.
+     */
+    public Comparable< ? > getTo() {
+        return null;
+    }
+
     public abstract T merge(T other);
 
 }
@@ -138,6 +138,16 @@ public class DateConditionDetector extends ConditionDetector<DateConditionDetect
         }
     }
 
+    @Override
+    public Date getFrom() {
+        return from;
+    }
+
+    @Override
+    public Date getTo() {
+        return to;
+    }
+
     public DateConditionDetector merge(DateConditionDetector other) {
         return new DateConditionDetector(this, other);
     }
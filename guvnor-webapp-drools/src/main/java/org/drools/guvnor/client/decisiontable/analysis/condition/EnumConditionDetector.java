@@ -65,6 +65,11 @@ public class EnumConditionDetector extends ConditionDetector<EnumConditionDetect
         }
     }
 
+    @Override
+    public List<String> getAllowedValues() {
+        return allowedValueList;
+    }
+
     public EnumConditionDetector merge(EnumConditionDetector other) {
         return new EnumConditionDetector(this, other);
     }
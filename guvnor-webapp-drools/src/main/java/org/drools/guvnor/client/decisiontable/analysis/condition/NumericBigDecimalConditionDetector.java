@@ -144,6 +144,16 @@ public class NumericBigDecimalConditionDetector extends ConditionDetector<Numeri
         }
     }
 
+    @Override
+    public BigDecimal getFrom() {
+        return from;
+    }
+
+    @Override
+    public BigDecimal getTo() {
+        return to;
+    }
+
     public NumericBigDecimalConditionDetector merge(NumericBigDecimalConditionDetector other) {
         return new NumericBigDecimalConditionDetector( this,
                                                        other );
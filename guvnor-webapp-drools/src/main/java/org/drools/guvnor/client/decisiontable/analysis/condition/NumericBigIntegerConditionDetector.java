@@ -144,6 +144,16 @@ public class NumericBigIntegerConditionDetector extends ConditionDetector<Numeri
         }
     }
 
+    @Override
+    public BigInteger getFrom() {
+        return from;
+    }
+
+    @Override
+    public BigInteger getTo() {
+        return to;
+    }
+
     public NumericBigIntegerConditionDetector merge(NumericBigIntegerConditionDetector other) {
         return new NumericBigIntegerConditionDetector( this,
                                                        other );
@@ -143,6 +143,16 @@ public class NumericByteConditionDetector extends ConditionDetector<NumericByteC
         }
     }
 
+    @Override
+    public Byte getFrom() {
+        return from;
+    }
+
+    @Override
+    public Byte getTo() {
+        return to;
+    }
+
     public NumericByteConditionDetector merge(NumericByteConditionDetector other) {
         return new NumericByteConditionDetector( this,
                                                  other );
@@ -138,6 +138,16 @@ public class NumericConditionDetector extends ConditionDetector<NumericCondition
         }
     }
 
+    @Override
+    public BigDecimal getFrom() {
+        return from;
+    }
+
+    @Override
+    public BigDecimal getTo() {
+        return to;
+    }
+
     public NumericConditionDetector merge(NumericConditionDetector other) {
         return new NumericConditionDetector(this, other);
     }
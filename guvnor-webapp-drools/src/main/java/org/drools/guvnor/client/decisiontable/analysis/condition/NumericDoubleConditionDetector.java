@@ -143,6 +143,16 @@ public class NumericDoubleConditionDetector extends ConditionDetector<NumericDou
         }
     }
 
+    @Override
+    public Double getFrom() {
+        return from;
+    }
+
+    @Override
+    public Double getTo() {
+        return to;
+    }
+
     public NumericDoubleConditionDetector merge(NumericDoubleConditionDetector other) {
         return new NumericDoubleConditionDetector( this,
                                                    other );
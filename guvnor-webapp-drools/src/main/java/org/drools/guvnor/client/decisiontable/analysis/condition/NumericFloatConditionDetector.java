@@ -143,6 +143,16 @@ public class NumericFloatConditionDetector extends ConditionDetector<NumericFloa
         }
     }
 
+    @Override
+    public Float getFrom() {
+        return from;
+    }
+
+    @Override
+    public Float getTo() {
+        return to;
+    }
+
     public NumericFloatConditionDetector merge(NumericFloatConditionDetector other) {
         return new NumericFloatConditionDetector( this,
                                                   other );
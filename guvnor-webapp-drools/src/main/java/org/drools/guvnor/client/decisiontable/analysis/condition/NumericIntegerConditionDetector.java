@@ -143,6 +143,16 @@ public class NumericIntegerConditionDetector extends ConditionDetector<NumericIn
         }
     }
 
+    @Override
+    public Integer getFrom() {
+        return from;
+    }
+
+    @Override
+    public Integer getTo() {
+        return to;
+    }
+
     public NumericIntegerConditionDetector merge(NumericIntegerConditionDetector other) {
         return new NumericIntegerConditionDetector( this,
                                                     other );
@@ -143,6 +143,16 @@ public class NumericLongConditionDetector extends ConditionDetector<NumericLongC
         }
     }
 
+    @Override
+    public Long getFrom() {
+        return from;
+    }
+
+    @Override
+    public Long getTo() {
+        return to;
+    }
+
     public NumericLongConditionDetector merge(NumericLongConditionDetector other) {
         return new NumericLongConditionDetector( this,
                                                  other );
@@ -143,6 +143,16 @@ public class NumericShortConditionDetector extends ConditionDetector<NumericShor
         }
     }
 
+    @Override
+    public Short getFrom() {
+        return from;
+    }
+
+    @Override
+    public Short getTo() {
+        return to;
+    }
+
     public NumericShortConditionDetector merge(NumericShortConditionDetector other) {
         return new NumericShortConditionDetector( this,
                                                   other );
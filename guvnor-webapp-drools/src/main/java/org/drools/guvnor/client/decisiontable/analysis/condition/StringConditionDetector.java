@@ -72,6 +72,11 @@ public class StringConditionDetector extends ConditionDetector<StringConditionDe
         }
     }
 
+    @Override
+    public List<String> getAllowedValues() {
+        return allowedValueList;
+    }
+
     public StringConditionDetector merge(StringConditionDetector other) {
         return new StringConditionDetector(this, other);
     }
@@ -86,6 +86,7 @@ import org.drools.ide.common.client.modeldriven.dt52.auditlog.InsertRowAuditLogE
 import org.drools.ide.common.client.modeldriven.dt52.auditlog.UpdateColumnAuditLogEntry;
 
 import com.google.gwt.core.client.Scheduler;
+import com.google.gwt.core.client.Scheduler.RepeatingCommand;
 import com.google.gwt.event.shared.EventBus;
 import com.google.gwt.user.client.Command;
 import com.google.gwt.user.client.ui.Composite;
@@ -126,6 +127,15 @@ public abstract class AbstractDecisionTableWidget extends Composite
     //Rows that have been copied in a copy-paste operation
     private List<List<DTCellValue52>>                     copiedRows = new ArrayList<List<DTCellValue52>>();
 
+    //Number of rows analysed in each increment of an analysis
+    private static final int                              ANALYSIS_INCREMENT = 100;
+
+    //Analyzer of the last analysis, used to re-analyse rows when their values change
+    private DecisionTableAnalyzer                         analyzer;
+
+    //Analysis in progress, if any
+    private RepeatingCommand                              analysisCommand;
+
     protected static final DecisionTableResourcesProvider resources  = new DecisionTableResourcesProvider();
 
     /**
@@ -1892,13 +1902,84 @@ public abstract class AbstractDecisionTableWidget extends Composite
     }
 
     public void analyze() {
-        model.getAnalysisData().clear();
-        DecisionTableAnalyzer analyzer = new DecisionTableAnalyzer( sce );
-        List<Analysis> analysisData = analyzer.analyze( model );
-        model.getAnalysisData().addAll( analysisData );
+        final DecisionTableAnalyzer newAnalyzer = new DecisionTableAnalyzer( sce );
+        final List<Analysis> analysisData = new ArrayList<Analysis>();
+        analyzer = null;
+
+        //Rows are analysed in increments so the browser remains responsive with large tables. Starting
+        //another analysis, or adding or removing rows, cancels the analysis in progress.
+        analysisCommand = new RepeatingCommand() {
+
+            private boolean isPrepared = false;
+
+            public boolean execute() {
+                if ( analysisCommand != this ) {
+                    return false;
+                }
+                if ( !isPrepared ) {
+                    newAnalyzer.prepare( model );
+                    isPrepared = true;
+                    return true;
+                }
+                int maxRowIndex = Math.min( analysisData.size() + ANALYSIS_INCREMENT,
+                                            newAnalyzer.getRowCount() );
+                for ( int iRow = analysisData.size(); iRow < maxRowIndex; iRow++ ) {
+                    analysisData.add( newAnalyzer.analyzeRow( iRow ) );
+                }
+                if ( analysisData.size() < newAnalyzer.getRowCount() ) {
+                    return true;
+                }
+
+                analysisCommand = null;
+                analyzer = newAnalyzer;
+                model.getAnalysisData().clear();
+                model.getAnalysisData().addAll( analysisData );
+                showAnalysis();
+                return false;
+            }
+
+        };
+        Scheduler.get().scheduleIncremental( analysisCommand );
+    }
+
+    //Re-analyse rows following changes to their values. Only the rows that could conflict with the
+    //old or new values are analysed again, and only if the analysis is shown.
+    private void reanalyze(Set<Integer> rowIndexes) {
+
+        //An analysis in progress has used the old values
+        if ( analysisCommand != null ) {
+            analyze();
+            return;
+        }
+        if ( analyzer == null || model.getAnalysisCol().isHideColumn() ) {
+            analyzer = null;
+            return;
+        }
+
+        //Rows or columns have changed since the last analysis
+        Set<Integer> affectedRowIndexes = analyzer.updateRows( model,
+                                                               rowIndexes );
+        if ( affectedRowIndexes == null ) {
+            analyze();
+            return;
+        }
+        for ( Integer iRow : affectedRowIndexes ) {
+            model.getAnalysisData().set( iRow,
+                                         analyzer.analyzeRow( iRow ) );
+        }
         showAnalysis();
     }
 
+    //Restart an analysis following the addition or removal of rows. The rows of a completed analysis
+    //no longer match the table, so it is dropped and, if it is shown, the table is analysed again.
+    private void restartAnalysis() {
+        boolean isAnalysisShown = analyzer != null && !model.getAnalysisCol().isHideColumn();
+        analyzer = null;
+        if ( analysisCommand != null || isAnalysisShown ) {
+            analyze();
+        }
+    }
+
     private void showAnalysis() {
         AnalysisCol52 analysisCol = model.getAnalysisCol();
         int analysisColumnIndex = model.getExpandedColumns().indexOf( analysisCol );
@@ -2117,6 +2198,7 @@ public abstract class AbstractDecisionTableWidget extends Composite
     public void onDeleteRow(DeleteRowEvent event) {
         model.getData().remove( event.getIndex() );
         model.getAnalysisData().remove( event.getIndex() );
+        restartAnalysis();
         Scheduler.get().scheduleFinally( new Command() {
 
             public void execute() {
@@ -2136,6 +2218,7 @@ public abstract class AbstractDecisionTableWidget extends Composite
                              data );
         model.getAnalysisData().add( event.getIndex(),
                                      new Analysis() );
+        restartAnalysis();
         Scheduler.get().scheduleFinally( new Command() {
 
             public void execute() {
@@ -2218,6 +2301,7 @@ public abstract class AbstractDecisionTableWidget extends Composite
 
             iRow++;
         }
+        restartAnalysis();
         Scheduler.get().scheduleFinally( new Command() {
 
             public void execute() {
@@ -2232,6 +2316,7 @@ public abstract class AbstractDecisionTableWidget extends Composite
         List<DTCellValue52> data = cellValueFactory.makeRowData();
         model.getData().add( data );
         model.getAnalysisData().add( new Analysis() );
+        restartAnalysis();
         Scheduler.get().scheduleFinally( new Command() {
 
             public void execute() {
@@ -2312,6 +2397,7 @@ public abstract class AbstractDecisionTableWidget extends Composite
     public void onUpdateModel(UpdateModelEvent event) {
 
         //Copy data into the underlying model
+        Set<Integer> changedRowIndexes = new HashSet<Integer>();
         Map<Coordinate, List<List<CellValue< ? extends Comparable< ? >>>>> updates = event.getUpdates();
         for ( Map.Entry<Coordinate, List<List<CellValue< ? extends Comparable< ? >>>>> e : updates.entrySet() ) {
 
@@ -2326,6 +2412,7 @@ public abstract class AbstractDecisionTableWidget extends Composite
             for ( int iRow = 0; iRow < data.size(); iRow++ ) {
                 List<CellValue< ? extends Comparable< ? >>> rowData = data.get( iRow );
                 int targetRowIndex = originRowIndex + iRow;
+                changedRowIndexes.add( targetRowIndex );
                 for ( int iCol = 0; iCol < rowData.size(); iCol++ ) {
                     int targetColumnIndex = originColumnIndex + iCol;
                     CellValue< ? extends Comparable< ? >> changedCell = rowData.get( iCol );
@@ -2338,6 +2425,9 @@ public abstract class AbstractDecisionTableWidget extends Composite
             }
         }
 
+        //Keep the analysis up to date
+        reanalyze( changedRowIndexes );
+
         //Update system controlled columns
         Scheduler.get().scheduleFinally( new Command() {
 
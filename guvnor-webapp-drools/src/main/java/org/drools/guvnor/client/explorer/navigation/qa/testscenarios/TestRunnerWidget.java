@@ -226,15 +226,21 @@ public class TestRunnerWidget extends Composite {
                 showExp.setVisible( false );
                 results.setWidget( 2,
                                    1,
-                                   doAuditView(data.getAuditLog()) );
+                                   doAuditView( data.getAuditLog(),
+                                                data.getAuditLogEventCount() ) );
             }
         } );
 
     }
 
-    private Widget doAuditView(List<String[]> auditLog) {
+    private Widget doAuditView(List<String[]> auditLog,
+                               long eventCount) {
         VerticalPanel vp = new VerticalPanel();
         vp.add( new HTML( "<hr/>" ) );
+        if ( eventCount > auditLog.size() ) {
+            vp.add( new SmallLabel( Constants.INSTANCE.ShowingLastEventsOf( auditLog.size(),
+                                                                           eventCount ) ) );
+        }
         FlexTable g = new FlexTable();
         int row = 0;
         boolean firing = false;
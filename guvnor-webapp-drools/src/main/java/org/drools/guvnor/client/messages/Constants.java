@@ -1740,6 +1740,9 @@ public interface Constants
 
     String ShowEventsButton();
 
+    String ShowingLastEventsOf(int shown,
+                               long total);
+
     String ViewingSnapshot();
 
     String ForPackage();
@@ -27,8 +27,10 @@ import org.drools.guvnor.client.common.GenericCallback;
 import org.drools.guvnor.client.common.LoadingPopup;
 import org.drools.guvnor.client.explorer.RefreshModuleDataModelEvent;
 import org.drools.guvnor.client.messages.Constants;
+import org.drools.guvnor.client.rpc.Asset;
 import org.drools.guvnor.client.rpc.SuggestionCompletionEngineService;
 import org.drools.guvnor.client.rpc.SuggestionCompletionEngineServiceAsync;
+import org.drools.ide.common.client.modeldriven.FactTypeDetails;
 import org.drools.ide.common.client.modeldriven.FactTypeFilter;
 import org.drools.ide.common.client.modeldriven.SuggestionCompletionEngine;
 
@@ -44,12 +46,21 @@ import javax.inject.Inject;
  * as they are somewhat heavy to load.
  * If it needs to be loaded, then it will load, and then call the appropriate action,
  * and keep it in the cache.
+ * An engine is only loaded again if its content has changed. A slim engine
+ * (with the names of the fact types only) is usable straight away, the
+ * details of its fact types are then loaded in the background, or when they
+ * are asked for with ensureFactTypesLoaded.
  */
 @ApplicationScoped
 public class SuggestionCompletionCache {
 
     private static SuggestionCompletionCache INSTANCE = null;
 
+    /**
+     * How many fact types of a slim engine are loaded at a time, in the background.
+     */
+    private static final int FACT_TYPE_BATCH_SIZE = 100;
+
     Map<String, SuggestionCompletionEngine> cache = new HashMap<String, SuggestionCompletionEngine>();
     
     /**
@@ -66,7 +77,26 @@ public class SuggestionCompletionCache {
     }
     
     public void onRefreshModuleDataModel(@Observes RefreshModuleDataModelEvent refreshModuleDataModelEvent) {
-        loadPackage(refreshModuleDataModelEvent.getModuleName(), refreshModuleDataModelEvent.getCallbackCommand());
+        final String moduleName = refreshModuleDataModelEvent.getModuleName();
+        final Asset asset = refreshModuleDataModelEvent.getAsset();
+        final Command callback = refreshModuleDataModelEvent.getCallbackCommand();
+        if (asset == null) {
+            loadPackage(moduleName, callback);
+            return;
+        }
+
+        //the editor of the asset is only rendered once the fact types it uses are loaded
+        loadPackage(moduleName, new Command() {
+            public void execute() {
+                ensureFactTypesLoaded(moduleName, UsedFactTypes.of(asset.getContent()), new Command() {
+                    public void execute() {
+                        if (callback != null) {
+                            callback.execute();
+                        }
+                    }
+                });
+            }
+        });
     }
     
     public SuggestionCompletionEngine getEngineFromCache(String packageName) {
@@ -92,11 +122,21 @@ public class SuggestionCompletionCache {
         //removes any existing filter
         this.filters.remove(packageName);
 
+        final SuggestionCompletionEngine cached = cache.get( packageName );
         SuggestionCompletionEngineServiceAsync suggestionCompletionEngineService = GWT.create(SuggestionCompletionEngineService.class);
-        suggestionCompletionEngineService.loadSuggestionCompletionEngine( packageName, new GenericCallback<SuggestionCompletionEngine>() {
+        suggestionCompletionEngineService.loadSuggestionCompletionEngine( packageName, cached == null ? null : cached.getContentHash(), new GenericCallback<SuggestionCompletionEngine>() {
             public void onSuccess(SuggestionCompletionEngine engine) {
-                cache.put( packageName, engine );
+                if (engine == null) {
+                    //unchanged, only the filter is removed
+                    engine = cached;
+                    engine.setFactTypeFilter(null);
+                } else {
+                    cache.put( packageName, engine );
+                }
                 done.execute();
+                if (engine.isSlim()) {
+                    loadFactTypesInBackground(packageName, engine);
+                }
             }
 
             public void onFailure(Throwable t) {
@@ -106,7 +146,64 @@ public class SuggestionCompletionCache {
             }
         });
     }
-    
+
+    /**
+     * Makes sure the details of the given fact types have been loaded, for a
+     * slim engine, then executes the command. If the engine has changed on the
+     * server since it was loaded, it is loaded again first.
+     * @param packageName
+     * @param factTypes
+     * @param done
+     */
+    public void ensureFactTypesLoaded(final String packageName, final String[] factTypes, final Command done) {
+        ensureFactTypesLoaded(packageName, factTypes, done, true);
+    }
+
+    private void ensureFactTypesLoaded(final String packageName, final String[] factTypes, final Command done, final boolean reloadIfChanged) {
+        final SuggestionCompletionEngine engine = cache.get(packageName);
+        if (engine == null || engine.getFactTypesNotLoaded(factTypes).length == 0) {
+            done.execute();
+            return;
+        }
+
+        SuggestionCompletionEngineServiceAsync suggestionCompletionEngineService = GWT.create(SuggestionCompletionEngineService.class);
+        suggestionCompletionEngineService.loadFactTypeDetails( packageName, engine.getContentHash(), engine.getFactTypesNotLoaded(factTypes), new GenericCallback<FactTypeDetails[]>() {
+            public void onSuccess(FactTypeDetails[] details) {
+                if (details != null) {
+                    engine.addFactTypeDetails(details);
+                    done.execute();
+                } else if (reloadIfChanged && cache.get(packageName) == engine) {
+                    //the engine has changed on the server, and the details of another version are not sent
+                    loadPackage(packageName, new Command() {
+                        public void execute() {
+                            ensureFactTypesLoaded(packageName, factTypes, done, false);
+                        }
+                    });
+                } else {
+                    done.execute();
+                }
+            }
+        });
+    }
+
+    //Loads the fact types of a slim engine a batch at a time, until they are all loaded or the engine is replaced
+    private void loadFactTypesInBackground(final String packageName, final SuggestionCompletionEngine engine) {
+        if (cache.get(packageName) != engine) {
+            return;
+        }
+        String[] notLoaded = engine.getFactTypesNotLoaded(engine.getFactTypes());
+        if (notLoaded.length == 0) {
+            return;
+        }
+        String[] batch = new String[Math.min(notLoaded.length, FACT_TYPE_BATCH_SIZE)];
+        System.arraycopy(notLoaded, 0, batch, 0, batch.length);
+        ensureFactTypesLoaded(packageName, batch, new Command() {
+            public void execute() {
+                loadFactTypesInBackground(packageName, engine);
+            }
+        });
+    }
+
     /**
      * Gets the last version of SCE for a package and then applies any pre-existing
      * filter to it.
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.guvnor.client.moduleeditor.drools;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.drools.guvnor.shared.api.PortableObject;
+import org.drools.ide.common.client.modeldriven.brl.ActionInsertFact;
+import org.drools.ide.common.client.modeldriven.brl.ActionSetField;
+import org.drools.ide.common.client.modeldriven.brl.CompositeFactPattern;
+import org.drools.ide.common.client.modeldriven.brl.FromAccumulateCompositeFactPattern;
+import org.drools.ide.common.client.modeldriven.brl.FromCollectCompositeFactPattern;
+import org.drools.ide.common.client.modeldriven.brl.FromCompositeFactPattern;
+import org.drools.ide.common.client.modeldriven.brl.IAction;
+import org.drools.ide.common.client.modeldriven.brl.IFactPattern;
+import org.drools.ide.common.client.modeldriven.brl.IPattern;
+import org.drools.ide.common.client.modeldriven.brl.RuleModel;
+import org.drools.ide.common.client.modeldriven.dt52.ActionCol52;
+import org.drools.ide.common.client.modeldriven.dt52.ActionInsertFactCol52;
+import org.drools.ide.common.client.modeldriven.dt52.BRLActionColumn;
+import org.drools.ide.common.client.modeldriven.dt52.BRLConditionColumn;
+import org.drools.ide.common.client.modeldriven.dt52.CompositeColumn;
+import org.drools.ide.common.client.modeldriven.dt52.GuidedDecisionTable52;
+import org.drools.ide.common.client.modeldriven.dt52.Pattern52;
+import org.drools.ide.common.client.modeldriven.testing.FactData;
+import org.drools.ide.common.client.modeldriven.testing.Fixture;
+import org.drools.ide.common.client.modeldriven.testing.Scenario;
+
+/**
+ * Finds the fact types used by the content of an asset, so that an editor can
+ * have their details loaded before it is rendered. Guided rules (and rule
+ * templates), guided decision tables and test scenarios are looked into; other
+ * content uses no fact types in particular.
+ */
+public class UsedFactTypes {
+
+    private final Set<String> factTypes = new HashSet<String>();
+
+    private UsedFactTypes() {
+    }
+
+    public static String[] of(PortableObject content) {
+        UsedFactTypes used = new UsedFactTypes();
+        if ( content instanceof RuleModel ) {
+            used.addRuleModel( (RuleModel) content );
+        } else if ( content instanceof GuidedDecisionTable52 ) {
+            used.addDecisionTable( (GuidedDecisionTable52) content );
+        } else if ( content instanceof Scenario ) {
+            used.addScenario( (Scenario) content );
+        }
+        return used.factTypes.toArray( new String[used.factTypes.size()] );
+    }
+
+    private void addRuleModel(RuleModel model) {
+        if ( model.lhs != null ) {
+            for ( IPattern pattern : model.lhs ) {
+                addPattern( pattern );
+            }
+        }
+        if ( model.rhs != null ) {
+            for ( IAction action : model.rhs ) {
+                addAction( model,
+                           action );
+            }
+        }
+    }
+
+    private void addDecisionTable(GuidedDecisionTable52 model) {
+        for ( CompositeColumn< ? > column : model.getConditions() ) {
+            if ( column instanceof Pattern52 ) {
+                add( ((Pattern52) column).getFactType() );
+            } else if ( column instanceof BRLConditionColumn ) {
+                for ( IPattern pattern : ((BRLConditionColumn) column).getDefinition() ) {
+                    addPattern( pattern );
+                }
+            }
+        }
+        for ( ActionCol52 column : model.getActionCols() ) {
+            if ( column instanceof ActionInsertFactCol52 ) {
+                add( ((ActionInsertFactCol52) column).getFactType() );
+            } else if ( column instanceof BRLActionColumn ) {
+                for ( IAction action : ((BRLActionColumn) column).getDefinition() ) {
+                    addAction( null,
+                               action );
+                }
+            }
+        }
+    }
+
+    private void addScenario(Scenario scenario) {
+        addFixtures( scenario.getFixtures() );
+        addFixtures( scenario.getGlobals() );
+    }
+
+    private void addFixtures(List< ? extends Fixture> fixtures) {
+        if ( fixtures == null ) {
+            return;
+        }
+        for ( Fixture fixture : fixtures ) {
+            if ( fixture instanceof FactData ) {
+                add( ((FactData) fixture).getType() );
+            }
+        }
+    }
+
+    private void addPattern(IPattern pattern) {
+        if ( pattern instanceof FromCollectCompositeFactPattern ) {
+            addPattern( ((FromCollectCompositeFactPattern) pattern).getRightPattern() );
+        } else if ( pattern instanceof FromAccumulateCompositeFactPattern ) {
+            addPattern( ((FromAccumulateCompositeFactPattern) pattern).getSourcePattern() );
+        }
+
+        if ( pattern instanceof FromCompositeFactPattern ) {
+            add( ((FromCompositeFactPattern) pattern).getFactType() );
+        } else if ( pattern instanceof CompositeFactPattern ) {
+            IFactPattern[] patterns = ((CompositeFactPattern) pattern).getPatterns();
+            if ( patterns != null ) {
+                for ( IFactPattern factPattern : patterns ) {
+                    addPattern( factPattern );
+                }
+            }
+        } else if ( pattern instanceof IFactPattern ) {
+            add( ((IFactPattern) pattern).getFactType() );
+        }
+    }
+
+    private void addAction(RuleModel model,
+                           IAction action) {
+        if ( action instanceof ActionInsertFact ) {
+            add( ((ActionInsertFact) action).factType );
+        } else if ( action instanceof ActionSetField && model != null ) {
+            add( model.getLHSBindingType( ((ActionSetField) action).variable ) );
+        }
+    }
+
+    private void add(String factType) {
+        if ( factType != null ) {
+            factTypes.add( factType );
+        }
+    }
+
+}
@@ -30,6 +30,12 @@ public class SingleScenarioResult implements IsSerializable {
      */
     private List<String[]> auditLog = new ArrayList<String[]>();
 
+    /**
+     * The number of events logged, of which the audit log holds the most
+     * recent.
+     */
+    private long auditLogEventCount;
+
     public SingleScenarioResult() {
     }
 
@@ -40,6 +46,12 @@ public class SingleScenarioResult implements IsSerializable {
     public SingleScenarioResult(ScenarioRunResult scenarioRunResult, List<String[]> auditLog) {
         this(scenarioRunResult);
         this.auditLog = auditLog;
+        this.auditLogEventCount = auditLog.size();
+    }
+
+    public SingleScenarioResult(ScenarioRunResult scenarioRunResult, List<String[]> auditLog, long auditLogEventCount) {
+        this(scenarioRunResult, auditLog);
+        this.auditLogEventCount = auditLogEventCount;
     }
 
     public ScenarioRunResult getResult() {
@@ -50,5 +62,9 @@ public class SingleScenarioResult implements IsSerializable {
         return auditLog;
     }
 
+    public long getAuditLogEventCount() {
+        return auditLogEventCount;
+    }
+
 
 }
@@ -19,6 +19,7 @@ package org.drools.guvnor.client.rpc;
 import com.google.gwt.user.client.rpc.RemoteService;
 import com.google.gwt.user.client.rpc.RemoteServiceRelativePath;
 import com.google.gwt.user.client.rpc.SerializationException;
+import org.drools.ide.common.client.modeldriven.FactTypeDetails;
 import org.drools.ide.common.client.modeldriven.SuggestionCompletionEngine;
 
 @RemoteServiceRelativePath("suggestionCompletionEngineService")
@@ -32,4 +33,27 @@ public interface SuggestionCompletionEngineService
      * made to a package, should blow away the cache.
      */
     public SuggestionCompletionEngine loadSuggestionCompletionEngine(String packageName) throws SerializationException;
+
+    /**
+     * Loads up the SuggestionCompletionEngine for the given package, unless it
+     * has the given content hash, that is unless the client already has it.
+     * If slim engines are enabled, it only has the names of the fact types, and
+     * their details are loaded with loadFactTypeDetails.
+     * 
+     * @return the engine, or null if it has not changed.
+     */
+    public SuggestionCompletionEngine loadSuggestionCompletionEngine(String packageName,
+                                                                     String knownContentHash) throws SerializationException;
+
+    /**
+     * Loads the details of fact types, for a slim SuggestionCompletionEngine.
+     * 
+     * @param contentHash
+     *            the content hash of the slim engine.
+     * @return the details, or null if the engine of the package has changed
+     *         since the client loaded it: the client must load it again.
+     */
+    public FactTypeDetails[] loadFactTypeDetails(String packageName,
+                                                 String contentHash,
+                                                 String[] factTypes) throws SerializationException;
 }
@@ -1,5 +1,6 @@
 package org.drools.guvnor.client.rpc;
 
+import org.drools.ide.common.client.modeldriven.FactTypeDetails;
 import org.drools.ide.common.client.modeldriven.SuggestionCompletionEngine;
 
 import com.google.gwt.user.client.rpc.AsyncCallback;
@@ -13,4 +14,13 @@ public interface SuggestionCompletionEngineServiceAsync {
      */
     void loadSuggestionCompletionEngine(String packageName,
                                         AsyncCallback<SuggestionCompletionEngine> async);
+
+    void loadSuggestionCompletionEngine(String packageName,
+                                        String knownContentHash,
+                                        AsyncCallback<SuggestionCompletionEngine> async);
+
+    void loadFactTypeDetails(String packageName,
+                             String contentHash,
+                             String[] factTypes,
+                             AsyncCallback<FactTypeDetails[]> async);
 }
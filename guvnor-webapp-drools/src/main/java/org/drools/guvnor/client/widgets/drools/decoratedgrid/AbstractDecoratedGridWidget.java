@@ -25,6 +25,7 @@ import org.drools.guvnor.client.widgets.drools.decoratedgrid.events.SetModelEven
 
 import com.google.gwt.core.client.Scheduler;
 import com.google.gwt.core.client.Scheduler.ScheduledCommand;
+import com.google.gwt.event.dom.client.ScrollEvent;
 import com.google.gwt.event.dom.client.ScrollHandler;
 import com.google.gwt.event.logical.shared.ResizeEvent;
 import com.google.gwt.event.logical.shared.ResizeHandler;
@@ -121,6 +122,13 @@ public abstract class AbstractDecoratedGridWidget<M, T, C> extends Composite
         scrollPanel = new ScrollPanel();
         scrollPanel.add( gridWidget );
         scrollPanel.addScrollHandler( getScrollHandler() );
+        scrollPanel.addScrollHandler( new ScrollHandler() {
+
+            public void onScroll(ScrollEvent event) {
+                assertViewport();
+            }
+
+        } );
 
         initialiseHeaderWidget();
         initialiseSidebarWidget();
@@ -147,6 +155,16 @@ public abstract class AbstractDecoratedGridWidget<M, T, C> extends Composite
                                + "px" );
         sidebarWidget.setHeight( scrollPanel.getElement().getClientHeight()
                                  + "px" );
+        assertViewport();
+    }
+
+    /**
+     * Tell the DecoratedGridWidget which part of it is visible, so it can
+     * render only the rows the user can see
+     */
+    protected void assertViewport() {
+        gridWidget.setViewport( scrollPanel.getVerticalScrollPosition(),
+                                scrollPanel.getElement().getClientHeight() );
     }
 
     /**
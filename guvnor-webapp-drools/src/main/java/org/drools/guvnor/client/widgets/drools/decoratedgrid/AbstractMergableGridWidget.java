@@ -31,6 +31,7 @@ import org.drools.guvnor.client.widgets.drools.decoratedgrid.data.DynamicData;
 import org.drools.guvnor.client.widgets.drools.decoratedgrid.data.DynamicDataRow;
 import org.drools.guvnor.client.widgets.drools.decoratedgrid.data.GroupedDynamicDataRow;
 import org.drools.guvnor.client.widgets.drools.decoratedgrid.data.RowMapper;
+import org.drools.guvnor.client.widgets.drools.decoratedgrid.data.RowRange;
 import org.drools.guvnor.client.widgets.drools.decoratedgrid.events.AppendRowEvent;
 import org.drools.guvnor.client.widgets.drools.decoratedgrid.events.CellStateChangedEvent;
 import org.drools.guvnor.client.widgets.drools.decoratedgrid.events.CellStateChangedEvent.CellStateOperation;
@@ -299,6 +300,31 @@ public abstract class AbstractMergableGridWidget<M, T> extends Widget
      */
     abstract void redraw();
 
+    /**
+     * The area of the grid visible to the user has changed. Implementations
+     * that only render the rows within the viewport should override this. By
+     * default all rows are rendered and nothing needs to be done.
+     * 
+     * @param top
+     *            Offset of the top of the viewport from the top of the grid
+     * @param height
+     *            Height of the viewport
+     */
+    public void setViewport(int top,
+                            int height) {
+    }
+
+    /**
+     * Ensure the HTML elements for a row exist. Implementations that only
+     * render the rows within the viewport should render the row (and those
+     * around it) when this is called.
+     * 
+     * @param index
+     *            HTML row index
+     */
+    void ensureRowRendered(int index) {
+    }
+
     /**
      * Redraw table columns. Partial redraw
      * 
@@ -379,6 +405,25 @@ public abstract class AbstractMergableGridWidget<M, T> extends Widget
         return maxRedrawRow;
     }
 
+    // Redraw the rows affected by changes to cells' values or states. The range
+    // is at least as large as the selection range, as merged cells can become
+    // unmerged (if their value is cleared), and includes any merged cells
+    // passing through its ends
+    private void redrawChangedRows(RowRange changedRows) {
+        int minRedrawRow = selections.first().getCoordinate().getRow();
+        int maxRedrawRow = selections.last().getCoordinate().getRow();
+        if ( changedRows != null ) {
+            minRedrawRow = Math.min( minRedrawRow,
+                                     changedRows.getMinRow() );
+            maxRedrawRow = Math.max( maxRedrawRow,
+                                     changedRows.getMaxRow() );
+        }
+        minRedrawRow = findMinRedrawRow( minRedrawRow );
+        maxRedrawRow = findMaxRedrawRow( maxRedrawRow );
+        redrawRows( minRedrawRow,
+                    maxRedrawRow );
+    }
+
     //Find the bottom coordinate of a merged cell
     private Coordinate findMergedCellExtent(Coordinate c) {
         if ( c.getRow() == data.size() - 1 ) {
@@ -686,6 +731,7 @@ public abstract class AbstractMergableGridWidget<M, T> extends Widget
         }
 
         Coordinate hc = cv.getHtmlCoordinate();
+        ensureRowRendered( hc.getRow() );
         TableRowElement tre = tbody.getRows().getItem( hc.getRow() ).<TableRowElement> cast();
         TableCellElement tce = tre.getCells().getItem( hc.getCol() ).<TableCellElement> cast();
         int offsetX = tce.getOffsetLeft();
@@ -1257,16 +1303,17 @@ public abstract class AbstractMergableGridWidget<M, T> extends Widget
         }
 
         //---Update selected cells (before ungrouping otherwise selections would need to be expanded too)---
+        RowRange changedRows = null;
         changedBlock = new ArrayList<List<CellValue< ? extends Comparable< ? >>>>();
         for ( CellValue< ? extends Comparable< ? >> cell : selections ) {
             changedRow = new ArrayList<CellValue< ? extends Comparable< ? >>>();
             Coordinate c = cell.getCoordinate();
             if ( !columns.get( c.getCol() ).isSystemControlled() ) {
-                data.set( c,
-                          value );
                 if ( value != null ) {
                     cell.removeState( CellState.OTHERWISE );
                 }
+                changedRows = data.set( c,
+                                        value ).union( changedRows );
 
                 //Copy data that is changing for an event to update the underlying model
                 if ( cell instanceof GroupedCellValue ) {
@@ -1298,8 +1345,8 @@ public abstract class AbstractMergableGridWidget<M, T> extends Widget
                 Coordinate dc = new Coordinate( cell.getCoordinate().getRow(),
                                                 dependentColumnIndex );
                 if ( !columns.get( dc.getCol() ).isSystemControlled() ) {
-                    data.set( dc,
-                              null );
+                    changedRows = data.set( dc,
+                                            null ).union( changedRows );
                     if ( value != null ) {
                         cell.removeState( CellState.OTHERWISE );
                     }
@@ -1339,22 +1386,9 @@ public abstract class AbstractMergableGridWidget<M, T> extends Widget
             //If the data is merged changes to the cells' value can cause the need for a greater range of 
             //rows to be redrawn as a cell's new value could cause the merged span to increase. This is also 
             //the only mechanism available to update multiple individual cells' values when multiple 
-            //cells are selected.
-            data.assertModelMerging();
-
-            // Partial redraw
-            int baseRowIndex = selections.first().getCoordinate().getRow();
-            int minRedrawRow = findMinRedrawRow( baseRowIndex );
-            int maxRedrawRow = findMaxRedrawRow( baseRowIndex );
-
-            // When merged cells become unmerged (if their value is
-            // cleared need to ensure the re-draw range is at least
-            // as large as the selection range
-            if ( maxRedrawRow < selections.last().getCoordinate().getRow() ) {
-                maxRedrawRow = selections.last().getCoordinate().getRow();
-            }
-            redrawRows( minRedrawRow,
-                        maxRedrawRow );
+            //cells are selected. DynamicData has already re-merged the cells around each change, and
+            //reported the rows affected.
+            redrawChangedRows( changedRows );
         } else {
             
             //Redraw a single row
@@ -1435,21 +1469,11 @@ public abstract class AbstractMergableGridWidget<M, T> extends Widget
                 }
             }
         } else {
-            data.assertModelMerging();
-
-            // Partial redraw
-            int baseRowIndex = selections.first().getCoordinate().getRow();
-            int minRedrawRow = findMinRedrawRow( baseRowIndex );
-            int maxRedrawRow = findMaxRedrawRow( baseRowIndex );
-
-            // When merged cells become unmerged (if their value is
-            // cleared need to ensure the re-draw range is at least
-            // as large as the selection range
-            if ( maxRedrawRow < selections.last().getCoordinate().getRow() ) {
-                maxRedrawRow = selections.last().getCoordinate().getRow();
+            RowRange changedRows = null;
+            for ( CellValue< ? extends Comparable< ? >> cell : selections ) {
+                changedRows = data.assertCellMerging( cell.getCoordinate() ).union( changedRows );
             }
-            redrawRows( minRedrawRow,
-                        maxRedrawRow );
+            redrawChangedRows( changedRows );
         }
 
         //Re-select applicable cells, following change to merge
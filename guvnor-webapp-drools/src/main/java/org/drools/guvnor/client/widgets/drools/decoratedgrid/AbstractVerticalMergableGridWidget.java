@@ -22,11 +22,14 @@ import org.drools.guvnor.client.widgets.drools.decoratedgrid.CellValue.CellState
 import org.drools.guvnor.client.widgets.drools.decoratedgrid.CellValue.GroupedCellValue;
 import org.drools.guvnor.client.widgets.drools.decoratedgrid.data.Coordinate;
 import org.drools.guvnor.client.widgets.drools.decoratedgrid.data.DynamicDataRow;
+import org.drools.guvnor.client.widgets.drools.decoratedgrid.data.RowRange;
 import org.drools.guvnor.client.widgets.drools.decoratedgrid.events.UpdateSelectedCellsEvent;
 
 import com.google.gwt.cell.client.Cell;
 import com.google.gwt.cell.client.Cell.Context;
 import com.google.gwt.core.client.GWT;
+import com.google.gwt.core.client.Scheduler;
+import com.google.gwt.core.client.Scheduler.ScheduledCommand;
 import com.google.gwt.dom.client.DivElement;
 import com.google.gwt.dom.client.Document;
 import com.google.gwt.dom.client.Element;
@@ -46,12 +49,42 @@ import com.google.gwt.user.client.Event;
 /**
  * A Vertical implementation of MergableGridWidget, that renders columns as erm,
  * columns and rows as rows. Supports merging of cells between rows.
+ * 
+ * Large tables are rendered in a window: only the rows in, and around, the
+ * viewport have their cells rendered. The other rows are kept as TR elements
+ * of the same height holding a single empty cell, so HTML row indexes and the
+ * scroll height are unaffected. They are filled (or emptied again) as the
+ * viewport moves.
+ * The window is always extended to include whole merged cells.
  */
 public abstract class AbstractVerticalMergableGridWidget<M, T> extends AbstractMergableGridWidget<M, T> {
 
     //Deferred binding creates an appropriate class depending on browser
     private CellHeightCalculatorImpl cellHeightCalculator = GWT.create( CellHeightCalculatorImpl.class );
 
+    //Tables with more rows than this are rendered in a window around the viewport
+    private static final int         WINDOWING_THRESHOLD  = 200;
+
+    //Number of rows rendered above and below the viewport
+    private static final int         OVERSCAN_ROWS        = 30;
+
+    //Number of rows assumed to be visible until the viewport is known
+    private static final int         DEFAULT_VISIBLE_ROWS = 50;
+
+    //Property set on TR elements whose cells have been rendered
+    private static final String      ROW_RENDERED         = "__guvnorRowRendered";
+
+    //Visible area of the grid
+    private int                      viewportTop          = 0;
+    private int                      viewportHeight       = -1;
+
+    //Rows that are rendered, start inclusive and end exclusive
+    private int                      windowStart          = 0;
+    private int                      windowEnd            = 0;
+
+    private boolean                  windowUpdatePending  = false;
+    private boolean                  fullScanPending      = false;
+
     public AbstractVerticalMergableGridWidget(ResourcesProvider<T> resources,
                                               AbstractCellFactory<T> cellFactory,
                                               AbstractCellValueFactory<T, ? > cellValueFactory,
@@ -93,6 +126,9 @@ public abstract class AbstractVerticalMergableGridWidget<M, T> extends AbstractM
             return;
         }
         TableRowElement tr = TableRowElement.as( trElem );
+        if ( !isRowRendered( tr ) ) {
+            return;
+        }
         int htmlRow = tr.getSectionRowIndex();
 
         // Convert HTML coordinates to physical coordinates
@@ -162,6 +198,7 @@ public abstract class AbstractVerticalMergableGridWidget<M, T> extends AbstractM
     @Override
     protected void redraw() {
 
+        calculateWindow();
         TableSectionElement nbody = Document.get().createTBodyElement();
 
         for ( int iRow = 0; iRow < data.size(); iRow++ ) {
@@ -170,8 +207,12 @@ public abstract class AbstractVerticalMergableGridWidget<M, T> extends AbstractM
 
             TableRowElement tre = Document.get().createTRElement();
             tre.setClassName( getRowStyle( iRow ) );
-            populateTableRowElement( tre,
-                                     rowData );
+            if ( isRowInWindow( iRow ) ) {
+                populateTableRowElement( tre,
+                                         rowData );
+            } else {
+                makePlaceholderRowElement( tre );
+            }
             nbody.appendChild( tre );
         }
 
@@ -203,6 +244,9 @@ public abstract class AbstractVerticalMergableGridWidget<M, T> extends AbstractM
 
         for ( int iRow = 0; iRow < data.size(); iRow++ ) {
             TableRowElement tre = tbody.getRows().getItem( iRow );
+            if ( !isRowRendered( tre ) ) {
+                continue;
+            }
             DynamicDataRow rowData = data.get( iRow );
             redrawTableRowElement( rowData,
                                    tre,
@@ -228,6 +272,9 @@ public abstract class AbstractVerticalMergableGridWidget<M, T> extends AbstractM
                     .get( iCol );
             Coordinate c = cell.getHtmlCoordinate();
             TableRowElement tre = tbody.getRows().getItem( c.getRow() );
+            if ( !isRowRendered( tre ) ) {
+                continue;
+            }
             TableCellElement tce = tre.getCells().getItem( c.getCol() );
             DivElement div = tce.getFirstChild().<DivElement> cast();
             DivElement divText = tce.getFirstChild().getFirstChild().<DivElement> cast();
@@ -471,6 +518,8 @@ public abstract class AbstractVerticalMergableGridWidget<M, T> extends AbstractM
 
         tre.getStyle().setHeight( resources.rowHeight(),
                                   Unit.PX );
+        tre.setPropertyBoolean( ROW_RENDERED,
+                                true );
         for ( int iCol = 0; iCol < columns.size(); iCol++ ) {
             DynamicColumn<T> column = columns.get( iCol );
             if ( column.isVisible() ) {
@@ -531,23 +580,31 @@ public abstract class AbstractVerticalMergableGridWidget<M, T> extends AbstractM
 
     @Override
     protected void createEmptyRowElement(int index) {
-        tbody.insertRow( index );
+        TableRowElement tre = tbody.insertRow( index );
+        makePlaceholderRowElement( tre );
         fixRowStyles( index );
+        scheduleWindowUpdate( true );
     }
 
     @Override
     protected void createRowElement(int index,
                                     DynamicDataRow rowData) {
         TableRowElement tre = tbody.insertRow( index );
-        populateTableRowElement( tre,
-                                 rowData );
+        if ( isRowInWindow( index ) ) {
+            populateTableRowElement( tre,
+                                     rowData );
+        } else {
+            makePlaceholderRowElement( tre );
+        }
         fixRowStyles( index );
+        scheduleWindowUpdate( true );
     }
 
     @Override
     protected void deleteRowElement(int index) {
         Node tre = tbody.getChild( index );
         tbody.removeChild( tre );
+        scheduleWindowUpdate( true );
     }
 
     @Override
@@ -569,19 +626,36 @@ public abstract class AbstractVerticalMergableGridWidget<M, T> extends AbstractM
             throw new IllegalArgumentException( "startRedrawIndex cannot be greater than endRedrawIndex." );
         }
 
+        //Merging may have changed since the window was set, so extend it again
+        //to include whole merged cells before deciding which rows to render
+        if ( isWindowed() ) {
+            setWindow( windowStart,
+                       windowEnd );
+        }
+
         //Redraw replacement rows
         for ( int iRow = startRedrawIndex; iRow <= endRedrawIndex; iRow++ ) {
 
             DynamicDataRow rowData = data.get( iRow );
 
             TableRowElement tre = Document.get().createTRElement();
-            populateTableRowElement( tre,
-                                     rowData );
+            if ( isRowInWindow( iRow ) ) {
+                populateTableRowElement( tre,
+                                         rowData );
+            } else {
+                makePlaceholderRowElement( tre );
+            }
             tbody.replaceChild( tre,
                                 tbody.getChild( iRow ) );
         }
 
         fixRowStyles( startRedrawIndex );
+
+        //Render rows outside those redrawn that the window has been extended over
+        if ( isWindowed() ) {
+            synchroniseRows( windowStart,
+                             windowEnd );
+        }
     }
 
     @Override
@@ -594,6 +668,7 @@ public abstract class AbstractVerticalMergableGridWidget<M, T> extends AbstractM
         }
         tbody.deleteRow( index );
         fixRowStyles( index );
+        scheduleWindowUpdate( true );
     }
 
     @Override
@@ -606,6 +681,11 @@ public abstract class AbstractVerticalMergableGridWidget<M, T> extends AbstractM
         Coordinate hc = cell.getHtmlCoordinate();
         TableRowElement tre = tbody.getRows().getItem( hc.getRow() )
                 .<TableRowElement> cast();
+
+        //Rows outside the window are styled when they are rendered
+        if ( !isRowRendered( tre ) ) {
+            return;
+        }
         TableCellElement tce = tre.getCells().getItem( hc.getCol() )
                 .<TableCellElement> cast();
 
@@ -645,6 +725,9 @@ public abstract class AbstractVerticalMergableGridWidget<M, T> extends AbstractM
             if ( cell.getRowSpan() > 0 ) {
                 Coordinate hc = cell.getHtmlCoordinate();
                 TableRowElement tre = tbody.getRows().getItem( hc.getRow() );
+                if ( !isRowRendered( tre ) ) {
+                    continue;
+                }
                 TableCellElement tce = tre.getCells().getItem( hc.getCol() );
                 tre.removeChild( tce );
             }
@@ -658,6 +741,7 @@ public abstract class AbstractVerticalMergableGridWidget<M, T> extends AbstractM
         }
 
         Coordinate hc = cell.getHtmlCoordinate();
+        ensureRowRendered( hc.getRow() );
         TableRowElement tre = tbody.getRows().getItem( hc.getRow() )
                 .<TableRowElement> cast();
         TableCellElement tce = tre.getCells().getItem( hc.getCol() )
@@ -684,6 +768,9 @@ public abstract class AbstractVerticalMergableGridWidget<M, T> extends AbstractM
         }
 
         for ( int iRow = 0; iRow < data.size(); iRow++ ) {
+            if ( !isRowRendered( tbody.getRows().getItem( iRow ) ) ) {
+                continue;
+            }
             DynamicDataRow rowData = data.get( iRow );
             TableCellElement tce = makeTableCellElement( index,
                                                          rowData );
@@ -700,4 +787,160 @@ public abstract class AbstractVerticalMergableGridWidget<M, T> extends AbstractM
         }
     }
 
+    @Override
+    public void setViewport(int top,
+                            int height) {
+        this.viewportTop = top;
+        this.viewportHeight = height;
+        if ( isWindowed() ) {
+            scheduleWindowUpdate( false );
+        }
+    }
+
+    @Override
+    void ensureRowRendered(int index) {
+        if ( index < 0 || index >= tbody.getRows().getLength() ) {
+            return;
+        }
+        if ( isRowRendered( tbody.getRows().getItem( index ) ) ) {
+            return;
+        }
+
+        //Move the window so it is centred on the row
+        int oldStart = windowStart;
+        int oldEnd = windowEnd;
+        int visibleRows = getVisibleRows();
+        setWindow( index - visibleRows / 2 - OVERSCAN_ROWS,
+                   index + visibleRows / 2 + OVERSCAN_ROWS );
+        synchroniseRows( oldStart,
+                         oldEnd );
+        synchroniseRows( windowStart,
+                         windowEnd );
+    }
+
+    // Whether the table is large enough to be rendered in a window
+    private boolean isWindowed() {
+        return data.size() > WINDOWING_THRESHOLD;
+    }
+
+    private boolean isRowInWindow(int iRow) {
+        return !isWindowed() || (iRow >= windowStart && iRow < windowEnd);
+    }
+
+    private boolean isRowRendered(TableRowElement tre) {
+        return tre.getPropertyBoolean( ROW_RENDERED );
+    }
+
+    private int getVisibleRows() {
+        if ( viewportHeight <= 0 ) {
+            return DEFAULT_VISIBLE_ROWS;
+        }
+        return viewportHeight / resources.rowHeight() + 1;
+    }
+
+    // Calculate the window from the viewport. Every row, including those with
+    // merged cells, is resources.rowHeight() high
+    private void calculateWindow() {
+        int firstVisibleRow = viewportTop / resources.rowHeight();
+        setWindow( firstVisibleRow - OVERSCAN_ROWS,
+                   firstVisibleRow + getVisibleRows() + OVERSCAN_ROWS );
+    }
+
+    // Set the window, extending it so merged cells are never split
+    private void setWindow(int start,
+                           int end) {
+        int size = data.size();
+        start = Math.max( 0,
+                          Math.min( start,
+                                    size ) );
+        end = Math.max( start,
+                        Math.min( end,
+                                  size ) );
+        if ( end > start ) {
+            RowRange range = data.extendToMergedCells( new RowRange( start,
+                                                                     end - 1 ) );
+            start = range.getMinRow();
+            end = range.getMaxRow() + 1;
+        }
+        windowStart = start;
+        windowEnd = end;
+    }
+
+    // Coalesce window updates, as scroll events arrive in quick succession.
+    // A full scan is needed after rows have been inserted or deleted, as the
+    // rendered rows may no longer match the window.
+    private void scheduleWindowUpdate(boolean fullScan) {
+        fullScanPending = fullScanPending || fullScan;
+        if ( windowUpdatePending ) {
+            return;
+        }
+        windowUpdatePending = true;
+        Scheduler.get().scheduleDeferred( new ScheduledCommand() {
+
+            public void execute() {
+                boolean fullScan = fullScanPending;
+                windowUpdatePending = false;
+                fullScanPending = false;
+                updateWindow( fullScan );
+            }
+
+        } );
+    }
+
+    private void updateWindow(boolean fullScan) {
+        int oldStart = windowStart;
+        int oldEnd = windowEnd;
+        calculateWindow();
+        if ( fullScan ) {
+            synchroniseRows( 0,
+                             tbody.getRows().getLength() );
+        } else {
+            synchroniseRows( oldStart,
+                             oldEnd );
+            synchroniseRows( windowStart,
+                             windowEnd );
+        }
+    }
+
+    // Render rows that have moved into the window and empty those that have
+    // moved out of it. The TR elements themselves are kept and reused.
+    private void synchroniseRows(int start,
+                                 int end) {
+        end = Math.min( end,
+                        Math.min( data.size(),
+                                  tbody.getRows().getLength() ) );
+        for ( int iRow = start; iRow < end; iRow++ ) {
+            TableRowElement tre = tbody.getRows().getItem( iRow );
+            boolean bRendered = isRowRendered( tre );
+            boolean bRequired = isRowInWindow( iRow );
+            if ( bRequired && !bRendered ) {
+                removeAllCells( tre );
+                populateTableRowElement( tre,
+                                         data.get( iRow ) );
+            } else if ( !bRequired && bRendered ) {
+                makePlaceholderRowElement( tre );
+            }
+        }
+    }
+
+    // Make a row outside the window. Browsers collapse TR elements without
+    // cells so it contains a single, empty, TD of the correct height
+    private void makePlaceholderRowElement(TableRowElement tre) {
+        removeAllCells( tre );
+        tre.getStyle().setHeight( resources.rowHeight(),
+                                  Unit.PX );
+        TableCellElement tce = Document.get().createTDElement();
+        tce.getStyle().setHeight( resources.rowHeight(),
+                                  Unit.PX );
+        tre.appendChild( tce );
+        tre.setPropertyBoolean( ROW_RENDERED,
+                                false );
+    }
+
+    private void removeAllCells(TableRowElement tre) {
+        while ( tre.getFirstChild() != null ) {
+            tre.removeChild( tre.getFirstChild() );
+        }
+    }
+
 }
@@ -124,7 +124,11 @@ public class DynamicData
         data.add( index,
                   rowData );
 
-        assertModelMerging();
+        //Merging can only be affected around the new row
+        for ( CellValue< ? > cell : rowData ) {
+            cell.setRowSpan( 1 );
+        }
+        assertRowMerging( index );
     }
 
     /**
@@ -196,10 +200,49 @@ public class DynamicData
 
     public DynamicDataRow deleteRow(int index) {
         DynamicDataRow row = data.remove( index );
-        assertModelMerging();
+
+        //Merging can only be affected around the deleted row
+        assertRowMerging( index );
         return row;
     }
 
+    /**
+     * Extend a range of rows so that it includes the whole of every merged
+     * cell that starts or ends within it
+     *
+     * @param range
+     *            Inclusive range of rows, within the bounds of the data
+     * @return The extended range
+     */
+    public RowRange extendToMergedCells(RowRange range) {
+        int minRow = range.getMinRow();
+        int maxRow = range.getMaxRow();
+        boolean bExtended = true;
+        while ( bExtended ) {
+            bExtended = false;
+            while ( minRow > 0 && isMergedWithRowAbove( minRow ) ) {
+                minRow--;
+                bExtended = true;
+            }
+            while ( maxRow < data.size() - 1 && isMergedWithRowAbove( maxRow + 1 ) ) {
+                maxRow++;
+                bExtended = true;
+            }
+        }
+        return new RowRange( minRow,
+                             maxRow );
+    }
+
+    //Whether any cell in the row is part of a merged cell starting above it
+    private boolean isMergedWithRowAbove(int iRow) {
+        for ( CellValue< ? > cell : data.get( iRow ) ) {
+            if ( cell.getRowSpan() == 0 ) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Get the CellValue at the given coordinate
      * 
@@ -293,7 +336,7 @@ public class DynamicData
         //Delete "grouped" row and replace with individual rows
         List<DynamicDataRow> expandedRow = expandGroupedRow( row,
                                                              bRecursive );
-        deleteRow( startRowIndex );
+        data.remove( startRowIndex );
         data.addAll( startRowIndex,
                      expandedRow );
 
@@ -321,18 +364,55 @@ public class DynamicData
     }
 
     /**
-     * Set the value at the specified coordinate
-     * 
+     * Set the value at the specified coordinate. Only the merged cells in the
+     * column either side of the coordinate are re-evaluated.
+     *
      * @param c
      * @param value
+     * @return The rows affected by the change, which need to be redrawn
      */
-    public void set(Coordinate c,
-                    Object value) {
+    public RowRange set(Coordinate c,
+                        Object value) {
         if ( c == null ) {
             throw new IllegalArgumentException( "c cannot be null" );
         }
         data.get( c.getRow() ).get( c.getCol() ).setValue( value );
-        assertModelMerging();
+        return assertCellMerging( c );
+    }
+
+    /**
+     * Ensure merging and indexing is reflected around a single cell. This
+     * should be called whenever the value or state of a cell is changed
+     * externally to the set method provided publicly herein.
+     *
+     * @param c
+     * @return The rows affected by the change, which need to be redrawn
+     */
+    public RowRange assertCellMerging(Coordinate c) {
+        if ( c == null ) {
+            throw new IllegalArgumentException( "c cannot be null" );
+        }
+        int iRow = c.getRow();
+        int iCol = c.getCol();
+        if ( !isMerged ) {
+            return new RowRange( iRow,
+                                 iRow );
+        }
+
+        //Merging can only change between the merged cell above and the merged cell below
+        int minRowIndex = findMergedCellStart( Math.max( iRow - 1,
+                                                         0 ),
+                                               iCol );
+        int maxRowIndex = findMergedCellEnd( Math.min( iRow + 1,
+                                                       data.size() - 1 ),
+                                             iCol );
+        mergeColumn( iCol,
+                     minRowIndex,
+                     maxRowIndex );
+        maxRowIndex = assertModelIndexes( minRowIndex,
+                                          maxRowIndex );
+        return new RowRange( minRowIndex,
+                             maxRowIndex );
     }
 
     /**
@@ -462,10 +542,33 @@ public class DynamicData
         if ( data.size() == 0 ) {
             return;
         }
+        assertModelIndexes( 0,
+                            data.size() - 1 );
+    }
 
-        for ( int iRow = 0; iRow < data.size(); iRow++ ) {
+    //Index the rows between minRowIndex and maxRowIndex (inclusive). Rows below the range containing
+    //merged cells are also indexed, as they take their HTML coordinates from the rows above them.
+    //Returns the index of the last row indexed.
+    private int assertModelIndexes(int minRowIndex,
+                                   int maxRowIndex) {
+
+        while ( maxRowIndex < data.size() - 1 && hasMergedCell( data.get( maxRowIndex + 1 ) ) ) {
+            maxRowIndex++;
+        }
+
+        for ( int iRow = minRowIndex; iRow <= maxRowIndex; iRow++ ) {
             DynamicDataRow row = data.get( iRow );
 
+            //Initialise coordinates of the row, as the number of HTML elements may have changed
+            for ( int iCol = 0; iCol < row.size(); iCol++ ) {
+                Coordinate c = new Coordinate( iRow,
+                                               iCol );
+                CellValue< ? extends Comparable< ? >> cell = row.get( iCol );
+                cell.setCoordinate( c );
+                cell.setHtmlCoordinate( c );
+                cell.setPhysicalCoordinate( c );
+            }
+
             int colCount = 0;
             for ( int iCol = 0; iCol < row.size(); iCol++ ) {
 
@@ -477,7 +580,7 @@ public class DynamicData
                 // map between HTML elements and the data behind
                 if ( visibleColumns.get( iCol ) ) {
 
-                    if ( indexCell.getRowSpan() != 0 ) {
+                    if ( indexCell.getRowSpan() != 0 || iRow == 0 ) {
                         newRow = iRow;
                         newCol = colCount++;
 
@@ -499,6 +602,17 @@ public class DynamicData
                                                              newCol ) );
             }
         }
+        return maxRowIndex;
+    }
+
+    //Check whether a row contains a visible cell merged with the row above
+    private boolean hasMergedCell(DynamicDataRow row) {
+        for ( int iCol = 0; iCol < row.size(); iCol++ ) {
+            if ( visibleColumns.get( iCol ) && row.get( iCol ).getRowSpan() == 0 ) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
@@ -507,7 +621,6 @@ public class DynamicData
      * to the add/remove methods provided publicly herein, such as bulk move
      * operations.
      */
-    @SuppressWarnings({"unchecked", "rawtypes"})
     public void assertModelMerging() {
 
         if ( data.size() == 0 ) {
@@ -517,81 +630,113 @@ public class DynamicData
         //Remove merging first as it initialises all coordinates
         removeModelMerging();
 
-        final int COLUMNS = data.get( 0 ).size();
-
         //Only apply merging if merged
         if ( isMerged ) {
 
-            int minRowIndex = 0;
-            int maxRowIndex = data.size();
-
-            //Add an empty row to the end of the data to simplify detection of merged cells that run to the end of the table
-            DynamicDataRow blankRow = new DynamicDataRow();
+            //Look in columns for cells with identical values
+            final int COLUMNS = data.get( 0 ).size();
             for ( int iCol = 0; iCol < COLUMNS; iCol++ ) {
-                CellValue cv = new CellValue( null );
-                Coordinate c = new Coordinate( data.size(),
-                                               iCol );
-                cv.setCoordinate( c );
-                cv.setHtmlCoordinate( c );
-                cv.setPhysicalCoordinate( c );
-                blankRow.add( cv );
+                mergeColumn( iCol,
+                             0,
+                             data.size() - 1 );
             }
-            data.add( blankRow );
-            maxRowIndex++;
 
-            //Look in columns for cells with identical values
-            for ( int iCol = 0; iCol < COLUMNS; iCol++ ) {
-                CellValue< ? > cell1 = data.get( minRowIndex ).get( iCol );
-                CellValue< ? > cell2 = null;
-                for ( int iRow = minRowIndex + 1; iRow < maxRowIndex; iRow++ ) {
-                    cell1.setRowSpan( 1 );
-                    cell2 = data.get( iRow ).get( iCol );
-
-                    //Merge if both cells contain the same value and neither is grouped
-                    boolean bSplit = true;
-                    if ( !cell1.isEmpty() && !cell2.isEmpty() ) {
-                        if ( cell1.getValue().equals( cell2.getValue() ) ) {
-                            bSplit = false;
-                            if ( cell1 instanceof GroupedCellValue ) {
-                                bSplit = true;
-                            }
-                            if ( cell2 instanceof GroupedCellValue ) {
-                                bSplit = true;
-                            }
-                        }
-                    } else if ( cell1.isOtherwise() && cell2.isOtherwise() ) {
-                        bSplit = false;
-                        if ( cell1 instanceof GroupedCellValue ) {
-                            GroupedCellValue gcv = (GroupedCellValue) cell1;
-                            if ( gcv.hasMultipleValues() ) {
-                                bSplit = true;
-                            }
-                        }
-                        if ( cell2 instanceof GroupedCellValue ) {
-                            GroupedCellValue gcv = (GroupedCellValue) cell2;
-                            if ( gcv.hasMultipleValues() ) {
-                                bSplit = true;
-                            }
-                        }
-                    }
+            // Set indexes after merging has been corrected
+            assertModelIndexes();
+        }
 
-                    if ( bSplit ) {
-                        mergeCells( cell1,
-                                    cell2 );
-                        cell1 = cell2;
-                    }
+    }
 
-                }
+    //Re-evaluate merging around a row that has been inserted or deleted at the given index. Rows from
+    //the start of the affected merged cells to the end of the table are re-indexed, as inserting or
+    //deleting a row moves the coordinates of every row below it.
+    private void assertRowMerging(int index) {
+
+        if ( data.size() == 0 ) {
+            return;
+        }
+
+        int minRowIndex = Math.min( index,
+                                    data.size() - 1 );
+        if ( isMerged ) {
+            final int COLUMNS = data.get( 0 ).size();
+            for ( int iCol = 0; iCol < COLUMNS; iCol++ ) {
+                int startRowIndex = findMergedCellStart( Math.max( index - 1,
+                                                                   0 ),
+                                                         iCol );
+                int endRowIndex = findMergedCellEnd( Math.min( index + 1,
+                                                               data.size() - 1 ),
+                                                     iCol );
+                mergeColumn( iCol,
+                             startRowIndex,
+                             endRowIndex );
+                minRowIndex = Math.min( minRowIndex,
+                                        startRowIndex );
             }
+        }
 
-            //Remove dummy blank row
-            data.remove( blankRow );
+        assertModelIndexes( minRowIndex,
+                            data.size() - 1 );
+    }
 
+    //Merge cells with identical values in a column between minRowIndex and maxRowIndex (inclusive).
+    //The range should start and end on the boundaries of merged cells.
+    private void mergeColumn(int iCol,
+                             int minRowIndex,
+                             int maxRowIndex) {
+        int iStartRowIndex = minRowIndex;
+        CellValue< ? > cell1 = data.get( minRowIndex ).get( iCol );
+        for ( int iRow = minRowIndex + 1; iRow <= maxRowIndex; iRow++ ) {
+            CellValue< ? > cell2 = data.get( iRow ).get( iCol );
+            if ( isSplit( cell1,
+                          cell2 ) ) {
+                mergeCells( iCol,
+                            iStartRowIndex,
+                            iRow );
+                cell1 = cell2;
+                iStartRowIndex = iRow;
+            }
         }
 
-        // Set indexes after merging has been corrected
-        assertModelIndexes();
+        //The end of the range always ends a merged cell
+        mergeCells( iCol,
+                    iStartRowIndex,
+                    maxRowIndex + 1 );
+    }
+
+    //Check whether a cell should be split from the first cell of the merged cell above it
+    @SuppressWarnings("rawtypes")
+    private boolean isSplit(CellValue< ? > cell1,
+                            CellValue< ? > cell2) {
 
+        //Merge if both cells contain the same value and neither is grouped
+        boolean bSplit = true;
+        if ( !cell1.isEmpty() && !cell2.isEmpty() ) {
+            if ( cell1.getValue().equals( cell2.getValue() ) ) {
+                bSplit = false;
+                if ( cell1 instanceof GroupedCellValue ) {
+                    bSplit = true;
+                }
+                if ( cell2 instanceof GroupedCellValue ) {
+                    bSplit = true;
+                }
+            }
+        } else if ( cell1.isOtherwise() && cell2.isOtherwise() ) {
+            bSplit = false;
+            if ( cell1 instanceof GroupedCellValue ) {
+                GroupedCellValue gcv = (GroupedCellValue) cell1;
+                if ( gcv.hasMultipleValues() ) {
+                    bSplit = true;
+                }
+            }
+            if ( cell2 instanceof GroupedCellValue ) {
+                GroupedCellValue gcv = (GroupedCellValue) cell2;
+                if ( gcv.hasMultipleValues() ) {
+                    bSplit = true;
+                }
+            }
+        }
+        return bSplit;
     }
 
     //Expand a grouped row and return a list of expanded rows
@@ -648,19 +793,35 @@ public class DynamicData
         return nc;
     }
 
-    //Merge between the two provided cells
-    private void mergeCells(CellValue< ? > cell1,
-                            CellValue< ? > cell2) {
-        int iStartRowIndex = cell1.getCoordinate().getRow();
-        int iEndRowIndex = cell2.getCoordinate().getRow();
-        int iColIndex = cell1.getCoordinate().getCol();
+    //Find the first row of the merged cell containing the given row
+    private int findMergedCellStart(int iRow,
+                                    int iCol) {
+        while ( iRow > 0 && data.get( iRow ).get( iCol ).getRowSpan() == 0 ) {
+            iRow--;
+        }
+        return iRow;
+    }
+
+    //Find the last row of the merged cell containing the given row
+    private int findMergedCellEnd(int iRow,
+                                  int iCol) {
+        while ( iRow < data.size() - 1 && data.get( iRow + 1 ).get( iCol ).getRowSpan() == 0 ) {
+            iRow++;
+        }
+        return iRow;
+    }
+
+    //Merge cells in a column between the two provided rows (start inclusive, end exclusive)
+    private void mergeCells(int iColIndex,
+                            int iStartRowIndex,
+                            int iEndRowIndex) {
 
         //Any rows that are grouped need row span of zero
         for ( int iRow = iStartRowIndex; iRow < iEndRowIndex; iRow++ ) {
             DynamicDataRow row = data.get( iRow );
             row.get( iColIndex ).setRowSpan( 0 );
         }
-        cell1.setRowSpan( iEndRowIndex - iStartRowIndex );
+        data.get( iStartRowIndex ).get( iColIndex ).setRowSpan( iEndRowIndex - iStartRowIndex );
 
     }
 
@@ -682,7 +843,7 @@ public class DynamicData
             if ( row instanceof GroupedDynamicDataRow ) {
                 List<DynamicDataRow> expandedRow = expandGroupedRow( row,
                                                                      true );
-                deleteRow( iRow );
+                data.remove( iRow );
                 data.addAll( iRow,
                              expandedRow );
                 iRow = iRow + expandedRow.size() - 1;
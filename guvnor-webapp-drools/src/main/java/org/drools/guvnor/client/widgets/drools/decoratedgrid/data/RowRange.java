@@ -0,0 +1,79 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.drools.guvnor.client.widgets.drools.decoratedgrid.data;
+
+/**
+ * An inclusive range of rows affected by a change to DynamicData, and hence
+ * the rows that need to be redrawn
+ */
+public class RowRange {
+    private final int minRow;
+    private final int maxRow;
+
+    public RowRange(int minRow,
+                    int maxRow) {
+        this.minRow = minRow;
+        this.maxRow = maxRow;
+    }
+
+    public int getMinRow() {
+        return this.minRow;
+    }
+
+    public int getMaxRow() {
+        return this.maxRow;
+    }
+
+    /**
+     * Return the smallest range covering both this and another range
+     *
+     * @param other
+     *            The other range, can be null
+     * @return
+     */
+    public RowRange union(RowRange other) {
+        if ( other == null ) {
+            return this;
+        }
+        return new RowRange( Math.min( this.minRow,
+                                       other.minRow ),
+                             Math.max( this.maxRow,
+                                       other.maxRow ) );
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if ( this == o ) {
+            return true;
+        }
+        if ( !(o instanceof RowRange) ) {
+            return false;
+        }
+        RowRange r = (RowRange) o;
+        return minRow == r.minRow && maxRow == r.maxRow;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * minRow + maxRow;
+    }
+
+    @Override
+    public String toString() {
+        return "(R" + minRow + "-R" + maxRow + ")";
+    }
+
+}
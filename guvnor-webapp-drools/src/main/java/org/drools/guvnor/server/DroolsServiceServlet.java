@@ -24,14 +24,13 @@ import org.drools.guvnor.client.rpc.ValidatedResponse;
 import org.jboss.solder.core.Veto;
 
 import com.google.gwt.user.client.rpc.SerializationException;
-import com.google.gwt.user.server.rpc.RemoteServiceServlet;
 
 /**
  * GWT Entry point for DroolService RPC calls
  */
 @Veto
 public class DroolsServiceServlet
-        extends RemoteServiceServlet
+        extends MeteredRemoteServiceServlet
         implements
     DroolsService {
 
@@ -0,0 +1,222 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.guvnor.server;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.drools.ClockType;
+import org.drools.RuleBase;
+import org.drools.SessionConfiguration;
+import org.drools.common.InternalWorkingMemory;
+import org.drools.guvnor.client.rpc.DetailedSerializationException;
+import org.drools.guvnor.client.rpc.WorkItemService;
+import org.drools.guvnor.server.util.LoggingHelper;
+import org.drools.ide.common.shared.workitems.PortableWorkDefinition;
+import org.drools.rule.Package;
+import org.kie.runtime.process.WorkItem;
+import org.kie.runtime.process.WorkItemHandler;
+import org.kie.runtime.process.WorkItemManager;
+
+/**
+ * Creates the sessions used to run test scenarios. What the sessions of a module need (the imports for the type
+ * resolver and the names of the work item definitions) is resolved once per rule base of the module rather than for
+ * every run.
+ * <p/>
+ * Sessions are not pooled, every run gets a new one: a session that has been used can not be put back to the state of
+ * a new one, as the rules that only match the initial fact (rules with an empty LHS, or starting with a "not") would
+ * not be activated again. The rule base of a module is rebuilt when one of its assets changes, which makes the cached
+ * imports and work item definitions of the previous rule base unused.
+ */
+public class ScenarioSessionFactory {
+
+    private static final LoggingHelper log = LoggingHelper.getLogger(ScenarioSessionFactory.class);
+
+    private static final int MAX_MODULES = 100;
+    private static final ScenarioSessionFactory instance = new ScenarioSessionFactory();
+
+    private final Map<String, ModuleRuleBase> modules = new LinkedHashMap<String, ModuleRuleBase>(16,
+            0.75f,
+            true) {
+        private static final long serialVersionUID = 510l;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ModuleRuleBase> eldest) {
+            return size() > MAX_MODULES;
+        }
+    };
+
+    ScenarioSessionFactory() {
+    }
+
+    public static ScenarioSessionFactory getInstance() {
+        return instance;
+    }
+
+    /**
+     * @return a new session for the rule base of the module, which is to be disposed of once it has been run.
+     */
+    public ScenarioSession newSession(String moduleUUID,
+                                      RuleBase ruleBase,
+                                      WorkItemService workItemService) throws DetailedSerializationException {
+        ModuleRuleBase moduleRuleBase;
+        synchronized (modules) {
+            moduleRuleBase = modules.get(moduleUUID);
+        }
+        if (moduleRuleBase == null || moduleRuleBase.ruleBase != ruleBase) {
+            moduleRuleBase = new ModuleRuleBase(ruleBase,
+                    getAllImports(ruleBase.getPackages()[0]),
+                    loadWorkItemNames(moduleUUID,
+                            workItemService));
+            synchronized (modules) {
+                modules.put(moduleUUID,
+                        moduleRuleBase);
+            }
+        }
+
+        return new ScenarioSession(moduleRuleBase,
+                newWorkingMemory(moduleRuleBase));
+    }
+
+    /**
+     * Drops the imports and work item definitions of the module.
+     */
+    public void remove(String moduleUUID) {
+        synchronized (modules) {
+            modules.remove(moduleUUID);
+        }
+    }
+
+    public void clear() {
+        synchronized (modules) {
+            modules.clear();
+        }
+    }
+
+    private InternalWorkingMemory newWorkingMemory(ModuleRuleBase moduleRuleBase) {
+        SessionConfiguration sessionConfiguration = new SessionConfiguration();
+        sessionConfiguration.setClockType(ClockType.PSEUDO_CLOCK);
+        sessionConfiguration.setKeepReference(false);
+        InternalWorkingMemory workingMemory = (InternalWorkingMemory) moduleRuleBase.ruleBase.newStatefulSession(
+                sessionConfiguration,
+                null);
+
+        //Add stub Work Item Handlers
+        WorkItemHandler workItemHandlerStub = getWorkItemHandlerStub();
+        for (String workItemName : moduleRuleBase.workItemNames) {
+            workingMemory.getWorkItemManager().registerWorkItemHandler(
+                    workItemName,
+                    workItemHandlerStub);
+        }
+        return workingMemory;
+    }
+
+    private Set<String> getAllImports(Package aPackage) {
+        Set<String> allImports = new HashSet<String>(aPackage.getImports().keySet());
+
+        if (aPackage.getGlobals() != null) {
+            for (Object o : aPackage.getGlobals().keySet()) {
+                allImports.add(aPackage.getGlobals().get(o));
+            }
+        }
+        // need this for Generated beans to work
+        allImports.add(aPackage.getName() + ".*");
+        return Collections.unmodifiableSet(allImports);
+    }
+
+    private Set<String> loadWorkItemNames(String moduleUUID,
+                                          WorkItemService workItemService) throws DetailedSerializationException {
+        Set<String> workItemNames = new HashSet<String>();
+        for (PortableWorkDefinition portableWorkDefinition : workItemService.loadWorkItemDefinitions(moduleUUID)) {
+            workItemNames.add(portableWorkDefinition.getName());
+        }
+        return workItemNames;
+    }
+
+    //Creates a stub Work Item Handler that does nothing. A problem is that if the *real* Work Item Handler
+    //sets a Result Parameter that is used in other rules the results of running the Test Scenario could (or
+    //more likely would) be different than those expected. We can't use the *real* Work Item Handler as we
+    //have no control what code it executes unless we look into using SecurityManagers...
+    private WorkItemHandler getWorkItemHandlerStub() {
+        return new WorkItemHandler() {
+
+            public void executeWorkItem(WorkItem workItem,
+                                        WorkItemManager manager) {
+                //Does absolute nothing, however could log execution if needed
+            }
+
+            public void abortWorkItem(WorkItem workItem,
+                                      WorkItemManager manager) {
+            }
+
+        };
+    }
+
+    /**
+     * A new session, with the imports of its module.
+     */
+    public static class ScenarioSession {
+
+        private final ModuleRuleBase moduleRuleBase;
+        private final InternalWorkingMemory workingMemory;
+
+        private ScenarioSession(ModuleRuleBase moduleRuleBase,
+                                InternalWorkingMemory workingMemory) {
+            this.moduleRuleBase = moduleRuleBase;
+            this.workingMemory = workingMemory;
+        }
+
+        public InternalWorkingMemory getWorkingMemory() {
+            return workingMemory;
+        }
+
+        public Set<String> getImports() {
+            return moduleRuleBase.imports;
+        }
+
+        public void dispose() {
+            try {
+                workingMemory.dispose();
+            } catch (RuntimeException e) {
+                log.warn("Unable to dispose of a test scenario session.",
+                        e);
+            }
+        }
+
+    }
+
+    //A rule base of a module, with what its sessions need
+    private static class ModuleRuleBase {
+
+        private final RuleBase ruleBase;
+        private final Set<String> imports;
+        private final Set<String> workItemNames;
+
+        private ModuleRuleBase(RuleBase ruleBase,
+                               Set<String> imports,
+                               Set<String> workItemNames) {
+            this.ruleBase = ruleBase;
+            this.imports = imports;
+            this.workItemNames = workItemNames;
+        }
+
+    }
+
+}
@@ -16,7 +16,6 @@
 package org.drools.guvnor.server;
 
 import com.google.gwt.user.client.rpc.SerializationException;
-import com.google.gwt.user.server.rpc.RemoteServiceServlet;
 import com.thoughtworks.xstream.XStream;
 import com.thoughtworks.xstream.io.xml.DomDriver;
 import java.util.ArrayList;
@@ -47,7 +46,7 @@ import org.drools.guvnor.client.rpc.PathImpl;
  * All the needed Services in order to get Guvnor's Editors running as standalone
  * app.
  */
-public class StandaloneEditorServiceImplementation extends RemoteServiceServlet
+public class StandaloneEditorServiceImplementation extends MeteredRemoteServiceServlet
         implements
         StandaloneEditorService {
 
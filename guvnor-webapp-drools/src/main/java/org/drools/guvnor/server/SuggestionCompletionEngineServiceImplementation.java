@@ -17,21 +17,63 @@
 package org.drools.guvnor.server;
 
 import com.google.gwt.user.client.rpc.SerializationException;
+import org.drools.guvnor.client.common.AssetFormats;
 import org.drools.guvnor.client.rpc.SuggestionCompletionEngineService;
 import org.drools.guvnor.server.repository.Preferred;
 import org.drools.guvnor.server.util.LoggingHelper;
+import org.drools.ide.common.client.modeldriven.FactTypeDetails;
 import org.drools.ide.common.client.modeldriven.SuggestionCompletionEngine;
+import org.drools.repository.AssetItem;
 import org.drools.repository.ModuleItem;
 import org.drools.repository.RulesRepository;
 import org.drools.repository.RulesRepositoryException;
+import org.drools.repository.VersionableItem;
+import org.drools.repository.metrics.CacheMeter;
+import org.drools.repository.metrics.Metrics;
 
 import javax.inject.Inject;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 public class SuggestionCompletionEngineServiceImplementation
         implements SuggestionCompletionEngineService {
 
     private static final LoggingHelper log = LoggingHelper.getLogger(SuggestionCompletionEngineService.class);
 
+    /**
+     * If true, clients are sent slim engines, with the names of the fact types only.
+     */
+    public static final String SLIM_PROPERTY = "guvnor.suggestionCompletionEngine.slim";
+
+    private static final int CACHE_SIZE = Integer.getInteger("guvnor.suggestionCompletionEngine.cacheSize",
+            20);
+
+    // The engine of each package, with the versions of the assets it was loaded from. It is only loaded and hashed
+    // again when one of these has changed.
+    private static final Map<String, CachedEngine> engines = new LinkedHashMap<String, CachedEngine>(16,
+            0.75f,
+            true) {
+        private static final long serialVersionUID = 510l;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedEngine> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    // Engines the clients already had, and engines that did not have to be loaded again
+    private static final CacheMeter clientMeter = Metrics.getInstance().cacheMeter("cache.suggestionCompletionEngine.client");
+    private static final CacheMeter serverMeter = Metrics.getInstance().cacheMeter("cache.suggestionCompletionEngine.server");
+
     @Inject @Preferred
     private RulesRepository rulesRepository;
 
@@ -48,4 +90,154 @@ public class SuggestionCompletionEngineServiceImplementation
         }
         return suggestionCompletionEngine;
     }
+
+    public SuggestionCompletionEngine loadSuggestionCompletionEngine(String packageName,
+                                                                     String knownContentHash) throws SerializationException {
+        SuggestionCompletionEngine suggestionCompletionEngine = loadCurrentEngine(packageName);
+        if (suggestionCompletionEngine.getContentHash().equals(knownContentHash)) {
+            clientMeter.hit();
+            return null;
+        }
+        clientMeter.miss();
+        if (Boolean.getBoolean(SLIM_PROPERTY)) {
+            return suggestionCompletionEngine.createSlimCopy();
+        }
+        return suggestionCompletionEngine;
+    }
+
+    public FactTypeDetails[] loadFactTypeDetails(String packageName,
+                                                 String contentHash,
+                                                 String[] factTypes) throws SerializationException {
+        SuggestionCompletionEngine suggestionCompletionEngine = loadCurrentEngine(packageName);
+        if (!suggestionCompletionEngine.getContentHash().equals(contentHash)) {
+            //the details would not match the rest of the engine the client has
+            return null;
+        }
+
+        List<FactTypeDetails> details = new ArrayList<FactTypeDetails>();
+        for (String factType : factTypes) {
+            FactTypeDetails factTypeDetails = suggestionCompletionEngine.getFactTypeDetails(factType);
+            if (factTypeDetails != null) {
+                details.add(factTypeDetails);
+            }
+        }
+        return details.toArray(new FactTypeDetails[details.size()]);
+    }
+
+    private SuggestionCompletionEngine loadCurrentEngine(String packageName) throws SerializationException {
+        ModuleItem packageItem;
+        String sourceVersions;
+        try {
+            packageItem = rulesRepository.loadModule(packageName);
+            sourceVersions = getSourceVersions(packageItem);
+        } catch (RulesRepositoryException e) {
+            log.error("An error occurred loadSuggestionCompletionEngine: " + e.getMessage());
+            throw new SerializationException(e.getMessage());
+        }
+
+        CachedEngine cachedEngine;
+        synchronized (engines) {
+            cachedEngine = engines.get(packageName);
+        }
+        if (cachedEngine != null && cachedEngine.sourceVersions.equals(sourceVersions)) {
+            serverMeter.hit();
+            return cachedEngine.suggestionCompletionEngine;
+        }
+        serverMeter.miss();
+
+        SuggestionCompletionEngine suggestionCompletionEngine = new SuggestionCompletionEngineLoaderInitializer().loadFor(packageItem);
+        suggestionCompletionEngine.setContentHash(contentHash(suggestionCompletionEngine));
+        synchronized (engines) {
+            engines.put(packageName,
+                    new CachedEngine(sourceVersions,
+                            suggestionCompletionEngine));
+        }
+        return suggestionCompletionEngine;
+    }
+
+    /**
+     * The versions of the package and of the assets an engine is loaded from: the header, the model jars, the
+     * declarative models, the DSLs and the enumerations.
+     */
+    private String getSourceVersions(ModuleItem packageItem) {
+        StringBuilder versions = new StringBuilder();
+        appendVersion(versions,
+                packageItem);
+        if (packageItem.containsAsset("drools")) {
+            appendVersion(versions,
+                    packageItem.loadAsset("drools"));
+        }
+        appendVersions(versions,
+                packageItem.listAssetsWithVersionsSpecifiedByDependenciesByFormat(AssetFormats.MODEL,
+                        AssetFormats.DSL));
+        appendVersions(versions,
+                packageItem.listAssetsByFormat(AssetFormats.DRL_MODEL,
+                        AssetFormats.ENUMERATION));
+        return versions.toString();
+    }
+
+    private void appendVersions(StringBuilder versions,
+                                Iterator<AssetItem> assets) {
+        while (assets.hasNext()) {
+            appendVersion(versions,
+                    assets.next());
+        }
+    }
+
+    private void appendVersion(StringBuilder versions,
+                               VersionableItem item) {
+        Calendar lastModified = item.getLastModified();
+        versions.append(item.getUUID()).append(':').append(item.getVersionNumber()).append(':')
+                .append(lastModified == null ? 0 : lastModified.getTimeInMillis()).append(';');
+    }
+
+    /**
+     * Hashes the serialized form of the engine, which is everything a client is sent.
+     */
+    private String contentHash(SuggestionCompletionEngine suggestionCompletionEngine) throws SerializationException {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("MD5");
+            ObjectOutputStream out = new ObjectOutputStream(new OutputStream() {
+                @Override
+                public void write(int b) {
+                    digest.update((byte) b);
+                }
+
+                @Override
+                public void write(byte[] b,
+                                  int off,
+                                  int len) {
+                    digest.update(b,
+                            off,
+                            len);
+                }
+            });
+            out.writeObject(suggestionCompletionEngine);
+            out.close();
+
+            StringBuilder hash = new StringBuilder();
+            for (byte b : digest.digest()) {
+                hash.append(Integer.toHexString((b & 0xff) | 0x100).substring(1));
+            }
+            return hash.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        } catch (IOException e) {
+            log.error("Unable to hash the SuggestionCompletionEngine: " + e.getMessage());
+            throw new SerializationException(e.getMessage());
+        }
+    }
+
+    private static class CachedEngine {
+
+        private final String sourceVersions;
+        private final SuggestionCompletionEngine suggestionCompletionEngine;
+
+        private CachedEngine(String sourceVersions,
+                             SuggestionCompletionEngine suggestionCompletionEngine) {
+            this.sourceVersions = sourceVersions;
+            this.suggestionCompletionEngine = suggestionCompletionEngine;
+        }
+
+    }
 }
@@ -17,8 +17,8 @@
 package org.drools.guvnor.server;
 
 import com.google.gwt.user.client.rpc.SerializationException;
-import com.google.gwt.user.server.rpc.RemoteServiceServlet;
 import org.drools.guvnor.client.rpc.SuggestionCompletionEngineService;
+import org.drools.ide.common.client.modeldriven.FactTypeDetails;
 import org.drools.ide.common.client.modeldriven.SuggestionCompletionEngine;
 import org.jboss.solder.core.Veto;
 
@@ -26,7 +26,7 @@ import javax.inject.Inject;
 
 @Veto
 public class SuggestionCompletionEngineServiceServlet
-        extends RemoteServiceServlet
+        extends MeteredRemoteServiceServlet
         implements SuggestionCompletionEngineService {
 
     @Inject
@@ -36,4 +36,20 @@ public class SuggestionCompletionEngineServiceServlet
     public SuggestionCompletionEngine loadSuggestionCompletionEngine(String packageName) throws SerializationException {
         return suggestionCompletionEngineService.loadSuggestionCompletionEngine(packageName);
     }
+
+    @Override
+    public SuggestionCompletionEngine loadSuggestionCompletionEngine(String packageName,
+                                                                     String knownContentHash) throws SerializationException {
+        return suggestionCompletionEngineService.loadSuggestionCompletionEngine(packageName,
+                knownContentHash);
+    }
+
+    @Override
+    public FactTypeDetails[] loadFactTypeDetails(String packageName,
+                                                 String contentHash,
+                                                 String[] factTypes) throws SerializationException {
+        return suggestionCompletionEngineService.loadFactTypeDetails(packageName,
+                contentHash,
+                factTypes);
+    }
 }
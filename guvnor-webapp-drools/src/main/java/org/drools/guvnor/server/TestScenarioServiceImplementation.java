@@ -21,15 +21,12 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 
 import javax.inject.Inject;
 
-import org.drools.ClockType;
 import org.drools.RuleBase;
 import org.drools.RuleBaseConfiguration;
 import org.drools.RuleBaseFactory;
-import org.drools.SessionConfiguration;
 import org.drools.base.ClassTypeResolver;
 import org.drools.common.InternalRuleBase;
 import org.drools.common.InternalWorkingMemory;
@@ -52,15 +49,11 @@ import org.drools.guvnor.server.util.LoggingHelper;
 import org.drools.ide.common.client.modeldriven.testing.Scenario;
 import org.drools.ide.common.server.testscenarios.RuleCoverageListener;
 import org.drools.ide.common.server.testscenarios.ScenarioRunner;
-import org.drools.ide.common.shared.workitems.PortableWorkDefinition;
 import org.drools.repository.AssetItem;
 import org.drools.repository.AssetItemIterator;
 import org.drools.repository.ModuleItem;
 import org.drools.repository.RulesRepository;
 import org.drools.rule.Package;
-import org.kie.runtime.process.WorkItem;
-import org.kie.runtime.process.WorkItemHandler;
-import org.kie.runtime.process.WorkItemManager;
 import org.kie.runtime.rule.ConsequenceException;
 import org.kie.util.CompositeClassLoader;
 
@@ -123,34 +116,23 @@ public class TestScenarioServiceImplementation
                                              RuleCoverageListener coverage) throws DetailedSerializationException {
 
         RuleBase ruleBase = loadCacheRuleBase(item);
-        org.drools.rule.Package aPackage = ruleBase.getPackages()[0];
 
-        SessionConfiguration sessionConfiguration = new SessionConfiguration();
-        sessionConfiguration.setClockType(ClockType.PSEUDO_CLOCK);
-        sessionConfiguration.setKeepReference(false);
-        InternalWorkingMemory workingMemory = (InternalWorkingMemory) ruleBase.newStatefulSession(
-                sessionConfiguration,
-                null);
+        ScenarioSessionFactory.ScenarioSession session = ScenarioSessionFactory.getInstance().newSession(item.getUUID(),
+                ruleBase,
+                workItemService);
+        InternalWorkingMemory workingMemory = session.getWorkingMemory();
 
         if (coverage != null) {
             workingMemory.addEventListener(coverage);
         }
 
-        //Add stub Work Item Handlers
-        WorkItemHandler workItemHandlerStub = getWorkItemHandlerStub();
-        for (PortableWorkDefinition portableWorkDefinition : workItemService.loadWorkItemDefinitions(item.getUUID())) {
-            workingMemory.getWorkItemManager().registerWorkItemHandler(
-                    portableWorkDefinition.getName(),
-                    workItemHandlerStub);
-        }
-
         //Run Test Scenario
         try {
             AuditLogReporter logger = new AuditLogReporter(workingMemory);
             CompositeClassLoader classLoader = ((InternalRuleBase) ruleBase).getRootClassLoader();
             new ScenarioRunner(
                     new ClassTypeResolver(
-                            getAllImports(aPackage),
+                            session.getImports(),
                             classLoader),
                     classLoader,
                     workingMemory
@@ -158,7 +140,8 @@ public class TestScenarioServiceImplementation
 
             return new SingleScenarioResult(
                     new ScenarioRunResult(scenario),
-                    logger.buildReport());
+                    logger.buildReport(),
+                    logger.getEventCount());
         } catch (ClassNotFoundException e) {
             log.error("Unable to load a required class.",
                     e);
@@ -180,23 +163,11 @@ public class TestScenarioServiceImplementation
                     e);
             throw new DetailedSerializationException("Unable to run the scenario.",
                     e.getMessage());
+        } finally {
+            session.dispose();
         }
     }
 
-
-    private Set<String> getAllImports(Package aPackage) {
-        Set<String> allImports = new HashSet<String>(aPackage.getImports().keySet());
-
-        if (aPackage.getGlobals() != null) {
-            for (Object o : aPackage.getGlobals().keySet()) {
-                allImports.add(aPackage.getGlobals().get(o));
-            }
-        }
-        // need this for Generated beans to work
-        allImports.add(aPackage.getName() + ".*");
-        return allImports;
-    }
-
     /*
     * Set the Rule base in a cache
     */
@@ -291,25 +262,6 @@ public class TestScenarioServiceImplementation
         return h;
     }
 
-    //Creates a stub Work Item Handler that does nothing. A problem is that if the *real* Work Item Handler
-    //sets a Result Parameter that is used in other rules the results of running the Test Scenario could (or
-    //more likely would) be different than those expected. We can't use the *real* Work Item Handler as we
-    //have no control what code it executes unless we look into using SecurityManagers...
-    private WorkItemHandler getWorkItemHandlerStub() {
-        return new WorkItemHandler() {
-
-            public void executeWorkItem(WorkItem workItem,
-                                        WorkItemManager manager) {
-                //Does absolute nothing, however could log execution if needed
-            }
-
-            public void abortWorkItem(WorkItem workItem,
-                                      WorkItemManager manager) {
-            }
-
-        };
-    }
-
     private RuleBase loadRuleBase(ModuleItem item) throws DetailedSerializationException {
         try {
             return deserKnowledgebase(
@@ -17,7 +17,6 @@
 package org.drools.guvnor.server;
 
 import com.google.gwt.user.client.rpc.SerializationException;
-import com.google.gwt.user.server.rpc.RemoteServiceServlet;
 import org.drools.guvnor.client.rpc.BulkTestRunResult;
 import org.drools.guvnor.client.rpc.SingleScenarioResult;
 import org.drools.guvnor.client.rpc.TestScenarioService;
@@ -28,7 +27,7 @@ import javax.inject.Inject;
 
 @Veto
 public class TestScenarioServiceServlet
-        extends RemoteServiceServlet
+        extends MeteredRemoteServiceServlet
         implements TestScenarioService {
 
     @Inject
@@ -17,7 +17,6 @@
 package org.drools.guvnor.server;
 
 import com.google.gwt.user.client.rpc.SerializationException;
-import com.google.gwt.user.server.rpc.RemoteServiceServlet;
 import org.drools.guvnor.client.rpc.AnalysisReport;
 import org.drools.guvnor.client.rpc.Asset;
 import org.drools.guvnor.client.rpc.AssetService;
@@ -28,6 +27,7 @@ import org.drools.guvnor.server.repository.Preferred;
 import org.drools.guvnor.server.util.LoggingHelper;
 import org.drools.guvnor.server.verification.AssetVerifier;
 import org.drools.guvnor.server.verification.PackageVerifier;
+import org.drools.guvnor.server.verification.ShardedPackageVerifier;
 import org.drools.guvnor.server.verification.VerifierConfigurationFactory;
 import org.drools.repository.AssetItem;
 import org.drools.repository.RulesRepository;
@@ -36,6 +36,12 @@ import org.drools.verifier.VerifierConfiguration;
 import org.drools.verifier.builder.VerifierBuilderFactory;
 
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.inject.Inject;
 import org.drools.guvnor.client.rpc.WorkingSetConfigData;
 import org.drools.guvnor.server.verification.TemporalBRLAssetVerifier;
@@ -44,13 +50,28 @@ import org.drools.guvnor.client.rpc.Path;
 import org.drools.guvnor.client.rpc.PathImpl;
 
 public class VerificationServiceImplementation
-        extends RemoteServiceServlet
+        extends MeteredRemoteServiceServlet
         implements VerificationService {
 
     private static final long serialVersionUID = 510l;
 
     private static final LoggingHelper log = LoggingHelper.getLogger(VerificationService.class);
 
+    /**
+     * The number of shards packages are verified in, each on a thread of its
+     * own, set with the "guvnor.verifier.shards" system property. Packages
+     * are verified as a whole with 1.
+     */
+    private static final int VERIFIER_SHARDS = Integer.getInteger("guvnor.verifier.shards",
+            1);
+
+    /**
+     * The threads the shards of every package are verified on, so that no
+     * more than VERIFIER_SHARDS shards are verified at the same time. Idle
+     * threads are let go.
+     */
+    private static final ExecutorService shardExecutor = newShardExecutor();
+
     private final Verifier defaultVerifier = VerifierBuilderFactory.newVerifierBuilder().newVerifier();
 
     @Inject @Preferred
@@ -60,10 +81,20 @@ public class VerificationServiceImplementation
     protected AssetService repositoryAssetService;
 
     public AnalysisReport analysePackage(String packageUUID) throws SerializationException {
-        AnalysisReport report = new PackageVerifier(
-                defaultVerifier,
-                rulesRepository.loadModuleByUUID(packageUUID)
-        ).verify();
+        ModuleItem packageItem = rulesRepository.loadModuleByUUID(packageUUID);
+        PackageVerifier packageVerifier;
+        if (VERIFIER_SHARDS > 1) {
+            packageVerifier = new ShardedPackageVerifier(
+                    defaultVerifier,
+                    packageItem,
+                    VERIFIER_SHARDS,
+                    shardExecutor);
+        } else {
+            packageVerifier = new PackageVerifier(
+                    defaultVerifier,
+                    packageItem);
+        }
+        AnalysisReport report = packageVerifier.verify();
 
         defaultVerifier.flushKnowledgeSession();
 
@@ -148,4 +179,25 @@ public class VerificationServiceImplementation
                 ruleAsset, pkg);
     }
 
+    private static ExecutorService newShardExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                Math.max(1, VERIFIER_SHARDS),
+                Math.max(1, VERIFIER_SHARDS),
+                60,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(),
+                new ThreadFactory() {
+                    private final AtomicInteger count = new AtomicInteger();
+
+                    public Thread newThread(Runnable runnable) {
+                        Thread thread = new Thread(runnable,
+                                "guvnor-verifier-" + count.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
 }
@@ -26,14 +26,13 @@ import org.drools.guvnor.client.rpc.WorkItemService;
 import org.drools.ide.common.shared.workitems.PortableWorkDefinition;
 import org.jboss.solder.core.Veto;
 
-import com.google.gwt.user.server.rpc.RemoteServiceServlet;
 
 /**
  * GWT Entry point for WorkItemService RPC calls
  */
 @Veto
 public class WorkItemServiceServlet
-        extends RemoteServiceServlet
+        extends MeteredRemoteServiceServlet
         implements
     WorkItemService {
 
@@ -0,0 +1,256 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.guvnor.server.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.drools.repository.AssetItem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A bounded, least recently used cache of the models parsed from the XML
+ * content of guided assets (rules, templates, decision tables, scenarios and
+ * scorecards), keyed by asset UUID and version number.
+ *
+ * An entry is only used if the content of the asset still matches, as
+ * content can be updated without a new version. The cached models are never
+ * handed out to callers that change them: those get a copy with
+ * {@link #getModel(AssetItem, Class, ModelParser)}.
+ * The size can be set with the "guvnor.parsedModelCache.size" system property.
+ */
+public class ParsedModelCache {
+
+    /**
+     * Parses the content of an asset.
+     */
+    public interface ModelParser<T> {
+
+        T parse(String content);
+
+    }
+
+    private static final Logger           log          = LoggerFactory.getLogger( ParsedModelCache.class );
+
+    private static final int              DEFAULT_SIZE = 1000;
+    private static final ParsedModelCache instance     = new ParsedModelCache( Integer.getInteger( "guvnor.parsedModelCache.size",
+                                                                                                   DEFAULT_SIZE ) );
+
+    private final Map<String, Entry>      entries;
+
+    ParsedModelCache(final int maxSize) {
+        this.entries = new LinkedHashMap<String, Entry>( 16,
+                                                         0.75f,
+                                                         true ) {
+            private static final long serialVersionUID = 510l;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    public static ParsedModelCache getInstance() {
+        return instance;
+    }
+
+    /**
+     * @return a copy of the model of this version of the asset, that the
+     *         caller can change. The content is only parsed if it is not
+     *         cached already.
+     */
+    public <T> T getModel(AssetItem asset,
+                          Class<T> type,
+                          ModelParser<T> parser) {
+        Entry entry = getEntry( asset,
+                                type,
+                                parser );
+        Object copy = entry.copy();
+        if ( copy == null ) {
+            return parser.parse( entry.content );
+        }
+        return type.cast( copy );
+    }
+
+    /**
+     * @return the cached model of this version of the asset. It is shared, so
+     *         it must not be changed.
+     */
+    public <T> T getReadOnlyModel(AssetItem asset,
+                                  Class<T> type,
+                                  ModelParser<T> parser) {
+        return type.cast( getEntry( asset,
+                                    type,
+                                    parser ).model );
+    }
+
+    private <T> Entry getEntry(AssetItem asset,
+                               Class<T> type,
+                               ModelParser<T> parser) {
+        String key = asset.getUUID() + ":" + asset.getVersionNumber();
+        String content = asset.getContent();
+
+        Entry entry;
+        synchronized ( entries ) {
+            entry = entries.get( key );
+        }
+        if ( entry != null && entry.isFor( content ) && type.isInstance( entry.model ) ) {
+            return entry;
+        }
+
+        entry = new Entry( content,
+                           parser.parse( content ) );
+        synchronized ( entries ) {
+            entries.put( key,
+                         entry );
+        }
+        return entry;
+    }
+
+    /**
+     * Drops every cached version of the asset.
+     */
+    public void remove(final String uuid) {
+        synchronized ( entries ) {
+            List<String> keys = new ArrayList<String>();
+            for ( String key : entries.keySet() ) {
+                if ( key.startsWith( uuid + ":" ) ) {
+                    keys.add( key );
+                }
+            }
+            entries.keySet().removeAll( keys );
+        }
+    }
+
+    public void clearCache() {
+        synchronized ( entries ) {
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized ( entries ) {
+            return entries.size();
+        }
+    }
+
+    private static class Entry {
+
+        private final String content;
+        private final Object model;
+        private byte[]       serialized;
+        private boolean      serializable = true;
+
+        Entry(String content,
+              Object model) {
+            this.content = content;
+            this.model = model;
+        }
+
+        boolean isFor(String content) {
+            return this.content == null ? content == null : this.content.equals( content );
+        }
+
+        /**
+         * Copies are read from the model serialized when the first copy was
+         * asked for, which is cheaper than parsing the XML again.
+         *
+         * @return null if the model can not be copied.
+         */
+        Object copy() {
+            byte[] bytes = serialize();
+            if ( bytes == null ) {
+                return null;
+            }
+            try {
+                ObjectInputStream in = new ModelInputStream( new ByteArrayInputStream( bytes ),
+                                                             model.getClass().getClassLoader() );
+                try {
+                    return in.readObject();
+                } finally {
+                    in.close();
+                }
+            } catch ( IOException e ) {
+                log.warn( "Unable to copy a cached " + model.getClass().getName() + ", it will be parsed instead.",
+                          e );
+                return null;
+            } catch ( ClassNotFoundException e ) {
+                log.warn( "Unable to copy a cached " + model.getClass().getName() + ", it will be parsed instead.",
+                          e );
+                return null;
+            }
+        }
+
+        private synchronized byte[] serialize() {
+            if ( serialized == null && serializable ) {
+                try {
+                    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                    ObjectOutputStream out = new ObjectOutputStream( bytes );
+                    out.writeObject( model );
+                    out.close();
+                    serialized = bytes.toByteArray();
+                } catch ( IOException e ) {
+                    log.warn( "Unable to copy a cached " + model.getClass().getName() + ", it will be parsed instead.",
+                              e );
+                    serializable = false;
+                }
+            }
+            return serialized;
+        }
+
+    }
+
+    //Resolves classes with the loader of the model, rather than that of the caller
+    private static class ModelInputStream extends ObjectInputStream {
+
+        private final ClassLoader classLoader;
+
+        ModelInputStream(InputStream in,
+                         ClassLoader classLoader) throws IOException {
+            super( in );
+            this.classLoader = classLoader;
+        }
+
+        @Override
+        protected Class< ? > resolveClass(ObjectStreamClass desc) throws IOException,
+                                                                   ClassNotFoundException {
+            if ( classLoader != null ) {
+                try {
+                    return Class.forName( desc.getName(),
+                                          false,
+                                          classLoader );
+                } catch ( ClassNotFoundException e ) {
+                    //Fall through to the default
+                }
+            }
+            return super.resolveClass( desc );
+        }
+
+    }
+
+}
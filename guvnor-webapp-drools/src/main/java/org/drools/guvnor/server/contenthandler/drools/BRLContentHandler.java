@@ -21,6 +21,7 @@ import org.drools.compiler.DroolsParserException;
 import org.drools.guvnor.client.rpc.Asset;
 import org.drools.guvnor.server.builder.AssemblyErrorLogger;
 import org.drools.guvnor.server.builder.BRMSPackageBuilder;
+import org.drools.guvnor.server.cache.ParsedModelCache;
 import org.drools.guvnor.server.contenthandler.ContentHandler;
 import org.drools.guvnor.server.contenthandler.IRuleAsset;
 import org.drools.ide.common.client.modeldriven.brl.RuleModel;
@@ -38,7 +39,9 @@ public class BRLContentHandler extends ContentHandler
 
     public void retrieveAssetContent(Asset asset,
                                      AssetItem item) throws SerializationException {
-        RuleModel ruleModel = getBrlXmlPersistence().unmarshal( item.getContent() );
+        RuleModel ruleModel = ParsedModelCache.getInstance().getModel( item,
+                                                                       RuleModel.class,
+                                                                       getModelParser() );
 
         ruleModel.name = asset.getName();
 
@@ -89,7 +92,9 @@ public class BRLContentHandler extends ContentHandler
     }
 
     protected RuleModel buildModelFromAsset(AssetItem asset) {
-        RuleModel model = getBrlXmlPersistence().unmarshal( asset.getContent() );
+        RuleModel model = ParsedModelCache.getInstance().getModel( asset,
+                                                                   RuleModel.class,
+                                                                   getModelParser() );
         model.name = asset.getName();
         model.parentName = this.parentNameFromCategory( asset,
                                                         model.parentName );
@@ -97,7 +102,9 @@ public class BRLContentHandler extends ContentHandler
     }
 
     public String getRawDRL(AssetItem asset) {
-        RuleModel model = getBrlXmlPersistence().unmarshal( asset.getContent() );
+        RuleModel model = ParsedModelCache.getInstance().getReadOnlyModel( asset,
+                                                                           RuleModel.class,
+                                                                           getModelParser() );
 
         return getBrlDrlPersistence().marshal( model );
     }
@@ -109,4 +116,12 @@ public class BRLContentHandler extends ContentHandler
     protected BRLPersistence getBrlXmlPersistence() {
         return BRXMLPersistence.getInstance();
     }
+
+    private ParsedModelCache.ModelParser<RuleModel> getModelParser() {
+        return new ParsedModelCache.ModelParser<RuleModel>() {
+            public RuleModel parse(String content) {
+                return getBrlXmlPersistence().unmarshal( content );
+            }
+        };
+    }
 }
@@ -18,11 +18,13 @@ package org.drools.guvnor.server.contenthandler.drools;
 
 import java.io.IOException;
 import java.io.StringReader;
+import java.io.StringWriter;
 
 import org.drools.compiler.DroolsParserException;
 import org.drools.guvnor.client.rpc.Asset;
 import org.drools.guvnor.server.builder.AssemblyErrorLogger;
 import org.drools.guvnor.server.builder.BRMSPackageBuilder;
+import org.drools.guvnor.server.cache.ParsedModelCache;
 import org.drools.guvnor.server.contenthandler.ContentHandler;
 import org.drools.guvnor.server.contenthandler.IRuleAsset;
 import org.drools.ide.common.client.modeldriven.dt52.GuidedDecisionTable52;
@@ -34,14 +36,29 @@ import com.google.gwt.user.client.rpc.SerializationException;
 
 /**
  * For guided decision tables.
+ *
+ * Tables are compiled a number of rows at a time, so that the DRL of a large
+ * table is never held in memory at once. The number of rows can be set with
+ * the "guvnor.decisionTable.compileBatchSize" system property.
  */
 public class GuidedDTContentHandler extends ContentHandler
     implements
     IRuleAsset {
 
+    private static final int                                                 COMPILE_BATCH_SIZE = Integer.getInteger( "guvnor.decisionTable.compileBatchSize",
+                                                                                                                      1000 );
+
+    private static final ParsedModelCache.ModelParser<GuidedDecisionTable52> PARSER = new ParsedModelCache.ModelParser<GuidedDecisionTable52>() {
+        public GuidedDecisionTable52 parse(String content) {
+            return GuidedDTXMLPersistence.getInstance().unmarshal( content );
+        }
+    };
+
     public void retrieveAssetContent(Asset asset,
                                      AssetItem item) throws SerializationException {
-        GuidedDecisionTable52 model = GuidedDTXMLPersistence.getInstance().unmarshal( item.getContent() );
+        GuidedDecisionTable52 model = ParsedModelCache.getInstance().getModel( item,
+                                                                               GuidedDecisionTable52.class,
+                                                                               PARSER );
 
         asset.setContent( model );
 
@@ -60,9 +77,21 @@ public class GuidedDTContentHandler extends ContentHandler
                         AssetItem asset,
                         AssemblyErrorLogger logger) throws DroolsParserException,
                                                                    IOException {
-        String drl = getRawDRL( asset );
-        if ( drl.equals( "" ) ) return;
-        builder.addPackageFromDrl( new StringReader( drl ) );
+        GuidedDecisionTable52 model = buildModelFromAsset( asset );
+        int rows = model.getData().size();
+        int batchSize = Math.max( 1,
+                                  COMPILE_BATCH_SIZE );
+
+        StringWriter drl = new StringWriter();
+        for ( int fromRow = 0; fromRow < rows; fromRow += batchSize ) {
+            drl.getBuffer().setLength( 0 );
+            GuidedDTDRLPersistence.getInstance().marshal( model,
+                                                          fromRow,
+                                                          Math.min( rows,
+                                                                    fromRow + batchSize ),
+                                                          drl );
+            builder.addPackageFromDrl( new StringReader( drl.toString() ) );
+        }
     }
 
     public void assembleDRL(BRMSPackageBuilder builder,
@@ -91,7 +120,9 @@ public class GuidedDTContentHandler extends ContentHandler
     }
 
     protected GuidedDecisionTable52 buildModelFromAsset(AssetItem asset) {
-        GuidedDecisionTable52 model = GuidedDTXMLPersistence.getInstance().unmarshal( asset.getContent() );
+        GuidedDecisionTable52 model = ParsedModelCache.getInstance().getModel( asset,
+                                                                               GuidedDecisionTable52.class,
+                                                                               PARSER );
         model.setTableName( asset.getName() );
         model.setParentName( this.parentNameFromCategory( asset,
                                                           model.getParentName() ) );
@@ -16,12 +16,64 @@
 
 package org.drools.guvnor.server.contenthandler.drools;
 
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import org.drools.compiler.DroolsParserException;
+import org.drools.guvnor.server.builder.AssemblyErrorLogger;
+import org.drools.guvnor.server.builder.BRMSPackageBuilder;
 import org.drools.guvnor.server.util.BRDRTPersistence;
+import org.drools.guvnor.server.util.CompiledRuleTemplate;
+import org.drools.ide.common.client.modeldriven.brl.RuleModel;
+import org.drools.ide.common.client.modeldriven.brl.templates.TemplateModel;
 import org.drools.ide.common.server.util.BRDRTXMLPersistence;
 import org.drools.ide.common.server.util.BRLPersistence;
+import org.drools.repository.AssetItem;
 
+/**
+ * For rule templates.
+ *
+ * The rules of a template are compiled a number of rows at a time, so that the
+ * DRL of a large template is never held in memory at once. The number of rows
+ * can be set with the "guvnor.ruleTemplate.compileBatchSize" system property.
+ */
 public class RuleTemplateHandler extends BRLContentHandler {
 
+    private static final int COMPILE_BATCH_SIZE = Integer.getInteger( "guvnor.ruleTemplate.compileBatchSize",
+                                                                      1000 );
+
+    @Override
+    public void compile(BRMSPackageBuilder builder,
+                        AssetItem asset,
+                        AssemblyErrorLogger logger) throws DroolsParserException,
+                                                   IOException {
+        RuleModel model = buildModelFromAsset( asset );
+        CompiledRuleTemplate template = BRDRTPersistence.getInstance().compile( (TemplateModel) model );
+        if ( template == null ) {
+            super.compile( builder,
+                           asset,
+                           logger );
+            return;
+        }
+
+        int rules = template.getRuleCount();
+        int batchSize = Math.max( 1,
+                                  COMPILE_BATCH_SIZE );
+        boolean expandDSL = builder.hasDSL() && model.hasDSLSentences();
+
+        StringWriter drl = new StringWriter();
+        for ( int fromRule = 0; fromRule < rules; fromRule += batchSize ) {
+            drl.getBuffer().setLength( 0 );
+            template.write( fromRule,
+                            Math.min( rules,
+                                      fromRule + batchSize ),
+                            drl );
+            String source = expandDSL ? builder.getDSLExpander().expand( drl.toString() ) : drl.toString();
+            builder.addPackageFromDrl( new StringReader( source ) );
+        }
+    }
+
     @Override
     protected BRLPersistence getBrlDrlPersistence() {
         return BRDRTPersistence.getInstance();
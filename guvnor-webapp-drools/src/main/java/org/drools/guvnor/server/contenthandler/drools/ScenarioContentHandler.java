@@ -17,6 +17,7 @@
 package org.drools.guvnor.server.contenthandler.drools;
 
 import org.drools.guvnor.client.rpc.Asset;
+import org.drools.guvnor.server.cache.ParsedModelCache;
 import org.drools.guvnor.server.contenthandler.PlainTextContentHandler;
 import org.drools.ide.common.client.modeldriven.testing.Scenario;
 import org.drools.ide.common.server.util.ScenarioXMLPersistence;
@@ -26,10 +27,18 @@ import com.google.gwt.user.client.rpc.SerializationException;
 
 public class ScenarioContentHandler extends PlainTextContentHandler {
 
+    private static final ParsedModelCache.ModelParser<Scenario> PARSER = new ParsedModelCache.ModelParser<Scenario>() {
+        public Scenario parse(String content) {
+            return ScenarioXMLPersistence.getInstance().unmarshal( content );
+        }
+    };
+
     @Override
     public void retrieveAssetContent(Asset asset,
                                      AssetItem item) throws SerializationException {
-        Scenario sc = ScenarioXMLPersistence.getInstance().unmarshal( item.getContent() );
+        Scenario sc = ParsedModelCache.getInstance().getModel( item,
+                                                               Scenario.class,
+                                                               PARSER );
         asset.setContent( sc );
 
     }
@@ -26,6 +26,7 @@ import org.drools.guvnor.client.rpc.BuilderResult;
 import org.drools.guvnor.client.rpc.BuilderResultLine;
 import org.drools.guvnor.server.builder.AssemblyErrorLogger;
 import org.drools.guvnor.server.builder.BRMSPackageBuilder;
+import org.drools.guvnor.server.cache.ParsedModelCache;
 import org.drools.guvnor.server.contenthandler.ContentHandler;
 import org.drools.guvnor.server.contenthandler.IHasCustomValidator;
 import org.drools.guvnor.server.contenthandler.IRuleAsset;
@@ -46,8 +47,14 @@ public class ScorecardsContentHandler extends ContentHandler
         implements
         IRuleAsset, IHasCustomValidator {
 
+    private static final ParsedModelCache.ModelParser<ScorecardModel> PARSER = new ParsedModelCache.ModelParser<ScorecardModel>() {
+        public ScorecardModel parse(String content) {
+            return ScorecardsXMLPersistence.getInstance().unmarshall(content);
+        }
+    };
+
     public void retrieveAssetContent(Asset asset, AssetItem item) throws SerializationException {
-        ScorecardModel model = ScorecardsXMLPersistence.getInstance().unmarshall(item.getContent());
+        ScorecardModel model = ParsedModelCache.getInstance().getModel(item, ScorecardModel.class, PARSER);
         asset.setContent(model);
     }
 
@@ -57,7 +64,7 @@ public class ScorecardsContentHandler extends ContentHandler
     }
 
     public void assembleDRL(BRMSPackageBuilder builder, AssetItem assetItem, StringBuilder stringBuilder) {
-        ScorecardModel model = ScorecardsXMLPersistence.getInstance().unmarshall(assetItem.getContent());
+        ScorecardModel model = ParsedModelCache.getInstance().getReadOnlyModel(assetItem, ScorecardModel.class, PARSER);
         BuilderResult validationResult = validateScorecard(model);
         if ( !validationResult.hasLines() ) {
             String drl = getDrlFromScorecardModel(model);
@@ -82,7 +89,7 @@ public class ScorecardsContentHandler extends ContentHandler
     }
 
     public String getRawDRL(AssetItem assetItem) {
-        ScorecardModel model = ScorecardsXMLPersistence.getInstance().unmarshall(assetItem.getContent());
+        ScorecardModel model = ParsedModelCache.getInstance().getReadOnlyModel(assetItem, ScorecardModel.class, PARSER);
         BuilderResult validationResult = validateScorecard(model);
         if ( !validationResult.hasLines() ) {
             return getDrlFromScorecardModel(model);
@@ -253,7 +260,7 @@ public class ScorecardsContentHandler extends ContentHandler
 
     public BuilderResult validateAsset(AssetItem assetItem) {
         System.out.println(">>> validateAsset() method.");
-        ScorecardModel model = ScorecardsXMLPersistence.getInstance().unmarshall(assetItem.getContent());
+        ScorecardModel model = ParsedModelCache.getInstance().getReadOnlyModel(assetItem, ScorecardModel.class, PARSER);
         BuilderResult builderResult = validateScorecard(model);
         return builderResult;
     }
@@ -33,6 +33,8 @@ import org.drools.repository.AssetItemIterator;
 import org.drools.repository.ModuleItem;
 import org.drools.repository.RulesRepository;
 import org.drools.repository.RulesRepositoryException;
+import org.drools.repository.metrics.Counter;
+import org.drools.repository.metrics.Metrics;
 
 import javax.inject.Inject;
 import javax.servlet.ServletException;
@@ -56,6 +58,9 @@ public class PackageDeploymentServlet extends RepositoryServlet {
     private static final String RFC822DATEFORMAT = "EEE', 'dd' 'MMM' 'yyyy' 'HH:mm:ss' 'Z";
     private static final Locale HEADER_LOCALE = Locale.US;
 
+    private static final Counter BYTES_SERVED = Metrics.getInstance().counter("deployment.bytesServed");
+    private static final Counter DOWNLOADS = Metrics.getInstance().counter("deployment.downloads");
+
     @Inject @Preferred
     private RulesRepository rulesRepository;
 
@@ -66,6 +71,9 @@ public class PackageDeploymentServlet extends RepositoryServlet {
     @Inject
     private FileManagerService fileManagerService;
 
+    @Inject
+    private ModuleDocumentationService moduleDocumentationService;
+
     @Override
     protected long getLastModified(HttpServletRequest request) {
         PackageDeploymentURIHelper helper = null;
@@ -162,19 +170,36 @@ public class PackageDeploymentServlet extends RepositoryServlet {
                     }
                 } else if (helper.isDocumentation()) {
 
-                    ModuleItem pkg = rulesRepository.loadModule(helper.getPackageName());
+                    ModuleItem pkg;
+                    if (helper.isLatest()) {
+                        pkg = rulesRepository.loadModule(helper.getPackageName());
+                    } else {
+                        pkg = rulesRepository.loadModuleSnapshot(helper.getPackageName(),
+                                helper.getVersion());
+                    }
 
-                    GuvnorDroolsDocsBuilder builder;
+                    ModuleDocumentationService.Documentation documentation;
                     try {
-                        builder = GuvnorDroolsDocsBuilder.getInstance(pkg);
+                        documentation = moduleDocumentationService.openDocumentation(pkg);
                     } catch (DroolsParserException e) {
                         throw new ServletException("Could not parse the rule package.");
 
                     }
 
-                    fileName = "documentation.pdf";
-
-                    builder.writePDF(out);
+                    //Streamed from the file, rather than buffered
+                    try {
+                        res.setContentType("application/x-download");
+                        res.setHeader("Content-Disposition",
+                                "attachment; filename=documentation.pdf;");
+                        res.setContentLength((int) documentation.length());
+                        documentation.writeTo(res.getOutputStream());
+                        res.getOutputStream().flush();
+                        BYTES_SERVED.add(documentation.length());
+                        DOWNLOADS.inc();
+                    } finally {
+                        documentation.close();
+                    }
+                    return;
 
                 } else if (helper.isPng()) {
                     ModuleItem pkg = rulesRepository.loadModule(helper.getPackageName());
@@ -271,6 +296,8 @@ public class PackageDeploymentServlet extends RepositoryServlet {
                 res.setContentLength(out.size());
                 res.getOutputStream().write(out.toByteArray());
                 res.getOutputStream().flush();
+                BYTES_SERVED.add(out.size());
+                DOWNLOADS.inc();
             }
         });
     }
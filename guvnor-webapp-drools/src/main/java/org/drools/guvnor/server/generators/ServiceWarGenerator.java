@@ -19,21 +19,29 @@ package org.drools.guvnor.server.generators;
 import java.io.BufferedInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileOutputStream;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import org.apache.commons.io.IOUtils;
 import org.drools.guvnor.client.asseteditor.drools.serviceconfig.AssetReference;
 import org.drools.guvnor.client.asseteditor.drools.serviceconfig.ServiceConfig;
+import org.drools.guvnor.client.rpc.MavenArtifact;
 import org.drools.repository.AssetItem;
 import org.drools.repository.RulesRepository;
-import org.jboss.shrinkwrap.api.ShrinkWrap;
-import org.jboss.shrinkwrap.api.asset.StringAsset;
-import org.jboss.shrinkwrap.api.exporter.ZipExporter;
-import org.jboss.shrinkwrap.api.spec.WebArchive;
 import org.mvel2.templates.CompiledTemplate;
 import org.mvel2.templates.SimpleTemplateRegistry;
 import org.mvel2.templates.TemplateRegistry;
@@ -42,13 +50,26 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import static com.google.common.base.Preconditions.*;
+import static org.drools.guvnor.server.maven.ArtifactDependencySupport.*;
 import static org.drools.guvnor.server.maven.cache.GuvnorArtifactCacheSupport.*;
 import static org.mvel2.templates.TemplateCompiler.*;
 
+/**
+ * Builds the WAR of a knowledge service. The WAR is written straight to the
+ * output stream: the descriptors are rendered from templates, then the model
+ * jars and the runtime libraries are added.
+ * <p/>
+ * Resolving the runtime libraries is slow, so they are resolved once for
+ * each set of excluded artifacts, and kept as a library layer. The libraries
+ * are jars, which are compressed already, so the layer stores them as they
+ * are with their checksums computed once, and a WAR only copies them.
+ */
 public final class ServiceWarGenerator {
 
     private static final Logger log = LoggerFactory.getLogger(ServiceWarGenerator.class);
 
+    private static final String LIB_DIR = "WEB-INF/lib/";
+
     private static final Map<String, CompiledTemplate> templateMap = new HashMap<String, CompiledTemplate>(5) {{
         put("WEB-INF/classes/beans.xml", compileTemplate(getResourceContent("servicewar/beans.xml.template")));
         put("WEB-INF/classes/camel-server.xml", compileTemplate(getResourceContent("servicewar/camel-server.xml.template")));
@@ -64,59 +85,205 @@ public final class ServiceWarGenerator {
         addNamedTemplate("kbase-config.def", compileTemplate(getResourceContent("servicewar/kbase-config.def.template")));
     }};
 
+    private static final Map<Set<MavenArtifact>, LibraryLayer> libraryLayers = new ConcurrentHashMap<Set<MavenArtifact>, LibraryLayer>();
+
     private ServiceWarGenerator() {
     }
 
     public static void buildWar(final ServiceConfig config, final RulesRepository repository, final OutputStream out) {
-        final Map<String, File> models = new HashMap<String, File>();
-        for (final AssetReference model : config.getModels()) {
-            try {
+        checkNotNull(config);
+        checkNotNull(out);
+
+        try {
+            final WarWriter war = new WarWriter(config, out);
+            for (final AssetReference model : config.getModels()) {
                 final AssetItem asset = repository.loadAssetByUUID(model.getUrl());
-                final File temp = File.createTempFile(asset.getBinaryContentAttachmentFileName(), ".jar");
-                temp.deleteOnExit();
-                final FileOutputStream tempStream = new FileOutputStream(temp);
-                IOUtils.copy(asset.getBinaryContentAttachment(), tempStream);
-                tempStream.flush();
-                tempStream.close();
-                models.put(asset.getBinaryContentAttachmentFileName(), temp);
-            } catch (IOException e) {
-                log.error(e.getMessage());
+                final InputStream content = asset.getBinaryContentAttachment();
+                try {
+                    war.addModel(asset.getBinaryContentAttachmentFileName(), content);
+                } finally {
+                    IOUtils.closeQuietly(content);
+                }
             }
+            war.finish();
+        } catch (IOException e) {
+            throw new RuntimeException(e.getMessage(), e);
         }
-        buildWar(config, models, out);
     }
 
     public static void buildWar(final ServiceConfig config, final Map<String, File> models, final OutputStream out) {
         checkNotNull(config);
         checkNotNull(out);
 
-        final Map<String, Object> data = new HashMap<String, Object>() {{
-            put("serviceConfig", config);
-        }};
+        try {
+            final WarWriter war = new WarWriter(config, out);
+            if (models != null && models.size() > 0) {
+                for (final Map.Entry<String, File> model : models.entrySet()) {
+                    final InputStream content = new FileInputStream(model.getValue());
+                    try {
+                        war.addModel(model.getKey(), content);
+                    } finally {
+                        content.close();
+                    }
+                }
+            }
+            war.finish();
+        } catch (IOException e) {
+            throw new RuntimeException(e.getMessage(), e);
+        }
+    }
 
-        final WebArchive archive = ShrinkWrap.create(WebArchive.class, "drools-service.war");
+    /**
+     * @return the runtime libraries of a service WAR, without the given artifacts
+     */
+    static LibraryLayer getLibraryLayer(final Collection<MavenArtifact> excludedArtifacts) throws IOException {
+        final Set<MavenArtifact> key = excludedArtifacts == null
+                ? Collections.<MavenArtifact>emptySet()
+                : Collections.unmodifiableSet(new HashSet<MavenArtifact>(excludedArtifacts));
 
-        for (Map.Entry<String, CompiledTemplate> activeTemplate : templateMap.entrySet()) {
-            final String content = (String) TemplateRuntime.execute(activeTemplate.getValue(), null, data, templateRegistry);
-            archive.add(new StringAsset(content), activeTemplate.getKey());
+        LibraryLayer layer = libraryLayers.get(key);
+        if (layer == null || !layer.isUpToDate()) {
+            synchronized (libraryLayers) {
+                layer = libraryLayers.get(key);
+                if (layer == null || !layer.isUpToDate()) {
+                    final List<MavenArtifact> expected = new ArrayList<MavenArtifact>(getDependencyList());
+                    expected.removeAll(key);
+                    layer = new LibraryLayer(resolveArtifacts(key), expected.size());
+                    libraryLayers.put(key, layer);
+                }
+            }
         }
+        return layer;
+    }
+
+    /**
+     * The runtime libraries resolved for a set of excluded artifacts.
+     */
+    static final class LibraryLayer {
 
-        for (final File lib : resolveArtifacts(config.getExcludedArtifacts())) {
-            archive.addAsLibraries(lib);
+        private final List<File> files = new ArrayList<File>();
+        private final List<Long> lastModified = new ArrayList<Long>();
+        private final List<ZipEntry> entries = new ArrayList<ZipEntry>();
+        private final boolean complete;
+
+        private LibraryLayer(final Collection<File> libraries, final int expectedSize) throws IOException {
+            for (final File library : libraries) {
+                final ZipEntry entry = new ZipEntry(LIB_DIR + library.getName());
+                entry.setMethod(ZipEntry.STORED);
+                entry.setSize(library.length());
+                entry.setCompressedSize(library.length());
+                entry.setCrc(checksum(library));
+                entry.setTime(library.lastModified());
+                files.add(library);
+                lastModified.add(library.lastModified());
+                entries.add(entry);
+            }
+            this.complete = libraries.size() >= expectedSize;
         }
 
-        if (models != null && models.size() > 0) {
-            for (final Map.Entry<String, File> model : models.entrySet()) {
-                archive.addAsLibrary(model.getValue(), model.getKey());
+        /**
+         * @return false if a library could not be resolved, or has been removed or replaced since it was
+         */
+        boolean isUpToDate() {
+            if (!complete) {
+                return false;
+            }
+            for (int i = 0; i < files.size(); i++) {
+                final File file = files.get(i);
+                if (!file.isFile() || file.lastModified() != lastModified.get(i) || file.length() != entries.get(i).getSize()) {
+                    return false;
+                }
             }
+            return true;
         }
 
-        try {
-            archive.as(ZipExporter.class).exportTo(out);
-            out.flush();
-            out.close();
-        } catch (Throwable e) {
-            throw new RuntimeException(e.getMessage(), e);
+        List<File> getFiles() {
+            return files;
+        }
+
+        private void writeTo(final ZipOutputStream zip, final Set<String> names) throws IOException {
+            for (int i = 0; i < files.size(); i++) {
+                final ZipEntry entry = new ZipEntry(entries.get(i));
+                if (names.add(entry.getName())) {
+                    zip.putNextEntry(entry);
+                    final InputStream content = new FileInputStream(files.get(i));
+                    try {
+                        IOUtils.copy(content, zip);
+                    } finally {
+                        content.close();
+                    }
+                    zip.closeEntry();
+                }
+            }
+        }
+
+        private static long checksum(final File file) throws IOException {
+            final CRC32 crc = new CRC32();
+            final InputStream content = new FileInputStream(file);
+            try {
+                final byte[] buffer = new byte[8192];
+                int read;
+                while ((read = content.read(buffer)) != -1) {
+                    crc.update(buffer, 0, read);
+                }
+            } finally {
+                content.close();
+            }
+            return crc.getValue();
+        }
+    }
+
+    /**
+     * Writes a WAR: the descriptors when it is created, then the models that are added, then the libraries, unless a
+     * model has the same name.
+     */
+    private static final class WarWriter {
+
+        private final LibraryLayer libraries;
+        private final ZipOutputStream zip;
+        private final Set<String> names = new HashSet<String>();
+
+        private WarWriter(final ServiceConfig config, final OutputStream out) throws IOException {
+            this.libraries = getLibraryLayer(config.getExcludedArtifacts());
+
+            final Map<String, Object> data = new HashMap<String, Object>() {{
+                put("serviceConfig", config);
+            }};
+
+            this.zip = new ZipOutputStream(out);
+            addDirectory("WEB-INF/");
+            addDirectory("WEB-INF/classes/");
+            addDirectory(LIB_DIR);
+            for (Map.Entry<String, CompiledTemplate> activeTemplate : templateMap.entrySet()) {
+                final String content = (String) TemplateRuntime.execute(activeTemplate.getValue(), null, data, templateRegistry);
+                names.add(activeTemplate.getKey());
+                zip.putNextEntry(new ZipEntry(activeTemplate.getKey()));
+                zip.write(content.getBytes("UTF-8"));
+                zip.closeEntry();
+            }
+        }
+
+        private void addDirectory(final String name) throws IOException {
+            names.add(name);
+            zip.putNextEntry(new ZipEntry(name));
+            zip.closeEntry();
+        }
+
+        private void addModel(final String fileName, final InputStream content) throws IOException {
+            if (!names.add(LIB_DIR + fileName)) {
+                log.warn("The service already has a model named " + fileName + ", it is only added once.");
+                return;
+            }
+            zip.putNextEntry(new ZipEntry(LIB_DIR + fileName));
+            IOUtils.copy(content, zip);
+            zip.closeEntry();
+        }
+
+        private void finish() throws IOException {
+            libraries.writeTo(zip, names);
+            zip.finish();
+            zip.flush();
+            zip.close();
         }
     }
 
@@ -16,7 +16,7 @@
 
 package org.drools.guvnor.server.simulation;
 
-import com.google.gwt.user.server.rpc.RemoteServiceServlet;
+import org.drools.guvnor.server.MeteredRemoteServiceServlet;
 import org.drools.guvnor.client.rpc.DetailedSerializationException;
 import org.drools.guvnor.shared.simulation.SimulationModel;
 import org.drools.guvnor.shared.simulation.SimulationTestService;
@@ -28,7 +28,7 @@ import javax.inject.Inject;
  * Boilerplate Servlet needed for GWT.
  */
 @Veto
-public class SimulationTestServiceServlet extends RemoteServiceServlet implements SimulationTestService {
+public class SimulationTestServiceServlet extends MeteredRemoteServiceServlet implements SimulationTestService {
 
     @Inject
     private SimulationTestService simulationTestService;
@@ -17,12 +17,16 @@
 package org.drools.guvnor.server.util;
 
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 import org.drools.ide.common.client.modeldriven.brl.RuleModel;
 import org.drools.ide.common.client.modeldriven.brl.templates.InterpolationVariable;
 import org.drools.ide.common.client.modeldriven.brl.templates.TemplateModel;
 import org.drools.ide.common.server.util.BRDRLPersistence;
-import org.drools.ide.common.server.util.BRLPersistence;
 import org.drools.template.DataProvider;
 import org.drools.template.DataProviderCompiler;
 import org.drools.template.objects.ArrayDataProvider;
@@ -31,22 +35,40 @@ import org.slf4j.LoggerFactory;
 
 /**
  * This class persists a {@link TemplateModel} to DRL template
+ *
+ * The rules of a template are generated with a {@link CompiledRuleTemplate}
+ * where it can, which writes them straight from the rows of the model. The
+ * templates it leaves alone are expanded by drools-templates.
  */
 public class BRDRTPersistence extends BRDRLPersistence {
     private static final Logger log = LoggerFactory.getLogger(BRDRTPersistence.class);
-    private static final BRLPersistence INSTANCE = new BRDRTPersistence();
+    private static final BRDRTPersistence INSTANCE = new BRDRTPersistence();
     private static final String PACKAGE_DECLARATION = "\npackage __template_dummy_package__\n";
 
     private BRDRTPersistence() {
         super();
     }
 
-    public static BRLPersistence getInstance() {
+    public static BRDRTPersistence getInstance() {
         return INSTANCE;
     }
 
     @Override
     public String marshal(RuleModel model) {
+        CompiledRuleTemplate template = compile((TemplateModel) model);
+        if (template != null) {
+            StringWriter drl = new StringWriter();
+            try {
+                template.write(0,
+                        template.getRuleCount(),
+                        drl);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            log.debug("generated drl:\n{}",
+                    drl);
+            return drl.toString();
+        }
 
         String ruleTemplate = super.marshalRule(model);
         log.debug("ruleTemplate:\n{}",
@@ -61,6 +83,45 @@ public class BRDRTPersistence extends BRDRLPersistence {
         return generatedDRl;
     }
 
+    /**
+     * Compiles the rule of a template for its rows, or for a single row of
+     * "name_na" values if it has none.
+     *
+     * @return the compiled template, or null if the template has to be
+     *         expanded by drools-templates.
+     */
+    public CompiledRuleTemplate compile(TemplateModel model) {
+        InterpolationVariable[] variables = model.getInterpolationVariablesList();
+        String[] names = new String[variables.length];
+        for (int i = 0; i < variables.length; i++) {
+            names[i] = variables[i].getVarName();
+        }
+
+        List<List<String>> columns = new ArrayList<List<String>>(names.length);
+        int rows = model.getRowsCount();
+        if (rows > 0) {
+            model.putInSync();
+            for (String name : names) {
+                columns.add(model.getTable().get(name));
+            }
+        } else {
+            for (String name : names) {
+                columns.add(Collections.singletonList(name + "_na"));
+            }
+            rows = 1;
+        }
+
+        String ruleTemplate = super.marshalRule(model);
+        int start = ruleTemplate.indexOf("\"\n\n",
+                ruleTemplate.indexOf(PACKAGE_DECLARATION)) + 3;
+        int end = ruleTemplate.lastIndexOf("\nend template");
+        return CompiledRuleTemplate.compile(ruleTemplate.substring(start,
+                end).trim(),
+                names,
+                columns,
+                rows);
+    }
+
     private DataProvider chooseDataProvider(RuleModel model) {
         DataProvider dataProvider;
         TemplateModel tplModel = (TemplateModel) model;
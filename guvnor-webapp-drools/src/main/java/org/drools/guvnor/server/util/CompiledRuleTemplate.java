@@ -0,0 +1,159 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.guvnor.server.util;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A rule template compiled for the rows of a {@link org.drools.ide.common.client.modeldriven.brl.templates.TemplateModel}.
+ * The rule is split once into its literal text and the slots that the values of a row, or its number, go into, so
+ * generating the rule of a row is a matter of appending strings. The values are read from the columns of the model as
+ * each rule is written, rather than copied into a table first.
+ * <p/>
+ * The rules are generated in the same order, and with the same text, as drools-templates generates them: from the
+ * last row to the first, separated by a blank line.
+ */
+public class CompiledRuleTemplate {
+
+    private static final String ROW_NUMBER_VARIABLE = "row.rowNumber";
+    private static final int ROW_NUMBER = -1;
+
+    private static final Pattern PLACEHOLDER = Pattern.compile("@\\{([^}]*)\\}");
+    private static final Pattern OTHER_TEMPLATE_SYNTAX = Pattern.compile("@@|@[a-zA-Z]*\\{");
+
+    private final String[] literals;
+    private final int[] slots;
+    private final List<List<String>> columns;
+    private final int rows;
+
+    private CompiledRuleTemplate(String[] literals,
+                                 int[] slots,
+                                 List<List<String>> columns,
+                                 int rows) {
+        this.literals = literals;
+        this.slots = slots;
+        this.columns = columns;
+        this.rows = rows;
+    }
+
+    /**
+     * @param rule      the text of the rule, with a "@{variable}" placeholder for each value, and "@{row.rowNumber}"
+     *                  for the number of the row
+     * @param variables the names of the variables
+     * @param columns   the values of each variable, by row
+     * @param rows      the number of rows
+     * @return the compiled template, or null if the rule uses more of the MVEL template syntax than placeholders, or if
+     *         a value is empty or starts or ends with white space. drools-templates gives those a meaning of their
+     *         own, so they are left to it.
+     */
+    public static CompiledRuleTemplate compile(String rule,
+                                               String[] variables,
+                                               List<List<String>> columns,
+                                               int rows) {
+        if (variables.length == 0) {
+            return null;
+        }
+        for (List<String> column : columns) {
+            for (int row = 0; row < rows; row++) {
+                String value = column.get(row);
+                if (value == null || value.length() == 0 || !value.equals(value.trim())) {
+                    return null;
+                }
+            }
+        }
+
+        List<String> literals = new ArrayList<String>();
+        List<Integer> slots = new ArrayList<Integer>();
+        Matcher matcher = PLACEHOLDER.matcher(rule);
+        int start = 0;
+        while (matcher.find()) {
+            int slot = indexOf(matcher.group(1),
+                    variables);
+            if (slot == -2) {
+                return null;
+            }
+            literals.add(rule.substring(start,
+                    matcher.start()));
+            slots.add(slot);
+            start = matcher.end();
+        }
+        literals.add(rule.substring(start));
+
+        for (String literal : literals) {
+            if (OTHER_TEMPLATE_SYNTAX.matcher(literal).find()) {
+                return null;
+            }
+        }
+
+        int[] slotArray = new int[slots.size()];
+        for (int i = 0; i < slotArray.length; i++) {
+            slotArray[i] = slots.get(i);
+        }
+        return new CompiledRuleTemplate(literals.toArray(new String[literals.size()]),
+                slotArray,
+                columns,
+                rows);
+    }
+
+    /**
+     * @return the number of rules, one for each row.
+     */
+    public int getRuleCount() {
+        return rows;
+    }
+
+    /**
+     * Writes the rules from fromRule (inclusive) to toRule (exclusive), in the order they are generated in.
+     */
+    public void write(int fromRule,
+                      int toRule,
+                      Writer out) throws IOException {
+        for (int rule = fromRule; rule < toRule; rule++) {
+            if (rule > fromRule) {
+                out.write("\n\n");
+            }
+            int row = rows - 1 - rule;
+            for (int i = 0; i < slots.length; i++) {
+                out.write(literals[i]);
+                out.write(slots[i] == ROW_NUMBER ? String.valueOf(row) : columns.get(slots[i]).get(row));
+            }
+            out.write(literals[slots.length]);
+        }
+    }
+
+    /**
+     * @return the index of a variable, ROW_NUMBER for the row number, or -2 if it is neither.
+     */
+    private static int indexOf(String name,
+                               String[] variables) {
+        if (ROW_NUMBER_VARIABLE.equals(name)) {
+            return ROW_NUMBER;
+        }
+        for (int i = 0; i < variables.length; i++) {
+            if (variables[i].equals(name)) {
+                return i;
+            }
+        }
+        return -2;
+    }
+
+}
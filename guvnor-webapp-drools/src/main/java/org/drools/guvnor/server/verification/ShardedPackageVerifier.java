@@ -0,0 +1,462 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.guvnor.server.verification;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.drools.compiler.DrlParser;
+import org.drools.compiler.DroolsParserException;
+import org.drools.guvnor.client.rpc.AnalysisReport;
+import org.drools.guvnor.server.util.LoggingHelper;
+import org.drools.ide.common.client.modeldriven.brl.RuleModel;
+import org.drools.ide.common.server.util.BRDRLPersistence;
+import org.drools.ide.common.server.util.BRXMLPersistence;
+import org.drools.lang.descr.AccumulateDescr;
+import org.drools.lang.descr.BaseDescr;
+import org.drools.lang.descr.CollectDescr;
+import org.drools.lang.descr.ConditionalElementDescr;
+import org.drools.lang.descr.PackageDescr;
+import org.drools.lang.descr.PatternDescr;
+import org.drools.lang.descr.QueryDescr;
+import org.drools.lang.descr.RuleDescr;
+import org.drools.repository.ModuleItem;
+import org.drools.verifier.Verifier;
+import org.drools.verifier.builder.VerifierBuilderFactory;
+import org.drools.verifier.data.VerifierReport;
+import org.kie.builder.DecisionTableConfiguration;
+import org.kie.builder.ResourceType;
+import org.kie.io.ResourceFactory;
+
+/**
+ * Verifies a package in shards, each analysed by a verifier of its own on a
+ * thread of the given executor, and merges their reports.
+ *
+ * The rule resources are partitioned by the fact types their conditions match
+ * (and by the rules they extend), so rules that could be reported together -
+ * such as overlapping or redundant rules - always end up in the same shard.
+ * The resources without rules, such as the header, DSLs, models and functions,
+ * are added to every shard. Packages with resources that can not be
+ * partitioned this way (spreadsheets, DSL rules, or rules mixed with
+ * declarations) are verified as a whole, as PackageVerifier does.
+ */
+public class ShardedPackageVerifier extends PackageVerifier {
+
+    private static final LoggingHelper log = LoggingHelper.getLogger(ShardedPackageVerifier.class);
+
+    private final int shards;
+    private final ExecutorService executor;
+    private final List<VerifierResource> resources = new ArrayList<VerifierResource>();
+    private boolean partitionable = true;
+
+    public ShardedPackageVerifier(Verifier verifier,
+                                  ModuleItem packageItem,
+                                  int shards,
+                                  ExecutorService executor) {
+        super(verifier,
+                packageItem);
+        this.shards = Math.max(1,
+                shards);
+        this.executor = executor;
+    }
+
+    @Override
+    public AnalysisReport verify() {
+
+        addResourcesToVerifier();
+
+        List<VerifierResource> shared = new ArrayList<VerifierResource>();
+        List<VerifierResource> rules = new ArrayList<VerifierResource>();
+        for (VerifierResource resource : resources) {
+            if (resource.keys == null) {
+                shared.add(resource);
+            } else {
+                rules.add(resource);
+            }
+        }
+
+        List<List<VerifierResource>> parts = partitionable ? partition(rules,
+                shards) : Collections.<List<VerifierResource>>emptyList();
+        if (parts.size() <= 1) {
+            for (VerifierResource resource : resources) {
+                resource.addTo(this);
+            }
+            return analyse();
+        }
+
+        log.debug("Verifying package " + packageItem.getName() + " in " + parts.size() + " shards");
+        return analyse(shared,
+                parts);
+    }
+
+    private AnalysisReport analyse(final List<VerifierResource> shared,
+                                   List<List<VerifierResource>> parts) {
+        final ShardVerifiers verifiers = new ShardVerifiers();
+        List<Future<VerifierReport>> reports = new ArrayList<Future<VerifierReport>>();
+        try {
+            for (final List<VerifierResource> part : parts) {
+                reports.add(executor.submit(new Callable<VerifierReport>() {
+                    public VerifierReport call() {
+                        Verifier verifier = verifiers.newVerifier();
+                        for (VerifierResource resource : shared) {
+                            resource.addTo(verifier);
+                        }
+                        for (VerifierResource resource : part) {
+                            resource.addTo(verifier);
+                        }
+                        fireAnalysis(verifier,
+                                getScopesAgendaFilter());
+                        return verifier.getResult();
+                    }
+                }));
+            }
+
+            List<VerifierReport> results = new ArrayList<VerifierReport>();
+            for (Future<VerifierReport> report : reports) {
+                results.add(report.get());
+            }
+            return VerifierReportCreator.doReport(results);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        } finally {
+            //The shards still queued or running once the analysis has failed are of no use
+            for (Future<VerifierReport> report : reports) {
+                report.cancel(true);
+            }
+            verifiers.dispose();
+        }
+    }
+
+    @Override
+    protected void addResourceToVerifier(String content,
+                                         ResourceType resourceType) {
+        Set<String> keys = null;
+        if (resourceType == ResourceType.DRL || resourceType == ResourceType.BRL) {
+            keys = getPartitionKeys(content,
+                    resourceType);
+            if (keys == null) {
+                partitionable = false;
+            } else if (keys.isEmpty()) {
+                keys = null;
+            }
+        } else if (resourceType != ResourceType.DSL) {
+            partitionable = false;
+        }
+        resources.add(new VerifierResource(content,
+                resourceType,
+                keys));
+    }
+
+    @Override
+    protected void addResourceToVerifier(byte[] content,
+                                         ResourceType resourceType,
+                                         DecisionTableConfiguration configuration) {
+        partitionable = false;
+        resources.add(new VerifierResource(content,
+                resourceType,
+                configuration));
+    }
+
+    /**
+     * @return the fact types matched and rules extended by the rules of a
+     *         resource, an empty set if it has no rules, or null if it can not
+     *         be partitioned.
+     */
+    static Set<String> getPartitionKeys(String content,
+                                        ResourceType resourceType) {
+        String drl = content;
+        if (resourceType == ResourceType.BRL) {
+            RuleModel model = BRXMLPersistence.getInstance().unmarshal(content);
+            if (model.hasDSLSentences()) {
+                return null;
+            }
+            drl = BRDRLPersistence.getInstance().marshal(model);
+        }
+
+        PackageDescr pkg;
+        DrlParser parser = new DrlParser();
+        try {
+            pkg = parser.parse(drl);
+        } catch (DroolsParserException e) {
+            return null;
+        }
+        if (parser.hasErrors() || pkg == null) {
+            return null;
+        }
+
+        Set<String> keys = new HashSet<String>();
+        if (pkg.getRules().isEmpty()) {
+            return keys;
+        }
+        if (!pkg.getFunctions().isEmpty() || !pkg.getTypeDeclarations().isEmpty() || !pkg.getGlobals().isEmpty() || !pkg.getImports().isEmpty()) {
+            return null;
+        }
+        for (RuleDescr rule : pkg.getRules()) {
+            keys.add("rule:" + rule.getName());
+            if (rule.getParentName() != null) {
+                keys.add("rule:" + stripQuotes(rule.getParentName()));
+            }
+            if (rule instanceof QueryDescr) {
+                keys.add("type:" + rule.getName());
+            }
+            addPatternKeys(rule.getLhs(),
+                    keys);
+        }
+        return keys;
+    }
+
+    private static String stripQuotes(String name) {
+        if (name.length() > 1 && name.startsWith("\"") && name.endsWith("\"")) {
+            return name.substring(1,
+                    name.length() - 1);
+        }
+        return name;
+    }
+
+    private static void addPatternKeys(BaseDescr descr,
+                                       Set<String> keys) {
+        if (descr instanceof PatternDescr) {
+            PatternDescr pattern = (PatternDescr) descr;
+            String type = pattern.getObjectType();
+            keys.add("type:" + type.substring(type.lastIndexOf('.') + 1));
+            addPatternKeys(pattern.getSource(),
+                    keys);
+        } else if (descr instanceof ConditionalElementDescr) {
+            for (BaseDescr child : ((ConditionalElementDescr) descr).getDescrs()) {
+                addPatternKeys(child,
+                        keys);
+            }
+        } else if (descr instanceof AccumulateDescr) {
+            addPatternKeys(((AccumulateDescr) descr).getInput(),
+                    keys);
+        } else if (descr instanceof CollectDescr) {
+            addPatternKeys(((CollectDescr) descr).getInputPattern(),
+                    keys);
+        }
+    }
+
+    /**
+     * Groups the resources that share a partition key, directly or through
+     * other resources, and deals the groups out to at most the given number of
+     * shards, largest group first to the smallest shard. Groups are sized by
+     * the length of their DRL. The resources of a shard keep the order they
+     * were added in.
+     */
+    static List<List<VerifierResource>> partition(List<VerifierResource> resources,
+                                                  int shards) {
+        int[] groups = new int[resources.size()];
+        for (int i = 0; i < groups.length; i++) {
+            groups[i] = i;
+        }
+        Map<String, Integer> owners = new HashMap<String, Integer>();
+        for (int i = 0; i < groups.length; i++) {
+            for (String key : resources.get(i).keys) {
+                Integer owner = owners.get(key);
+                if (owner == null) {
+                    owners.put(key,
+                            i);
+                } else {
+                    groups[find(groups,
+                            owner)] = find(groups,
+                            i);
+                }
+            }
+        }
+
+        Map<Integer, List<Integer>> members = new HashMap<Integer, List<Integer>>();
+        for (int i = 0; i < groups.length; i++) {
+            int group = find(groups,
+                    i);
+            List<Integer> list = members.get(group);
+            if (list == null) {
+                list = new ArrayList<Integer>();
+                members.put(group,
+                        list);
+            }
+            list.add(i);
+        }
+
+        final Map<List<Integer>, Long> sizes = new IdentityHashMap<List<Integer>, Long>();
+        for (List<Integer> component : members.values()) {
+            long size = 0;
+            for (int i : component) {
+                size += resources.get(i).content.length();
+            }
+            sizes.put(component,
+                    size);
+        }
+        List<List<Integer>> components = new ArrayList<List<Integer>>(members.values());
+        Collections.sort(components,
+                new Comparator<List<Integer>>() {
+                    public int compare(List<Integer> a,
+                                       List<Integer> b) {
+                        return sizes.get(b).compareTo(sizes.get(a));
+                    }
+                });
+
+        List<List<Integer>> bins = new ArrayList<List<Integer>>();
+        long[] binSizes = new long[shards];
+        for (List<Integer> component : components) {
+            int smallest = 0;
+            if (bins.size() < shards) {
+                smallest = bins.size();
+                bins.add(new ArrayList<Integer>());
+            } else {
+                for (int bin = 1; bin < shards; bin++) {
+                    if (binSizes[bin] < binSizes[smallest]) {
+                        smallest = bin;
+                    }
+                }
+            }
+            bins.get(smallest).addAll(component);
+            binSizes[smallest] += sizes.get(component);
+        }
+
+        List<List<VerifierResource>> parts = new ArrayList<List<VerifierResource>>(bins.size());
+        for (List<Integer> bin : bins) {
+            Collections.sort(bin);
+            List<VerifierResource> part = new ArrayList<VerifierResource>(bin.size());
+            for (int i : bin) {
+                part.add(resources.get(i));
+            }
+            parts.add(part);
+        }
+        return parts;
+    }
+
+    private static int find(int[] groups,
+                            int i) {
+        while (groups[i] != i) {
+            groups[i] = groups[groups[i]];
+            i = groups[i];
+        }
+        return i;
+    }
+
+    private void addResource(String content,
+                             ResourceType resourceType) {
+        super.addResourceToVerifier(content,
+                resourceType);
+    }
+
+    private void addResource(byte[] content,
+                             ResourceType resourceType,
+                             DecisionTableConfiguration configuration) {
+        super.addResourceToVerifier(content,
+                resourceType,
+                configuration);
+    }
+
+    /**
+     * The verifiers of the shards of one analysis. Shards that only start once
+     * the analysis is over do not get a verifier.
+     */
+    private static class ShardVerifiers {
+
+        private final List<Verifier> verifiers = new ArrayList<Verifier>();
+        private boolean disposed;
+
+        synchronized Verifier newVerifier() {
+            if (disposed) {
+                throw new CancellationException();
+            }
+            Verifier verifier = VerifierBuilderFactory.newVerifierBuilder().newVerifier();
+            verifiers.add(verifier);
+            return verifier;
+        }
+
+        synchronized void dispose() {
+            disposed = true;
+            for (Verifier verifier : verifiers) {
+                verifier.dispose();
+            }
+            verifiers.clear();
+        }
+
+    }
+
+    /**
+     * A resource to verify, kept so that it can be added to the verifier of
+     * each shard it belongs to.
+     */
+    static class VerifierResource {
+
+        private final String content;
+        private final byte[] binaryContent;
+        private final ResourceType resourceType;
+        private final DecisionTableConfiguration configuration;
+        private final Set<String> keys;
+
+        VerifierResource(String content,
+                         ResourceType resourceType,
+                         Set<String> keys) {
+            this.content = content;
+            this.binaryContent = null;
+            this.resourceType = resourceType;
+            this.configuration = null;
+            this.keys = keys;
+        }
+
+        VerifierResource(byte[] binaryContent,
+                         ResourceType resourceType,
+                         DecisionTableConfiguration configuration) {
+            this.content = null;
+            this.binaryContent = binaryContent;
+            this.resourceType = resourceType;
+            this.configuration = configuration;
+            this.keys = null;
+        }
+
+        private void addTo(ShardedPackageVerifier runner) {
+            if (binaryContent != null) {
+                runner.addResource(binaryContent,
+                        resourceType,
+                        configuration);
+            } else {
+                runner.addResource(content,
+                        resourceType);
+            }
+        }
+
+        private void addTo(Verifier verifier) {
+            verifier.addResourcesToVerify(
+                    ResourceFactory.newReaderResource(new StringReader(content)),
+                    resourceType);
+        }
+
+    }
+
+}
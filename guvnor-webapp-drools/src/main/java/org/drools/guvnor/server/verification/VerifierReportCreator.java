@@ -17,8 +17,10 @@
 package org.drools.guvnor.server.verification;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -51,6 +53,67 @@ public class VerifierReportCreator {
         return result;
     }
 
+    /**
+     * Merges the reports of verifiers that each analysed a part of the rules
+     * into one. The facts used in more than one part have their field usages
+     * merged.
+     */
+    public static AnalysisReport doReport(Collection<VerifierReport> reports) {
+        List<AnalysisReportLine> errors = new ArrayList<AnalysisReportLine>();
+        List<AnalysisReportLine> warnings = new ArrayList<AnalysisReportLine>();
+        List<AnalysisReportLine> notes = new ArrayList<AnalysisReportLine>();
+        Map<String, AnalysisFactUsage> factUsages = new LinkedHashMap<String, AnalysisFactUsage>();
+
+        for ( VerifierReport report : reports ) {
+            errors.addAll( Arrays.asList( doLines( report.getBySeverity( Severity.ERROR ) ) ) );
+            warnings.addAll( Arrays.asList( doLines( report.getBySeverity( Severity.WARNING ) ) ) );
+            notes.addAll( Arrays.asList( doLines( report.getBySeverity( Severity.NOTE ) ) ) );
+            for ( AnalysisFactUsage fact : doFactUsage( report.getVerifierData() ) ) {
+                AnalysisFactUsage merged = factUsages.get( fact.name );
+                factUsages.put( fact.name,
+                                merged == null ? fact : mergeFactUsage( merged,
+                                                                        fact ) );
+            }
+        }
+
+        AnalysisReport result = new AnalysisReport();
+        result.errors = errors.toArray( new AnalysisReportLine[errors.size()] );
+        result.warnings = warnings.toArray( new AnalysisReportLine[warnings.size()] );
+        result.notes = notes.toArray( new AnalysisReportLine[notes.size()] );
+        result.factUsages = factUsages.values().toArray( new AnalysisFactUsage[factUsages.size()] );
+
+        return result;
+    }
+
+    private static AnalysisFactUsage mergeFactUsage(AnalysisFactUsage fact,
+                                                    AnalysisFactUsage other) {
+        Map<String, List<String>> rulesByField = new LinkedHashMap<String, List<String>>();
+        for ( AnalysisFactUsage usage : new AnalysisFactUsage[]{fact, other} ) {
+            for ( AnalysisFieldUsage field : usage.fields ) {
+                List<String> rules = rulesByField.get( field.name );
+                if ( rules == null ) {
+                    rules = new ArrayList<String>();
+                    rulesByField.put( field.name,
+                                      rules );
+                }
+                rules.addAll( Arrays.asList( field.rules ) );
+            }
+        }
+
+        List<AnalysisFieldUsage> fieldUsage = new ArrayList<AnalysisFieldUsage>();
+        for ( Map.Entry<String, List<String>> entry : rulesByField.entrySet() ) {
+            AnalysisFieldUsage fu = new AnalysisFieldUsage();
+            fu.name = entry.getKey();
+            fu.rules = entry.getValue().toArray( new String[entry.getValue().size()] );
+            fieldUsage.add( fu );
+        }
+
+        AnalysisFactUsage result = new AnalysisFactUsage();
+        result.name = fact.name;
+        result.fields = fieldUsage.toArray( new AnalysisFieldUsage[fieldUsage.size()] );
+        return result;
+    }
+
     private static AnalysisFactUsage[] doFactUsage(VerifierData verifierData) {
 
         Map<String, String> interned = new HashMap<String, String>();
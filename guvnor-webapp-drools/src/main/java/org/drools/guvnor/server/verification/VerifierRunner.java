@@ -50,6 +50,22 @@ public abstract class VerifierRunner {
 
     public AnalysisReport verify() {
 
+        addResourcesToVerifier();
+
+        return analyse();
+    }
+
+    protected AnalysisReport analyse() {
+
+        fireAnalysis();
+
+        VerifierReport report = verifier.getResult();
+
+        return VerifierReportCreator.doReport(report);
+    }
+
+    protected void addResourcesToVerifier() {
+
         addHeaderToVerifier();
 
         addToVerifier(listAssetsByFormat(AssetFormats.DSL),
@@ -77,17 +93,17 @@ public abstract class VerifierRunner {
 
         addToVerifier(listAssetsByFormat(AssetFormats.BUSINESS_RULE),
                 ResourceType.BRL);
-
-        fireAnalysis();
-
-        VerifierReport report = verifier.getResult();
-
-        return VerifierReportCreator.doReport(report);
     }
 
     protected void fireAnalysis() throws RuntimeException {
+        fireAnalysis(verifier,
+                getScopesAgendaFilter());
+    }
+
+    protected static void fireAnalysis(Verifier verifier,
+                                       ScopesAgendaFilter scopesAgendaFilter) throws RuntimeException {
 
-        verifier.fireAnalysis(getScopesAgendaFilter());
+        verifier.fireAnalysis(scopesAgendaFilter);
 
         if (verifier.hasErrors()) {
             StringBuilder message = new StringBuilder("Verifier Errors:\n");
@@ -107,12 +123,27 @@ public abstract class VerifierRunner {
         header.append("package ").append(packageItem.getName()).append("\n");
         header.append(DroolsHeader.getDroolsHeader(packageItem)).append("\n");
 
-        verifier.addResourcesToVerify(
-                ResourceFactory.newReaderResource(new StringReader(header.toString())),
+        addResourceToVerifier(header.toString(),
                 ResourceType.DRL);
 
     }
 
+    protected void addResourceToVerifier(String content,
+                                         ResourceType resourceType) {
+        verifier.addResourcesToVerify(
+                ResourceFactory.newReaderResource(new StringReader(content)),
+                resourceType);
+    }
+
+    protected void addResourceToVerifier(byte[] content,
+                                         ResourceType resourceType,
+                                         DecisionTableConfiguration configuration) {
+        verifier.addResourcesToVerify(
+                ResourceFactory.newByteArrayResource(content),
+                resourceType,
+                configuration);
+    }
+
     private void addGuidedDecisionTablesToVerifier() {
         addToVerifier(listAssetsByFormat(AssetFormats.DECISION_TABLE_GUIDED));
     }
@@ -136,13 +167,11 @@ public abstract class VerifierRunner {
                     DecisionTableConfiguration dtableconfiguration = KnowledgeBuilderFactory.newDecisionTableConfiguration();
                     dtableconfiguration.setInputType(DecisionTableInputType.XLS);
 
-                    verifier.addResourcesToVerify(
-                            ResourceFactory.newByteArrayResource(asset.getBinaryContentAsBytes()),
+                    addResourceToVerifier(asset.getBinaryContentAsBytes(),
                             resourceType,
                             dtableconfiguration);
                 } else {
-                    verifier.addResourcesToVerify(
-                            ResourceFactory.newReaderResource(new StringReader(asset.getContent())),
+                    addResourceToVerifier(asset.getContent(),
                             resourceType);
                 }
             }
@@ -157,8 +186,7 @@ public abstract class VerifierRunner {
             if (contentHandler.isRuleAsset()) {
                 IRuleAsset ruleAsset = (IRuleAsset) contentHandler;
                 String drl = ruleAsset.getRawDRL(assetItem);
-                verifier.addResourcesToVerify(
-                        ResourceFactory.newReaderResource(new StringReader(drl)),
+                addResourceToVerifier(drl,
                         ResourceType.DRL);
 
             }
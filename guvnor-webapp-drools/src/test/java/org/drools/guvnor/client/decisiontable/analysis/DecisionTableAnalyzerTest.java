@@ -17,13 +17,17 @@
 package org.drools.guvnor.client.decisiontable.analysis;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
 
 import org.drools.ide.common.client.modeldriven.ModelField;
 import org.drools.ide.common.client.modeldriven.SuggestionCompletionEngine;
@@ -847,6 +851,116 @@ public class DecisionTableAnalyzerTest {
         assertEquals(0, analysisData.get(3).getConflictingMatchSize());
     }
 
+    @Test
+    public void testUpdateRows() throws ParseException {
+        SuggestionCompletionEngine sce = buildSuggestionCompletionEngine();
+
+        GuidedDecisionTable52 dt = buildDriverAgeTable();
+
+        @SuppressWarnings("unchecked")
+        List<List<DTCellValue52>> data = Arrays.asList(
+                buildDriverAgeRow(1, null, 20),
+                buildDriverAgeRow(2, 21, 40),
+                buildDriverAgeRow(3, 30, 60),
+                buildDriverAgeRow(4, 50, null)
+        );
+
+        dt.setData(data);
+
+        DecisionTableAnalyzer analyzer = new DecisionTableAnalyzer(sce);
+        List<Analysis> analysisData = analyzer.analyze(dt);
+        assertEquals(1, analysisData.get(1).getConflictingMatchSize());
+
+        // Row 2 no longer overlaps with row 3, but now overlaps with row 1
+        data.get(1).set(2, new DTCellValue52(new Integer("10")));
+        data.get(1).set(3, new DTCellValue52(new Integer("25")));
+        Set<Integer> affectedRows = analyzer.updateRows(dt, Arrays.asList(1));
+        assertEquals(new TreeSet<Integer>(Arrays.asList(0, 1, 2)), affectedRows);
+        for (Integer iRow : affectedRows) {
+            analysisData.set(iRow, analyzer.analyzeRow(iRow));
+        }
+
+        List<Analysis> expectedAnalysisData = new DecisionTableAnalyzer(sce).analyze(dt);
+        for (int iRow = 0; iRow < data.size(); iRow++) {
+            assertEquals(expectedAnalysisData.get(iRow).toHtmlString(), analysisData.get(iRow).toHtmlString());
+        }
+        assertEquals(1, analysisData.get(0).getConflictingMatchSize());
+        assertEquals(1, analysisData.get(1).getConflictingMatchSize());
+        assertEquals(1, analysisData.get(2).getConflictingMatchSize());
+
+        // Changes to the columns require the table to be analysed again
+        dt.getActionCols().add(new ActionSetFieldCol52());
+        assertNull(analyzer.updateRows(dt, Arrays.asList(1)));
+    }
+
+    @Test
+    public void testUpdateRowsAfterDeleteAndInsert() throws ParseException {
+        SuggestionCompletionEngine sce = buildSuggestionCompletionEngine();
+
+        GuidedDecisionTable52 dt = buildDriverAgeTable();
+
+        List<List<DTCellValue52>> data = new ArrayList<List<DTCellValue52>>();
+        data.add(buildDriverAgeRow(1, null, 20));
+        data.add(buildDriverAgeRow(2, 21, 40));
+        data.add(buildDriverAgeRow(3, 30, 60));
+        data.add(buildDriverAgeRow(4, 50, null));
+        dt.setData(data);
+
+        DecisionTableAnalyzer analyzer = new DecisionTableAnalyzer(sce);
+        analyzer.analyze(dt);
+
+        // The number of rows is unchanged, but row 2 is a different row
+        data.remove(1);
+        data.add(1, buildDriverAgeRow(2, 10, 25));
+        assertNull(analyzer.updateRows(dt, Arrays.asList(1)));
+
+        List<Analysis> analysisData = analyzer.analyze(dt);
+        List<Analysis> expectedAnalysisData = new DecisionTableAnalyzer(sce).analyze(dt);
+        for (int iRow = 0; iRow < data.size(); iRow++) {
+            assertEquals(expectedAnalysisData.get(iRow).toHtmlString(), analysisData.get(iRow).toHtmlString());
+        }
+        assertEquals(1, analysisData.get(0).getConflictingMatchSize());
+        assertEquals(1, analysisData.get(1).getConflictingMatchSize());
+    }
+
+    private GuidedDecisionTable52 buildDriverAgeTable() {
+        GuidedDecisionTable52 dt = new GuidedDecisionTable52();
+
+        Pattern52 driverPattern = new Pattern52();
+        driverPattern.setBoundName("driverPattern");
+        driverPattern.setFactType("Driver");
+
+        ConditionCol52 ageMinimum = new ConditionCol52();
+        ageMinimum.setFactField("age");
+        ageMinimum.setOperator(">=");
+        ageMinimum.setConstraintValueType(BaseSingleFieldConstraint.TYPE_LITERAL);
+        driverPattern.getChildColumns().add(ageMinimum);
+
+        ConditionCol52 ageMaximum = new ConditionCol52();
+        ageMaximum.setFactField("age");
+        ageMaximum.setOperator("<=");
+        ageMaximum.setConstraintValueType(BaseSingleFieldConstraint.TYPE_LITERAL);
+        driverPattern.getChildColumns().add(ageMaximum);
+
+        dt.getConditions().add(driverPattern);
+
+        ActionSetFieldCol52 message = new ActionSetFieldCol52();
+        message.setBoundName("m");
+        message.setFactField("message");
+        dt.getActionCols().add(message);
+        return dt;
+    }
+
+    private List<DTCellValue52> buildDriverAgeRow(int rowNumber, Integer ageMinimum, Integer ageMaximum) {
+        return Arrays.asList(
+                new DTCellValue52(rowNumber),
+                new DTCellValue52("Row " + rowNumber + " description"),
+                new DTCellValue52(ageMinimum),
+                new DTCellValue52(ageMaximum),
+                new DTCellValue52("Row " + rowNumber + " message")
+        );
+    }
+
     @SuppressWarnings("serial")
     private SuggestionCompletionEngine buildSuggestionCompletionEngine() {
         SuggestionCompletionEngine sce = new SuggestionCompletionEngine();
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.guvnor.client.decisiontable.analysis;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.drools.guvnor.client.decisiontable.analysis.action.ActionDetector;
+import org.drools.guvnor.client.decisiontable.analysis.action.SetFieldColActionDetectorKey;
+import org.drools.guvnor.client.decisiontable.analysis.condition.BooleanConditionDetector;
+import org.drools.guvnor.client.decisiontable.analysis.condition.NumericIntegerConditionDetector;
+import org.drools.guvnor.client.decisiontable.analysis.condition.StringConditionDetector;
+import org.drools.ide.common.client.modeldriven.dt52.ActionSetFieldCol52;
+import org.drools.ide.common.client.modeldriven.dt52.DTCellValue52;
+import org.drools.ide.common.client.modeldriven.dt52.Pattern52;
+import org.junit.Test;
+
+public class RowDetectorIndexTest {
+
+    private final Pattern52 driverPattern = new Pattern52();
+
+    private final ActionSetFieldCol52 message = new ActionSetFieldCol52();
+
+    public RowDetectorIndexTest() {
+        driverPattern.setBoundName("driverPattern");
+        driverPattern.setFactType("Driver");
+        message.setBoundName("m");
+        message.setFactField("message");
+    }
+
+    @Test
+    public void testCandidatesMatchPairwiseAnalysis() {
+        Random random = new Random(1234);
+        List<RowDetector> rowDetectorList = new ArrayList<RowDetector>();
+        for (int iRow = 0; iRow < 300; iRow++) {
+            RowDetector rowDetector = new RowDetector(iRow);
+            int from = random.nextInt(100);
+            switch (random.nextInt(4)) {
+                case 0:
+                    rowDetector.putOrMergeConditionDetector(new NumericIntegerConditionDetector(driverPattern, "age", from, ">="));
+                    rowDetector.putOrMergeConditionDetector(new NumericIntegerConditionDetector(driverPattern, "age", from + random.nextInt(10), "<"));
+                    break;
+                case 1:
+                    rowDetector.putOrMergeConditionDetector(new NumericIntegerConditionDetector(driverPattern, "age", from, "=="));
+                    break;
+                case 2:
+                    rowDetector.putOrMergeConditionDetector(new NumericIntegerConditionDetector(driverPattern, "age", from, ">"));
+                    break;
+                default:
+                    // No condition on age
+            }
+            if (random.nextBoolean()) {
+                rowDetector.putOrMergeConditionDetector(new StringConditionDetector(driverPattern, "name", "name" + random.nextInt(5), "=="));
+            }
+            if (random.nextInt(3) == 0) {
+                rowDetector.putOrMergeConditionDetector(new BooleanConditionDetector(driverPattern, "approved", random.nextBoolean(), "=="));
+            }
+            if (random.nextInt(10) != 0) {
+                rowDetector.putOrMergeActionDetector(new ActionDetector(new SetFieldColActionDetectorKey(message),
+                        new DTCellValue52("message" + random.nextInt(3))));
+            }
+            rowDetectorList.add(rowDetector);
+        }
+
+        RowDetectorIndex index = new RowDetectorIndex(rowDetectorList);
+        int candidateCount = 0;
+        for (RowDetector rowDetector : rowDetectorList) {
+            List<RowDetector> candidates = index.getCandidates(rowDetector);
+            candidateCount += candidates.size();
+            assertEquals(rowDetector.buildAnalysis(rowDetectorList).toHtmlString(),
+                    rowDetector.buildAnalysis(candidates).toHtmlString());
+        }
+
+        // The index should prune most of the row pairs
+        assertTrue(candidateCount < rowDetectorList.size() * rowDetectorList.size() / 2);
+    }
+
+    @Test
+    public void testRowsWithoutSharedActionsAreNotCandidates() {
+        RowDetector row1 = new RowDetector(0);
+        row1.putOrMergeConditionDetector(new NumericIntegerConditionDetector(driverPattern, "age", 20, ">="));
+        row1.putOrMergeActionDetector(new ActionDetector(new SetFieldColActionDetectorKey(message),
+                new DTCellValue52("message")));
+        RowDetector row2 = new RowDetector(1);
+        row2.putOrMergeConditionDetector(new NumericIntegerConditionDetector(driverPattern, "age", 30, ">="));
+        RowDetector row3 = new RowDetector(2);
+        row3.putOrMergeConditionDetector(new NumericIntegerConditionDetector(driverPattern, "age", 10, "<"));
+        row3.putOrMergeActionDetector(new ActionDetector(new SetFieldColActionDetectorKey(message),
+                new DTCellValue52("other message")));
+
+        List<RowDetector> rowDetectorList = new ArrayList<RowDetector>();
+        rowDetectorList.add(row1);
+        rowDetectorList.add(row2);
+        rowDetectorList.add(row3);
+        RowDetectorIndex index = new RowDetectorIndex(rowDetectorList);
+
+        assertEquals(0, index.getCandidates(row1).size());
+        assertEquals(0, index.getCandidates(row2).size());
+        assertEquals(0, index.getCandidates(row3).size());
+    }
+
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.guvnor.client.moduleeditor.drools;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.drools.ide.common.client.modeldriven.brl.ActionInsertFact;
+import org.drools.ide.common.client.modeldriven.brl.FactPattern;
+import org.drools.ide.common.client.modeldriven.brl.FromCollectCompositeFactPattern;
+import org.drools.ide.common.client.modeldriven.brl.RuleModel;
+import org.drools.ide.common.client.modeldriven.dt52.ActionInsertFactCol52;
+import org.drools.ide.common.client.modeldriven.dt52.GuidedDecisionTable52;
+import org.drools.ide.common.client.modeldriven.dt52.Pattern52;
+import org.drools.ide.common.client.modeldriven.testing.FactData;
+import org.drools.ide.common.client.modeldriven.testing.Scenario;
+import org.junit.Test;
+
+public class UsedFactTypesTest {
+
+    @Test
+    public void testRuleModel() {
+        RuleModel model = new RuleModel();
+        model.addLhsItem( new FactPattern( "Person" ) );
+        FromCollectCompositeFactPattern collect = new FromCollectCompositeFactPattern();
+        collect.setFactPattern( new FactPattern( "java.util.List" ) );
+        collect.setRightPattern( new FactPattern( "Address" ) );
+        model.addLhsItem( collect );
+        model.addRhsItem( new ActionInsertFact( "Car" ) );
+
+        assertEquals( new HashSet<String>( Arrays.asList( "Person",
+                                                          "java.util.List",
+                                                          "Address",
+                                                          "Car" ) ),
+                      new HashSet<String>( Arrays.asList( UsedFactTypes.of( model ) ) ) );
+    }
+
+    @Test
+    public void testDecisionTable() {
+        GuidedDecisionTable52 model = new GuidedDecisionTable52();
+        Pattern52 pattern = new Pattern52();
+        pattern.setFactType( "Person" );
+        model.getConditions().add( pattern );
+        ActionInsertFactCol52 action = new ActionInsertFactCol52();
+        action.setFactType( "Car" );
+        model.getActionCols().add( action );
+
+        assertEquals( new HashSet<String>( Arrays.asList( "Person",
+                                                          "Car" ) ),
+                      new HashSet<String>( Arrays.asList( UsedFactTypes.of( model ) ) ) );
+    }
+
+    @Test
+    public void testScenario() {
+        Scenario scenario = new Scenario();
+        scenario.getFixtures().add( new FactData( "Person",
+                                                  "p",
+                                                  false ) );
+        scenario.getGlobals().add( new FactData( "Car",
+                                                 "c",
+                                                 false ) );
+
+        assertEquals( new HashSet<String>( Arrays.asList( "Person",
+                                                          "Car" ) ),
+                      new HashSet<String>( Arrays.asList( UsedFactTypes.of( scenario ) ) ) );
+    }
+
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.drools.guvnor.client.widgets.drools.decoratedgrid.data;
+
+import static org.junit.Assert.assertEquals;
+
+import org.drools.guvnor.client.widgets.drools.decoratedgrid.CellValue;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for DynamicData where cells are updated, or rows added and deleted,
+ * after merging. The incrementally maintained model should equal that of a
+ * full re-merge.
+ */
+public class DynamicDataTestsWithMergingCellUpdates extends BaseDynamicDataTests {
+
+    @Before
+    public void setup() {
+        super.setup();
+
+        //Setup date to merge
+        //[1][-][3]
+        //[1][2][3]
+        //[-][2][3]
+        data.get( 0 ).get( 0 ).setValue( "1" );
+        data.get( 0 ).get( 1 ).setValue( "-" );
+        data.get( 0 ).get( 2 ).setValue( "3" );
+
+        data.get( 1 ).get( 0 ).setValue( "1" );
+        data.get( 1 ).get( 1 ).setValue( "2" );
+        data.get( 1 ).get( 2 ).setValue( "3" );
+
+        data.get( 2 ).get( 0 ).setValue( "-" );
+        data.get( 2 ).get( 1 ).setValue( "2" );
+        data.get( 2 ).get( 2 ).setValue( "3" );
+
+        data.setMerged( true );
+    }
+
+    @Test
+    public void testSetValue_Splits() {
+        //[1][-][3]    [1][-][3]
+        //[1][2][3] -> [1][4][3]
+        //[-][2][3]    [-][2][3]
+        RowRange range = data.set( new Coordinate( 1,
+                                                   1 ),
+                                   "4" );
+
+        assertEquals( 1,
+                      data.get( 1 ).get( 1 ).getRowSpan() );
+        assertEquals( 1,
+                      data.get( 2 ).get( 1 ).getRowSpan() );
+        assertEquals( 0,
+                      range.getMinRow() );
+        assertEquals( 2,
+                      range.getMaxRow() );
+        assertMatchesFullMerge();
+    }
+
+    @Test
+    public void testSetValue_Merges() {
+        //[1][-][3]    [1][2][3]
+        //[1][2][3] -> [1][2][3]
+        //[-][2][3]    [-][2][3]
+        RowRange range = data.set( new Coordinate( 0,
+                                                   1 ),
+                                   "2" );
+
+        assertEquals( 3,
+                      data.get( 0 ).get( 1 ).getRowSpan() );
+        assertEquals( 0,
+                      data.get( 1 ).get( 1 ).getRowSpan() );
+        assertEquals( 0,
+                      data.get( 2 ).get( 1 ).getRowSpan() );
+        assertEquals( 0,
+                      range.getMinRow() );
+        assertEquals( 2,
+                      range.getMaxRow() );
+        assertMatchesFullMerge();
+    }
+
+    @Test
+    public void testSetValue_HtmlCoordinates() {
+        //[1][-][3]    [1][-][3]
+        //[1][2][3] -> [5][2][3]
+        //[-][2][3]    [-][2][3]
+        data.set( new Coordinate( 1,
+                                  0 ),
+                  "5" );
+
+        assertEquals( new Coordinate( 1,
+                                      0 ),
+                      data.get( 1 ).get( 0 ).getHtmlCoordinate() );
+        assertEquals( new Coordinate( 1,
+                                      1 ),
+                      data.get( 1 ).get( 1 ).getHtmlCoordinate() );
+        assertEquals( new Coordinate( 0,
+                                      2 ),
+                      data.get( 1 ).get( 2 ).getHtmlCoordinate() );
+        assertEquals( new Coordinate( 1,
+                                      1 ),
+                      data.get( 2 ).get( 1 ).getHtmlCoordinate() );
+        assertMatchesFullMerge();
+    }
+
+    @Test
+    public void testSetValue_Sequence() {
+        String[] values = new String[]{"1", "2", "3", "-"};
+        for ( int i = 0; i < 36; i++ ) {
+            data.set( new Coordinate( i % 3,
+                                      (i / 3) % 3 ),
+                      values[(i * 7) % values.length] );
+            assertMatchesFullMerge();
+        }
+    }
+
+    @Test
+    public void testAddRow() {
+        DynamicDataRow row = makeRow();
+        row.get( 0 ).setValue( "1" );
+        row.get( 1 ).setValue( "2" );
+        row.get( 2 ).setValue( "4" );
+        data.addRow( 1,
+                     row );
+
+        assertEquals( 4,
+                      data.size() );
+        assertEquals( 3,
+                      data.get( 0 ).get( 0 ).getRowSpan() );
+        assertEquals( 1,
+                      data.get( 0 ).get( 2 ).getRowSpan() );
+        assertEquals( 2,
+                      data.get( 2 ).get( 2 ).getRowSpan() );
+        assertMatchesFullMerge();
+
+        data.addRow( 0,
+                     makeRow() );
+        assertMatchesFullMerge();
+        data.addRow( makeRow() );
+        assertMatchesFullMerge();
+    }
+
+    @Test
+    public void testDeleteRow() {
+        data.deleteRow( 1 );
+
+        assertEquals( 2,
+                      data.size() );
+        assertEquals( 1,
+                      data.get( 0 ).get( 0 ).getRowSpan() );
+        assertEquals( 2,
+                      data.get( 0 ).get( 2 ).getRowSpan() );
+        assertMatchesFullMerge();
+
+        data.deleteRow( 1 );
+        assertMatchesFullMerge();
+        data.deleteRow( 0 );
+        assertEquals( 0,
+                      data.size() );
+    }
+
+    //Check the model equals that following a full re-merge
+    private void assertMatchesFullMerge() {
+        String incremental = describe();
+        data.assertModelMerging();
+        assertEquals( describe(),
+                      incremental );
+    }
+
+    private String describe() {
+        StringBuilder sb = new StringBuilder();
+        for ( DynamicDataRow row : data ) {
+            for ( CellValue< ? > cell : row ) {
+                sb.append( cell.getRowSpan() );
+                sb.append( cell.getCoordinate() );
+                sb.append( cell.getHtmlCoordinate() );
+                sb.append( cell.getPhysicalCoordinate() );
+            }
+            sb.append( "\n" );
+        }
+        return sb.toString();
+    }
+
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2011 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.drools.guvnor.client.widgets.drools.decoratedgrid.data;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for extending a range of rows, such as the rendered window of a large
+ * table, to include whole merged cells
+ */
+public class DynamicDataTestsWithMergingRowRanges extends BaseDynamicDataTests {
+
+    @Before
+    public void setup() {
+        super.setup();
+
+        data.addRow( makeRow() );
+        data.addRow( makeRow() );
+        data.addRow( makeRow() );
+
+        //Setup data to merge
+        //[a][f][j]
+        //[a][g][k]
+        //[b][g][l]
+        //[c][g][m]
+        //[d][h][n]
+        //[e][i][n]
+        String[][] values = new String[][]{
+                                           {"a", "f", "j"},
+                                           {"a", "g", "k"},
+                                           {"b", "g", "l"},
+                                           {"c", "g", "m"},
+                                           {"d", "h", "n"},
+                                           {"e", "i", "n"}
+        };
+        for ( int iRow = 0; iRow < values.length; iRow++ ) {
+            for ( int iCol = 0; iCol < values[iRow].length; iCol++ ) {
+                data.get( iRow ).get( iCol ).setValue( values[iRow][iCol] );
+            }
+        }
+        data.setMerged( true );
+    }
+
+    @Test
+    public void testMergeAcrossEndOfRange() {
+        RowRange range = data.extendToMergedCells( new RowRange( 4,
+                                                                 4 ) );
+        assertEquals( new RowRange( 4,
+                                    5 ),
+                      range );
+    }
+
+    @Test
+    public void testMergeAcrossStartOfRange() {
+        RowRange range = data.extendToMergedCells( new RowRange( 5,
+                                                                 5 ) );
+        assertEquals( new RowRange( 4,
+                                    5 ),
+                      range );
+    }
+
+    @Test
+    public void testMergesInDifferentColumnsAreFollowed() {
+        //Row 2 is merged with row 1 in the second column, which is merged
+        //with row 0 in the first column
+        RowRange range = data.extendToMergedCells( new RowRange( 2,
+                                                                 2 ) );
+        assertEquals( new RowRange( 0,
+                                    3 ),
+                      range );
+    }
+
+    @Test
+    public void testRangeWithoutSplitMergesIsUnchanged() {
+        RowRange range = data.extendToMergedCells( new RowRange( 0,
+                                                                 3 ) );
+        assertEquals( new RowRange( 0,
+                                    3 ),
+                      range );
+    }
+
+    @Test
+    public void testRangeIsUnchangedWithoutMerging() {
+        data.setMerged( false );
+        RowRange range = data.extendToMergedCells( new RowRange( 2,
+                                                                 2 ) );
+        assertEquals( new RowRange( 2,
+                                    2 ),
+                      range );
+    }
+
+    @Test
+    public void testMergeAcrossEndOfRangeAfterCellUpdate() {
+        data.set( new Coordinate( 5,
+                                  2 ),
+                  "o" );
+        assertEquals( new RowRange( 4,
+                                    4 ),
+                      data.extendToMergedCells( new RowRange( 4,
+                                                              4 ) ) );
+
+        //Merging the cell again splits the merged cell across the range
+        data.set( new Coordinate( 5,
+                                  2 ),
+                  "n" );
+        assertEquals( new RowRange( 4,
+                                    5 ),
+                      data.extendToMergedCells( new RowRange( 4,
+                                                              4 ) ) );
+    }
+
+}
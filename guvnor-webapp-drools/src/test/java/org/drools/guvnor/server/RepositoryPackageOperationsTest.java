@@ -215,6 +215,7 @@ public class RepositoryPackageOperationsTest {
         when(packageItem.getLastModified()).thenReturn(calendar);
         initDroolsHeaderCheck(packageItem);
         when(packageItem.isArchived()).thenReturn(true);
+        when(packageItem.getRulesRepository()).thenReturn(this.rulesRepository);
         when(this.rulesRepository.loadModule(packageConfigData.getName())).thenReturn(packageItem);
         doNothing().when(localRepositoryPackageOperations).updateCategoryRules(packageConfigData,
                 packageItem);
@@ -226,6 +227,7 @@ public class RepositoryPackageOperationsTest {
         verify(packageItem).updateDescription(packageConfigData.getDescription());
         verify(packageItem).archiveItem(packageConfigData.isArchived());
         verify(packageItem).checkin(packageConfigData.getDescription());
+        verify(packageItem).updateBinaryUpToDate(false);
         verify(localRepositoryPackageOperations).handleUnarchivedForSaveModule(packageConfigData,
                 packageItem,
                 calendar);
@@ -240,6 +242,7 @@ public class RepositoryPackageOperationsTest {
         ModuleItem packageItem = mock(ModuleItem.class);
         initDroolsHeaderCheck(packageItem);
         when(packageItem.isArchived()).thenReturn(false);
+        when(packageItem.getRulesRepository()).thenReturn(this.rulesRepository);
         when(this.rulesRepository.loadModule(packageConfigData.getName())).thenReturn(packageItem);
         doNothing().when(localRepositoryPackageOperations).updateCategoryRules(packageConfigData,
                 packageItem);
@@ -250,6 +253,7 @@ public class RepositoryPackageOperationsTest {
         verify(packageItem).updateDescription(packageConfigData.getDescription());
         verify(packageItem).archiveItem(packageConfigData.isArchived());
         verify(packageItem).checkin(packageConfigData.getDescription());
+        verify(packageItem).updateBinaryUpToDate(false);
         verify(localRepositoryPackageOperations).handleArchivedForSaveModule(packageConfigData,
                 packageItem);
     }
@@ -263,6 +267,7 @@ public class RepositoryPackageOperationsTest {
         ModuleItem packageItem = mock(ModuleItem.class);
         initDroolsHeaderCheck(packageItem);
         when(packageItem.isArchived()).thenReturn(false);
+        when(packageItem.getRulesRepository()).thenReturn(this.rulesRepository);
         when(this.rulesRepository.loadModule(packageConfigData.getName())).thenReturn(packageItem);
         doNothing().when(localRepositoryPackageOperations).updateCategoryRules(packageConfigData,
                 packageItem);
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.guvnor.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.drools.RuleBase;
+import org.drools.RuleBaseFactory;
+import org.drools.common.InternalWorkingMemory;
+import org.drools.compiler.PackageBuilder;
+import org.drools.guvnor.client.rpc.WorkItemService;
+import org.drools.ide.common.shared.workitems.PortableWorkDefinition;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ScenarioSessionFactoryTest {
+
+    private static final String DRL = "package org.test\n"
+            + "import java.util.List\n"
+            + "global List fired\n"
+            + "rule \"always\" salience 10\n"
+            + "when\n"
+            + "then\n"
+            + "    fired.add(\"always\");\n"
+            + "end\n"
+            + "rule \"no strings\"\n"
+            + "when\n"
+            + "    not String()\n"
+            + "then\n"
+            + "    fired.add(\"no strings\");\n"
+            + "end\n"
+            + "rule \"string\"\n"
+            + "when\n"
+            + "    $s : String()\n"
+            + "then\n"
+            + "    fired.add(\"string \" + $s);\n"
+            + "end\n";
+
+    private ScenarioSessionFactory factory;
+    private WorkItemService workItemService;
+    private RuleBase ruleBase;
+
+    @Before
+    public void setUp() throws Exception {
+        factory = new ScenarioSessionFactory();
+
+        PortableWorkDefinition workDefinition = mock(PortableWorkDefinition.class);
+        when(workDefinition.getName()).thenReturn("Email");
+        workItemService = mock(WorkItemService.class);
+        when(workItemService.loadWorkItemDefinitions(anyString())).thenReturn(new HashSet<PortableWorkDefinition>(Arrays.asList(workDefinition)));
+
+        ruleBase = buildRuleBase();
+    }
+
+    @Test
+    public void testScenarioRunsTheSameEveryTime() throws Exception {
+        List<String> first = runScenario();
+        List<String> second = runScenario();
+
+        assertEquals(Arrays.asList("always",
+                "no strings",
+                "string a"),
+                first);
+        assertEquals(first,
+                second);
+    }
+
+    @Test
+    public void testImportsAndWorkItemsAreResolvedOncePerRuleBase() throws Exception {
+        ScenarioSessionFactory.ScenarioSession session = factory.newSession("uuid",
+                ruleBase,
+                workItemService);
+        Set<String> imports = session.getImports();
+        assertTrue(imports.contains("org.test.*"));
+        assertTrue(imports.contains("java.util.List"));
+
+        ScenarioSessionFactory.ScenarioSession other = factory.newSession("uuid",
+                ruleBase,
+                workItemService);
+        assertNotSame(session.getWorkingMemory(),
+                other.getWorkingMemory());
+        assertSame(imports,
+                other.getImports());
+        verify(workItemService,
+                times(1)).loadWorkItemDefinitions("uuid");
+        session.dispose();
+        other.dispose();
+
+        ScenarioSessionFactory.ScenarioSession rebuilt = factory.newSession("uuid",
+                buildRuleBase(),
+                workItemService);
+        assertNotSame(imports,
+                rebuilt.getImports());
+        verify(workItemService,
+                times(2)).loadWorkItemDefinitions("uuid");
+        rebuilt.dispose();
+    }
+
+    //Fires the rules of the new session, then again once a fact is inserted
+    private List<String> runScenario() throws Exception {
+        ScenarioSessionFactory.ScenarioSession session = factory.newSession("uuid",
+                ruleBase,
+                workItemService);
+        try {
+            InternalWorkingMemory workingMemory = session.getWorkingMemory();
+            List<String> fired = new ArrayList<String>();
+            workingMemory.setGlobal("fired",
+                    fired);
+            workingMemory.fireAllRules();
+            workingMemory.insert("a");
+            workingMemory.fireAllRules();
+            return fired;
+        } finally {
+            session.dispose();
+        }
+    }
+
+    private RuleBase buildRuleBase() throws Exception {
+        PackageBuilder builder = new PackageBuilder();
+        builder.addPackageFromDrl(new StringReader(DRL));
+        assertTrue(builder.getErrors().toString(),
+                builder.getErrors().isEmpty());
+
+        RuleBase ruleBase = RuleBaseFactory.newRuleBase();
+        ruleBase.addPackage(builder.getPackage());
+        return ruleBase;
+    }
+
+}
@@ -19,6 +19,7 @@ package org.drools.guvnor.server;
 import org.drools.guvnor.client.common.AssetFormats;
 import org.drools.guvnor.server.test.GuvnorIntegrationTest;
 import org.drools.guvnor.server.util.DroolsHeader;
+import org.drools.ide.common.client.modeldriven.FactTypeDetails;
 import org.drools.ide.common.client.modeldriven.SuggestionCompletionEngine;
 import org.drools.repository.AssetItem;
 import org.drools.repository.ModuleItem;
@@ -28,7 +29,11 @@ import javax.inject.Inject;
 import java.util.Arrays;
 import java.util.List;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 public class SuggestionCompletionEngineServiceImplementationIntegrationTest
@@ -74,4 +79,77 @@ public class SuggestionCompletionEngineServiceImplementationIntegrationTest
         assertTrue( factTypes.contains( "Whee" ) );
 
     }
+
+    @Test
+    public void testLoadSuggestionCompletionEngineOnlyIfChanged() throws Exception {
+        ModuleItem pkg = rulesRepository.createModule( "testSILoadSCEOnlyIfChanged",
+                "" );
+
+        AssetItem m1 = pkg.addAsset( "MyModel",
+                "" );
+        m1.updateFormat( AssetFormats.DRL_MODEL );
+        m1.updateContent( "declare Whee\n name: String\nend" );
+        m1.checkin( "" );
+
+        SuggestionCompletionEngine eng = suggestionCompletionEngineServiceImplementation.loadSuggestionCompletionEngine( pkg.getName(),
+                null );
+        assertNotNull( eng );
+        assertNotNull( eng.getContentHash() );
+        assertNull( suggestionCompletionEngineServiceImplementation.loadSuggestionCompletionEngine( pkg.getName(),
+                eng.getContentHash() ) );
+
+        FactTypeDetails[] details = suggestionCompletionEngineServiceImplementation.loadFactTypeDetails( pkg.getName(),
+                eng.getContentHash(),
+                new String[]{"Whee", "Unknown"} );
+        assertEquals( 1,
+                details.length );
+        assertEquals( "Whee",
+                details[0].getFactType() );
+
+        m1.updateContent( "declare Whee\n name: String\n age: Integer\nend" );
+        m1.checkin( "" );
+        SuggestionCompletionEngine changed = suggestionCompletionEngineServiceImplementation.loadSuggestionCompletionEngine( pkg.getName(),
+                eng.getContentHash() );
+        assertNotNull( changed );
+        assertEquals( eng.getFieldCompletions( "Whee" ).length + 1,
+                changed.getFieldCompletions( "Whee" ).length );
+
+        //the details of the previous engine are not sent
+        assertNull( suggestionCompletionEngineServiceImplementation.loadFactTypeDetails( pkg.getName(),
+                eng.getContentHash(),
+                new String[]{"Whee"} ) );
+        assertEquals( 1,
+                suggestionCompletionEngineServiceImplementation.loadFactTypeDetails( pkg.getName(),
+                        changed.getContentHash(),
+                        new String[]{"Whee"} ).length );
+    }
+
+    @Test
+    public void testEngineIsOnlyLoadedAgainWhenModuleChanges() throws Exception {
+        ModuleItem pkg = rulesRepository.createModule( "testSILoadSCEOnlyWhenModuleChanges",
+                "" );
+
+        AssetItem m1 = pkg.addAsset( "MyModel",
+                "" );
+        m1.updateFormat( AssetFormats.DRL_MODEL );
+        m1.updateContent( "declare Whee\n name: String\nend" );
+        m1.checkin( "" );
+
+        SuggestionCompletionEngine eng = suggestionCompletionEngineServiceImplementation.loadSuggestionCompletionEngine( pkg.getName(),
+                null );
+        assertSame( eng,
+                suggestionCompletionEngineServiceImplementation.loadSuggestionCompletionEngine( pkg.getName(),
+                        "another hash" ) );
+
+        AssetItem m2 = pkg.addAsset( "MyOtherModel",
+                "" );
+        m2.updateFormat( AssetFormats.DRL_MODEL );
+        m2.updateContent( "declare Whoo\n name: String\nend" );
+        m2.checkin( "" );
+        SuggestionCompletionEngine changed = suggestionCompletionEngineServiceImplementation.loadSuggestionCompletionEngine( pkg.getName(),
+                "another hash" );
+        assertNotSame( eng,
+                changed );
+        assertTrue( Arrays.asList( changed.getFactTypes() ).contains( "Whoo" ) );
+    }
 }
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.guvnor.server.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.drools.ide.common.client.modeldriven.brl.RuleModel;
+import org.drools.repository.AssetItem;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ParsedModelCacheTest {
+
+    private ParsedModelCache cache;
+    private CountingParser   parser;
+
+    @Before
+    public void setUp() {
+        cache = new ParsedModelCache( 2 );
+        parser = new CountingParser();
+    }
+
+    @Test
+    public void testReadOnlyModelIsParsedOnce() {
+        AssetItem asset = mockAsset( "uuid1",
+                                     1,
+                                     "rule1" );
+
+        RuleModel model = cache.getReadOnlyModel( asset,
+                                                  RuleModel.class,
+                                                  parser );
+        assertSame( model,
+                    cache.getReadOnlyModel( asset,
+                                            RuleModel.class,
+                                            parser ) );
+        assertEquals( 1,
+                      parser.count );
+    }
+
+    @Test
+    public void testModelIsCopied() {
+        AssetItem asset = mockAsset( "uuid1",
+                                     1,
+                                     "rule1" );
+
+        RuleModel copy = cache.getModel( asset,
+                                         RuleModel.class,
+                                         parser );
+        copy.name = "changed";
+
+        RuleModel model = cache.getReadOnlyModel( asset,
+                                                  RuleModel.class,
+                                                  parser );
+        assertNotSame( copy,
+                       model );
+        assertEquals( "rule1",
+                      model.name );
+        assertEquals( "rule1",
+                      cache.getModel( asset,
+                                      RuleModel.class,
+                                      parser ).name );
+        assertEquals( 1,
+                      parser.count );
+    }
+
+    @Test
+    public void testNewVersionIsParsed() {
+        cache.getReadOnlyModel( mockAsset( "uuid1",
+                                           1,
+                                           "rule1" ),
+                                RuleModel.class,
+                                parser );
+        RuleModel model = cache.getReadOnlyModel( mockAsset( "uuid1",
+                                                             2,
+                                                             "rule2" ),
+                                                  RuleModel.class,
+                                                  parser );
+        assertEquals( "rule2",
+                      model.name );
+        assertEquals( 2,
+                      parser.count );
+    }
+
+    @Test
+    public void testChangedContentIsParsed() {
+        cache.getReadOnlyModel( mockAsset( "uuid1",
+                                           1,
+                                           "rule1" ),
+                                RuleModel.class,
+                                parser );
+        RuleModel model = cache.getReadOnlyModel( mockAsset( "uuid1",
+                                                             1,
+                                                             "updated" ),
+                                                  RuleModel.class,
+                                                  parser );
+        assertEquals( "updated",
+                      model.name );
+        assertEquals( 2,
+                      parser.count );
+    }
+
+    @Test
+    public void testEviction() {
+        AssetItem asset1 = mockAsset( "uuid1",
+                                      1,
+                                      "rule1" );
+        cache.getReadOnlyModel( asset1,
+                                RuleModel.class,
+                                parser );
+        cache.getReadOnlyModel( mockAsset( "uuid2",
+                                           1,
+                                           "rule2" ),
+                                RuleModel.class,
+                                parser );
+        cache.getReadOnlyModel( mockAsset( "uuid3",
+                                           1,
+                                           "rule3" ),
+                                RuleModel.class,
+                                parser );
+        assertEquals( 2,
+                      cache.size() );
+
+        cache.getReadOnlyModel( asset1,
+                                RuleModel.class,
+                                parser );
+        assertEquals( 4,
+                      parser.count );
+    }
+
+    @Test
+    public void testRemove() {
+        cache.getReadOnlyModel( mockAsset( "uuid1",
+                                           1,
+                                           "rule1" ),
+                                RuleModel.class,
+                                parser );
+        cache.getReadOnlyModel( mockAsset( "uuid2",
+                                           1,
+                                           "rule2" ),
+                                RuleModel.class,
+                                parser );
+        cache.remove( "uuid1" );
+        assertEquals( 1,
+                      cache.size() );
+    }
+
+    private AssetItem mockAsset(String uuid,
+                                long version,
+                                String content) {
+        AssetItem asset = mock( AssetItem.class );
+        when( asset.getUUID() ).thenReturn( uuid );
+        when( asset.getVersionNumber() ).thenReturn( version );
+        when( asset.getContent() ).thenReturn( content );
+        return asset;
+    }
+
+    //Uses the content as the rule name
+    private static class CountingParser
+        implements
+        ParsedModelCache.ModelParser<RuleModel> {
+
+        private int count = 0;
+
+        public RuleModel parse(String content) {
+            count++;
+            RuleModel model = new RuleModel();
+            model.name = content;
+            return model;
+        }
+
+    }
+
+}
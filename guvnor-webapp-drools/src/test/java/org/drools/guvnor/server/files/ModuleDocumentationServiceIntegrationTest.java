@@ -0,0 +1,67 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.guvnor.server.files;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+
+import javax.inject.Inject;
+
+import org.drools.guvnor.client.common.AssetFormats;
+import org.drools.guvnor.server.test.GuvnorIntegrationTest;
+import org.drools.repository.AssetItem;
+import org.drools.repository.ModuleItem;
+import org.junit.Test;
+
+public class ModuleDocumentationServiceIntegrationTest extends GuvnorIntegrationTest {
+
+    @Inject
+    private ModuleDocumentationService moduleDocumentationService;
+
+    @Test
+    public void testDocumentationIsRenderedAgainOnlyWhenChanged() throws Exception {
+        ModuleItem pkg = rulesRepository.createModule("testModuleDocumentation",
+                "");
+        AssetItem rule = pkg.addAsset("rule1",
+                "");
+        rule.updateFormat(AssetFormats.DRL);
+        rule.updateContent("rule 'rule1'\nwhen\nthen\nend");
+        rule.checkin("");
+
+        File documentation = getDocumentation(pkg);
+        assertTrue(documentation.length() > 0);
+        assertEquals(documentation,
+                getDocumentation(pkg));
+
+        rule.updateContent("rule 'rule1'\nwhen\nthen\nend\nrule 'rule2'\nwhen\nthen\nend");
+        rule.checkin("");
+        assertFalse(documentation.equals(getDocumentation(pkg)));
+    }
+
+    private File getDocumentation(ModuleItem pkg) throws Exception {
+        ModuleDocumentationService.Documentation documentation = moduleDocumentationService.openDocumentation(pkg);
+        try {
+            return documentation.getFile();
+        } finally {
+            documentation.close();
+        }
+    }
+
+}
@@ -33,6 +33,7 @@ import javax.inject.Inject;
 import net.sf.webdav.ITransaction;
 
 import org.apache.commons.io.IOUtils;
+import org.drools.guvnor.client.rpc.Module;
 import org.drools.guvnor.server.test.GuvnorIntegrationTest;
 import org.drools.repository.AssetItem;
 import org.drools.repository.ModuleItem;
@@ -208,6 +209,37 @@ public class WebDAVImplIntegrationTest extends GuvnorIntegrationTest {
         }
     }
 
+    @Test
+    public void testCreatedAndDeletedFoldersAreListed() throws Exception {
+        //builds the module tree
+        repositoryPackageService.listModules();
+
+        webDAV.createFolder( new TransactionMock(),
+                             "/packages/testWebDavFolderListed" );
+        assertTrue( containsModule( repositoryPackageService.listModules(),
+                                    "testWebDavFolderListed" ) );
+
+        webDAV.removeObject( new TransactionMock(),
+                             "/packages/testWebDavFolderListed" );
+        assertFalse( containsModule( repositoryPackageService.listModules(),
+                                     "testWebDavFolderListed" ) );
+
+        webDAV.createFolder( new TransactionMock(),
+                             "/packages/testWebDavFolderListed" );
+        assertTrue( containsModule( repositoryPackageService.listModules(),
+                                    "testWebDavFolderListed" ) );
+    }
+
+    private boolean containsModule(Module[] modules,
+                                   String name) {
+        for ( Module module : modules ) {
+            if ( module.getName().equals( name ) ) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Test
     public void testDates() throws Exception {
         /*        String uri = "/foo/webdav";
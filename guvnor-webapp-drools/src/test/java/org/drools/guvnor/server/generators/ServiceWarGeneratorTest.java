@@ -250,6 +250,25 @@ public class ServiceWarGeneratorTest {
         assertTrue(fileNames.contains("jarWithSourceFiles.jar"));
     }
 
+    @Test
+    public void testLibraryLayerIsResolvedAgainWhenLibrariesChange() throws IOException {
+        setupLocalCache();
+
+        final Collection<MavenArtifact> excluded = new ArrayList<MavenArtifact>() {{
+            add(new MavenArtifact("jdom:jdom:jar:1.0:compile"));
+        }};
+        final LibraryLayer layer = getLibraryLayer(excluded);
+        final Collection<String> fileNames = new LinkedList<String>();
+        for (final File file : layer.getFiles()) {
+            fileNames.add(file.getName());
+        }
+        assertEquals(1, fileNames.size());
+        assertTrue(fileNames.contains("log4j-1.2.16.jar"));
+
+        cleanTempDir();
+        assertFalse(layer.isUpToDate());
+    }
+
     private void setupLocalCache() {
         final Collection<String> repositories = new ArrayList<String>() {{
             add(getURLtoLocalUserMavenRepo());
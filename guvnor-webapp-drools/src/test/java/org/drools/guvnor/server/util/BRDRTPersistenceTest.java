@@ -18,7 +18,9 @@ package org.drools.guvnor.server.util;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 
+import java.io.StringWriter;
 import java.util.HashSet;
 
 import org.drools.ide.common.client.modeldriven.FieldNature;
@@ -377,4 +379,88 @@ public class BRDRTPersistenceTest {
         assertEquals(expected, m.getTable().keySet());
         
     }
+
+    @Test
+    public void testCompiledTemplateWritesRuleRanges() throws Exception {
+        TemplateModel m = newPersonNameTemplate();
+        m.addRow(new String[] {"baunax"});
+        m.addRow(new String[] {"diegoll"});
+        m.addRow(new String[] {"jervis"});
+
+        CompiledRuleTemplate template = BRDRTPersistence.getInstance().compile(m);
+        assertNotNull(template);
+        assertEquals(3, template.getRuleCount());
+
+        StringWriter all = new StringWriter();
+        template.write(0, 3, all);
+        assertEquals(
+                "rule \"with composite_2\"\n" +
+                "\tdialect \"mvel\"\n" +
+                "\twhen\n" +
+                "\t\t$p : Person( name == \"jervis\" )\n" +
+                "\tthen\n" +
+                "end\n" +
+                "\n" +
+                "rule \"with composite_1\"\n" +
+                "\tdialect \"mvel\"\n" +
+                "\twhen\n" +
+                "\t\t$p : Person( name == \"diegoll\" )\n" +
+                "\tthen\n" +
+                "end\n" +
+                "\n" +
+                "rule \"with composite_0\"\n" +
+                "\tdialect \"mvel\"\n" +
+                "\twhen\n" +
+                "\t\t$p : Person( name == \"baunax\" )\n" +
+                "\tthen\n" +
+                "end", all.toString());
+
+        StringWriter last = new StringWriter();
+        template.write(1, 3, last);
+        assertEquals(
+                "rule \"with composite_1\"\n" +
+                "\tdialect \"mvel\"\n" +
+                "\twhen\n" +
+                "\t\t$p : Person( name == \"diegoll\" )\n" +
+                "\tthen\n" +
+                "end\n" +
+                "\n" +
+                "rule \"with composite_0\"\n" +
+                "\tdialect \"mvel\"\n" +
+                "\twhen\n" +
+                "\t\t$p : Person( name == \"baunax\" )\n" +
+                "\tthen\n" +
+                "end", last.toString());
+    }
+
+    @Test
+    public void testTemplateWithEmptyValueIsNotCompiled() {
+        TemplateModel m = newPersonNameTemplate();
+        m.addRow(new String[] {"baunax"});
+        m.addRow(new String[] {""});
+
+        assertNull(BRDRTPersistence.getInstance().compile(m));
+        assertNull(BRDRTPersistence.getInstance().compile(new TemplateModel()));
+    }
+
+    private TemplateModel newPersonNameTemplate() {
+        TemplateModel m = new TemplateModel();
+        m.name = "with composite";
+        m.lhs = new IPattern[1];
+        m.rhs = new IAction[0];
+
+        FactPattern fp = new FactPattern("Person");
+        fp.setBoundName("$p");
+
+        SingleFieldConstraint sfc = new SingleFieldConstraint("name");
+        sfc.setFieldType( SuggestionCompletionEngine.TYPE_STRING );
+        sfc.setFieldName("name");
+        sfc.setValue("name");
+        sfc.setOperator("==");
+        sfc.setConstraintValueType(BaseSingleFieldConstraint.TYPE_TEMPLATE);
+        fp.addConstraint(sfc);
+
+        m.lhs[0] = fp;
+        return m;
+    }
 }
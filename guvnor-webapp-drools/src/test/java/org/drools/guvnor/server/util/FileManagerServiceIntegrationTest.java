@@ -42,6 +42,7 @@ import org.drools.guvnor.server.files.FileManagerService;
 import org.drools.repository.AssetItem;
 import org.drools.repository.ModuleItem;
 import org.junit.Test;
+import org.drools.guvnor.client.rpc.Module;
 import org.drools.guvnor.client.rpc.Path;
 import org.drools.guvnor.client.rpc.PathImpl;
 
@@ -267,6 +268,29 @@ public class FileManagerServiceIntegrationTest extends GuvnorIntegrationTest {
 
     }
 
+    @Test
+    public void testImportedPackageIsListed() throws Exception {
+        //builds the module tree
+        repositoryPackageService.listModules();
+
+        String drl = "package testImportedPackageIsListed\n rule 'ola' \n when \n then \n end";
+        fileManagerService.importClassicDRL( new ByteArrayInputStream( drl.getBytes() ),
+                                             null );
+
+        assertTrue( containsModule( repositoryPackageService.listModules(),
+                                    "testImportedPackageIsListed" ) );
+    }
+
+    private boolean containsModule(Module[] modules,
+                                   String name) {
+        for ( Module module : modules ) {
+            if ( module.getName().equals( name ) ) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Test
     public void testClassicDRLImport() throws Exception {
         String drl = "package testClassicDRLImport\n import blah \n rule 'ola' \n when \n then \n end \n rule 'hola' \n when \n then \n end";
@@ -0,0 +1,259 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.guvnor.server.verification;
+
+import org.drools.guvnor.client.common.AssetFormats;
+import org.drools.guvnor.client.rpc.AnalysisFactUsage;
+import org.drools.guvnor.client.rpc.AnalysisFieldUsage;
+import org.drools.guvnor.client.rpc.AnalysisReport;
+import org.drools.guvnor.client.rpc.AnalysisReportLine;
+import org.drools.guvnor.server.MockAssetItemIterator;
+import org.drools.repository.AssetItem;
+import org.drools.repository.AssetItemIterator;
+import org.drools.repository.ModuleItem;
+import org.drools.verifier.builder.VerifierBuilderFactory;
+import org.kie.builder.ResourceType;
+import org.junit.Test;
+import org.mockito.Matchers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ShardedPackageVerifierTest {
+
+    @Test
+    public void testPartitionKeysAreFactTypesAndRules() {
+        Set<String> keys = ShardedPackageVerifier.getPartitionKeys("rule \"a\" extends \"b\"\n"
+                + "when\n"
+                + "    org.test.Person( age > 20 )\n"
+                + "    not Cheese( type == \"stilton\" )\n"
+                + "then\n"
+                + "end\n",
+                ResourceType.DRL);
+
+        assertEquals(new HashSet<String>(Arrays.asList("rule:a",
+                "rule:b",
+                "type:Person",
+                "type:Cheese")),
+                keys);
+    }
+
+    @Test
+    public void testResourcesWithoutRulesHaveNoPartitionKeys() {
+        assertTrue(ShardedPackageVerifier.getPartitionKeys("package org.test\n"
+                + "import org.test.Person\n"
+                + "global java.util.List list\n",
+                ResourceType.DRL).isEmpty());
+    }
+
+    @Test
+    public void testRulesMixedWithFunctionsCanNotBePartitioned() {
+        assertNull(ShardedPackageVerifier.getPartitionKeys("function int one() { return 1; }\n"
+                + "rule \"a\"\n"
+                + "when\n"
+                + "    Person( age > one() )\n"
+                + "then\n"
+                + "end\n",
+                ResourceType.DRL));
+    }
+
+    @Test
+    public void testRulesSharingFactTypesAreInTheSameShard() {
+        List<ShardedPackageVerifier.VerifierResource> resources = new ArrayList<ShardedPackageVerifier.VerifierResource>();
+        resources.add(resource("person",
+                "type:Person"));
+        resources.add(resource("cheese",
+                "type:Cheese"));
+        resources.add(resource("person and account",
+                "type:Person",
+                "type:Account"));
+        resources.add(resource("account",
+                "type:Account"));
+        resources.add(resource("order",
+                "type:Order"));
+
+        List<List<ShardedPackageVerifier.VerifierResource>> parts = ShardedPackageVerifier.partition(resources,
+                2);
+
+        assertEquals(2,
+                parts.size());
+        assertEquals(Arrays.asList(resources.get(0),
+                resources.get(2),
+                resources.get(3)),
+                parts.get(0));
+        assertEquals(Arrays.asList(resources.get(1),
+                resources.get(4)),
+                parts.get(1));
+
+        assertEquals(1,
+                ShardedPackageVerifier.partition(resources,
+                        1).size());
+    }
+
+    @Test
+    public void testShardedReportIsTheSameAsTheReportOfTheWholePackage() {
+        String[] drls = {
+                "rule \"adult\"\n"
+                        + "when\n"
+                        + "    Person( age >= 18 )\n"
+                        + "then\n"
+                        + "end\n",
+                "rule \"adult again\"\n"
+                        + "when\n"
+                        + "    Person( age >= 18 )\n"
+                        + "then\n"
+                        + "end\n",
+                "rule \"no one\"\n"
+                        + "when\n"
+                        + "    Person( age > 30, age < 20 )\n"
+                        + "then\n"
+                        + "end\n",
+                "rule \"stilton\"\n"
+                        + "when\n"
+                        + "    Cheese( type == \"stilton\", price < 10 )\n"
+                        + "then\n"
+                        + "end\n",
+                "rule \"no cheese\"\n"
+                        + "when\n"
+                        + "    Cheese( price > 10, price < 5 )\n"
+                        + "then\n"
+                        + "end\n",
+                "rule \"large order\"\n"
+                        + "when\n"
+                        + "    Order( total > 100 )\n"
+                        + "then\n"
+                        + "end\n",
+                "rule \"small order\"\n"
+                        + "when\n"
+                        + "    Order( total <= 100 )\n"
+                        + "then\n"
+                        + "end\n"};
+
+        //The rules fall into three partitions, one for each fact type
+        List<ShardedPackageVerifier.VerifierResource> resources = new ArrayList<ShardedPackageVerifier.VerifierResource>();
+        for (String drl : drls) {
+            resources.add(new ShardedPackageVerifier.VerifierResource(drl,
+                    ResourceType.DRL,
+                    ShardedPackageVerifier.getPartitionKeys(drl,
+                            ResourceType.DRL)));
+        }
+        assertEquals(3,
+                ShardedPackageVerifier.partition(resources,
+                        3).size());
+
+        AnalysisReport expected = new PackageVerifier(VerifierBuilderFactory.newVerifierBuilder().newVerifier(),
+                createPackage(drls)).verify();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        AnalysisReport sharded;
+        try {
+            sharded = new ShardedPackageVerifier(VerifierBuilderFactory.newVerifierBuilder().newVerifier(),
+                    createPackage(drls),
+                    3,
+                    executor).verify();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue(expected.errors.length + expected.warnings.length > 0);
+        assertEquals(describe(expected.errors),
+                describe(sharded.errors));
+        assertEquals(describe(expected.warnings),
+                describe(sharded.warnings));
+        assertEquals(describe(expected.factUsages),
+                describe(sharded.factUsages));
+    }
+
+    /**
+     * @return the description and impacted rules of each line, in an order
+     *         that does not depend on the shards the lines came from.
+     */
+    private static List<String> describe(AnalysisReportLine[] lines) {
+        List<String> descriptions = new ArrayList<String>();
+        for (AnalysisReportLine line : lines) {
+            List<String> rules = new ArrayList<String>();
+            if (line.impactedRules != null) {
+                rules.addAll(line.impactedRules.values());
+            }
+            Collections.sort(rules);
+            descriptions.add(line.description + " " + rules);
+        }
+        Collections.sort(descriptions);
+        return descriptions;
+    }
+
+    private static Map<String, Map<String, Set<String>>> describe(AnalysisFactUsage[] factUsages) {
+        Map<String, Map<String, Set<String>>> descriptions = new TreeMap<String, Map<String, Set<String>>>();
+        for (AnalysisFactUsage fact : factUsages) {
+            Map<String, Set<String>> fields = new TreeMap<String, Set<String>>();
+            for (AnalysisFieldUsage field : fact.fields) {
+                fields.put(field.name,
+                        new TreeSet<String>(Arrays.asList(field.rules)));
+            }
+            descriptions.put(fact.name,
+                    fields);
+        }
+        return descriptions;
+    }
+
+    private ModuleItem createPackage(String... drls) {
+        ModuleItem packageItem = mock(ModuleItem.class);
+        when(packageItem.getName()).thenReturn("mockPackage");
+        when(packageItem.getCategoryRules()).thenReturn(new HashMap<String, String>());
+
+        AssetItemIterator noAssets = mock(AssetItemIterator.class);
+        when(noAssets.hasNext()).thenReturn(false);
+        when(packageItem.listAssetsByFormat(Matchers.<String>anyVararg())).thenReturn(noAssets);
+
+        AssetItem[] assets = new AssetItem[drls.length];
+        for (int i = 0; i < drls.length; i++) {
+            assets[i] = mock(AssetItem.class);
+            when(assets[i].getUUID()).thenReturn("uuid" + i);
+            when(assets[i].getName()).thenReturn("asset" + i);
+            when(assets[i].getModule()).thenReturn(packageItem);
+            when(assets[i].getFormat()).thenReturn(AssetFormats.DRL);
+            when(assets[i].getContent()).thenReturn(drls[i]);
+        }
+        MockAssetItemIterator drlAssets = new MockAssetItemIterator();
+        drlAssets.setAssets(assets);
+        when(packageItem.listAssetsByFormat(AssetFormats.DRL)).thenReturn(drlAssets);
+        return packageItem;
+    }
+
+    private ShardedPackageVerifier.VerifierResource resource(String drl,
+                                                             String... keys) {
+        return new ShardedPackageVerifier.VerifierResource(drl,
+                ResourceType.DRL,
+                new HashSet<String>(Arrays.asList(keys)));
+    }
+
+}